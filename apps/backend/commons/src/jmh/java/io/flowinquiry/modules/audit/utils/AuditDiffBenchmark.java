@@ -0,0 +1,149 @@
+package io.flowinquiry.modules.audit.utils;
+
+import io.flowinquiry.modules.audit.service.AbstractEntityFieldHandlerRegistry;
+import io.flowinquiry.modules.audit.service.EntityFieldHandler;
+import io.flowinquiry.modules.audit.service.EntityFieldHandlerRegistry;
+import io.flowinquiry.modules.collab.domain.EntityType;
+import io.flowinquiry.modules.teams.domain.TicketChannel;
+import io.flowinquiry.modules.teams.service.dto.TicketDTO;
+import java.lang.reflect.Field;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the reflective audit diff that {@link AuditUtils#findChanges} used to run with the
+ * compiled one, on a ticket update that changes two of the audited fields.
+ *
+ * <p>Run with {@code ./gradlew :commons:jmh -PjmhIncludes=AuditDiffBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuditDiffBenchmark {
+
+    private EntityFieldHandlerRegistry registry;
+
+    private TicketDTO previousTicket;
+
+    private TicketDTO updatedTicket;
+
+    @Setup
+    public void setup() {
+        registry = new BenchmarkTicketRegistry();
+        previousTicket = ticket("Printer is broken", "Medium", 11L);
+        updatedTicket = ticket("Printer is broken", "High", 12L);
+    }
+
+    @Benchmark
+    public List<AuditUtils.FieldChange> reflective() throws IllegalAccessException {
+        return reflectiveFindChanges(previousTicket, updatedTicket, registry);
+    }
+
+    @Benchmark
+    public List<AuditUtils.FieldChange> compiled() {
+        return AuditUtils.findChanges(previousTicket, updatedTicket, registry);
+    }
+
+    /** The diff as it was implemented before it was compiled, kept here as the baseline. */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static List<AuditUtils.FieldChange> reflectiveFindChanges(
+            Object oldEntity, Object newEntity, EntityFieldHandlerRegistry registry)
+            throws IllegalAccessException {
+        List<AuditUtils.FieldChange> changes = new ArrayList<>();
+        for (Field field : oldEntity.getClass().getDeclaredFields()) {
+            field.setAccessible(true);
+            Object oldValue = field.get(oldEntity);
+            Object newValue = field.get(newEntity);
+            if ((oldValue == null && newValue != null)
+                    || (oldValue != null && !oldValue.equals(newValue))) {
+                EntityFieldHandler handler = registry.getHandler(field.getName());
+                if (handler != null) {
+                    changes.add(
+                            new AuditUtils.FieldChange(
+                                    handler.getFieldName(),
+                                    handler.getFieldGetter().apply(oldEntity, oldValue),
+                                    handler.getFieldGetter().apply(newEntity, newValue)));
+                }
+            }
+        }
+        return changes;
+    }
+
+    private static TicketDTO ticket(String title, String priority, Long assignUserId) {
+        return TicketDTO.builder()
+                .id(42L)
+                .teamId(1L)
+                .teamName("Support")
+                .workflowId(3L)
+                .workflowName("Support workflow")
+                .projectTicketNumber(7L)
+                .requestUserId(5L)
+                .requestUserName("Jane Doe")
+                .assignUserId(assignUserId)
+                .requestTitle(title)
+                .requestDescription("It prints blank pages since this morning")
+                .priority(priority)
+                .estimatedCompletionDate(LocalDate.of(2025, 1, 31))
+                .currentStateId(100L)
+                .currentStateName("New")
+                .channel(TicketChannel.EMAIL)
+                .isNew(true)
+                .isCompleted(false)
+                .childTicketIds(List.of())
+                .build();
+    }
+
+    /** The ticket handlers without their repository lookups, which are not measured here. */
+    private static class BenchmarkTicketRegistry extends AbstractEntityFieldHandlerRegistry {
+
+        @Override
+        protected void initializeFieldHandlers() {
+            addFieldHandler("requestTitle", new EntityFieldHandler<TicketDTO>("Title"));
+            addFieldHandler(
+                    "requestDescription", new EntityFieldHandler<TicketDTO>("Description"));
+            addFieldHandler("priority", new EntityFieldHandler<TicketDTO>("Priority"));
+            addFieldHandler(
+                    "channel",
+                    new EntityFieldHandler<TicketDTO>(
+                            "Channel",
+                            (ticket, channel) ->
+                                    Optional.ofNullable((TicketChannel) channel)
+                                            .map(TicketChannel::getDisplayName)
+                                            .orElse("")));
+            addFieldHandler(
+                    "estimatedCompletionDate",
+                    new EntityFieldHandler<TicketDTO>("Target Completion Date"));
+            addFieldHandler(
+                    "actualCompletionDate",
+                    new EntityFieldHandler<TicketDTO>("Actual Completion Date"));
+            addFieldHandler("currentStateId", new EntityFieldHandler<TicketDTO>("State"));
+            addFieldHandler("assignUserId", new EntityFieldHandler<TicketDTO>("Assigned User"));
+        }
+
+        @Override
+        public Class<?> getEntityClass() {
+            return TicketDTO.class;
+        }
+
+        @Override
+        public EntityType getEntityType() {
+            return EntityType.Ticket;
+        }
+    }
+}
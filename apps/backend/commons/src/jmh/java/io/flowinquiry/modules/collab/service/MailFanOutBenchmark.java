@@ -0,0 +1,109 @@
+package io.flowinquiry.modules.collab.service;
+
+import io.flowinquiry.modules.collab.EmailContext;
+import io.flowinquiry.modules.collab.service.MailTemplateRenderer.RenderedEmail;
+import io.flowinquiry.modules.teams.service.dto.TicketDTO;
+import io.flowinquiry.modules.usermanagement.service.dto.UserDTO;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.support.ResourceBundleMessageSource;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+/**
+ * Compares rendering the new ticket email for each watcher of a ticket, the way the mail listeners
+ * used to, with rendering the fan-out once and filling in each recipient. Results are per email.
+ *
+ * <p>Run with {@code ./gradlew :commons:jmh -PjmhIncludes=MailFanOutBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MailFanOutBenchmark {
+
+    private static final int RECIPIENTS = 50;
+
+    private ResourceBundleMessageSource messageSource;
+
+    private MailTemplateRenderer renderer;
+
+    private List<EmailContext> emails;
+
+    @Setup
+    public void setup() {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        resolver.setTemplateMode(TemplateMode.HTML);
+        resolver.setCharacterEncoding("UTF-8");
+
+        messageSource = new ResourceBundleMessageSource();
+        messageSource.setBasename("i18n/messages");
+        messageSource.setDefaultEncoding("UTF-8");
+
+        SpringTemplateEngine templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(resolver);
+        templateEngine.setTemplateEngineMessageSource(messageSource);
+        renderer = new MailTemplateRenderer(templateEngine);
+
+        TicketDTO ticket =
+                TicketDTO.builder()
+                        .id(1L)
+                        .requestTitle("Printer on the third floor is broken")
+                        .requestDescription("<p>It prints <b>blank</b> pages since Monday.</p>")
+                        .requestUserName("Jane Doe")
+                        .build();
+        emails = new ArrayList<>(RECIPIENTS);
+        for (int i = 0; i < RECIPIENTS; i++) {
+            UserDTO user = new UserDTO();
+            user.setFirstName("User" + i);
+            user.setLastName("Watcher");
+            user.setEmail("user" + i + "@example.com");
+            emails.add(
+                    new EmailContext(Locale.ENGLISH, "http://localhost:3000", messageSource)
+                            .setToUser(user)
+                            .setSubject("email.new.ticket.subject", ticket.getRequestTitle())
+                            .addVariable("ticket", ticket)
+                            .addVariable("ticketPath", "/portal/teams/1/tickets/1")
+                            .setTemplate("mail/newTicketEmail"));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECIPIENTS)
+    public void renderPerRecipient(Blackhole blackhole) {
+        for (EmailContext email : emails) {
+            // Resolved for every email, as before subjects were resolved lazily
+            blackhole.consume(
+                    messageSource.getMessage(
+                            email.getSubjectKey(), email.getSubjectArgs(), email.getLocale()));
+            blackhole.consume(renderer.render(email));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECIPIENTS)
+    public void renderFanOut(Blackhole blackhole) {
+        for (RenderedEmail email : renderer.renderAll(emails)) {
+            blackhole.consume(email.content());
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package io.flowinquiry.modules.teams.service.search;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the searches of the {@link TicketSearchIndex} on synthetic tickets, each with a title,
+ * a description and two comments drawn from a vocabulary of a few thousand words. The setup
+ * prints the estimated and the measured heap used by the index.
+ *
+ * <p>Run with {@code ./gradlew :commons:jmh -PjmhIncludes=TicketSearchIndexBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class TicketSearchIndexBenchmark {
+
+    private static final int VOCABULARY = 5000;
+
+    private static final String[] STATES = {"New", "Assigned", "In progress", "Resolved", "Closed"};
+
+    private static final String[] PRIORITIES = {"Critical", "High", "Medium", "Low", "Trivial"};
+
+    @Param({"10000", "100000"})
+    private int tickets;
+
+    private TicketSearchIndex index;
+
+    private Random random;
+
+    private long nextTicketId;
+
+    @Setup
+    public void setup() {
+        random = new Random(42);
+        long heapBefore = usedHeap();
+        index = new TicketSearchIndex();
+        for (int i = 0; i < tickets; i++) {
+            long ticketId = i + 1;
+            index.addComment(ticketId, text(20));
+            index.addComment(ticketId, text(20));
+            index.put(document(ticketId));
+        }
+        long heapAfter = usedHeap();
+        nextTicketId = tickets + 1;
+        System.out.printf(
+                "%n%d tickets, %d terms: estimated %d KB, measured %d KB%n",
+                index.size(),
+                index.termCount(),
+                index.estimatedSizeInBytes() / 1024,
+                (heapAfter - heapBefore) / 1024);
+    }
+
+    /** A frequent word and the prefix of a second one, as typed in the search box. */
+    @Benchmark
+    public TicketSearchIndex.Result typeAhead() {
+        return index.search("w1 w12", null, 10);
+    }
+
+    /** Two words of middling frequency, with the hits of a team. */
+    @Benchmark
+    public TicketSearchIndex.Result twoWords() {
+        return index.search("w120 w450 ", 3L, 10);
+    }
+
+    /** No words, the facet counts of every ticket of a team. */
+    @Benchmark
+    public TicketSearchIndex.Result teamFacets() {
+        return index.search("", 3L, 10);
+    }
+
+    /** Updates a ticket, compacting the postings from time to time. */
+    @Benchmark
+    public void update() {
+        index.put(document(1 + random.nextInt(tickets)));
+    }
+
+    /** Adds a ticket. */
+    @Benchmark
+    public void add() {
+        index.put(document(nextTicketId++));
+    }
+
+    private TicketSearchDocument document(long ticketId) {
+        return new TicketSearchDocument(
+                ticketId,
+                (long) random.nextInt(10),
+                text(8),
+                "<p>" + text(60) + "</p>",
+                STATES[random.nextInt(STATES.length)],
+                PRIORITIES[random.nextInt(PRIORITIES.length)],
+                "User " + random.nextInt(200));
+    }
+
+    // Words with a skewed frequency, low numbers are the most frequent like in natural text
+    private String text(int words) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            double skewed = Math.pow(random.nextDouble(), 3);
+            text.append('w').append((int) (skewed * VOCABULARY)).append(' ');
+        }
+        return text.toString();
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,91 @@
+package io.flowinquiry.security;
+
+import static io.flowinquiry.security.SecurityUtils.AUTHORITIES_KEY;
+import static io.flowinquiry.security.SecurityUtils.JWT_ALGORITHM;
+import static io.flowinquiry.security.SecurityUtils.USER_ID;
+
+import com.nimbusds.jose.jwk.source.ImmutableSecret;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.TimeUnit;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+
+/**
+ * Compares authenticating a request token the way {@code JwtService} used to, a full HS512
+ * verification and a new converter per call, with the cached decoder and the shared converter.
+ *
+ * <p>Run with {@code ./gradlew :commons:jmh -PjmhIncludes=JwtDecodeBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtDecodeBenchmark {
+
+    private JwtDecoder verifyingDecoder;
+
+    private JwtDecoder cachingDecoder;
+
+    private JwtAuthenticationConverter sharedConverter;
+
+    private String token;
+
+    @Setup
+    public void setup() {
+        byte[] keyBytes = new byte[64];
+        new SecureRandom().nextBytes(keyBytes);
+        SecretKey key = new SecretKeySpec(keyBytes, JWT_ALGORITHM.getName());
+        verifyingDecoder = NimbusJwtDecoder.withSecretKey(key).macAlgorithm(JWT_ALGORITHM).build();
+        cachingDecoder = new CachingJwtDecoder(verifyingDecoder, 10_000, Duration.ofMinutes(15));
+        sharedConverter = new JwtAuthenticationConverter();
+
+        Instant now = Instant.now();
+        JwtClaimsSet claims =
+                JwtClaimsSet.builder()
+                        .issuedAt(now)
+                        .expiresAt(now.plus(1, ChronoUnit.DAYS))
+                        .subject("admin@flowinquiry.io")
+                        .claim(AUTHORITIES_KEY, "ROLE_ADMIN ROLE_USER")
+                        .claim(USER_ID, 1L)
+                        .build();
+        token =
+                new NimbusJwtEncoder(new ImmutableSecret<>(key))
+                        .encode(
+                                JwtEncoderParameters.from(
+                                        JwsHeader.with(JWT_ALGORITHM).build(), claims))
+                        .getTokenValue();
+    }
+
+    @Benchmark
+    public AbstractAuthenticationToken verifyAndConvertPerCall() {
+        return new JwtAuthenticationConverter().convert(verifyingDecoder.decode(token));
+    }
+
+    @Benchmark
+    public AbstractAuthenticationToken cachedAndSharedConverter() {
+        return sharedConverter.convert(cachingDecoder.decode(token));
+    }
+}
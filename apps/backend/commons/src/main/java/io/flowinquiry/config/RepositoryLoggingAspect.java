@@ -1,11 +1,15 @@
 package io.flowinquiry.config;
 
-import org.aspectj.lang.JoinPoint;
-import org.aspectj.lang.annotation.After;
+import io.flowinquiry.db.performance.PerformanceFindings;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Pointcut;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 @Aspect
@@ -14,15 +18,40 @@ public class RepositoryLoggingAspect {
 
     private static final Logger LOG = LoggerFactory.getLogger(RepositoryLoggingAspect.class);
 
+    private final PerformanceFindings findings;
+    private final long slowCallThresholdNanos;
+
+    public RepositoryLoggingAspect(
+            PerformanceFindings findings,
+            @Value("${flowinquiry.performance.slow-query-threshold:PT0.5S}")
+                    Duration slowCallThreshold) {
+        this.findings = findings;
+        this.slowCallThresholdNanos = slowCallThreshold.toNanos();
+    }
+
     // Pointcut to match all repository methods
     @Pointcut("within(@org.springframework.stereotype.Repository *)")
     public void repositoryMethods() {}
 
-    // Advice to run after any method execution in the repository
-    @After("repositoryMethods()")
-    public void logAfterMethodCall(JoinPoint joinPoint) {
-        String methodName = joinPoint.getSignature().toShortString();
-        Object[] methodArgs = joinPoint.getArgs();
-        LOG.debug("Repository method called: {} with arguments: {}", methodName, methodArgs);
+    // Advice timing any method execution in the repository, timers per method are recorded by
+    // Spring Boot as spring.data.repository.invocations
+    @Around("repositoryMethods()")
+    public Object logMethodCall(ProceedingJoinPoint joinPoint) throws Throwable {
+        long start = System.nanoTime();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            String methodName = joinPoint.getSignature().toShortString();
+            if (elapsed >= slowCallThresholdNanos) {
+                long millis = TimeUnit.NANOSECONDS.toMillis(elapsed);
+                LOG.warn("Slow repository method: {} took {} ms", methodName, millis);
+                findings.addSlowCall(methodName, millis);
+            }
+            LOG.debug(
+                    "Repository method called: {} with arguments: {}",
+                    methodName,
+                    joinPoint.getArgs());
+        }
     }
 }
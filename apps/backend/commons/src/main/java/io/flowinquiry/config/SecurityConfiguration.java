@@ -56,6 +56,8 @@ public class SecurityConfiguration {
                                         .permitAll()
                                         .requestMatchers("/actuator/health")
                                         .permitAll()
+                                        .requestMatchers("/actuator/**")
+                                        .hasAuthority(AuthoritiesConstants.ADMIN)
                                         .requestMatchers("/api/admin/**")
                                         .hasAuthority(AuthoritiesConstants.ADMIN)
                                         .requestMatchers("/api/**")
@@ -4,6 +4,8 @@ import static io.flowinquiry.security.SecurityUtils.JWT_ALGORITHM;
 
 import com.nimbusds.jose.jwk.source.ImmutableSecret;
 import com.nimbusds.jose.util.Base64;
+import io.flowinquiry.security.CachingJwtDecoder;
+import java.time.Duration;
 import javax.crypto.SecretKey;
 import javax.crypto.spec.SecretKeySpec;
 import org.springframework.beans.factory.annotation.Value;
@@ -20,9 +22,22 @@ public class SecurityJwtConfiguration {
     @Value("${flowinquiry.security.authentication.jwt.base64-secret}")
     private String jwtKey;
 
+    @Value("${flowinquiry.security.authentication.jwt.cache.maximum-size:10000}")
+    private long verifiedTokenCacheSize;
+
+    @Value("${flowinquiry.security.authentication.jwt.cache.max-ttl:PT15M}")
+    private Duration verifiedTokenMaxTtl;
+
+    /**
+     * Verifies tokens once and serves the following requests carrying the same token from memory,
+     * see {@link CachingJwtDecoder}.
+     */
     @Bean
     public JwtDecoder jwtDecoder() {
-        return NimbusJwtDecoder.withSecretKey(getSecretKey()).macAlgorithm(JWT_ALGORITHM).build();
+        return new CachingJwtDecoder(
+                NimbusJwtDecoder.withSecretKey(getSecretKey()).macAlgorithm(JWT_ALGORITHM).build(),
+                verifiedTokenCacheSize,
+                verifiedTokenMaxTtl);
     }
 
     @Bean
@@ -0,0 +1,87 @@
+package io.flowinquiry.config.cache;
+
+import io.flowinquiry.modules.shared.reppository.DeduplicationCacheRepository;
+import io.flowinquiry.modules.shared.service.cache.CaffeineDeduplicationCache;
+import io.flowinquiry.modules.shared.service.cache.DatabaseDeduplicationStore;
+import io.flowinquiry.modules.shared.service.cache.DeduplicationCacheService;
+import io.flowinquiry.modules.shared.service.cache.DeduplicationStore;
+import io.flowinquiry.modules.shared.service.cache.RedisDeduplicationStore;
+import io.flowinquiry.modules.shared.service.cache.TieredDeduplicationCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Selects the deduplication cache with {@code flowinquiry.deduplication-cache.provider}. The
+ * {@code redis} provider shares the Redisson client of the Redis second level cache, so it needs
+ * {@code flowinquiry.hibernate.second_level_cache.provider=redis} as well.
+ */
+@Configuration
+@EnableConfigurationProperties(DeduplicationCacheProps.class)
+public class DeduplicationCacheConfig {
+
+    private static final String PREFIX = "flowinquiry.deduplication-cache";
+
+    @Bean
+    @ConditionalOnProperty(
+            prefix = PREFIX,
+            name = "provider",
+            havingValue = "database",
+            matchIfMissing = true)
+    public DatabaseDeduplicationStore databaseDeduplicationStore(
+            DeduplicationCacheRepository deduplicationCacheRepository,
+            JdbcTemplate jdbcTemplate,
+            DeduplicationCacheProps props) {
+        return new DatabaseDeduplicationStore(
+                deduplicationCacheRepository, jdbcTemplate, props.flushInterval());
+    }
+
+    @Bean
+    @ConditionalOnProperty(
+            prefix = PREFIX,
+            name = "provider",
+            havingValue = "database",
+            matchIfMissing = true)
+    public TieredDeduplicationCache databaseDeduplicationCache(
+            DatabaseDeduplicationStore databaseDeduplicationStore,
+            MeterRegistry meterRegistry,
+            DeduplicationCacheProps props) {
+        return tieredCache(databaseDeduplicationStore, meterRegistry, props);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = PREFIX, name = "provider", havingValue = "redis")
+    public TieredDeduplicationCache redisDeduplicationCache(
+            ObjectProvider<RedissonClient> redissonClient,
+            MeterRegistry meterRegistry,
+            DeduplicationCacheProps props) {
+        RedissonClient client = redissonClient.getIfAvailable();
+        if (client == null) {
+            throw new IllegalStateException(
+                    "The redis deduplication cache needs the Redis second level cache provider");
+        }
+        return tieredCache(new RedisDeduplicationStore(client), meterRegistry, props);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = PREFIX, name = "provider", havingValue = "caffeine")
+    public DeduplicationCacheService caffeineDeduplicationCache(
+            DeduplicationCacheRepository deduplicationCacheRepository) {
+        return new CaffeineDeduplicationCache(deduplicationCacheRepository);
+    }
+
+    private static TieredDeduplicationCache tieredCache(
+            DeduplicationStore store, MeterRegistry meterRegistry, DeduplicationCacheProps props) {
+        return new TieredDeduplicationCache(
+                store,
+                meterRegistry,
+                props.localMaximumSize(),
+                props.expectedKeys(),
+                props.falsePositiveRate());
+    }
+}
@@ -0,0 +1,31 @@
+package io.flowinquiry.config.cache;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the deduplication cache.
+ *
+ * @param provider {@code database} (default) for a single instance, {@code redis} for a cluster,
+ *     or {@code caffeine} for the former in-process cache spilling evicted keys to the database
+ * @param localMaximumSize the number of keys kept in process
+ * @param expectedKeys the number of unexpired keys the bloom filter is sized for
+ * @param falsePositiveRate the bloom filter false positive rate at the expected number of keys
+ * @param flushInterval how often the database provider writes buffered keys behind
+ */
+@ConfigurationProperties(prefix = "flowinquiry.deduplication-cache")
+public record DeduplicationCacheProps(
+        String provider,
+        Long localMaximumSize,
+        Long expectedKeys,
+        Double falsePositiveRate,
+        Duration flushInterval) {
+
+    public DeduplicationCacheProps {
+        provider = provider != null ? provider : "database";
+        localMaximumSize = localMaximumSize != null ? localMaximumSize : 10_000L;
+        expectedKeys = expectedKeys != null ? expectedKeys : 100_000L;
+        falsePositiveRate = falsePositiveRate != null ? falsePositiveRate : 0.01;
+        flushInterval = flushInterval != null ? flushInterval : Duration.ofSeconds(5);
+    }
+}
@@ -0,0 +1,30 @@
+package io.flowinquiry.db.performance;
+
+import java.time.Duration;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class DatabasePerformanceConfig {
+
+    @Bean
+    public StatementCounter statementCounter() {
+        return new StatementCounter();
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer performanceHibernatePropertiesCustomizer(
+            StatementCounter statementCounter,
+            @Value("${flowinquiry.performance.slow-query-threshold:PT0.5S}")
+                    Duration slowQueryThreshold) {
+        return hibernateProperties -> {
+            hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, statementCounter);
+            // Hibernate logs slower statements with their SQL under org.hibernate.SQL_SLOW
+            hibernateProperties.put(
+                    AvailableSettings.LOG_SLOW_QUERY, slowQueryThreshold.toMillis());
+        };
+    }
+}
@@ -0,0 +1,186 @@
+package io.flowinquiry.db.performance;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.flowinquiry.query.QueryPlanCache;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.QueryStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Actuator endpoint {@code /actuator/dbperformance} reporting the hit ratios of the second level
+ * and query cache regions, the queries slower than {@code
+ * flowinquiry.performance.slow-query-threshold}, and the latest slow repository calls and N+1
+ * select patterns.
+ *
+ * <p>Cache and query figures come from the Hibernate statistics, and are empty when {@code
+ * hibernate.generate_statistics} is off, as it is unless {@code FLOWINQUIRY_HIBERNATE_STATISTICS}
+ * is set to {@code true}. The hit ratio of each cache region is also published as the {@code
+ * flowinquiry.hibernate.cache.hit.ratio} gauge. The hit ratios of the query plan caches, the filter
+ * plans of the {@link QueryPlanCache} and the Hibernate query plans, are reported too.
+ */
+@Component
+@Endpoint(id = "dbperformance")
+public class DatabasePerformanceEndpoint {
+
+    private static final int MAX_SLOW_QUERIES = 20;
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final PerformanceFindings findings;
+    private final MeterRegistry meterRegistry;
+    private final long slowQueryThresholdMillis;
+
+    public DatabasePerformanceEndpoint(
+            EntityManagerFactory entityManagerFactory,
+            PerformanceFindings findings,
+            MeterRegistry meterRegistry,
+            @Value("${flowinquiry.performance.slow-query-threshold:PT0.5S}")
+                    Duration slowQueryThreshold) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.findings = findings;
+        this.meterRegistry = meterRegistry;
+        this.slowQueryThresholdMillis = slowQueryThreshold.toMillis();
+    }
+
+    // Regions are known once the session factory is built, repositories bootstrap deferred
+    @EventListener(ApplicationReadyEvent.class)
+    public void registerCacheGauges() {
+        QueryPlanCache.monitor(meterRegistry);
+        Statistics statistics = statistics();
+        if (!statistics.isStatisticsEnabled()) {
+            return;
+        }
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            Gauge.builder(
+                            "flowinquiry.hibernate.cache.hit.ratio",
+                            statistics,
+                            stats -> {
+                                Double ratio = hitRatio(stats.getCacheRegionStatistics(region));
+                                return ratio != null ? ratio : Double.NaN;
+                            })
+                    .description("Hit ratio of a Hibernate cache region")
+                    .tag("region", region)
+                    .register(meterRegistry);
+        }
+    }
+
+    @ReadOperation
+    public DatabasePerformance performance() {
+        Statistics statistics = statistics();
+        if (!statistics.isStatisticsEnabled()) {
+            return new DatabasePerformance(
+                    false,
+                    List.of(),
+                    List.of(filterPlanCache()),
+                    List.of(),
+                    findings.getSlowCalls(),
+                    findings.getRepeatedStatements());
+        }
+
+        List<CacheRegion> regions = new ArrayList<>();
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(region);
+            if (regionStatistics != null) {
+                regions.add(
+                        new CacheRegion(
+                                region,
+                                regionStatistics.getHitCount(),
+                                regionStatistics.getMissCount(),
+                                regionStatistics.getPutCount(),
+                                hitRatio(regionStatistics)));
+            }
+        }
+        regions.sort(Comparator.comparing(CacheRegion::region));
+
+        List<SlowQuery> slowQueries = new ArrayList<>();
+        for (String query : statistics.getQueries()) {
+            QueryStatistics queryStatistics = statistics.getQueryStatistics(query);
+            if (queryStatistics.getExecutionMaxTime() >= slowQueryThresholdMillis) {
+                slowQueries.add(
+                        new SlowQuery(
+                                query,
+                                queryStatistics.getExecutionCount(),
+                                queryStatistics.getExecutionAvgTime(),
+                                queryStatistics.getExecutionMaxTime(),
+                                queryStatistics.getCacheHitCount(),
+                                queryStatistics.getCacheMissCount()));
+            }
+        }
+        slowQueries.sort(Comparator.comparingLong(SlowQuery::maxMillis).reversed());
+
+        PlanCache hibernatePlanCache =
+                new PlanCache(
+                        "hibernateQueryPlans",
+                        statistics.getQueryPlanCacheHitCount(),
+                        statistics.getQueryPlanCacheMissCount(),
+                        hitRatio(
+                                statistics.getQueryPlanCacheHitCount(),
+                                statistics.getQueryPlanCacheMissCount()));
+
+        return new DatabasePerformance(
+                true,
+                regions,
+                List.of(filterPlanCache(), hibernatePlanCache),
+                slowQueries.subList(0, Math.min(MAX_SLOW_QUERIES, slowQueries.size())),
+                findings.getSlowCalls(),
+                findings.getRepeatedStatements());
+    }
+
+    private Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    private static PlanCache filterPlanCache() {
+        CacheStats stats = QueryPlanCache.stats();
+        return new PlanCache(
+                "queryPlans",
+                stats.hitCount(),
+                stats.missCount(),
+                hitRatio(stats.hitCount(), stats.missCount()));
+    }
+
+    private static Double hitRatio(CacheRegionStatistics statistics) {
+        return statistics == null
+                ? null
+                : hitRatio(statistics.getHitCount(), statistics.getMissCount());
+    }
+
+    // Null before the first lookup
+    private static Double hitRatio(long hits, long misses) {
+        long lookups = hits + misses;
+        return lookups == 0 ? null : (double) hits / lookups;
+    }
+
+    public record DatabasePerformance(
+            boolean statisticsEnabled,
+            List<CacheRegion> cacheRegions,
+            List<PlanCache> planCaches,
+            List<SlowQuery> slowQueries,
+            List<PerformanceFindings.SlowCall> slowRepositoryCalls,
+            List<PerformanceFindings.RepeatedStatements> repeatedStatements) {}
+
+    public record CacheRegion(String region, long hits, long misses, long puts, Double hitRatio) {}
+
+    public record PlanCache(String name, long hits, long misses, Double hitRatio) {}
+
+    public record SlowQuery(
+            String query,
+            long executions,
+            long averageMillis,
+            long maxMillis,
+            long cacheHits,
+            long cacheMisses) {}
+}
@@ -0,0 +1,68 @@
+package io.flowinquiry.db.performance;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the latest slow repository calls and N+1 select patterns, for the {@link
+ * DatabasePerformanceEndpoint}. Only the most recent findings are kept, older ones are available in
+ * the logs.
+ */
+@Component
+public class PerformanceFindings {
+
+    private static final int MAX_FINDINGS = 50;
+
+    private final Deque<SlowCall> slowCalls = new ArrayDeque<>(MAX_FINDINGS);
+
+    private final Deque<RepeatedStatements> repeatedStatements = new ArrayDeque<>(MAX_FINDINGS);
+
+    public void addSlowCall(String method, long durationMillis) {
+        add(slowCalls, new SlowCall(method, durationMillis, Instant.now()));
+    }
+
+    public void addRepeatedStatements(
+            String request, int statements, List<StatementCounter.RepeatedStatement> repeated) {
+        add(
+                repeatedStatements,
+                new RepeatedStatements(request, statements, repeated, Instant.now()));
+    }
+
+    /** Returns the latest slow repository calls, most recent first. */
+    public List<SlowCall> getSlowCalls() {
+        return snapshot(slowCalls);
+    }
+
+    /** Returns the latest requests repeating statements, most recent first. */
+    public List<RepeatedStatements> getRepeatedStatements() {
+        return snapshot(repeatedStatements);
+    }
+
+    private static <T> void add(Deque<T> findings, T finding) {
+        synchronized (findings) {
+            if (findings.size() == MAX_FINDINGS) {
+                findings.removeLast();
+            }
+            findings.addFirst(finding);
+        }
+    }
+
+    private static <T> List<T> snapshot(Deque<T> findings) {
+        synchronized (findings) {
+            return List.copyOf(findings);
+        }
+    }
+
+    /** A repository call slower than the configured threshold. */
+    public record SlowCall(String method, long durationMillis, Instant at) {}
+
+    /** A request preparing the same statements many times. */
+    public record RepeatedStatements(
+            String request,
+            int statements,
+            List<StatementCounter.RepeatedStatement> repeated,
+            Instant at) {}
+}
@@ -0,0 +1,80 @@
+package io.flowinquiry.db.performance;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread between {@link #begin} and
+ * {@link #end}, and how often each statement was repeated.
+ *
+ * <p>Hibernate binds parameters, so a lazy association loaded once per row of a result shows up as
+ * the same statement prepared many times, the N+1 select pattern. Statements prepared outside of a
+ * scope, by jobs or async listeners, are not counted.
+ */
+public class StatementCounter implements StatementInspector {
+
+    // Distinct statements remembered per scope, further ones are only counted
+    private static final int MAX_DISTINCT_STATEMENTS = 512;
+
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+    /** Starts counting the statements of the current thread. */
+    public Scope begin() {
+        Scope scope = new Scope();
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    /** Stops counting the statements of the current thread. */
+    public void end() {
+        CURRENT.remove();
+    }
+
+    @Override
+    public String inspect(String sql) {
+        Scope scope = CURRENT.get();
+        if (scope != null) {
+            scope.add(sql);
+        }
+        return sql;
+    }
+
+    /** The statements prepared by one request. */
+    public static class Scope {
+
+        private final Map<String, Integer> counts = new HashMap<>();
+
+        private int total;
+
+        void add(String sql) {
+            total++;
+            if (counts.size() < MAX_DISTINCT_STATEMENTS || counts.containsKey(sql)) {
+                counts.merge(sql, 1, Integer::sum);
+            }
+        }
+
+        public int getTotal() {
+            return total;
+        }
+
+        /**
+         * Returns the statements prepared at least the given number of times, most repeated first.
+         */
+        public List<RepeatedStatement> getRepeated(int threshold) {
+            List<RepeatedStatement> repeated = new ArrayList<>();
+            counts.forEach(
+                    (sql, count) -> {
+                        if (count >= threshold) {
+                            repeated.add(new RepeatedStatement(sql, count));
+                        }
+                    });
+            repeated.sort((a, b) -> Integer.compare(b.count(), a.count()));
+            return repeated;
+        }
+    }
+
+    public record RepeatedStatement(String sql, int count) {}
+}
@@ -0,0 +1,90 @@
+package io.flowinquiry.db.performance;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Records how many statements each HTTP request prepares, per route, and flags requests preparing
+ * the same statement at least {@code flowinquiry.performance.n-plus-one-threshold} times.
+ */
+@Component
+public class StatementCountingFilter extends OncePerRequestFilter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(StatementCountingFilter.class);
+
+    private static final String UNKNOWN_ROUTE = "UNKNOWN";
+
+    private final StatementCounter statementCounter;
+    private final PerformanceFindings findings;
+    private final MeterRegistry meterRegistry;
+    private final int nPlusOneThreshold;
+
+    public StatementCountingFilter(
+            StatementCounter statementCounter,
+            PerformanceFindings findings,
+            MeterRegistry meterRegistry,
+            @Value("${flowinquiry.performance.n-plus-one-threshold:10}") int nPlusOneThreshold) {
+        this.statementCounter = statementCounter;
+        this.findings = findings;
+        this.meterRegistry = meterRegistry;
+        this.nPlusOneThreshold = nPlusOneThreshold;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        StatementCounter.Scope scope = statementCounter.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            statementCounter.end();
+            if (scope.getTotal() > 0) {
+                record(request, scope);
+            }
+        }
+    }
+
+    private void record(HttpServletRequest request, StatementCounter.Scope scope) {
+        // The route pattern, raw paths would create a meter per entity id
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String route = pattern != null ? pattern.toString() : UNKNOWN_ROUTE;
+        DistributionSummary.builder("flowinquiry.db.statements.per.request")
+                .description("SQL statements prepared by an HTTP request")
+                .tag("method", request.getMethod())
+                .tag("uri", route)
+                .register(meterRegistry)
+                .record(scope.getTotal());
+
+        List<StatementCounter.RepeatedStatement> repeated = scope.getRepeated(nPlusOneThreshold);
+        if (!repeated.isEmpty()) {
+            String requestName = request.getMethod() + " " + route;
+            LOG.warn(
+                    "{} prepared {} statements, repeating {} times: {}",
+                    requestName,
+                    scope.getTotal(),
+                    repeated.get(0).count(),
+                    repeated.get(0).sql());
+            Counter.builder("flowinquiry.db.n_plus_one")
+                    .description("HTTP requests repeating the same statement")
+                    .tag("method", request.getMethod())
+                    .tag("uri", route)
+                    .register(meterRegistry)
+                    .increment();
+            findings.addRepeatedStatements(requestName, scope.getTotal(), repeated);
+        }
+    }
+}
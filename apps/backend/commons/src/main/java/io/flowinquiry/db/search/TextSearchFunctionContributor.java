@@ -0,0 +1,39 @@
+package io.flowinquiry.db.search;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * Registers the PostgreSQL full text search functions with Hibernate, so criteria and HQL queries
+ * can match text fields.
+ *
+ * <p>{@code text_match(field, terms)} is true when the field matches the search terms, given in the
+ * web search syntax of {@code websearch_to_tsquery}. It is only served by an index when the field
+ * has a GIN index on {@code to_tsvector('english', field)}, as created for the ticket titles and
+ * descriptions and the comment contents.
+ */
+public class TextSearchFunctionContributor implements FunctionContributor {
+
+    public static final String TEXT_MATCH = "text_match";
+
+    /** The text search configuration of the indexes, queries must use the same to be indexed. */
+    public static final String TEXT_SEARCH_CONFIG = "english";
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        functionContributions
+                .getFunctionRegistry()
+                .registerPattern(
+                        TEXT_MATCH,
+                        "(to_tsvector('"
+                                + TEXT_SEARCH_CONFIG
+                                + "', ?1) @@ websearch_to_tsquery('"
+                                + TEXT_SEARCH_CONFIG
+                                + "', ?2))",
+                        functionContributions
+                                .getTypeConfiguration()
+                                .getBasicTypeRegistry()
+                                .resolve(StandardBasicTypes.BOOLEAN));
+    }
+}
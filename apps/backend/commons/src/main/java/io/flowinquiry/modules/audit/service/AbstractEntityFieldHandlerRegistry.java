@@ -3,6 +3,8 @@ package io.flowinquiry.modules.audit.service;
 import io.flowinquiry.modules.collab.domain.EntityType;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
 public abstract class AbstractEntityFieldHandlerRegistry implements EntityFieldHandlerRegistry {
 
@@ -29,6 +31,11 @@ public abstract class AbstractEntityFieldHandlerRegistry implements EntityFieldH
         return fieldHandlers.get(fieldName);
     }
 
+    @Override
+    public Optional<Set<String>> getHandledFieldNames() {
+        return Optional.of(Set.copyOf(fieldHandlers.keySet()));
+    }
+
     /**
      * Initialize field handlers for this entity. Subclasses must define their field-specific logic
      * in this method.
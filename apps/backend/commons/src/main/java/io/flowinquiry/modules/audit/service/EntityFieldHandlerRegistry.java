@@ -1,6 +1,9 @@
 package io.flowinquiry.modules.audit.service;
 
 import io.flowinquiry.modules.collab.domain.EntityType;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
 public interface EntityFieldHandlerRegistry {
 
@@ -25,4 +28,22 @@ public interface EntityFieldHandlerRegistry {
      * @return The EntityType of the entity.
      */
     EntityType getEntityType();
+
+    /**
+     * Get the names of the fields that have a handler, so the audit diff only reads those.
+     *
+     * @return The handled field names, or empty if the registry can not list them, in which case
+     *     every declared field of the entity is compared.
+     */
+    default Optional<Set<String>> getHandledFieldNames() {
+        return Optional.empty();
+    }
+
+    /**
+     * Called once per diff, before the changed values are formatted, so a registry can resolve
+     * the display names they refer to in one batch instead of one lookup per value.
+     *
+     * @param rawValuesByField The old and new raw values of each changed field.
+     */
+    default void prefetchDisplayValues(Map<String, Set<Object>> rawValuesByField) {}
 }
@@ -5,11 +5,11 @@ import io.flowinquiry.modules.audit.service.EntityFieldHandlerRegistryFactory;
 import io.flowinquiry.modules.audit.service.event.AuditLogUpdateEvent;
 import io.flowinquiry.modules.audit.utils.ActivityLogUtils;
 import io.flowinquiry.modules.audit.utils.AuditUtils;
+import io.flowinquiry.modules.audit.utils.CompiledAuditDiff;
 import io.flowinquiry.modules.collab.domain.ActivityLog;
 import io.flowinquiry.modules.collab.domain.EntityType;
 import io.flowinquiry.modules.collab.repository.ActivityLogRepository;
 import io.flowinquiry.security.SecurityUtils;
-import java.lang.reflect.Field;
 import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -45,7 +45,7 @@ public class AuditLogUpdateEventListener {
             Object previousEntity = event.getPreviousEntity();
             Object updatedEntity = event.getUpdatedEntity();
             Class<?> entityClass = updatedEntity.getClass();
-            Long entityId = extractEntityId(updatedEntity);
+            Long entityId = CompiledAuditDiff.extractId(updatedEntity);
 
             // Get the registry for the entity
             EntityFieldHandlerRegistry registry = registryFactory.getRegistry(entityClass);
@@ -75,14 +75,4 @@ public class AuditLogUpdateEventListener {
         activityLog.setCreatedBy(SecurityUtils.getCurrentUserAuditorLogin());
         activityLogRepository.save(activityLog);
     }
-
-    private Long extractEntityId(Object entity) {
-        try {
-            Field idField = entity.getClass().getDeclaredField("id");
-            idField.setAccessible(true);
-            return (Long) idField.get(entity);
-        } catch (NoSuchFieldException | IllegalAccessException e) {
-            throw new RuntimeException("Failed to extract entity ID", e);
-        }
-    }
 }
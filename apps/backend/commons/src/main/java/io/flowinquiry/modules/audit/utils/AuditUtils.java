@@ -1,9 +1,6 @@
 package io.flowinquiry.modules.audit.utils;
 
-import io.flowinquiry.modules.audit.service.EntityFieldHandler;
 import io.flowinquiry.modules.audit.service.EntityFieldHandlerRegistry;
-import java.lang.reflect.Field;
-import java.util.ArrayList;
 import java.util.List;
 
 public class AuditUtils {
@@ -15,11 +12,9 @@ public class AuditUtils {
      * @param newEntity The updated entity.
      * @param registry The field handler registry for the entity type.
      * @return A list of FieldChange objects representing the differences.
-     * @throws IllegalAccessException If a field is inaccessible via reflection.
      */
     public static List<FieldChange> findChanges(
-            Object oldEntity, Object newEntity, EntityFieldHandlerRegistry registry)
-            throws IllegalAccessException {
+            Object oldEntity, Object newEntity, EntityFieldHandlerRegistry registry) {
 
         // Validate that both entities are of the same type
         if (oldEntity == null
@@ -34,31 +29,7 @@ public class AuditUtils {
                     "Registry's entity class does not match the provided entity class");
         }
 
-        List<FieldChange> changes = new ArrayList<>();
-        Class<?> clazz = oldEntity.getClass();
-
-        // Iterate over all declared fields of the entity
-        for (Field field : clazz.getDeclaredFields()) {
-            field.setAccessible(true); // Make private fields accessible
-
-            Object oldValue = field.get(oldEntity);
-            Object newValue = field.get(newEntity);
-
-            // Compare values and check for changes
-            if ((oldValue == null && newValue != null)
-                    || (oldValue != null && !oldValue.equals(newValue))) {
-                EntityFieldHandler handler = registry.getHandler(field.getName());
-
-                // Only add the fields to audit log if the handler is presented
-                if (handler != null) {
-                    oldValue = handler.getFieldGetter().apply(oldEntity, oldValue);
-                    newValue = handler.getFieldGetter().apply(newEntity, newValue);
-                    changes.add(new FieldChange(handler.getFieldName(), oldValue, newValue));
-                }
-            }
-        }
-
-        return changes;
+        return CompiledAuditDiff.forRegistry(registry).findChanges(oldEntity, newEntity);
     }
 
     /** Represents a single field change in the audit log. */
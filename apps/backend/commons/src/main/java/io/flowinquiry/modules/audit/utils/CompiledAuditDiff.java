@@ -0,0 +1,217 @@
+package io.flowinquiry.modules.audit.utils;
+
+import io.flowinquiry.modules.audit.service.EntityFieldHandler;
+import io.flowinquiry.modules.audit.service.EntityFieldHandlerRegistry;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * The audit diff of one entity class, compiled once per field handler registry.
+ *
+ * <p>Compiling inspects the class reflectively once, keeps only the fields the registry has a
+ * handler for, and binds a getter lambda to each of them with {@link LambdaMetafactory}. Diffing
+ * an update then reads those few fields through plain interface calls, instead of making every
+ * declared field accessible and reading it reflectively on each update. Registries that can not
+ * list their handled fields get accessors for every declared field, and handlers are looked up for
+ * the changed ones.
+ */
+public final class CompiledAuditDiff {
+
+    private static final Map<EntityFieldHandlerRegistry, CompiledAuditDiff> COMPILED =
+            new ConcurrentHashMap<>();
+
+    private static final ClassValue<Function<Object, Object>> ID_ACCESSORS =
+            new ClassValue<>() {
+                @Override
+                protected Function<Object, Object> computeValue(Class<?> type) {
+                    try {
+                        return accessor(type, type.getDeclaredField("id"));
+                    } catch (NoSuchFieldException e) {
+                        throw new IllegalArgumentException(
+                                "Entity " + type.getName() + " has no id field", e);
+                    }
+                }
+            };
+
+    private final EntityFieldHandlerRegistry registry;
+
+    private final List<AuditedField> fields;
+
+    private CompiledAuditDiff(EntityFieldHandlerRegistry registry, List<AuditedField> fields) {
+        this.registry = registry;
+        this.fields = fields;
+    }
+
+    /**
+     * Returns the diff compiled for the entity class of the registry, compiling it on first use.
+     *
+     * @param registry The field handler registry for the entity type.
+     * @return The compiled diff.
+     */
+    public static CompiledAuditDiff forRegistry(EntityFieldHandlerRegistry registry) {
+        return COMPILED.computeIfAbsent(registry, CompiledAuditDiff::compile);
+    }
+
+    /**
+     * Reads the {@code id} field of an entity through an accessor compiled once per class.
+     *
+     * @param entity The entity.
+     * @return The id of the entity.
+     */
+    public static Long extractId(Object entity) {
+        return (Long) ID_ACCESSORS.get(entity.getClass()).apply(entity);
+    }
+
+    /**
+     * Find the changes of the audited fields between two entities of the compiled class.
+     *
+     * @param oldEntity The existing (original) entity.
+     * @param newEntity The updated entity.
+     * @return A list of FieldChange objects representing the differences, in field declaration
+     *     order.
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public List<AuditUtils.FieldChange> findChanges(Object oldEntity, Object newEntity) {
+        List<AuditedField> changedFields = new ArrayList<>();
+        List<Object[]> changedValues = new ArrayList<>();
+        Map<String, Set<Object>> rawValues = new HashMap<>();
+        for (AuditedField field : fields) {
+            Object oldValue = field.accessor().apply(oldEntity);
+            Object newValue = field.accessor().apply(newEntity);
+            if (Objects.equals(oldValue, newValue)) {
+                continue;
+            }
+
+            EntityFieldHandler handler =
+                    field.handler() != null ? field.handler() : registry.getHandler(field.name());
+            // Only add the fields to audit log if the handler is presented
+            if (handler != null) {
+                changedFields.add(new AuditedField(field.name(), field.accessor(), handler));
+                changedValues.add(new Object[] {oldValue, newValue});
+                Set<Object> values =
+                        rawValues.computeIfAbsent(field.name(), name -> new LinkedHashSet<>());
+                values.add(oldValue);
+                values.add(newValue);
+            }
+        }
+
+        if (changedFields.isEmpty()) {
+            return List.of();
+        }
+
+        // Let the registry resolve the display names of all changed values in one go
+        registry.prefetchDisplayValues(rawValues);
+
+        List<AuditUtils.FieldChange> changes = new ArrayList<>(changedFields.size());
+        for (int i = 0; i < changedFields.size(); i++) {
+            EntityFieldHandler handler = changedFields.get(i).handler();
+            Object[] values = changedValues.get(i);
+            changes.add(
+                    new AuditUtils.FieldChange(
+                            handler.getFieldName(),
+                            handler.getFieldGetter().apply(oldEntity, values[0]),
+                            handler.getFieldGetter().apply(newEntity, values[1])));
+        }
+        return changes;
+    }
+
+    private static CompiledAuditDiff compile(EntityFieldHandlerRegistry registry) {
+        Class<?> entityClass = registry.getEntityClass();
+        Set<String> handledFieldNames = registry.getHandledFieldNames().orElse(null);
+
+        List<AuditedField> fields = new ArrayList<>();
+        for (Field field : entityClass.getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers())) {
+                continue;
+            }
+            if (handledFieldNames == null) {
+                fields.add(new AuditedField(field.getName(), accessor(entityClass, field), null));
+            } else if (handledFieldNames.contains(field.getName())) {
+                fields.add(
+                        new AuditedField(
+                                field.getName(),
+                                accessor(entityClass, field),
+                                registry.getHandler(field.getName())));
+            }
+        }
+        return new CompiledAuditDiff(registry, List.copyOf(fields));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Function<Object, Object> accessor(Class<?> type, Field field) {
+        MethodHandles.Lookup lookup;
+        try {
+            lookup = MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Can not access " + type.getName(), e);
+        }
+
+        Method getter = findGetter(type, field);
+        if (getter != null) {
+            try {
+                MethodHandle handle = lookup.unreflect(getter);
+                CallSite site =
+                        LambdaMetafactory.metafactory(
+                                lookup,
+                                "apply",
+                                MethodType.methodType(Function.class),
+                                MethodType.methodType(Object.class, Object.class),
+                                handle,
+                                handle.type().wrap());
+                return (Function<Object, Object>) site.getTarget().invokeExact();
+            } catch (Throwable e) {
+                // Fall through to a field handle, still resolved once
+            }
+        }
+
+        MethodHandle fieldHandle;
+        try {
+            fieldHandle =
+                    lookup.unreflectGetter(field)
+                            .asType(MethodType.methodType(Object.class, Object.class));
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Can not read field " + field.getName(), e);
+        }
+        return entity -> {
+            try {
+                return fieldHandle.invokeExact(entity);
+            } catch (Throwable e) {
+                throw new IllegalStateException("Can not read field " + field.getName(), e);
+            }
+        };
+    }
+
+    private static Method findGetter(Class<?> type, Field field) {
+        String suffix =
+                Character.toUpperCase(field.getName().charAt(0)) + field.getName().substring(1);
+        return Arrays.stream(type.getDeclaredMethods())
+                .filter(method -> method.getParameterCount() == 0)
+                .filter(method -> method.getReturnType().equals(field.getType()))
+                .filter(
+                        method ->
+                                method.getName().equals("get" + suffix)
+                                        || method.getName().equals("is" + suffix))
+                .findFirst()
+                .orElse(null);
+    }
+
+    @SuppressWarnings("rawtypes")
+    private record AuditedField(
+            String name, Function<Object, Object> accessor, EntityFieldHandler handler) {}
+}
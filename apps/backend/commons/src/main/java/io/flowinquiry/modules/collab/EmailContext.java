@@ -26,7 +26,13 @@ public class EmailContext {
     /** The locale used for internationalization. */
     private final Locale locale;
 
-    /** The subject line of the email. */
+    /** The message key of the subject line. */
+    private String subjectKey;
+
+    /** The arguments of the subject line message. */
+    private Object[] subjectArgs;
+
+    /** The subject line of the email, resolved on first use. */
     private String subject;
 
     /** The name of the template to be used for rendering the email. */
@@ -82,14 +88,18 @@ public class EmailContext {
     }
 
     /**
-     * Sets the subject line of the email using the message source for internationalization.
+     * Sets the subject line of the email using the message source for internationalization. The
+     * message is resolved when the subject is first read, so emails sharing a subject can resolve
+     * it once.
      *
      * @param title The message key for the subject
      * @param args Optional arguments for the message
      * @return This EmailContext instance for method chaining
      */
     public EmailContext setSubject(String title, Object... args) {
-        this.subject = messageSource.getMessage(title, args, locale);
+        this.subjectKey = title;
+        this.subjectArgs = args;
+        this.subject = null;
         return this;
     }
 
@@ -108,9 +118,39 @@ public class EmailContext {
      * @return The subject line of the email
      */
     public String getSubject() {
+        if (subject == null && subjectKey != null) {
+            subject = messageSource.getMessage(subjectKey, subjectArgs, locale);
+        }
         return subject;
     }
 
+    /**
+     * Gets the message key of the subject line.
+     *
+     * @return The message key, or null when no subject is set
+     */
+    public String getSubjectKey() {
+        return subjectKey;
+    }
+
+    /**
+     * Gets the arguments of the subject line message.
+     *
+     * @return The message arguments, or null when no subject is set
+     */
+    public Object[] getSubjectArgs() {
+        return subjectArgs;
+    }
+
+    /**
+     * Gets the locale used for internationalization.
+     *
+     * @return The locale of the email
+     */
+    public Locale getLocale() {
+        return locale;
+    }
+
     /**
      * Gets the template name to be used for rendering the email.
      *
@@ -3,6 +3,7 @@ package io.flowinquiry.modules.collab.controller;
 import io.flowinquiry.modules.collab.domain.EntityType;
 import io.flowinquiry.modules.collab.service.ActivityLogService;
 import io.flowinquiry.modules.collab.service.dto.ActivityLogDTO;
+import io.flowinquiry.query.KeysetSlice;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -36,4 +37,13 @@ public class ActivityLogController {
         Page<ActivityLogDTO> activities = activityLogService.getActivitiesForUser(userId, pageable);
         return ResponseEntity.ok(activities);
     }
+
+    @GetMapping("/user/{userId}/keyset")
+    public ResponseEntity<KeysetSlice<ActivityLogDTO>> getUserActivitiesAfter(
+            @PathVariable("userId") Long userId,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = "20") int size) {
+        return ResponseEntity.ok(
+                activityLogService.getActivitiesForUserAfter(userId, cursor, size));
+    }
 }
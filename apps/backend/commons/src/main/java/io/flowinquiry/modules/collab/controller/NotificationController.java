@@ -2,6 +2,8 @@ package io.flowinquiry.modules.collab.controller;
 
 import io.flowinquiry.modules.collab.service.NotificationService;
 import io.flowinquiry.modules.collab.service.dto.NotificationDTO;
+import io.flowinquiry.modules.collab.service.dto.UnreadNotificationSummaryDTO;
+import io.flowinquiry.query.KeysetSlice;
 import java.util.List;
 import lombok.Data;
 import org.springframework.data.domain.Page;
@@ -30,6 +32,15 @@ public class NotificationController {
         return ResponseEntity.ok(notificationService.getNotificationsForUser(userId, pageable));
     }
 
+    @GetMapping("/user/{userId}/keyset")
+    public ResponseEntity<KeysetSlice<NotificationDTO>> getUserNotificationsAfter(
+            @PathVariable("userId") Long userId,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = "20") int size) {
+        return ResponseEntity.ok(
+                notificationService.getNotificationsForUserAfter(userId, cursor, size));
+    }
+
     @PostMapping("/mark-read")
     public ResponseEntity<Void> markNotificationsAsRead(@RequestBody MarkReadRequest request) {
         if (request.getNotificationIds() == null || request.getNotificationIds().isEmpty()) {
@@ -48,6 +59,12 @@ public class NotificationController {
         return ResponseEntity.ok(notifications);
     }
 
+    @GetMapping("/unread/count")
+    public ResponseEntity<UnreadNotificationSummaryDTO> getUnreadNotificationCount(
+            @RequestParam("userId") Long userId) {
+        return ResponseEntity.ok(notificationService.getUnreadSummaryForUser(userId));
+    }
+
     @Data
     public static class MarkReadRequest {
         private List<Long> notificationIds;
@@ -25,7 +25,11 @@ import org.hibernate.annotations.CacheConcurrencyStrategy;
 public class EntityWatcher {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "entity_watchers_id_seq")
+    @SequenceGenerator(
+            name = "entity_watchers_id_seq",
+            sequenceName = "fw_entity_watchers_id_seq",
+            allocationSize = 50)
     private Long id;
 
     @Enumerated(EnumType.STRING)
@@ -4,8 +4,10 @@ import io.flowinquiry.modules.collab.domain.ActivityLog;
 import io.flowinquiry.modules.collab.domain.EntityType;
 import io.flowinquiry.modules.collab.service.dto.ActivityLogDTO;
 import jakarta.persistence.QueryHint;
+import java.time.Instant;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -37,4 +39,39 @@ public interface ActivityLogRepository extends JpaRepository<ActivityLog, Long>
             WHERE u.id = :userId
             """)
     Page<ActivityLogDTO> findAllByUserTeams(@Param("userId") Long userId, Pageable pageable);
+
+    @Query(
+            """
+            SELECT new io.flowinquiry.modules.collab.service.dto.ActivityLogDTO(
+                al.id, al.entityType, t.name, al.entityId, al.content, al.createdAt, u.id,
+                CONCAT(COALESCE(u.firstName, ''), ' ', COALESCE(u.lastName, '')),
+                u.imageUrl
+            )
+            FROM ActivityLog al
+            JOIN Team t ON al.entityType = 'Team' AND al.entityId = t.id
+            JOIN t.users u
+            WHERE u.id = :userId
+            ORDER BY al.createdAt DESC, al.id DESC
+            """)
+    Slice<ActivityLogDTO> findLatestByUserTeams(@Param("userId") Long userId, Pageable pageable);
+
+    @Query(
+            """
+            SELECT new io.flowinquiry.modules.collab.service.dto.ActivityLogDTO(
+                al.id, al.entityType, t.name, al.entityId, al.content, al.createdAt, u.id,
+                CONCAT(COALESCE(u.firstName, ''), ' ', COALESCE(u.lastName, '')),
+                u.imageUrl
+            )
+            FROM ActivityLog al
+            JOIN Team t ON al.entityType = 'Team' AND al.entityId = t.id
+            JOIN t.users u
+            WHERE u.id = :userId
+            AND (al.createdAt < :createdAt OR (al.createdAt = :createdAt AND al.id < :id))
+            ORDER BY al.createdAt DESC, al.id DESC
+            """)
+    Slice<ActivityLogDTO> findByUserTeamsBefore(
+            @Param("userId") Long userId,
+            @Param("createdAt") Instant createdAt,
+            @Param("id") Long id,
+            Pageable pageable);
 }
@@ -2,11 +2,15 @@ package io.flowinquiry.modules.collab.repository;
 
 import io.flowinquiry.modules.collab.domain.Comment;
 import io.flowinquiry.modules.collab.domain.EntityType;
+import io.flowinquiry.modules.collab.service.dto.CommentContentDTO;
 import jakarta.persistence.QueryHint;
 import java.util.List;
+import java.util.stream.Stream;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
@@ -19,4 +23,17 @@ public interface CommentRepository extends JpaRepository<Comment, Long> {
     })
     List<Comment> findByEntityTypeAndEntityIdOrderByCreatedAtDesc(
             EntityType entityType, Long entityId);
+
+    // Streamed in the order of the entities, must be read in a transaction
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    @Query(
+            """
+            SELECT new io.flowinquiry.modules.collab.service.dto.CommentContentDTO(
+                c.entityId, c.content)
+            FROM Comment c
+            WHERE c.entityType = :entityType
+            ORDER BY c.entityId, c.id
+            """)
+    Stream<CommentContentDTO> streamContentsByEntityType(
+            @Param("entityType") EntityType entityType);
 }
@@ -35,6 +35,9 @@ public interface EntityWatcherRepository extends JpaRepository<EntityWatcher, Lo
     List<Long> findWatcherIdsByEntity(
             @Param("entityType") EntityType entityType, @Param("entityId") Long entityId);
 
+    List<EntityWatcher> findByEntityTypeAndEntityIdIn(
+            EntityType entityType, Collection<Long> entityIds);
+
     @QueryHints({
         @QueryHint(name = "org.hibernate.cacheable", value = "true"),
         @QueryHint(name = "org.hibernate.cacheRegion", value = "queryWatchers")
@@ -48,11 +51,11 @@ public interface EntityWatcherRepository extends JpaRepository<EntityWatcher, Lo
     })
     Page<EntityWatcher> findByWatchUserId(Long userId, Pageable pageable);
 
-    void deleteByEntityTypeAndEntityIdAndWatchUserId(
+    long deleteByEntityTypeAndEntityIdAndWatchUserId(
             EntityType entityType, Long entityId, Long watchUserId);
 
     @Modifying
     @Transactional
-    void deleteByEntityTypeAndEntityIdAndWatchUser_IdIn(
+    long deleteByEntityTypeAndEntityIdAndWatchUser_IdIn(
             EntityType entityType, Long entityId, Collection<Long> watchUserIds);
 }
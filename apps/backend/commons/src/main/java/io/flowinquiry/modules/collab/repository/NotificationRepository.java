@@ -1,11 +1,17 @@
 package io.flowinquiry.modules.collab.repository;
 
 import io.flowinquiry.modules.collab.domain.Notification;
+import io.flowinquiry.modules.collab.service.dto.UnreadNotificationCountDTO;
+import jakarta.persistence.LockModeType;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -16,8 +22,44 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
 
     List<Notification> findByUserIdAndIsReadFalse(Long userId, Sort sort);
 
+    List<Notification> findByUserIdAndIsReadFalseOrderByCreatedAtDescIdDesc(
+            Long userId, Pageable pageable);
+
+    @Query(
+            """
+            SELECT new io.flowinquiry.modules.collab.service.dto.UnreadNotificationCountDTO(
+                COUNT(n), MAX(n.id)
+            )
+            FROM Notification n
+            WHERE n.user.id = :userId AND n.isRead = false
+            """)
+    UnreadNotificationCountDTO countUnreadByUserId(@Param("userId") Long userId);
+
+    /**
+     * Locks the unread notifications among the given ids, so concurrent requests marking the same
+     * notifications as read do not both count them.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT n FROM Notification n WHERE n.id IN :ids AND n.isRead = false")
+    List<Notification> findUnreadByIdInForUpdate(@Param("ids") Collection<Long> ids);
+
     Page<Notification> findByUserId(Long userId, Pageable pageable);
 
+    Slice<Notification> findByUserIdOrderByCreatedAtDescIdDesc(Long userId, Pageable pageable);
+
+    @Query(
+            """
+            SELECT n FROM Notification n
+            WHERE n.user.id = :userId
+            AND (n.createdAt < :createdAt OR (n.createdAt = :createdAt AND n.id < :id))
+            ORDER BY n.createdAt DESC, n.id DESC
+            """)
+    Slice<Notification> findByUserIdBefore(
+            @Param("userId") Long userId,
+            @Param("createdAt") Instant createdAt,
+            @Param("id") Long id,
+            Pageable pageable);
+
     @Modifying
     @Query("UPDATE Notification n SET n.isRead = true WHERE n.id IN :ids")
     void markAsRead(@Param("ids") List<Long> ids);
@@ -4,13 +4,19 @@ import io.flowinquiry.modules.collab.domain.EntityType;
 import io.flowinquiry.modules.collab.repository.ActivityLogRepository;
 import io.flowinquiry.modules.collab.service.dto.ActivityLogDTO;
 import io.flowinquiry.modules.collab.service.mapper.ActivityLogMapper;
+import io.flowinquiry.query.KeysetCursor;
+import io.flowinquiry.query.KeysetSlice;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 
 @Service
 public class ActivityLogService {
 
+    public static final int MAX_KEYSET_PAGE_SIZE = 100;
+
     private final ActivityLogRepository activityLogRepository;
 
     private final ActivityLogMapper activityLogMapper;
@@ -32,4 +38,34 @@ public class ActivityLogService {
     public Page<ActivityLogDTO> getActivitiesForUser(Long userId, Pageable pageable) {
         return activityLogRepository.findAllByUserTeams(userId, pageable);
     }
+
+    /**
+     * Returns the activities of the user's teams, newest first, with keyset pagination.
+     *
+     * @param userId the user id
+     * @param cursorToken the cursor returned with the previous page, {@code null} for the first
+     *     page
+     * @param size the page size, at most {@link #MAX_KEYSET_PAGE_SIZE}
+     * @return the page of activities and the cursor of the next page
+     */
+    public KeysetSlice<ActivityLogDTO> getActivitiesForUserAfter(
+            Long userId, String cursorToken, int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        Pageable limit = PageRequest.of(0, Math.min(size, MAX_KEYSET_PAGE_SIZE));
+        Slice<ActivityLogDTO> activities;
+        if (cursorToken == null) {
+            activities = activityLogRepository.findLatestByUserTeams(userId, limit);
+        } else {
+            KeysetCursor cursor = KeysetCursor.decode(cursorToken);
+            activities =
+                    activityLogRepository.findByUserTeamsBefore(
+                            userId, cursor.lastCreatedAt(), cursor.lastId(), limit);
+        }
+        return KeysetSlice.of(
+                activities,
+                activity -> KeysetCursor.ofCreatedAt(activity.getCreatedAt(), activity.getId()),
+                activity -> activity);
+    }
 }
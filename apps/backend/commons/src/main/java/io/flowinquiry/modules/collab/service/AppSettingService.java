@@ -3,94 +3,78 @@ package io.flowinquiry.modules.collab.service;
 import io.flowinquiry.modules.collab.domain.AppSetting;
 import io.flowinquiry.modules.collab.repository.AppSettingRepository;
 import io.flowinquiry.modules.collab.service.dto.AppSettingDTO;
+import io.flowinquiry.modules.collab.service.event.AppSettingsChangedEvent;
 import io.flowinquiry.modules.collab.service.event.MailSettingsUpdatedEvent;
 import java.util.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Reads application settings from an in-memory {@link AppSettingsSnapshot}, loaded on first use
+ * and replaced as a whole once a change is committed. Changes are announced with an {@link
+ * AppSettingsChangedEvent}, which {@link AppSettingsChangeBroadcaster} relays to the other
+ * instances.
+ */
 @Service
 public class AppSettingService {
 
     private static final Logger logger = LoggerFactory.getLogger(AppSettingService.class);
 
+    private static final String SECRET_TYPE_PREFIX = "secret:";
+
     private final AppSettingRepository appSettingRepository;
     private final ApplicationEventPublisher eventPublisher;
 
+    private volatile AppSettingsSnapshot snapshot;
+
     public AppSettingService(
             AppSettingRepository appSettingRepository, ApplicationEventPublisher eventPublisher) {
         this.appSettingRepository = appSettingRepository;
         this.eventPublisher = eventPublisher;
     }
 
-    @Cacheable(value = "appSettings", key = "#key")
-    public Optional<AppSetting> getRawSetting(String key) {
-        return appSettingRepository.findById(key);
+    /**
+     * Returns the current settings. Callers reading several settings that belong together should
+     * read them from one snapshot, so a concurrent change can not mix old and new values.
+     */
+    public AppSettingsSnapshot getSnapshot() {
+        AppSettingsSnapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (snapshot == null) {
+                snapshot = load();
+            }
+            return snapshot;
+        }
     }
 
     public Optional<String> getValue(String key) {
-        return getRawSetting(key).map(AppSetting::getValue);
+        return getSnapshot().getValue(key);
     }
 
     public Optional<String> getDecryptedValue(String key) {
-        return getRawSetting(key)
-                .map(
-                        setting -> {
-                            if (setting.getType() != null
-                                    && setting.getType().startsWith("secret:")) {
-                                String algorithm = setting.getType().substring("secret:".length());
-                                return decrypt(setting.getValue(), algorithm);
-                            } else {
-                                return setting.getValue();
-                            }
-                        });
+        return getSnapshot().getDecryptedValue(key);
     }
 
     public List<AppSettingDTO> getAllSettingDTOs() {
-        List<AppSetting> settings = appSettingRepository.findAll();
-        return settings.stream()
-                .map(
-                        s ->
-                                new AppSettingDTO(
-                                        s.getKey(),
-                                        s.getValue(),
-                                        s.getType(),
-                                        s.getGroup(),
-                                        s.getDescription()))
-                .toList();
+        return getSnapshot().getSettings();
     }
 
     public List<AppSettingDTO> getSettingsByGroup(String group) {
-        List<AppSetting> settings =
-                appSettingRepository.findAll(); // or create a custom query for better performance
-        return settings.stream()
-                .filter(s -> Objects.equals(s.getGroup(), group))
-                .map(
-                        s ->
-                                new AppSettingDTO(
-                                        s.getKey(),
-                                        s.getValue(),
-                                        s.getType(),
-                                        s.getGroup(),
-                                        s.getDescription()))
-                .toList();
+        return getSnapshot().getSettingsByGroup(group);
     }
 
     public Map<String, String> getAllValues() {
-        List<AppSetting> all = appSettingRepository.findAll();
-        Map<String, String> result = new LinkedHashMap<>();
-        for (AppSetting setting : all) {
-            result.put(setting.getKey(), setting.getValue());
-        }
-        return result;
+        return getSnapshot().getValues();
     }
 
     @Transactional
-    @CacheEvict(value = "appSettings", key = "#key")
     public void updateValue(String key, String value) {
         AppSetting setting =
                 appSettingRepository
@@ -107,14 +91,12 @@ public class AppSettingService {
 
         logger.info("Updated setting: {} = {}", key, value);
 
-        if (key.startsWith("mail.")) {
-            eventPublisher.publishEvent(new MailSettingsUpdatedEvent(this));
-        }
+        eventPublisher.publishEvent(new AppSettingsChangedEvent(this, Set.of(key), false));
     }
 
     @Transactional
     public void updateSettings(List<AppSettingDTO> settings) {
-        boolean hasMailSettings = false;
+        Set<String> keys = new HashSet<>();
 
         for (AppSettingDTO dto : settings) {
             AppSetting setting =
@@ -125,25 +107,50 @@ public class AppSettingService {
             setting.setGroup(dto.getGroup());
             setting.setDescription(dto.getDescription());
             appSettingRepository.save(setting);
-            cacheEvict(dto.getKey());
+            keys.add(dto.getKey());
 
             logger.info("Bulk updated setting: {} = {}", dto.getKey(), dto.getValue());
+        }
+
+        // Publish one event once all settings are updated
+        if (!keys.isEmpty()) {
+            eventPublisher.publishEvent(new AppSettingsChangedEvent(this, keys, false));
+        }
+    }
 
-            // Check if this is a mail setting, but don't publish event yet
-            if (dto.getKey().startsWith("mail.")) {
-                hasMailSettings = true;
+    /**
+     * Swaps in a fresh snapshot once a change is committed, here or on another instance, then
+     * tells the mail service to pick up changed mail settings.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAppSettingsChanged(AppSettingsChangedEvent event) {
+        synchronized (this) {
+            try {
+                snapshot = load();
+            } catch (RuntimeException e) {
+                // Loaded again on the next read
+                snapshot = null;
+                logger.error("Can not reload the application settings", e);
             }
         }
 
-        // Publish event only once after all settings are updated
-        if (hasMailSettings) {
+        if (event.getKeys().stream().anyMatch(key -> key.startsWith("mail."))) {
             eventPublisher.publishEvent(new MailSettingsUpdatedEvent(this));
         }
     }
 
-    @CacheEvict(value = "appSettings", key = "#key")
-    public void cacheEvict(String key) {
-        // This is required for Spring to process @CacheEvict internally
+    private AppSettingsSnapshot load() {
+        List<AppSetting> settings = appSettingRepository.findAll();
+        logger.debug("Loaded {} application settings", settings.size());
+        return AppSettingsSnapshot.of(settings, this::plainValue);
+    }
+
+    private String plainValue(AppSetting setting) {
+        if (setting.getType() != null && setting.getType().startsWith(SECRET_TYPE_PREFIX)) {
+            String algorithm = setting.getType().substring(SECRET_TYPE_PREFIX.length());
+            return decrypt(setting.getValue(), algorithm);
+        }
+        return setting.getValue();
     }
 
     // 🔐 Placeholder for encryption — replace with real implementation
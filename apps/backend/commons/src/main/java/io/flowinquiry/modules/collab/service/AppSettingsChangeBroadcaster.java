@@ -0,0 +1,89 @@
+package io.flowinquiry.modules.collab.service;
+
+import io.flowinquiry.modules.collab.service.event.AppSettingsChangedEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.UUID;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Relays committed setting changes to the other instances of the application over a Redis topic,
+ * where they are published again as remote {@link AppSettingsChangedEvent}s, so every instance
+ * reloads its settings together.
+ *
+ * <p>The topic shares the Redisson client of the Redis second level cache. Without it the
+ * application is assumed to run as a single instance and nothing is relayed.
+ */
+@Component
+public class AppSettingsChangeBroadcaster {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AppSettingsChangeBroadcaster.class);
+
+    private static final String TOPIC = "flowinquiry:app-settings";
+
+    private static final String SEPARATOR = "\n";
+
+    private final ObjectProvider<RedissonClient> redissonClient;
+    private final ApplicationEventPublisher eventPublisher;
+    private final String instanceId = UUID.randomUUID().toString();
+
+    private RTopic topic;
+    private int listenerId;
+
+    public AppSettingsChangeBroadcaster(
+            ObjectProvider<RedissonClient> redissonClient,
+            ApplicationEventPublisher eventPublisher) {
+        this.redissonClient = redissonClient;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        RedissonClient client = redissonClient.getIfAvailable();
+        if (client == null) {
+            return;
+        }
+        topic = client.getTopic(TOPIC, StringCodec.INSTANCE);
+        listenerId = topic.addListener(String.class, (channel, message) -> onMessage(message));
+        LOG.info("Relaying application setting changes over the Redis topic {}", TOPIC);
+    }
+
+    @PreDestroy
+    public void unsubscribe() {
+        if (topic != null) {
+            topic.removeListener(listenerId);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAppSettingsChanged(AppSettingsChangedEvent event) {
+        if (topic == null || event.isRemote()) {
+            return;
+        }
+        try {
+            topic.publish(instanceId + SEPARATOR + String.join(SEPARATOR, event.getKeys()));
+        } catch (RuntimeException e) {
+            LOG.warn("Can not relay the change of settings {}", event.getKeys(), e);
+        }
+    }
+
+    private void onMessage(String message) {
+        String[] parts = message.split(SEPARATOR);
+        if (parts[0].equals(instanceId)) {
+            return;
+        }
+        Set<String> keys = Set.of(Arrays.copyOfRange(parts, 1, parts.length));
+        LOG.debug("Settings {} changed on instance {}", keys, parts[0]);
+        eventPublisher.publishEvent(new AppSettingsChangedEvent(this, keys, true));
+    }
+}
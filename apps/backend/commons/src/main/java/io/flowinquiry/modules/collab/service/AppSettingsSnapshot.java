@@ -0,0 +1,99 @@
+package io.flowinquiry.modules.collab.service;
+
+import io.flowinquiry.modules.collab.domain.AppSetting;
+import io.flowinquiry.modules.collab.service.dto.AppSettingDTO;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * An immutable view of all application settings, indexed by key and by group. Secret values are
+ * decrypted once when the snapshot is built, so reading them costs a map lookup like any other
+ * setting.
+ */
+public final class AppSettingsSnapshot {
+
+    private final List<AppSettingDTO> settings;
+    private final Map<String, String> values;
+    private final Map<String, String> decryptedValues;
+    private final Map<String, List<AppSettingDTO>> settingsByGroup;
+
+    private AppSettingsSnapshot(
+            Collection<AppSetting> settings, Function<AppSetting, String> decryptor) {
+        List<AppSetting> sorted = new ArrayList<>(settings);
+        sorted.sort(Comparator.comparing(AppSetting::getKey));
+
+        List<AppSettingDTO> dtos = new ArrayList<>(sorted.size());
+        Map<String, String> values = new LinkedHashMap<>();
+        Map<String, String> decryptedValues = new HashMap<>();
+        Map<String, List<AppSettingDTO>> settingsByGroup = new HashMap<>();
+        for (AppSetting setting : sorted) {
+            AppSettingDTO dto =
+                    new AppSettingDTO(
+                            setting.getKey(),
+                            setting.getValue(),
+                            setting.getType(),
+                            setting.getGroup(),
+                            setting.getDescription());
+            dtos.add(dto);
+            values.put(setting.getKey(), setting.getValue());
+            String decrypted = decryptor.apply(setting);
+            if (decrypted != null) {
+                decryptedValues.put(setting.getKey(), decrypted);
+            }
+            if (setting.getGroup() != null) {
+                settingsByGroup
+                        .computeIfAbsent(setting.getGroup(), group -> new ArrayList<>())
+                        .add(dto);
+            }
+        }
+        settingsByGroup.replaceAll((group, groupSettings) -> List.copyOf(groupSettings));
+
+        this.settings = List.copyOf(dtos);
+        this.values = Collections.unmodifiableMap(values);
+        this.decryptedValues = Map.copyOf(decryptedValues);
+        this.settingsByGroup = Map.copyOf(settingsByGroup);
+    }
+
+    /**
+     * Builds a snapshot of the given settings.
+     *
+     * @param settings all settings
+     * @param decryptor returns the plain value of a setting, decrypting secrets
+     * @return the snapshot
+     */
+    static AppSettingsSnapshot of(
+            Collection<AppSetting> settings, Function<AppSetting, String> decryptor) {
+        return new AppSettingsSnapshot(settings, decryptor);
+    }
+
+    public Optional<String> getValue(String key) {
+        return Optional.ofNullable(values.get(key));
+    }
+
+    public Optional<String> getDecryptedValue(String key) {
+        return Optional.ofNullable(decryptedValues.get(key));
+    }
+
+    /** Returns all settings, ordered by key. */
+    public List<AppSettingDTO> getSettings() {
+        return settings;
+    }
+
+    /** Returns the settings of a group, ordered by key. */
+    public List<AppSettingDTO> getSettingsByGroup(String group) {
+        return group == null ? List.of() : settingsByGroup.getOrDefault(group, List.of());
+    }
+
+    /** Returns the raw value of every setting, ordered by key. */
+    public Map<String, String> getValues() {
+        return values;
+    }
+}
@@ -5,6 +5,7 @@ import io.flowinquiry.modules.collab.domain.EntityWatcher;
 import io.flowinquiry.modules.collab.repository.EntityWatcherRepository;
 import io.flowinquiry.modules.collab.service.mapper.EntityWatcherMapper;
 import io.flowinquiry.modules.fss.service.dto.EntityWatcherDTO;
+import io.flowinquiry.modules.teams.service.TicketCounterService;
 import io.flowinquiry.modules.usermanagement.domain.User;
 import io.flowinquiry.modules.usermanagement.repository.UserRepository;
 import java.util.List;
@@ -20,14 +21,17 @@ public class EntityWatcherService {
     private final EntityWatcherRepository entityWatcherRepository;
     private final EntityWatcherMapper entityWatcherMapper;
     private final UserRepository userRepository;
+    private final TicketCounterService ticketCounterService;
 
     public EntityWatcherService(
             EntityWatcherRepository entityWatcherRepository,
             EntityWatcherMapper entityWatcherMapper,
-            UserRepository userRepository) {
+            UserRepository userRepository,
+            TicketCounterService ticketCounterService) {
         this.entityWatcherRepository = entityWatcherRepository;
         this.entityWatcherMapper = entityWatcherMapper;
         this.userRepository = userRepository;
+        this.ticketCounterService = ticketCounterService;
     }
 
     @Transactional
@@ -56,12 +60,15 @@ public class EntityWatcherService {
                             .toList();
 
             entityWatcherRepository.saveAll(entityWatchers);
+            adjustWatcherCount(entityType, entityId, entityWatchers.size());
         }
     }
 
     public void removeWatcher(EntityType entityType, Long entityId, Long userId) {
-        entityWatcherRepository.deleteByEntityTypeAndEntityIdAndWatchUserId(
-                entityType, entityId, userId);
+        long removed =
+                entityWatcherRepository.deleteByEntityTypeAndEntityIdAndWatchUserId(
+                        entityType, entityId, userId);
+        adjustWatcherCount(entityType, entityId, -(int) removed);
     }
 
     @Transactional(readOnly = true)
@@ -79,7 +86,15 @@ public class EntityWatcherService {
 
     @Transactional
     public void removeWatchers(EntityType entityType, Long entityId, List<Long> watcherIds) {
-        entityWatcherRepository.deleteByEntityTypeAndEntityIdAndWatchUser_IdIn(
-                entityType, entityId, watcherIds);
+        long removed =
+                entityWatcherRepository.deleteByEntityTypeAndEntityIdAndWatchUser_IdIn(
+                        entityType, entityId, watcherIds);
+        adjustWatcherCount(entityType, entityId, -(int) removed);
+    }
+
+    private void adjustWatcherCount(EntityType entityType, Long entityId, int delta) {
+        if (entityType == EntityType.Ticket) {
+            ticketCounterService.adjustWatchers(entityId, delta);
+        }
     }
 }
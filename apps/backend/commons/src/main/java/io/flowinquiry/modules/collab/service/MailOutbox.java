@@ -0,0 +1,249 @@
+package io.flowinquiry.modules.collab.service;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * The {@code fw_mail_outbox} table holding rendered emails until they are delivered.
+ *
+ * <p>Messages are {@link #enqueue enqueued} as {@code PENDING}. A worker {@link #claim claims} due
+ * messages by marking them {@code SENDING} with a lease in {@code next_attempt_at}, skipping rows
+ * other instances hold locked, so each message is claimed by one worker at a time. A message whose
+ * worker died is claimed again once its lease expires. Sent messages are deleted, failed ones are
+ * {@link #reschedule rescheduled} or left {@code FAILED}.
+ */
+@Component
+public class MailOutbox {
+
+    static final String PENDING = "PENDING";
+    static final String FAILED = "FAILED";
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private static final String INSERT_SQL =
+            """
+            INSERT INTO fw_mail_outbox (recipient, recipient_domain, subject, content, is_multipart,
+                is_html, status, attempts, next_attempt_at, created_at)
+            VALUES (?, ?, ?, ?, ?, ?, 'PENDING', 0, ?, ?)
+            """;
+
+    private static final String CLAIM_SQL =
+            """
+            UPDATE fw_mail_outbox SET status = 'SENDING', next_attempt_at = ?
+            WHERE id IN (
+                SELECT id FROM fw_mail_outbox
+                WHERE status IN ('PENDING', 'SENDING') AND next_attempt_at <= ?
+                ORDER BY next_attempt_at
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED)
+            RETURNING id, recipient, recipient_domain, subject, content, is_multipart, is_html,
+                attempts, created_at
+            """;
+
+    private static final String RESCHEDULE_SQL =
+            """
+            UPDATE fw_mail_outbox SET status = ?, attempts = ?, next_attempt_at = ?, last_error = ?
+            WHERE id = ?
+            """;
+
+    private static final String COUNT_QUEUED_SQL =
+            "SELECT COUNT(*) FROM fw_mail_outbox WHERE status IN ('PENDING', 'SENDING')";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Released when messages are enqueued, so the dispatcher does not wait for its next poll
+    private final Semaphore work = new Semaphore(0);
+
+    public MailOutbox(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Stores messages for delivery. Within a transaction they are stored with it, and the
+     * dispatcher is woken up once it commits.
+     *
+     * @param messages the messages to store, their ids and attempts are ignored
+     */
+    public void enqueue(Collection<Message> messages) {
+        if (messages.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> rows = new ArrayList<>(messages.size());
+        for (Message message : messages) {
+            rows.add(
+                    new Object[] {
+                        message.recipient(),
+                        message.domain(),
+                        message.subject(),
+                        message.content(),
+                        message.multipart(),
+                        message.html(),
+                        now,
+                        now
+                    });
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                    new TransactionSynchronization() {
+                        @Override
+                        public void afterCommit() {
+                            work.release();
+                        }
+                    });
+        } else {
+            work.release();
+        }
+    }
+
+    /**
+     * Claims the due messages, oldest first, for the given lease.
+     *
+     * @param limit the maximum number of messages to claim
+     * @param lease how long the messages stay claimed if they are neither deleted nor rescheduled
+     * @return the claimed messages
+     */
+    List<Message> claim(int limit, Duration lease) {
+        Instant now = Instant.now();
+        return jdbcTemplate.query(
+                CLAIM_SQL,
+                MailOutbox::toMessage,
+                Timestamp.from(now.plus(lease)),
+                Timestamp.from(now),
+                limit);
+    }
+
+    /** Deletes delivered messages. */
+    void delete(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(
+                "DELETE FROM fw_mail_outbox WHERE id = ?",
+                ids.stream().map(id -> new Object[] {id}).toList());
+    }
+
+    /** Puts messages back in the queue for a later attempt, or marks them failed. */
+    void reschedule(Collection<Reschedule> reschedules) {
+        if (reschedules.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(
+                RESCHEDULE_SQL,
+                reschedules.stream()
+                        .map(
+                                reschedule ->
+                                        new Object[] {
+                                            reschedule.status(),
+                                            reschedule.attempts(),
+                                            Timestamp.from(reschedule.nextAttemptAt()),
+                                            truncate(reschedule.lastError()),
+                                            reschedule.id()
+                                        })
+                        .toList());
+    }
+
+    /** Counts the messages waiting for delivery, including those being sent. */
+    long countQueued() {
+        Long count = jdbcTemplate.queryForObject(COUNT_QUEUED_SQL, Long.class);
+        return count != null ? count : 0;
+    }
+
+    /**
+     * Waits until messages are enqueued or the timeout elapses.
+     *
+     * @return {@code false} when interrupted
+     */
+    boolean awaitWork(Duration timeout) {
+        try {
+            work.tryAcquire(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            work.drainPermits();
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    static String domainOf(String recipient) {
+        int at = recipient.lastIndexOf('@');
+        return (at >= 0 ? recipient.substring(at + 1) : "").toLowerCase(Locale.ROOT);
+    }
+
+    private static String truncate(String error) {
+        return error == null || error.length() <= MAX_ERROR_LENGTH
+                ? error
+                : error.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    private static Message toMessage(ResultSet rs, int rowNum) throws SQLException {
+        return new Message(
+                rs.getLong("id"),
+                rs.getString("recipient"),
+                rs.getString("recipient_domain"),
+                rs.getString("subject"),
+                rs.getString("content"),
+                rs.getBoolean("is_multipart"),
+                rs.getBoolean("is_html"),
+                rs.getInt("attempts"),
+                rs.getTimestamp("created_at").toInstant());
+    }
+
+    /**
+     * A rendered email.
+     *
+     * @param id the row id, {@code null} before it is enqueued
+     * @param recipient the email address of the recipient
+     * @param domain the domain of the recipient, the rate of delivery is limited per domain
+     * @param subject the subject
+     * @param content the rendered body
+     * @param multipart whether the body is sent as a multipart message
+     * @param html whether the body is html
+     * @param attempts the number of failed delivery attempts
+     * @param createdAt when the message was enqueued
+     */
+    public record Message(
+            Long id,
+            String recipient,
+            String domain,
+            String subject,
+            String content,
+            boolean multipart,
+            boolean html,
+            int attempts,
+            Instant createdAt) {
+
+        public static Message of(
+                String recipient, String subject, String content, boolean multipart, boolean html) {
+            return new Message(
+                    null,
+                    recipient,
+                    domainOf(recipient),
+                    subject,
+                    content,
+                    multipart,
+                    html,
+                    0,
+                    null);
+        }
+    }
+
+    /** The outcome of a failed attempt to deliver a message. */
+    record Reschedule(
+            long id, String status, int attempts, Instant nextAttemptAt, String lastError) {}
+}
@@ -0,0 +1,425 @@
+package io.flowinquiry.modules.collab.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.flowinquiry.modules.collab.service.MailOutbox.Message;
+import io.flowinquiry.modules.collab.service.MailOutbox.Reschedule;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.AddressException;
+import jakarta.mail.internet.MimeMessage;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.stereotype.Service;
+
+/**
+ * Delivers the emails of the {@link MailOutbox}.
+ *
+ * <p>A dispatcher thread claims due messages in batches, whenever messages are enqueued or at
+ * least every poll interval. The messages of a batch are grouped by recipient domain and handed to
+ * a pool of workers in chunks, each chunk sent over one pooled SMTP connection. Domains get a
+ * token bucket each, messages over its rate are put back until the bucket refills, without using
+ * up an attempt. Failed messages are retried with an exponential, jittered backoff until they run
+ * out of attempts.
+ *
+ * <p>The rate limits apply per instance. Several instances share the outbox safely, but each one
+ * sends at the configured rate.
+ */
+@Service
+public class MailOutboxDispatcher {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MailOutboxDispatcher.class);
+
+    private static final String METRIC_PREFIX = "flowinquiry.mail.outbox.";
+
+    private final MailOutbox mailOutbox;
+    private final MailService mailService;
+    private final int batchSize;
+    private final int messagesPerConnection;
+    private final Duration pollInterval;
+    private final Duration lease;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final Duration depthRefreshInterval;
+    private final DomainRateLimiter rateLimiter;
+    private final SmtpTransportPool transportPool;
+    private final ThreadPoolExecutor workers;
+    private final Thread dispatcher;
+
+    private final AtomicLong queueDepth = new AtomicLong();
+    private final Counter sentMessages;
+    private final Counter retriedMessages;
+    private final Counter failedMessages;
+    private final Counter deferredMessages;
+    private final Timer deliveryLatency;
+    private final Timer connectionTimer;
+
+    private volatile boolean running = true;
+    private long depthRefreshedAtNanos;
+
+    public MailOutboxDispatcher(
+            MailOutbox mailOutbox,
+            MailService mailService,
+            MeterRegistry meterRegistry,
+            @Value("${flowinquiry.mail-outbox.threads:4}") int threads,
+            @Value("${flowinquiry.mail-outbox.batch-size:200}") int batchSize,
+            @Value("${flowinquiry.mail-outbox.messages-per-connection:50}")
+                    int messagesPerConnection,
+            @Value("${flowinquiry.mail-outbox.poll-interval:PT5S}") Duration pollInterval,
+            @Value("${flowinquiry.mail-outbox.lease:PT5M}") Duration lease,
+            @Value("${flowinquiry.mail-outbox.max-attempts:8}") int maxAttempts,
+            @Value("${flowinquiry.mail-outbox.initial-backoff:PT30S}") Duration initialBackoff,
+            @Value("${flowinquiry.mail-outbox.max-backoff:PT1H}") Duration maxBackoff,
+            @Value("${flowinquiry.mail-outbox.per-domain-rate:10}") double perDomainRate,
+            @Value("${flowinquiry.mail-outbox.per-domain-burst:20}") int perDomainBurst,
+            @Value("${flowinquiry.mail-outbox.connection-max-idle:PT1M}")
+                    Duration connectionMaxIdle) {
+        this.mailOutbox = mailOutbox;
+        this.mailService = mailService;
+        this.batchSize = batchSize;
+        this.messagesPerConnection = messagesPerConnection;
+        this.pollInterval = pollInterval;
+        this.lease = lease;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.depthRefreshInterval = pollInterval.multipliedBy(2);
+        this.rateLimiter = new DomainRateLimiter(perDomainRate, perDomainBurst);
+        this.transportPool = new SmtpTransportPool(threads, connectionMaxIdle.toNanos());
+
+        sentMessages = messages(meterRegistry, "sent");
+        retriedMessages = messages(meterRegistry, "retried");
+        failedMessages = messages(meterRegistry, "failed");
+        deferredMessages = messages(meterRegistry, "deferred");
+        deliveryLatency =
+                Timer.builder(METRIC_PREFIX + "latency")
+                        .description("Time from enqueueing an email to its delivery")
+                        .register(meterRegistry);
+        connectionTimer =
+                Timer.builder(METRIC_PREFIX + "connection")
+                        .description("Time to send one chunk of emails over one SMTP connection")
+                        .register(meterRegistry);
+        meterRegistry.gauge(METRIC_PREFIX + "queue_depth", queueDepth);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        workers =
+                new ThreadPoolExecutor(
+                        threads,
+                        threads,
+                        0L,
+                        TimeUnit.MILLISECONDS,
+                        new ArrayBlockingQueue<>(Math.max(1, batchSize)),
+                        runnable -> {
+                            Thread thread =
+                                    new Thread(
+                                            runnable,
+                                            "mail-outbox-" + threadCount.incrementAndGet());
+                            thread.setDaemon(true);
+                            return thread;
+                        },
+                        new ThreadPoolExecutor.CallerRunsPolicy());
+        dispatcher = new Thread(this::run, "mail-outbox-dispatcher");
+        dispatcher.setDaemon(true);
+    }
+
+    @PostConstruct
+    public void start() {
+        dispatcher.start();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        dispatcher.interrupt();
+        try {
+            // The dispatcher waits for the chunks it handed out, so it stops before the workers
+            dispatcher.join(TimeUnit.SECONDS.toMillis(10));
+            workers.shutdown();
+            workers.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        transportPool.close();
+    }
+
+    private void run() {
+        while (running) {
+            int claimed = 0;
+            try {
+                claimed = dispatchOnce();
+            } catch (RuntimeException e) {
+                LOG.error("Can not dispatch the mail outbox", e);
+            }
+            // A full batch means more messages are probably due
+            if (claimed < batchSize && !mailOutbox.awaitWork(pollInterval)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Claims and sends one batch of due messages.
+     *
+     * @return the number of claimed messages
+     */
+    int dispatchOnce() {
+        JavaMailSenderImpl sender = mailService.getMailSender();
+        if (sender == null) {
+            return 0;
+        }
+        refreshQueueDepth();
+
+        List<Message> claimed = mailOutbox.claim(batchSize, lease);
+        if (claimed.isEmpty()) {
+            return 0;
+        }
+
+        Map<String, List<Message>> byDomain = new LinkedHashMap<>();
+        for (Message message : claimed) {
+            byDomain.computeIfAbsent(message.domain(), domain -> new ArrayList<>()).add(message);
+        }
+
+        Instant now = Instant.now();
+        List<Reschedule> deferred = new ArrayList<>();
+        List<CompletableFuture<Void>> chunks = new ArrayList<>();
+        for (Map.Entry<String, List<Message>> entry : byDomain.entrySet()) {
+            List<Message> ready = new ArrayList<>();
+            long waitNanos = 0;
+            for (Message message : entry.getValue()) {
+                if (waitNanos == 0) {
+                    waitNanos = rateLimiter.tryAcquire(entry.getKey());
+                    if (waitNanos == 0) {
+                        ready.add(message);
+                        continue;
+                    }
+                } else {
+                    // Spread the rest over the following tokens instead of retrying them together
+                    waitNanos += rateLimiter.intervalNanos();
+                }
+                deferred.add(
+                        new Reschedule(
+                                message.id(),
+                                MailOutbox.PENDING,
+                                message.attempts(),
+                                now.plusNanos(waitNanos),
+                                null));
+            }
+            for (int from = 0; from < ready.size(); from += messagesPerConnection) {
+                List<Message> chunk =
+                        ready.subList(from, Math.min(from + messagesPerConnection, ready.size()));
+                chunks.add(CompletableFuture.runAsync(() -> send(sender, chunk), workers));
+            }
+        }
+        mailOutbox.reschedule(deferred);
+        deferredMessages.increment(deferred.size());
+
+        CompletableFuture.allOf(chunks.toArray(new CompletableFuture[0])).join();
+        return claimed.size();
+    }
+
+    private void send(JavaMailSenderImpl sender, List<Message> chunk) {
+        List<Long> sent = new ArrayList<>(chunk.size());
+        List<Reschedule> failed = new ArrayList<>();
+        long startNanos = System.nanoTime();
+
+        Transport transport;
+        try {
+            transport = transportPool.borrow(sender);
+        } catch (MessagingException e) {
+            LOG.warn("Can not connect to the SMTP server", e);
+            chunk.forEach(message -> failed.add(retry(message, e)));
+            mailOutbox.reschedule(failed);
+            return;
+        }
+
+        boolean healthy = true;
+        for (Message message : chunk) {
+            if (!healthy) {
+                // Not attempted, the connection broke on an earlier message
+                failed.add(
+                        new Reschedule(
+                                message.id(),
+                                MailOutbox.PENDING,
+                                message.attempts(),
+                                Instant.now(),
+                                null));
+                continue;
+            }
+            try {
+                MimeMessage mimeMessage =
+                        mailService.createMimeMessage(
+                                sender,
+                                message.recipient(),
+                                message.subject(),
+                                message.content(),
+                                message.multipart(),
+                                message.html());
+                if (mimeMessage.getSentDate() == null) {
+                    mimeMessage.setSentDate(new Date());
+                }
+                mimeMessage.saveChanges();
+                transport.sendMessage(mimeMessage, mimeMessage.getAllRecipients());
+                sent.add(message.id());
+                deliveryLatency.record(Duration.between(message.createdAt(), Instant.now()));
+            } catch (AddressException e) {
+                LOG.warn("Email to '{}' has an invalid address", message.recipient(), e);
+                failed.add(fail(message, e));
+            } catch (SendFailedException e) {
+                LOG.warn("Email could not be sent to '{}'", message.recipient(), e);
+                failed.add(retry(message, e));
+            } catch (MessagingException e) {
+                LOG.warn("SMTP connection failed sending to '{}'", message.recipient(), e);
+                failed.add(retry(message, e));
+                healthy = false;
+            }
+        }
+
+        if (healthy) {
+            transportPool.release(sender, transport);
+        } else {
+            transportPool.discard(transport);
+        }
+        connectionTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+
+        mailOutbox.delete(sent);
+        mailOutbox.reschedule(failed);
+        sentMessages.increment(sent.size());
+    }
+
+    private Reschedule retry(Message message, Exception cause) {
+        int attempts = message.attempts() + 1;
+        if (attempts >= maxAttempts) {
+            return fail(message, cause);
+        }
+        retriedMessages.increment();
+        return new Reschedule(
+                message.id(),
+                MailOutbox.PENDING,
+                attempts,
+                Instant.now().plus(backoff(attempts)),
+                cause.getMessage());
+    }
+
+    private Reschedule fail(Message message, Exception cause) {
+        failedMessages.increment();
+        return new Reschedule(
+                message.id(),
+                MailOutbox.FAILED,
+                message.attempts() + 1,
+                Instant.now(),
+                cause.getMessage());
+    }
+
+    /** Doubles with every attempt up to the maximum, then takes a random half to full share. */
+    Duration backoff(int attempts) {
+        long initialMillis = initialBackoff.toMillis();
+        long maxMillis = maxBackoff.toMillis();
+        int shift = Math.min(attempts - 1, 30);
+        long millis = Math.min(maxMillis, initialMillis << shift);
+        if (millis < 0 || millis > maxMillis) {
+            millis = maxMillis;
+        }
+        return Duration.ofMillis(millis / 2 + ThreadLocalRandom.current().nextLong(millis / 2 + 1));
+    }
+
+    private void refreshQueueDepth() {
+        long now = System.nanoTime();
+        if (depthRefreshedAtNanos != 0
+                && now - depthRefreshedAtNanos < depthRefreshInterval.toNanos()) {
+            return;
+        }
+        queueDepth.set(mailOutbox.countQueued());
+        depthRefreshedAtNanos = now;
+    }
+
+    private static Counter messages(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder(METRIC_PREFIX + "messages")
+                .description("Outbox emails by the outcome of their delivery attempt")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * One token bucket per recipient domain. Only used by the dispatcher thread.
+     *
+     * <p>A rate of zero or less disables the limit.
+     */
+    static final class DomainRateLimiter {
+
+        private final double permitsPerNano;
+        private final long intervalNanos;
+        private final double burst;
+        private final Cache<String, Bucket> buckets =
+                Caffeine.newBuilder().expireAfterAccess(Duration.ofMinutes(10)).build();
+
+        DomainRateLimiter(double permitsPerSecond, int burst) {
+            this.permitsPerNano = permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+            this.intervalNanos =
+                    permitsPerSecond <= 0
+                            ? 0
+                            : (long) Math.ceil(TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+            this.burst = Math.max(1, burst);
+        }
+
+        /**
+         * Takes a token of the domain.
+         *
+         * @return {@code 0} when a token was taken, otherwise the nanoseconds until one is
+         *     available
+         */
+        long tryAcquire(String domain) {
+            if (permitsPerNano <= 0) {
+                return 0;
+            }
+            long now = System.nanoTime();
+            Bucket bucket = buckets.get(domain, key -> new Bucket(burst, now));
+            double refilled = (now - bucket.refilledAtNanos) * permitsPerNano;
+            bucket.tokens = Math.min(burst, bucket.tokens + refilled);
+            bucket.refilledAtNanos = now;
+            if (bucket.tokens >= 1) {
+                bucket.tokens -= 1;
+                return 0;
+            }
+            return Math.max(1, (long) Math.ceil((1 - bucket.tokens) / permitsPerNano));
+        }
+
+        /** Returns the nanoseconds between two tokens of a domain. */
+        long intervalNanos() {
+            return intervalNanos;
+        }
+
+        private static final class Bucket {
+
+            private double tokens;
+            private long refilledAtNanos;
+
+            private Bucket(double tokens, long refilledAtNanos) {
+                this.tokens = tokens;
+                this.refilledAtNanos = refilledAtNanos;
+            }
+        }
+    }
+}
@@ -7,6 +7,8 @@ import jakarta.annotation.PostConstruct;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Locale;
 import java.util.Properties;
 import lombok.Getter;
@@ -14,28 +16,25 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.MessageSource;
 import org.springframework.context.event.EventListener;
-import org.springframework.mail.MailException;
+import org.springframework.dao.DataAccessException;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.JavaMailSenderImpl;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
-import org.thymeleaf.context.Context;
-import org.thymeleaf.spring6.SpringTemplateEngine;
 
 /**
  * Service for sending emails asynchronously.
  *
- * <p>We use the {@link Async} annotation to send emails asynchronously.
+ * <p>We use the {@link Async} annotation to render emails off the calling thread. Rendered emails
+ * are stored in the {@link MailOutbox} and delivered by the {@link MailOutboxDispatcher}, so they
+ * survive restarts and SMTP failures.
  */
 @Service
 public class MailService {
 
     private static final Logger LOG = LoggerFactory.getLogger(MailService.class);
 
-    private static final String USER = "user";
-    private static final String BASE_URL = "baseUrl";
-
     static final String HOST_SETTING = "mail.host";
     static final String PORT_SETTING = "mail.port";
     static final String USERNAME_SETTING = "mail.username";
@@ -49,7 +48,8 @@ public class MailService {
 
     private final AppSettingService appSettingService;
     private final MessageSource messageSource;
-    private final SpringTemplateEngine templateEngine;
+    private final MailTemplateRenderer mailTemplateRenderer;
+    private final MailOutbox mailOutbox;
 
     private JavaMailSenderImpl mailSender;
 
@@ -62,10 +62,12 @@ public class MailService {
     public MailService(
             AppSettingService appSettingService,
             MessageSource messageSource,
-            SpringTemplateEngine templateEngine) {
+            MailTemplateRenderer mailTemplateRenderer,
+            MailOutbox mailOutbox) {
         this.appSettingService = appSettingService;
         this.messageSource = messageSource;
-        this.templateEngine = templateEngine;
+        this.mailTemplateRenderer = mailTemplateRenderer;
+        this.mailOutbox = mailOutbox;
     }
 
     @PostConstruct
@@ -80,8 +82,10 @@ public class MailService {
     }
 
     private void reloadMailSender() {
-        String host = appSettingService.getValue(HOST_SETTING).orElse(null);
-        String portStr = appSettingService.getValue(PORT_SETTING).orElse(null);
+        // One snapshot, so a concurrent change can not mix old and new settings
+        AppSettingsSnapshot settings = appSettingService.getSnapshot();
+        String host = settings.getValue(HOST_SETTING).orElse(null);
+        String portStr = settings.getValue(PORT_SETTING).orElse(null);
 
         if (host == null || portStr == null) {
             mailEnabled = false;
@@ -93,22 +97,20 @@ public class MailService {
             JavaMailSenderImpl sender = new JavaMailSenderImpl();
             sender.setHost(host);
             sender.setPort(Integer.parseInt(portStr));
-            sender.setUsername(appSettingService.getValue(USERNAME_SETTING).orElse(""));
-            sender.setPassword(appSettingService.getDecryptedValue(PASSWORD_SETTING).orElse(""));
+            sender.setUsername(settings.getValue(USERNAME_SETTING).orElse(""));
+            sender.setPassword(settings.getDecryptedValue(PASSWORD_SETTING).orElse(""));
 
             Properties props = sender.getJavaMailProperties();
             props.put(
-                    "mail.transport.protocol",
-                    appSettingService.getValue(PROTOCOL_SETTING).orElse("smtp"));
-            props.put(
-                    "mail.smtp.auth", appSettingService.getValue(SMTP_AUTH_SETTING).orElse("true"));
+                    "mail.transport.protocol", settings.getValue(PROTOCOL_SETTING).orElse("smtp"));
+            props.put("mail.smtp.auth", settings.getValue(SMTP_AUTH_SETTING).orElse("true"));
             props.put(
                     "mail.smtp.starttls.enable",
-                    appSettingService.getValue(SMTP_STARTTLS_SETTING).orElse("true"));
-            props.put("mail.debug", appSettingService.getValue(DEBUG_SETTING).orElse("false"));
+                    settings.getValue(SMTP_STARTTLS_SETTING).orElse("true"));
+            props.put("mail.debug", settings.getValue(DEBUG_SETTING).orElse("false"));
 
-            from = appSettingService.getValue(FROM_SETTING).orElse("undefined");
-            baseUrl = appSettingService.getValue(BASE_URL_SETTING).orElse("");
+            from = settings.getValue(FROM_SETTING).orElse("undefined");
+            baseUrl = settings.getValue(BASE_URL_SETTING).orElse("");
 
             this.mailSender = sender;
             this.mailEnabled = true;
@@ -122,21 +124,40 @@ public class MailService {
         }
     }
 
+    /**
+     * Returns the mail sender holding the current settings.
+     *
+     * @return the mail sender, or {@code null} when mail is not configured
+     */
+    JavaMailSenderImpl getMailSender() {
+        return mailEnabled ? mailSender : null;
+    }
+
     @Async
     public void sendEmail(
             String to, String subject, String content, boolean isMultipart, boolean isHtml) {
         if (mailEnabled && mailSender != null) {
-            sendEmailSync(mailSender, to, subject, content, isMultipart, isHtml);
+            enqueue(List.of(MailOutbox.Message.of(to, subject, content, isMultipart, isHtml)));
         }
     }
 
-    private void sendEmailSync(
+    private void enqueue(List<MailOutbox.Message> messages) {
+        try {
+            mailOutbox.enqueue(messages);
+            LOG.debug("Queued {} emails", messages.size());
+        } catch (DataAccessException e) {
+            LOG.warn("{} emails could not be queued", messages.size(), e);
+        }
+    }
+
+    MimeMessage createMimeMessage(
             JavaMailSender sender,
             String to,
             String subject,
             String content,
             boolean isMultipart,
-            boolean isHtml) {
+            boolean isHtml)
+            throws MessagingException {
         LOG.debug(
                 "Send email[multipart '{}' and html '{}'] to '{}' with subject '{}' and content={}",
                 isMultipart,
@@ -144,20 +165,14 @@ public class MailService {
                 to,
                 subject,
                 content);
-
-        try {
-            MimeMessage mimeMessage = sender.createMimeMessage();
-            MimeMessageHelper message =
-                    new MimeMessageHelper(mimeMessage, isMultipart, StandardCharsets.UTF_8.name());
-            message.setTo(to);
-            message.setFrom(from);
-            message.setSubject(subject);
-            message.setText(content, isHtml);
-            sender.send(mimeMessage);
-            LOG.debug("Sent email to User '{}'", to);
-        } catch (MailException | MessagingException e) {
-            LOG.warn("Email could not be sent to user '{}'", to, e);
-        }
+        MimeMessage mimeMessage = sender.createMimeMessage();
+        MimeMessageHelper message =
+                new MimeMessageHelper(mimeMessage, isMultipart, StandardCharsets.UTF_8.name());
+        message.setTo(to);
+        message.setFrom(from);
+        message.setSubject(subject);
+        message.setText(content, isHtml);
+        return mimeMessage;
     }
 
     @Async
@@ -167,13 +182,14 @@ public class MailService {
             return;
         }
         Locale locale = Locale.forLanguageTag(user.getLangKey() != null ? user.getLangKey() : "en");
-        Context context = new Context(locale);
-        context.setVariable(USER, user);
-        context.setVariable(BASE_URL, baseUrl);
-        String content = templateEngine.process(templateName, context);
-        String subject = messageSource.getMessage(titleKey, null, locale);
+        EmailContext emailContext =
+                new EmailContext(locale, baseUrl, messageSource)
+                        .setToUser(user)
+                        .setSubject(titleKey)
+                        .setTemplate(templateName);
+        String content = mailTemplateRenderer.render(emailContext);
 
-        this.sendEmail(user.getEmail(), subject, content, false, true);
+        this.sendEmail(user.getEmail(), emailContext.getSubject(), content, false, true);
     }
 
     @Async
@@ -187,10 +203,7 @@ public class MailService {
                     emailContext.getSubject());
             return;
         }
-        emailContext.addVariable(USER, emailContext.getToUser());
-        String content =
-                templateEngine.process(
-                        emailContext.getTemplate(), emailContext.getThymeleafContext());
+        String content = mailTemplateRenderer.render(emailContext);
         this.sendEmail(
                 emailContext.getToUser().getEmail(),
                 emailContext.getSubject(),
@@ -199,6 +212,52 @@ public class MailService {
                 true);
     }
 
+    /**
+     * Renders the given email contexts and queues them with one batch insert, instead of one
+     * insert per message as {@link #sendEmail(EmailContext)} does. Emails differing by their
+     * recipient only are rendered once, see {@link MailTemplateRenderer}. Meant for jobs and
+     * listeners that notify many recipients at once.
+     *
+     * @param emailContexts the emails to send; those without recipient email or subject are skipped
+     */
+    @Async
+    public void sendEmails(List<EmailContext> emailContexts) {
+        if (!mailEnabled || mailSender == null) {
+            return;
+        }
+
+        List<EmailContext> deliverable = new ArrayList<>(emailContexts.size());
+        for (EmailContext emailContext : emailContexts) {
+            // The subject key is checked, the subject itself is resolved once per fan-out
+            if (emailContext.getToUser() == null
+                    || emailContext.getToUser().getEmail() == null
+                    || emailContext.getSubjectKey() == null) {
+                LOG.debug(
+                        "Email doesn't exist for user '{}' or no subject for email context '{}'",
+                        emailContext.getToUser(),
+                        emailContext.getSubjectKey());
+                continue;
+            }
+            deliverable.add(emailContext);
+        }
+
+        List<MailOutbox.Message> messages = new ArrayList<>(deliverable.size());
+        for (MailTemplateRenderer.RenderedEmail email :
+                mailTemplateRenderer.renderAll(deliverable)) {
+            messages.add(
+                    MailOutbox.Message.of(
+                            email.recipient().getEmail(),
+                            email.subject(),
+                            email.content(),
+                            false,
+                            true));
+        }
+
+        if (!messages.isEmpty()) {
+            enqueue(messages);
+        }
+    }
+
     @Async
     public void sendActivationEmail(UserDTO user) {
         LOG.debug("Sending activation email to '{}'", user.getEmail());
@@ -0,0 +1,222 @@
+package io.flowinquiry.modules.collab.service;
+
+import io.flowinquiry.modules.collab.EmailContext;
+import io.flowinquiry.modules.usermanagement.service.dto.UserDTO;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.Context;
+import org.unbescape.html.HtmlEscape;
+
+/**
+ * Renders email templates, rendering the parts a fan-out of emails has in common only once.
+ *
+ * <p>Emails of a fan-out usually differ by their recipient only: same template, locale, subject
+ * and variables. For such a group the template is rendered once with placeholders in place of the
+ * name and email of the recipient, and each email is produced by putting the escaped values of its
+ * recipient into that skeleton. Parsed templates themselves are cached by the template engine.
+ *
+ * <p>Placeholders assume recipient fields are written as text, the way {@code th:text} writes
+ * them. The skeleton is checked against a full rendering for the first recipient, and the group
+ * falls back to full renderings when they differ, for instance because the template uses another
+ * field of the recipient.
+ */
+@Component
+public class MailTemplateRenderer {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MailTemplateRenderer.class);
+
+    static final String USER = "user";
+
+    // Below this size a skeleton costs as much as rendering each email
+    private static final int MIN_FAN_OUT = 3;
+
+    private static final List<Function<UserDTO, String>> RECIPIENT_FIELDS =
+            List.of(UserDTO::getFirstName, UserDTO::getLastName, UserDTO::getEmail);
+
+    private final ITemplateEngine templateEngine;
+
+    // Letters and digits only, so escaping and message formatting leave placeholders untouched
+    private final String placeholderPrefix;
+
+    public MailTemplateRenderer(ITemplateEngine templateEngine) {
+        this.templateEngine = templateEngine;
+        byte[] nonce = new byte[8];
+        new SecureRandom().nextBytes(nonce);
+        this.placeholderPrefix = "fi" + HexFormat.of().formatHex(nonce) + "p";
+    }
+
+    /**
+     * Renders the template of one email.
+     *
+     * @param emailContext the email
+     * @return the html content
+     */
+    public String render(EmailContext emailContext) {
+        Context context = emailContext.getThymeleafContext();
+        context.setVariable(USER, emailContext.getToUser());
+        return templateEngine.process(emailContext.getTemplate(), context);
+    }
+
+    /**
+     * Renders the subject and template of many emails, once per group of emails that only differ
+     * by their recipient.
+     *
+     * @param emailContexts the emails, all with a recipient, a subject and a template
+     * @return the rendered emails, grouped by template and shared variables
+     */
+    public List<RenderedEmail> renderAll(List<EmailContext> emailContexts) {
+        Map<GroupKey, List<EmailContext>> groups = new LinkedHashMap<>();
+        for (EmailContext emailContext : emailContexts) {
+            groups.computeIfAbsent(GroupKey.of(emailContext), key -> new ArrayList<>())
+                    .add(emailContext);
+        }
+
+        List<RenderedEmail> rendered = new ArrayList<>(emailContexts.size());
+        for (List<EmailContext> group : groups.values()) {
+            // Shared by the group, resolved through the message source once
+            String subject = group.get(0).getSubject();
+            if (group.size() < MIN_FAN_OUT || !renderFanOut(group, subject, rendered)) {
+                for (EmailContext emailContext : group) {
+                    rendered.add(
+                            new RenderedEmail(
+                                    emailContext.getToUser(), subject, render(emailContext)));
+                }
+            }
+        }
+        return rendered;
+    }
+
+    private boolean renderFanOut(
+            List<EmailContext> group, String subject, List<RenderedEmail> rendered) {
+        EmailContext first = group.get(0);
+        Context context = first.getThymeleafContext();
+        context.setVariable(USER, placeholderUser());
+        Skeleton skeleton =
+                Skeleton.parse(templateEngine.process(first.getTemplate(), context), this);
+
+        String firstContent = render(first);
+        if (!skeleton.canFill(first.getToUser())
+                || !firstContent.equals(skeleton.fill(first.getToUser()))) {
+            LOG.debug(
+                    "Template {} does not only use recipient fields as text, rendering {} emails",
+                    first.getTemplate(),
+                    group.size());
+            return false;
+        }
+
+        rendered.add(new RenderedEmail(first.getToUser(), subject, firstContent));
+        for (EmailContext emailContext : group.subList(1, group.size())) {
+            UserDTO recipient = emailContext.getToUser();
+            String content =
+                    skeleton.canFill(recipient)
+                            ? skeleton.fill(recipient)
+                            : render(emailContext);
+            rendered.add(new RenderedEmail(recipient, subject, content));
+        }
+        return true;
+    }
+
+    private UserDTO placeholderUser() {
+        UserDTO user = new UserDTO();
+        user.setFirstName(placeholder(0));
+        user.setLastName(placeholder(1));
+        user.setEmail(placeholder(2));
+        return user;
+    }
+
+    private String placeholder(int field) {
+        return placeholderPrefix + field + "x";
+    }
+
+    /** An email rendered by {@link #renderAll}. */
+    public record RenderedEmail(UserDTO recipient, String subject, String content) {}
+
+    /**
+     * Identifies emails that only differ by their recipient. Variables are compared with {@code
+     * equals}, callers fanning out usually share the same instances.
+     */
+    private record GroupKey(
+            String template,
+            Locale locale,
+            String subjectKey,
+            List<Object> subjectArgs,
+            Map<String, Object> variables) {
+
+        static GroupKey of(EmailContext emailContext) {
+            Context context = emailContext.getThymeleafContext();
+            Map<String, Object> variables = new HashMap<>();
+            for (String name : context.getVariableNames()) {
+                if (!USER.equals(name)) {
+                    variables.put(name, context.getVariable(name));
+                }
+            }
+            Object[] args = emailContext.getSubjectArgs();
+            return new GroupKey(
+                    emailContext.getTemplate(),
+                    emailContext.getLocale(),
+                    emailContext.getSubjectKey(),
+                    args == null ? null : Arrays.asList(args),
+                    variables);
+        }
+    }
+
+    /** Rendered html split at the recipient placeholders. */
+    private record Skeleton(List<String> literals, int[] fields, int length) {
+
+        static Skeleton parse(String html, MailTemplateRenderer renderer) {
+            String prefix = renderer.placeholderPrefix;
+            int placeholderLength = renderer.placeholder(0).length();
+            List<String> literals = new ArrayList<>();
+            List<Integer> fields = new ArrayList<>();
+            int from = 0;
+            int at;
+            while ((at = html.indexOf(prefix, from)) >= 0) {
+                literals.add(html.substring(from, at));
+                fields.add(html.charAt(at + prefix.length()) - '0');
+                from = at + placeholderLength;
+            }
+            literals.add(html.substring(from));
+            return new Skeleton(
+                    literals,
+                    fields.stream().mapToInt(Integer::intValue).toArray(),
+                    html.length());
+        }
+
+        boolean canFill(UserDTO recipient) {
+            // A missing field may render differently than an empty one, e.g. as "null" in messages
+            for (int field : fields) {
+                if (RECIPIENT_FIELDS.get(field).apply(recipient) == null) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        String fill(UserDTO recipient) {
+            String[] values = new String[RECIPIENT_FIELDS.size()];
+            StringBuilder html = new StringBuilder(length + 64);
+            for (int i = 0; i < fields.length; i++) {
+                int field = fields[i];
+                if (values[field] == null) {
+                    String value = RECIPIENT_FIELDS.get(field).apply(recipient);
+                    values[field] = HtmlEscape.escapeHtml4Xml(Objects.requireNonNull(value));
+                }
+                html.append(literals.get(i)).append(values[field]);
+            }
+            return html.append(literals.get(fields.length)).toString();
+        }
+    }
+}
@@ -0,0 +1,296 @@
+package io.flowinquiry.modules.collab.service;
+
+import io.flowinquiry.modules.collab.domain.ActivityLog;
+import io.flowinquiry.modules.collab.domain.NotificationType;
+import io.flowinquiry.modules.collab.repository.ActivityLogRepository;
+import io.flowinquiry.modules.collab.service.dto.NotificationDTO;
+import io.flowinquiry.modules.usermanagement.service.dto.UserKey;
+import io.flowinquiry.security.SecurityUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+/**
+ * Delivers the notifications of team events in batches, off the threads that publish them.
+ *
+ * <p>Listeners {@link #submit submit} one request per event with its recipients. Requests wait in a
+ * bounded queue and are drained every window: the notifications of all requests in the window are
+ * coalesced per recipient, identical ones dropped, written with multi-row inserts, and pushed as
+ * one {@link #BATCH_DESTINATION} frame per recipient. When the queue stays full the submitting
+ * thread delivers its own request, which slows the publishers down instead of dropping events.
+ */
+@Slf4j
+@Service
+public class NotificationPipeline {
+
+    /** The user destination receiving the list of notifications of one window. */
+    public static final String BATCH_DESTINATION = "/queue/notifications-batch";
+
+    private static final String METRIC_PREFIX = "flowinquiry.notification.pipeline.";
+
+    // Seven parameters per row, well below the 65535 bind parameters PostgreSQL accepts
+    private static final int INSERT_CHUNK_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ActivityLogRepository activityLogRepository;
+    private final SimpMessagingTemplate messageTemplate;
+    private final UnreadNotificationCache unreadNotificationCache;
+
+    private final BlockingQueue<PendingRequest> queue;
+    private final long offerTimeoutMillis;
+    private final int maxRequestsPerWindow;
+    private final ScheduledExecutorService drainer;
+
+    private final Counter queuedRequests;
+    private final Counter callerRunsRequests;
+    private final Counter failedRequests;
+    private final Counter writtenNotifications;
+    private final Counter coalescedNotifications;
+    private final Counter sentFrames;
+    private final Timer deliveryTimer;
+
+    public NotificationPipeline(
+            JdbcTemplate jdbcTemplate,
+            ActivityLogRepository activityLogRepository,
+            SimpMessagingTemplate messageTemplate,
+            UnreadNotificationCache unreadNotificationCache,
+            MeterRegistry meterRegistry,
+            @Value("${flowinquiry.notification-pipeline.queue-capacity:10000}") int queueCapacity,
+            @Value("${flowinquiry.notification-pipeline.window-millis:500}") long windowMillis,
+            @Value("${flowinquiry.notification-pipeline.offer-timeout-millis:100}")
+                    long offerTimeoutMillis,
+            @Value("${flowinquiry.notification-pipeline.max-requests-per-window:2000}")
+                    int maxRequestsPerWindow) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.activityLogRepository = activityLogRepository;
+        this.messageTemplate = messageTemplate;
+        this.unreadNotificationCache = unreadNotificationCache;
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+        this.offerTimeoutMillis = offerTimeoutMillis;
+        this.maxRequestsPerWindow = maxRequestsPerWindow;
+
+        queuedRequests = requests(meterRegistry, "queued");
+        callerRunsRequests = requests(meterRegistry, "caller_runs");
+        failedRequests = requests(meterRegistry, "failed");
+        writtenNotifications =
+                Counter.builder(METRIC_PREFIX + "notifications")
+                        .description("Notifications written by the pipeline")
+                        .register(meterRegistry);
+        coalescedNotifications =
+                Counter.builder(METRIC_PREFIX + "coalesced")
+                        .description("Duplicate notifications of a recipient dropped in a window")
+                        .register(meterRegistry);
+        sentFrames =
+                Counter.builder(METRIC_PREFIX + "frames")
+                        .description("Notification frames pushed to recipients")
+                        .register(meterRegistry);
+        deliveryTimer =
+                Timer.builder(METRIC_PREFIX + "delivery")
+                        .description("Time to write and push the requests of one window")
+                        .register(meterRegistry);
+        meterRegistry.gauge(METRIC_PREFIX + "queue_size", queue, BlockingQueue::size);
+        meterRegistry.gauge(
+                METRIC_PREFIX + "queue_remaining", queue, BlockingQueue::remainingCapacity);
+
+        drainer =
+                Executors.newSingleThreadScheduledExecutor(
+                        runnable -> {
+                            Thread thread = new Thread(runnable, "notification-pipeline");
+                            thread.setDaemon(true);
+                            return thread;
+                        });
+        drainer.scheduleWithFixedDelay(
+                this::drain, windowMillis, windowMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Queues a notification for the given recipients, and optionally the activity log entry of the
+     * same event.
+     *
+     * @param content the html content of the notification
+     * @param type the notification type
+     * @param recipientIds the ids of the users to notify
+     * @param activityLog the activity log entry to save with the notifications, may be {@code
+     *     null}
+     */
+    public void submit(
+            String content,
+            NotificationType type,
+            Collection<Long> recipientIds,
+            ActivityLog activityLog) {
+        if (recipientIds.isEmpty() && activityLog == null) {
+            return;
+        }
+
+        PendingRequest request =
+                new PendingRequest(
+                        content,
+                        type,
+                        List.copyOf(recipientIds),
+                        activityLog,
+                        SecurityUtils.getCurrentUserLogin().map(UserKey::getId).orElse(null),
+                        Instant.now());
+        try {
+            if (queue.offer(request, offerTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                queuedRequests.increment();
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // Backpressure: the queue stayed full, so the publisher pays for its own delivery
+        callerRunsRequests.increment();
+        deliverSafely(List.of(request));
+    }
+
+    /** Delivers the requests waiting in the queue. */
+    void drain() {
+        List<PendingRequest> batch = new ArrayList<>();
+        while (queue.drainTo(batch, maxRequestsPerWindow) > 0) {
+            deliverSafely(batch);
+            batch = new ArrayList<>();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        drainer.shutdown();
+        try {
+            drainer.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        drain();
+    }
+
+    private void deliverSafely(List<PendingRequest> requests) {
+        try {
+            deliveryTimer.record(() -> deliver(requests));
+        } catch (RuntimeException e) {
+            failedRequests.increment(requests.size());
+            log.error("Failed to deliver {} notification requests", requests.size(), e);
+        }
+    }
+
+    private void deliver(List<PendingRequest> requests) {
+        // Coalesce per recipient, keeping the first of identical notifications
+        Map<Long, Map<NotificationKey, PendingNotification>> byRecipient = new LinkedHashMap<>();
+        List<ActivityLog> activityLogs = new ArrayList<>();
+        for (PendingRequest request : requests) {
+            for (Long recipientId : request.recipientIds()) {
+                PendingNotification previous =
+                        byRecipient
+                                .computeIfAbsent(recipientId, id -> new LinkedHashMap<>())
+                                .putIfAbsent(
+                                        new NotificationKey(request.content(), request.type()),
+                                        new PendingNotification(recipientId, request));
+                if (previous != null) {
+                    coalescedNotifications.increment();
+                }
+            }
+            if (request.activityLog() != null) {
+                activityLogs.add(request.activityLog());
+            }
+        }
+
+        List<PendingNotification> notifications = new ArrayList<>();
+        byRecipient.values().forEach(pending -> notifications.addAll(pending.values()));
+        Map<Long, List<NotificationDTO>> frames = new LinkedHashMap<>();
+        for (int start = 0; start < notifications.size(); start += INSERT_CHUNK_SIZE) {
+            List<PendingNotification> chunk =
+                    notifications.subList(
+                            start, Math.min(start + INSERT_CHUNK_SIZE, notifications.size()));
+            List<Long> ids = insertNotifications(chunk);
+            for (int i = 0; i < chunk.size(); i++) {
+                PendingNotification notification = chunk.get(i);
+                frames.computeIfAbsent(notification.recipientId(), id -> new ArrayList<>())
+                        .add(
+                                NotificationDTO.builder()
+                                        .id(ids.get(i))
+                                        .type(notification.request().type())
+                                        .content(notification.request().content())
+                                        .userId(notification.recipientId())
+                                        .isRead(false)
+                                        .createdAt(notification.request().createdAt())
+                                        .build());
+            }
+        }
+        writtenNotifications.increment(notifications.size());
+
+        if (!activityLogs.isEmpty()) {
+            activityLogRepository.saveAll(activityLogs);
+        }
+
+        frames.forEach(
+                (recipientId, recipientNotifications) ->
+                        messageTemplate.convertAndSendToUser(
+                                String.valueOf(recipientId),
+                                BATCH_DESTINATION,
+                                recipientNotifications));
+        sentFrames.increment(frames.size());
+        unreadNotificationCache.onInserted(frames);
+    }
+
+    private List<Long> insertNotifications(List<PendingNotification> notifications) {
+        StringBuilder sql =
+                new StringBuilder(
+                        "INSERT INTO fw_notification (content, notification_type, user_id,"
+                                + " is_read, created_by, created_at, modified_by, modified_at)"
+                                + " VALUES ");
+        List<Object> params = new ArrayList<>(notifications.size() * 7);
+        for (int i = 0; i < notifications.size(); i++) {
+            PendingNotification notification = notifications.get(i);
+            PendingRequest request = notification.request();
+            Timestamp createdAt = Timestamp.from(request.createdAt());
+            sql.append(i == 0 ? "" : ", ").append("(?, ?, ?, false, ?, ?, ?, ?)");
+            params.add(request.content());
+            params.add(request.type().name());
+            params.add(notification.recipientId());
+            params.add(request.createdBy());
+            params.add(createdAt);
+            params.add(request.createdBy());
+            params.add(createdAt);
+        }
+        // Row order of RETURNING follows the VALUES list for a plain multi-row insert
+        sql.append(" RETURNING id");
+        return jdbcTemplate.queryForList(sql.toString(), Long.class, params.toArray());
+    }
+
+    private static Counter requests(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder(METRIC_PREFIX + "requests")
+                .description("Notification requests by how they were handed to the pipeline")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private record PendingRequest(
+            String content,
+            NotificationType type,
+            List<Long> recipientIds,
+            ActivityLog activityLog,
+            Long createdBy,
+            Instant createdAt) {}
+
+    private record PendingNotification(Long recipientId, PendingRequest request) {}
+
+    private record NotificationKey(String content, NotificationType type) {}
+}
@@ -1,11 +1,21 @@
 package io.flowinquiry.modules.collab.service;
 
+import io.flowinquiry.modules.collab.domain.Notification;
 import io.flowinquiry.modules.collab.repository.NotificationRepository;
 import io.flowinquiry.modules.collab.service.dto.NotificationDTO;
+import io.flowinquiry.modules.collab.service.dto.UnreadNotificationSummaryDTO;
+import io.flowinquiry.modules.collab.service.event.NotificationsReadEvent;
 import io.flowinquiry.modules.collab.service.mapper.NotificationMapper;
+import io.flowinquiry.query.KeysetCursor;
+import io.flowinquiry.query.KeysetSlice;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -13,14 +23,26 @@ import org.springframework.transaction.annotation.Transactional;
 @Transactional
 @Service
 public class NotificationService {
+
+    public static final int MAX_KEYSET_PAGE_SIZE = 100;
+
     private final NotificationRepository notificationRepository;
 
     private final NotificationMapper notificationMapper;
 
+    private final UnreadNotificationCache unreadNotificationCache;
+
+    private final ApplicationEventPublisher eventPublisher;
+
     public NotificationService(
-            NotificationRepository notificationRepository, NotificationMapper notificationMapper) {
+            NotificationRepository notificationRepository,
+            NotificationMapper notificationMapper,
+            UnreadNotificationCache unreadNotificationCache,
+            ApplicationEventPublisher eventPublisher) {
         this.notificationRepository = notificationRepository;
         this.notificationMapper = notificationMapper;
+        this.unreadNotificationCache = unreadNotificationCache;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional(readOnly = true)
@@ -32,13 +54,71 @@ public class NotificationService {
                 .toList();
     }
 
+    /**
+     * Returns the unread count and newest unread notifications of the user, served from memory
+     * once loaded.
+     *
+     * @param userId the user id
+     * @return the unread summary of the user
+     */
+    @Transactional(readOnly = true)
+    public UnreadNotificationSummaryDTO getUnreadSummaryForUser(Long userId) {
+        return unreadNotificationCache.getSummary(userId);
+    }
+
     @Transactional(readOnly = true)
     public Page<NotificationDTO> getNotificationsForUser(Long userId, Pageable pageable) {
         return notificationRepository.findByUserId(userId, pageable).map(notificationMapper::toDTO);
     }
 
+    /**
+     * Returns the notifications of the user, newest first, with keyset pagination.
+     *
+     * @param userId the user id
+     * @param cursorToken the cursor returned with the previous page, {@code null} for the first
+     *     page
+     * @param size the page size, at most {@link #MAX_KEYSET_PAGE_SIZE}
+     * @return the page of notifications and the cursor of the next page
+     */
+    @Transactional(readOnly = true)
+    public KeysetSlice<NotificationDTO> getNotificationsForUserAfter(
+            Long userId, String cursorToken, int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        Pageable limit = PageRequest.of(0, Math.min(size, MAX_KEYSET_PAGE_SIZE));
+        Slice<Notification> notifications;
+        if (cursorToken == null) {
+            notifications =
+                    notificationRepository.findByUserIdOrderByCreatedAtDescIdDesc(userId, limit);
+        } else {
+            KeysetCursor cursor = KeysetCursor.decode(cursorToken);
+            notifications =
+                    notificationRepository.findByUserIdBefore(
+                            userId, cursor.lastCreatedAt(), cursor.lastId(), limit);
+        }
+        return KeysetSlice.of(
+                notifications,
+                notification ->
+                        KeysetCursor.ofCreatedAt(notification.getCreatedAt(), notification.getId()),
+                notificationMapper::toDTO);
+    }
+
     @Transactional
     public void markNotificationsAsRead(List<Long> notificationIds) {
-        notificationRepository.markAsRead(notificationIds);
+        Map<Long, List<Long>> unreadIdsByUser =
+                notificationRepository.findUnreadByIdInForUpdate(notificationIds).stream()
+                        .collect(
+                                Collectors.groupingBy(
+                                        notification -> notification.getUser().getId(),
+                                        Collectors.mapping(
+                                                Notification::getId, Collectors.toList())));
+        if (unreadIdsByUser.isEmpty()) {
+            return;
+        }
+
+        notificationRepository.markAsRead(
+                unreadIdsByUser.values().stream().flatMap(List::stream).toList());
+        eventPublisher.publishEvent(new NotificationsReadEvent(this, unreadIdsByUser));
     }
 }
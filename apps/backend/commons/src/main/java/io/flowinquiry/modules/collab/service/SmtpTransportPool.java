@@ -0,0 +1,91 @@
+package io.flowinquiry.modules.collab.service;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+/**
+ * Keeps SMTP connections open between batches of emails, so workers do not pay the connection,
+ * TLS and authentication handshakes for every batch.
+ *
+ * <p>A pooled connection is checked before it is reused, and dropped when it was opened with mail
+ * settings that have been replaced since, or when it stayed idle longer than servers usually keep
+ * connections open.
+ */
+public class SmtpTransportPool {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SmtpTransportPool.class);
+
+    private final BlockingDeque<PooledTransport> idle;
+    private final long maxIdleNanos;
+
+    public SmtpTransportPool(int maxIdle, long maxIdleNanos) {
+        this.idle = new LinkedBlockingDeque<>(maxIdle);
+        this.maxIdleNanos = maxIdleNanos;
+    }
+
+    /**
+     * Returns an open connection for the given mail settings, reusing an idle one if possible.
+     *
+     * @param sender the mail sender holding the current settings
+     * @return the connection, to be {@link #release released} or {@link #discard discarded}
+     * @throws MessagingException if no connection can be opened
+     */
+    public Transport borrow(JavaMailSenderImpl sender) throws MessagingException {
+        PooledTransport pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            if (pooled.sender() == sender
+                    && System.nanoTime() - pooled.releasedAtNanos() < maxIdleNanos
+                    // Sends a NOOP, the server may have closed the connection
+                    && pooled.transport().isConnected()) {
+                return pooled.transport();
+            }
+            discard(pooled.transport());
+        }
+        return connect(sender);
+    }
+
+    /** Returns a healthy connection to the pool, or closes it when the pool is full. */
+    public void release(JavaMailSenderImpl sender, Transport transport) {
+        if (!idle.offerFirst(new PooledTransport(sender, transport, System.nanoTime()))) {
+            discard(transport);
+        }
+    }
+
+    /** Closes a connection that failed or is not needed any more. */
+    public void discard(Transport transport) {
+        try {
+            transport.close();
+        } catch (MessagingException e) {
+            LOG.debug("Can not close the SMTP connection", e);
+        }
+    }
+
+    /** Closes all idle connections. */
+    public void close() {
+        PooledTransport pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            discard(pooled.transport());
+        }
+    }
+
+    private static Transport connect(JavaMailSenderImpl sender) throws MessagingException {
+        // Same as JavaMailSenderImpl, which keeps its own connection for one send call only
+        Transport transport = sender.getSession().getTransport();
+        String username = sender.getUsername();
+        String password = sender.getPassword();
+        transport.connect(
+                sender.getHost(),
+                sender.getPort(),
+                username == null || username.isEmpty() ? null : username,
+                password == null || password.isEmpty() ? null : password);
+        return transport;
+    }
+
+    private record PooledTransport(
+            JavaMailSenderImpl sender, Transport transport, long releasedAtNanos) {}
+}
@@ -0,0 +1,200 @@
+package io.flowinquiry.modules.collab.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.flowinquiry.modules.collab.repository.NotificationRepository;
+import io.flowinquiry.modules.collab.service.dto.NotificationDTO;
+import io.flowinquiry.modules.collab.service.dto.UnreadNotificationCountDTO;
+import io.flowinquiry.modules.collab.service.dto.UnreadNotificationSummaryDTO;
+import io.flowinquiry.modules.collab.service.event.NotificationsReadEvent;
+import io.flowinquiry.modules.collab.service.mapper.NotificationMapper;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Keeps the unread notification count and the newest unread notifications of each active user in
+ * memory, so the header badge does not load every unread row of the user on each refresh.
+ *
+ * <p>A user's state is loaded from the database on first read, then maintained from the
+ * notifications the {@link NotificationPipeline} writes and the ones marked as read, and pushed to
+ * the user over {@link #DESTINATION} on every change. Users without cached state are not tracked
+ * until they read their summary again. Entries expire after a while so any drift from writes this
+ * node does not see is bounded.
+ */
+@Slf4j
+@Service
+public class UnreadNotificationCache {
+
+    /** The user destination receiving the unread summary, shared with single notifications. */
+    public static final String DESTINATION = "/queue/notifications";
+
+    private final NotificationRepository notificationRepository;
+    private final NotificationMapper notificationMapper;
+    private final SimpMessagingTemplate messageTemplate;
+    private final int latestSize;
+    private final Cache<Long, UnreadState> states;
+
+    public UnreadNotificationCache(
+            NotificationRepository notificationRepository,
+            NotificationMapper notificationMapper,
+            SimpMessagingTemplate messageTemplate,
+            @Value("${flowinquiry.notification-unread.latest-size:10}") int latestSize,
+            @Value("${flowinquiry.notification-unread.maximum-size:10000}") long maximumSize,
+            @Value("${flowinquiry.notification-unread.expire-after-write:PT10M}")
+                    Duration expireAfterWrite) {
+        this.notificationRepository = notificationRepository;
+        this.notificationMapper = notificationMapper;
+        this.messageTemplate = messageTemplate;
+        this.latestSize = latestSize;
+        this.states =
+                Caffeine.newBuilder()
+                        .maximumSize(maximumSize)
+                        .expireAfterWrite(expireAfterWrite)
+                        .build();
+    }
+
+    /**
+     * Returns the unread count and newest unread notifications of a user, loading them from the
+     * database only when the user has no cached state.
+     *
+     * @param userId the user id
+     * @return the unread summary of the user
+     */
+    public UnreadNotificationSummaryDTO getSummary(Long userId) {
+        return states.get(userId, this::load).summary();
+    }
+
+    /**
+     * Adds newly written notifications to the state of their recipients and pushes the updated
+     * summaries.
+     *
+     * @param notificationsByUser the written notifications per recipient, oldest first
+     */
+    public void onInserted(Map<Long, List<NotificationDTO>> notificationsByUser) {
+        notificationsByUser.forEach(
+                (userId, notifications) -> {
+                    // Waits for a load in progress, whose snapshot may already hold these rows
+                    UnreadState state =
+                            states.asMap()
+                                    .computeIfPresent(
+                                            userId,
+                                            (id, current) -> {
+                                                current.addAll(notifications);
+                                                return current;
+                                            });
+                    if (state != null) {
+                        push(userId, state.summary());
+                    }
+                });
+    }
+
+    /** Removes notifications marked as read from the state of their users once committed. */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onNotificationsRead(NotificationsReadEvent event) {
+        event.getNotificationIdsByUser()
+                .forEach(
+                        (userId, notificationIds) -> {
+                            UnreadState state = states.getIfPresent(userId);
+                            if (state == null) {
+                                return;
+                            }
+                            boolean complete = state.removeAll(notificationIds);
+                            push(userId, state.summary());
+                            if (!complete) {
+                                // The newest list ran short while older unread rows remain, so
+                                // the next read reloads it
+                                states.invalidate(userId);
+                            }
+                        });
+    }
+
+    private UnreadState load(Long userId) {
+        UnreadNotificationCountDTO count = notificationRepository.countUnreadByUserId(userId);
+        List<NotificationDTO> latest =
+                notificationRepository
+                        .findByUserIdAndIsReadFalseOrderByCreatedAtDescIdDesc(
+                                userId, PageRequest.of(0, latestSize))
+                        .stream()
+                        .map(notificationMapper::toDTO)
+                        .toList();
+        long lastUnreadId = count.getLastUnreadId() == null ? 0 : count.getLastUnreadId();
+        return new UnreadState(latestSize, count.getUnreadCount(), lastUnreadId, latest);
+    }
+
+    private void push(Long userId, UnreadNotificationSummaryDTO summary) {
+        try {
+            messageTemplate.convertAndSendToUser(String.valueOf(userId), DESTINATION, summary);
+        } catch (RuntimeException e) {
+            log.warn("Failed to push the unread notification summary of user {}", userId, e);
+        }
+    }
+
+    /** The mutable unread state of one user, guarded by its own monitor. */
+    static final class UnreadState {
+
+        private final int latestSize;
+        // Newest first, by id
+        private final List<NotificationDTO> latest;
+        private long unreadCount;
+        // Notifications at or below this id were committed when the state was loaded, so they
+        // are already part of the count
+        private final long loadedUpToId;
+        // Notifications counted since the load. The pipeline may deliver them out of id order, so
+        // they are told apart by id rather than by a moving watermark
+        private final Set<Long> addedIds = new HashSet<>();
+
+        UnreadState(
+                int latestSize, long unreadCount, long loadedUpToId, List<NotificationDTO> latest) {
+            this.latestSize = latestSize;
+            this.unreadCount = unreadCount;
+            this.loadedUpToId = loadedUpToId;
+            this.latest = new ArrayList<>(latest);
+        }
+
+        synchronized void addAll(Collection<NotificationDTO> notifications) {
+            for (NotificationDTO notification : notifications) {
+                if (notification.getId() <= loadedUpToId || !addedIds.add(notification.getId())) {
+                    continue;
+                }
+                unreadCount++;
+                int position = 0;
+                while (position < latest.size()
+                        && latest.get(position).getId() > notification.getId()) {
+                    position++;
+                }
+                latest.add(position, notification);
+                if (latest.size() > latestSize) {
+                    latest.remove(latest.size() - 1);
+                }
+            }
+        }
+
+        /**
+         * Removes notifications that were marked as read.
+         *
+         * @return {@code false} when the newest list no longer holds all it should and has to be
+         *     reloaded
+         */
+        synchronized boolean removeAll(Collection<Long> notificationIds) {
+            unreadCount = Math.max(0, unreadCount - notificationIds.size());
+            Set<Long> ids = new HashSet<>(notificationIds);
+            latest.removeIf(notification -> ids.contains(notification.getId()));
+            return latest.size() >= Math.min(unreadCount, latestSize);
+        }
+
+        synchronized UnreadNotificationSummaryDTO summary() {
+            return new UnreadNotificationSummaryDTO(unreadCount, new ArrayList<>(latest));
+        }
+    }
+}
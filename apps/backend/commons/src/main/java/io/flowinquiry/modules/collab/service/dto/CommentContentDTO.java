@@ -0,0 +1,13 @@
+package io.flowinquiry.modules.collab.service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CommentContentDTO {
+    private Long entityId;
+    private String content;
+}
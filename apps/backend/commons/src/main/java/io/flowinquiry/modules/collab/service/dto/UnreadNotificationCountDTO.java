@@ -0,0 +1,12 @@
+package io.flowinquiry.modules.collab.service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/** The unread notification count of a user and the highest id it covers, read together. */
+@Data
+@AllArgsConstructor
+public class UnreadNotificationCountDTO {
+    private Long unreadCount;
+    private Long lastUnreadId;
+}
@@ -0,0 +1,15 @@
+package io.flowinquiry.modules.collab.service.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** The unread notification count of a user, with the newest unread notifications. */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UnreadNotificationSummaryDTO {
+    private long unreadCount;
+    private List<NotificationDTO> latest;
+}
@@ -0,0 +1,22 @@
+package io.flowinquiry.modules.collab.service.event;
+
+import java.util.Set;
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Published when application settings change, either on this instance or, when {@code remote} is
+ * set, on another instance that broadcast the change.
+ */
+@Getter
+public class AppSettingsChangedEvent extends ApplicationEvent {
+
+    private final Set<String> keys;
+    private final boolean remote;
+
+    public AppSettingsChangedEvent(Object source, Set<String> keys, boolean remote) {
+        super(source);
+        this.keys = keys;
+        this.remote = remote;
+    }
+}
@@ -0,0 +1,18 @@
+package io.flowinquiry.modules.collab.service.event;
+
+import java.util.List;
+import java.util.Map;
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+/** Published when notifications are marked as read, with the ids that changed per user. */
+@Getter
+public class NotificationsReadEvent extends ApplicationEvent {
+
+    private final Map<Long, List<Long>> notificationIdsByUser;
+
+    public NotificationsReadEvent(Object source, Map<Long, List<Long>> notificationIdsByUser) {
+        super(source);
+        this.notificationIdsByUser = notificationIdsByUser;
+    }
+}
@@ -1,11 +1,19 @@
 package io.flowinquiry.modules.fss.controller;
 
+import io.flowinquiry.modules.fss.service.ImageDerivativeWorker;
 import io.flowinquiry.modules.fss.service.StorageService;
+import io.flowinquiry.modules.fss.service.StoredObjectMetadata;
+import io.flowinquiry.modules.fss.service.dto.ImageDerivativeStatusDTO;
+import io.flowinquiry.modules.fss.service.dto.ImageDerivativeStatusDTO.Status;
 import jakarta.servlet.http.HttpServletRequest;
-import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.time.Instant;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.MediaTypeFactory;
@@ -13,19 +21,37 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+/**
+ * Streams stored files to the client. Files are never buffered in memory: the requested bytes are
+ * transferred from the storage backend to the response as it is written. Responses carry a strong
+ * ETag from the content hash and the modification time, so clients revalidate with {@code
+ * If-None-Match} or {@code If-Modified-Since}, and a single {@code Range} is answered with a
+ * {@code 206} partial response.
+ *
+ * <p>An image still being converted in the background is answered with {@code 202 Accepted} and a
+ * {@code Retry-After} header instead of holding the request until the conversion finishes.
+ */
 @RestController
 @RequestMapping("/api/files")
 public class FileDownloadController {
 
+    // Seconds a client waits before asking again for an image still being converted
+    private static final String DERIVATIVE_RETRY_AFTER = "1";
+
     private final StorageService storageService;
+    private final ImageDerivativeWorker imageDerivativeWorker;
 
-    public FileDownloadController(StorageService storageService) {
+    public FileDownloadController(
+            StorageService storageService, ImageDerivativeWorker imageDerivativeWorker) {
         this.storageService = storageService;
+        this.imageDerivativeWorker = imageDerivativeWorker;
     }
 
     @GetMapping(value = "/**")
-    public ResponseEntity<byte[]> downloadFile(HttpServletRequest request) throws Exception {
+    public ResponseEntity<StreamingResponseBody> downloadFile(HttpServletRequest request)
+            throws Exception {
         String requestUrl = request.getRequestURI();
         int fileIndex = requestUrl.lastIndexOf("/");
         if (fileIndex == -1) {
@@ -34,17 +60,135 @@ public class FileDownloadController {
         String fileName = requestUrl.substring(fileIndex + 1);
         String container = requestUrl.substring("/api/files".length() + 1, fileIndex);
 
-        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-        storageService.downloadFile(container, fileName, byteArrayOutputStream);
+        if (isBeingConverted(container + "/" + fileName)) {
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .header(HttpHeaders.RETRY_AFTER, DERIVATIVE_RETRY_AFTER)
+                    .build();
+        }
+        StoredObjectMetadata metadata = storageService.getMetadata(container, fileName);
+        String eTag = "\"" + metadata.contentHash() + "\"";
 
         final HttpHeaders httpHeaders = new HttpHeaders();
         httpHeaders.setContentType(
                 MediaTypeFactory.getMediaType(fileName).orElse(MediaType.APPLICATION_OCTET_STREAM));
         httpHeaders.setCacheControl(CacheControl.maxAge(1, TimeUnit.DAYS).cachePublic());
         httpHeaders.setExpires(System.currentTimeMillis() + 3600 * 1000 * 24);
-        httpHeaders.setETag("\"" + byteArrayOutputStream.size() + "\""); // ETag for revalidation
+        httpHeaders.setETag(eTag);
+        if (metadata.lastModified() != null) {
+            httpHeaders.setLastModified(metadata.lastModified());
+        }
+        httpHeaders.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        if (isNotModified(request, eTag, metadata.lastModified())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(httpHeaders).build();
+        }
+
+        long size = metadata.size();
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader != null
+                && isRangeApplicable(request.getHeader(HttpHeaders.IF_RANGE), eTag, metadata)) {
+            List<HttpRange> ranges;
+            try {
+                ranges = HttpRange.parseRanges(rangeHeader);
+            } catch (IllegalArgumentException e) {
+                // A Range header that can not be parsed is ignored, the whole file is served
+                ranges = List.of();
+            }
+            // Several ranges would need a multipart body, answer those with the whole file
+            if (ranges.size() == 1) {
+                HttpRange range = ranges.get(0);
+                if (!isSatisfiable(range, size)) {
+                    httpHeaders.set(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                    return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                            .headers(httpHeaders)
+                            .build();
+                }
+                long start = range.getRangeStart(size);
+                long end = range.getRangeEnd(size);
+                httpHeaders.set(
+                        HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+                httpHeaders.setContentLength(end - start + 1);
+                return new ResponseEntity<>(
+                        body(container, fileName, start, end - start + 1),
+                        httpHeaders,
+                        HttpStatus.PARTIAL_CONTENT);
+            }
+        }
+
+        httpHeaders.setContentLength(size);
+        return new ResponseEntity<>(body(container, fileName, 0, size), httpHeaders, HttpStatus.OK);
+    }
+
+    private StreamingResponseBody body(String container, String fileName, long start, long length) {
+        return outputStream -> {
+            try {
+                storageService.read(
+                        container, fileName, start, length, Channels.newChannel(outputStream));
+            } catch (Exception e) {
+                // I/O failures, such as the client going away, are passed on as they are
+                throw e instanceof IOException ioException
+                        ? ioException
+                        : new IOException("Failed to stream " + container + "/" + fileName, e);
+            }
+        };
+    }
+
+    private boolean isBeingConverted(String objectPath) {
+        return imageDerivativeWorker
+                .getStatus(objectPath)
+                .map(ImageDerivativeStatusDTO::getStatus)
+                .filter(status -> status == Status.QUEUED || status == Status.PROCESSING)
+                .isPresent();
+    }
+
+    private static boolean isNotModified(
+            HttpServletRequest request, String eTag, Instant lastModified) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            // If-None-Match takes precedence over If-Modified-Since, compared weakly
+            for (String candidate : ifNoneMatch.split(",")) {
+                String value = candidate.trim();
+                if (value.equals("*") || stripWeak(value).equals(eTag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        long ifModifiedSince = request.getDateHeader(HttpHeaders.IF_MODIFIED_SINCE);
+        return lastModified != null
+                && ifModifiedSince >= 0
+                && lastModified.toEpochMilli() / 1000 <= ifModifiedSince / 1000;
+    }
+
+    /** A range only applies when an {@code If-Range} validator, if any, still matches. */
+    private static boolean isRangeApplicable(
+            String ifRange, String eTag, StoredObjectMetadata metadata) {
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"")) {
+            // Strong comparison
+            return ifRange.equals(eTag);
+        }
+        try {
+            long date = HttpHeaders.readDate(ifRange);
+            return metadata.lastModified() != null
+                    && metadata.lastModified().toEpochMilli() / 1000 == date / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static boolean isSatisfiable(HttpRange range, long size) {
+        try {
+            range.getRangeStart(size);
+            return size > 0;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
 
-        return new ResponseEntity<>(
-                byteArrayOutputStream.toByteArray(), httpHeaders, HttpStatus.OK);
+    private static String stripWeak(String eTag) {
+        return eTag.startsWith("W/") ? eTag.substring(2) : eTag;
     }
 }
@@ -1,6 +1,8 @@
 package io.flowinquiry.modules.fss.controller;
 
+import io.flowinquiry.modules.fss.service.ImageDerivativeWorker;
 import io.flowinquiry.modules.fss.service.StorageService;
+import io.flowinquiry.modules.fss.service.dto.ImageDerivativeStatusDTO;
 import io.flowinquiry.modules.usermanagement.service.dto.UserKey;
 import io.flowinquiry.security.SecurityUtils;
 import jakarta.json.Json;
@@ -8,11 +10,13 @@ import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
+import tech.jhipster.web.util.ResponseUtil;
 
 @RestController
 @RequestMapping("/api/files")
@@ -21,9 +25,12 @@ public class FileUploadController {
     private static final Logger LOG = LoggerFactory.getLogger(FileUploadController.class);
 
     private final StorageService storageService;
+    private final ImageDerivativeWorker imageDerivativeWorker;
 
-    public FileUploadController(StorageService storageService) {
+    public FileUploadController(
+            StorageService storageService, ImageDerivativeWorker imageDerivativeWorker) {
         this.storageService = storageService;
+        this.imageDerivativeWorker = imageDerivativeWorker;
     }
 
     @PostMapping(value = "/singleUpload")
@@ -48,4 +55,16 @@ public class FileUploadController {
                         prefixPath, file.getOriginalFilename(), file.getInputStream());
         return ResponseEntity.ok(Json.createObjectBuilder().add("path", path).build().toString());
     }
+
+    /**
+     * Returns the progress of the PNG conversion and thumbnail of a recently uploaded image.
+     *
+     * @param path the path returned by the image upload
+     * @return the progress, or 404 when the image was not uploaded recently
+     */
+    @GetMapping(value = "/derivatives")
+    public ResponseEntity<ImageDerivativeStatusDTO> getDerivativeStatus(
+            @RequestParam("path") String path) {
+        return ResponseUtil.wrapOrNotFound(imageDerivativeWorker.getStatus(path));
+    }
 }
@@ -30,4 +30,12 @@ public interface EntityAttachmentRepository extends JpaRepository<EntityAttachme
      * @param entityId The ID of the entity.
      */
     void deleteByEntityTypeAndEntityId(String entityType, Long entityId);
+
+    /**
+     * Counts the attachments referencing a stored file, which may be shared by identical uploads.
+     *
+     * @param fileUrl The path of the stored file.
+     * @return The number of attachments referencing the file.
+     */
+    long countByFileUrl(String fileUrl);
 }
@@ -0,0 +1,86 @@
+package io.flowinquiry.modules.fss.service;
+
+import io.flowinquiry.modules.fss.repository.EntityAttachmentRepository;
+import io.flowinquiry.modules.fss.service.event.AttachmentFilesReleasedEvent;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Deletes stored files once the last attachment referencing them is gone. Files are released after
+ * the deleting transaction commits, so a rollback never leaves attachments pointing at missing
+ * files.
+ *
+ * <p>Identical uploads share one file, and an upload reusing a file stores its attachment only
+ * once its own transaction commits. Released files are therefore deleted after a grace period,
+ * when they are still unreferenced and no upload reused them within the grace period before the
+ * release, see {@link StorageService#deleteFileIfUnusedSince}. Files released before a restart
+ * are not deleted.
+ */
+@Component
+public class AttachmentFileReleaseListener {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AttachmentFileReleaseListener.class);
+
+    private final EntityAttachmentRepository entityAttachmentRepository;
+    private final StorageService storageService;
+    private final Duration gracePeriod;
+
+    // Released files by the time their deletion was last decided
+    private final Map<String, Instant> releasedFiles = new ConcurrentHashMap<>();
+
+    public AttachmentFileReleaseListener(
+            EntityAttachmentRepository entityAttachmentRepository,
+            StorageService storageService,
+            @Value("${application.file.release-grace-period:PT10M}") Duration gracePeriod) {
+        this.entityAttachmentRepository = entityAttachmentRepository;
+        this.storageService = storageService;
+        this.gracePeriod = gracePeriod;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void releaseFiles(AttachmentFilesReleasedEvent event) {
+        Instant now = Instant.now();
+        event.getFileUrls().forEach(fileUrl -> releasedFiles.put(fileUrl, now));
+    }
+
+    @Scheduled(fixedDelayString = "${application.file.release-sweep-interval:PT1M}")
+    public void deleteReleasedFiles() {
+        deleteReleasedFiles(Instant.now());
+    }
+
+    void deleteReleasedFiles(Instant now) {
+        for (Map.Entry<String, Instant> released : releasedFiles.entrySet()) {
+            String fileUrl = released.getKey();
+            Instant releasedAt = released.getValue();
+            if (releasedAt.plus(gracePeriod).isAfter(now)) {
+                continue;
+            }
+            if (entityAttachmentRepository.countByFileUrl(fileUrl) > 0) {
+                LOG.debug("File {} is still referenced, keeping it", fileUrl);
+                releasedFiles.remove(fileUrl, releasedAt);
+                continue;
+            }
+            try {
+                // Uploads commit their attachment within the grace period after reusing a file
+                if (storageService.deleteFileIfUnusedSince(
+                        fileUrl, releasedAt.minus(gracePeriod))) {
+                    releasedFiles.remove(fileUrl, releasedAt);
+                } else {
+                    // The attachment reusing the file may not be committed yet, decide again later
+                    releasedFiles.replace(fileUrl, releasedAt, now);
+                }
+            } catch (Exception e) {
+                LOG.error("Can not delete file {}", fileUrl, e);
+                releasedFiles.remove(fileUrl, releasedAt);
+            }
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package io.flowinquiry.modules.fss.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Stores uploaded files on the local disk by their SHA-256 content hash, so identical uploads share
+ * one blob and uploads with the same name never overwrite each other.
+ *
+ * <p>An upload is streamed through the digest into a temporary file next to the blobs, then moved
+ * atomically to {@code <container>/ab/cd/<hash>.<extension>} where {@code ab} and {@code cd} are
+ * the first bytes of the hash. The extension is kept so downloads still resolve the content type
+ * from the path. Blobs may be shared, so callers only delete them once nothing references them
+ * any more, see {@link AttachmentFileReleaseListener}. Reusing a blob refreshes its modification
+ * time, which keeps it from a release decided while the reusing attachment was not committed.
+ */
+@Component
+@ConditionalOnProperty(
+        name = "application.file.layout",
+        havingValue = "content-addressed",
+        matchIfMissing = true)
+public class ContentAddressedStorageService extends LocalFileStorageService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ContentAddressedStorageService.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final int LOCK_STRIPES = 64;
+
+    // Serializes the reuse and the release of a blob, striped by path
+    private final Lock[] blobLocks = new Lock[LOCK_STRIPES];
+
+    public ContentAddressedStorageService(
+            @Value("${application.file.rootDirectory:storage}") String rootDirectory,
+            ImageDerivativeWorker imageDerivativeWorker) {
+        super(rootDirectory, imageDerivativeWorker);
+        for (int i = 0; i < blobLocks.length; i++) {
+            blobLocks[i] = new ReentrantLock();
+        }
+    }
+
+    @Override
+    public String uploadFile(String containerName, String blobName, InputStream inputStream)
+            throws Exception {
+        Path directory = Files.createDirectories(Paths.get(getRootDirectory(), containerName));
+        Path tempFile = Files.createTempFile(directory, ".upload-", ".tmp");
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            try (InputStream source = new DigestInputStream(inputStream, digest);
+                    OutputStream target = Files.newOutputStream(tempFile)) {
+                byte[] buffer = new byte[BUFFER_SIZE];
+                int bytesRead;
+                while ((bytesRead = source.read(buffer)) != -1) {
+                    target.write(buffer, 0, bytesRead);
+                }
+            }
+
+            String hash = HexFormat.of().formatHex(digest.digest());
+            String relativePath =
+                    hash.substring(0, 2)
+                            + "/"
+                            + hash.substring(2, 4)
+                            + "/"
+                            + hash
+                            + extensionOf(blobName);
+            Path blob = directory.resolve(relativePath).normalize();
+            Lock lock = lockOf(blob);
+            lock.lock();
+            try {
+                if (Files.exists(blob)) {
+                    // Marks the blob as reused, so a release decided meanwhile keeps it
+                    Files.setLastModifiedTime(blob, FileTime.from(Instant.now()));
+                    LOG.debug("Blob {} of {} already exists, reusing it", relativePath, blobName);
+                } else {
+                    Files.createDirectories(blob.getParent());
+                    moveAtomically(tempFile, blob);
+                    LOG.debug("Stored {} as blob {} in {}", blobName, relativePath, containerName);
+                }
+            } finally {
+                lock.unlock();
+            }
+            return containerName + "/" + relativePath;
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    /**
+     * Deletes a released blob unless an upload stored or reused it after {@code since}. Checking
+     * and deleting hold the lock of the blob, so an upload either reuses the blob before it is
+     * checked, or stores it again once it is deleted.
+     */
+    @Override
+    public boolean deleteFileIfUnusedSince(String objectPath, Instant since) throws Exception {
+        Path blob = Paths.get(getRootDirectory(), objectPath).normalize();
+        Lock lock = lockOf(blob);
+        lock.lock();
+        try {
+            if (Files.exists(blob) && Files.getLastModifiedTime(blob).toInstant().isAfter(since)) {
+                LOG.debug("Blob {} was reused after {}, keeping it", objectPath, since);
+                return false;
+            }
+            deleteFile(objectPath);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Lock lockOf(Path blob) {
+        return blobLocks[Math.floorMod(blob.hashCode(), blobLocks.length)];
+    }
+
+    private static void moveAtomically(Path source, Path target) throws IOException {
+        try {
+            // A concurrent upload of the same content may win the race, replacing it is harmless
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    static String extensionOf(String blobName) {
+        if (blobName == null) {
+            return "";
+        }
+        int dot = blobName.lastIndexOf('.');
+        if (dot <= 0 || dot == blobName.length() - 1) {
+            return "";
+        }
+        String extension = blobName.substring(dot + 1).toLowerCase(Locale.ROOT);
+        // Only keep plain extensions, the rest of the name never reaches the path
+        boolean plain =
+                extension.length() <= 10
+                        && extension
+                                .chars()
+                                .allMatch(c -> (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9'));
+        return plain ? "." + extension : "";
+    }
+}
@@ -1,34 +1,82 @@
 package io.flowinquiry.modules.fss.service;
 
+import io.flowinquiry.modules.collab.domain.EntityType;
 import io.flowinquiry.modules.fss.domain.EntityAttachment;
 import io.flowinquiry.modules.fss.repository.EntityAttachmentRepository;
 import io.flowinquiry.modules.fss.service.dto.EntityAttachmentDTO;
+import io.flowinquiry.modules.fss.service.event.AttachmentFilesReleasedEvent;
 import io.flowinquiry.modules.fss.service.mapper.EntityAttachmentMapper;
+import io.flowinquiry.modules.teams.service.TicketCounterService;
+import jakarta.annotation.PreDestroy;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 @Service
 public class EntityAttachmentService {
 
-    private static final Logger LOG = LoggerFactory.getLogger(EntityAttachmentService.class);
-
     private final EntityAttachmentRepository entityAttachmentRepository;
     private final EntityAttachmentMapper entityAttachmentMapper;
     private final StorageService storageService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final TicketCounterService ticketCounterService;
+    // Writes uploaded files, the caller writes itself once the queue is full
+    private final ThreadPoolExecutor uploadExecutor;
 
     public EntityAttachmentService(
             EntityAttachmentRepository entityAttachmentRepository,
             EntityAttachmentMapper entityAttachmentMapper,
-            StorageService storageService) {
+            StorageService storageService,
+            ApplicationEventPublisher eventPublisher,
+            PlatformTransactionManager transactionManager,
+            TicketCounterService ticketCounterService,
+            @Value("${flowinquiry.attachment-upload.threads:4}") int uploadThreads) {
         this.entityAttachmentRepository = entityAttachmentRepository;
         this.entityAttachmentMapper = entityAttachmentMapper;
         this.storageService = storageService;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ticketCounterService = ticketCounterService;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.uploadExecutor =
+                new ThreadPoolExecutor(
+                        uploadThreads,
+                        uploadThreads,
+                        0L,
+                        TimeUnit.MILLISECONDS,
+                        new ArrayBlockingQueue<>(uploadThreads * 8),
+                        runnable -> {
+                            Thread thread =
+                                    new Thread(
+                                            runnable,
+                                            "attachment-upload-" + threadCount.incrementAndGet());
+                            thread.setDaemon(true);
+                            return thread;
+                        },
+                        new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        uploadExecutor.shutdown();
     }
 
     /**
@@ -38,14 +86,10 @@ public class EntityAttachmentService {
      * @param entityId The ID of the entity.
      * @param file The file to upload.
      * @return An unsaved EntityAttachment object.
-     * @throws Exception If file storage fails or the file is empty.
+     * @throws Exception If file storage fails.
      */
     private EntityAttachment createAttachment(String entityType, Long entityId, MultipartFile file)
             throws Exception {
-        if (file.isEmpty()) {
-            throw new IllegalArgumentException("File cannot be empty.");
-        }
-
         // Store the file and get its URL
         String fileUrl =
                 storageService.uploadFile(
@@ -68,6 +112,11 @@ public class EntityAttachmentService {
 
     /**
      * Uploads multiple attachments and associates them with a specific entity using batch insert.
+     * Files are stored by content, so a file the entity already has attached is not added again.
+     *
+     * <p>The files are written in parallel before the transaction starts, so no database connection
+     * is held during the disk writes. When an upload or the insert fails, the files written for the
+     * request are released again.
      *
      * @param entityType The type of entity (e.g., "ticket", "comment").
      * @param entityId The ID of the entity.
@@ -75,20 +124,78 @@ public class EntityAttachmentService {
      * @return A list of saved EntityAttachment objects.
      * @throws Exception If any file storage operation fails.
      */
-    @Transactional
     public List<EntityAttachment> uploadAttachments(
             String entityType, Long entityId, MultipartFile[] files) throws Exception {
         if (files == null || files.length == 0) {
             throw new IllegalArgumentException("File list cannot be empty.");
         }
+        for (MultipartFile file : files) {
+            if (file.isEmpty()) {
+                throw new IllegalArgumentException("File cannot be empty.");
+            }
+        }
 
-        List<EntityAttachment> attachments = new ArrayList<>();
+        List<CompletableFuture<EntityAttachment>> uploads = new ArrayList<>(files.length);
         for (MultipartFile file : files) {
-            attachments.add(createAttachment(entityType, entityId, file));
+            uploads.add(
+                    CompletableFuture.supplyAsync(
+                            () -> {
+                                try {
+                                    return createAttachment(entityType, entityId, file);
+                                } catch (Exception e) {
+                                    throw new CompletionException(e);
+                                }
+                            },
+                            uploadExecutor));
+        }
+
+        List<EntityAttachment> storedAttachments = new ArrayList<>(files.length);
+        Throwable failure = null;
+        for (CompletableFuture<EntityAttachment> upload : uploads) {
+            try {
+                storedAttachments.add(upload.join());
+            } catch (CompletionException e) {
+                if (failure == null) {
+                    failure = e.getCause();
+                }
+            }
+        }
+        if (failure != null) {
+            releaseFiles(storedAttachments);
+            if (failure instanceof Exception exception) {
+                throw exception;
+            }
+            throw (Error) failure;
+        }
+
+        try {
+            return transactionTemplate.execute(
+                    status -> saveNewAttachments(entityType, entityId, storedAttachments));
+        } catch (RuntimeException e) {
+            releaseFiles(storedAttachments);
+            throw e;
+        }
+    }
+
+    private List<EntityAttachment> saveNewAttachments(
+            String entityType, Long entityId, List<EntityAttachment> storedAttachments) {
+        Set<String> attachedFileUrls =
+                entityAttachmentRepository
+                        .findByEntityTypeAndEntityId(entityType, entityId)
+                        .stream()
+                        .map(EntityAttachment::getFileUrl)
+                        .collect(Collectors.toCollection(HashSet::new));
+        List<EntityAttachment> attachments = new ArrayList<>();
+        for (EntityAttachment attachment : storedAttachments) {
+            if (attachedFileUrls.add(attachment.getFileUrl())) {
+                attachments.add(attachment);
+            }
         }
 
         // Perform batch insert for all attachments
-        return entityAttachmentRepository.saveAll(attachments);
+        List<EntityAttachment> savedAttachments = entityAttachmentRepository.saveAll(attachments);
+        adjustAttachmentCount(entityType, entityId, savedAttachments.size());
+        return savedAttachments;
     }
 
     /**
@@ -104,28 +211,26 @@ public class EntityAttachmentService {
     }
 
     /**
-     * Deletes all attachments associated with a specific entity.
+     * Deletes all attachments associated with a specific entity. Stored files are removed once no
+     * other attachment references them.
      *
      * @param entityType The type of entity (e.g., "ticket", "comment").
      * @param entityId The ID of the entity.
      */
-    public void deleteAttachments(String entityType, Long entityId) throws Exception {
+    @Transactional
+    public void deleteAttachments(String entityType, Long entityId) {
         List<EntityAttachment> attachments =
                 entityAttachmentRepository.findByEntityTypeAndEntityId(entityType, entityId);
 
-        for (EntityAttachment attachment : attachments) {
-            if (attachment.getFileUrl() != null) {
-                storageService.deleteFile(attachment.getFileUrl());
-            }
-        }
-
         // Delete the attachment records from the database
         entityAttachmentRepository.deleteAll(attachments);
+        adjustAttachmentCount(entityType, entityId, -attachments.size());
+        releaseFiles(attachments);
     }
 
     /**
      * Deletes an attachment by its ID. If the attachment does not exist, it silently ignores the
-     * operation.
+     * operation. The stored file is removed once no other attachment references it.
      *
      * @param attachmentId The ID of the attachment to delete.
      */
@@ -135,15 +240,27 @@ public class EntityAttachmentService {
                 .findById(attachmentId)
                 .ifPresent(
                         attachment -> {
-                            if (attachment.getFileUrl() != null) {
-                                try {
-                                    storageService.deleteFile(attachment.getFileUrl());
-                                } catch (Exception e) {
-                                    LOG.error("Can not delete file {}", attachment.getFileUrl(), e);
-                                }
-                            }
-
                             entityAttachmentRepository.deleteById(attachmentId);
+                            adjustAttachmentCount(
+                                    attachment.getEntityType(), attachment.getEntityId(), -1);
+                            releaseFiles(List.of(attachment));
                         });
     }
+
+    private void adjustAttachmentCount(String entityType, Long entityId, int delta) {
+        if (EntityType.Ticket.name().equals(entityType)) {
+            ticketCounterService.adjustAttachments(entityId, delta);
+        }
+    }
+
+    private void releaseFiles(List<EntityAttachment> attachments) {
+        Set<String> fileUrls =
+                attachments.stream()
+                        .map(EntityAttachment::getFileUrl)
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toSet());
+        if (!fileUrls.isEmpty()) {
+            eventPublisher.publishEvent(new AttachmentFilesReleasedEvent(this, fileUrls));
+        }
+    }
 }
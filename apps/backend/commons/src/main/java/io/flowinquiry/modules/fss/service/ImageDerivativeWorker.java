@@ -0,0 +1,217 @@
+package io.flowinquiry.modules.fss.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.flowinquiry.modules.fss.service.dto.ImageDerivativeStatusDTO;
+import io.flowinquiry.modules.fss.service.dto.ImageDerivativeStatusDTO.Status;
+import jakarta.annotation.PreDestroy;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.imageio.ImageIO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Produces the PNG version and the thumbnail of uploaded images on a bounded pool of background
+ * threads, so decoding and re-encoding never runs on the request thread.
+ *
+ * <p>When the queue is full the submitting thread converts the image itself, which slows uploads
+ * down instead of dropping them. The progress of each image is kept for a while after it finished,
+ * keyed by the path the upload returned.
+ */
+@Component
+public class ImageDerivativeWorker {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ImageDerivativeWorker.class);
+
+    private static final String THUMBNAIL_SUFFIX = "_thumb.png";
+
+    private final int thumbnailSize;
+    private final ThreadPoolExecutor executor;
+    private final Cache<String, Job> jobs;
+
+    public ImageDerivativeWorker(
+            @Value("${flowinquiry.image-derivatives.threads:2}") int threads,
+            @Value("${flowinquiry.image-derivatives.queue-capacity:100}") int queueCapacity,
+            @Value("${flowinquiry.image-derivatives.thumbnail-size:128}") int thumbnailSize,
+            @Value("${flowinquiry.image-derivatives.status-retention:PT10M}")
+                    Duration statusRetention) {
+        this.thumbnailSize = thumbnailSize;
+        this.jobs = Caffeine.newBuilder().expireAfterWrite(statusRetention).build();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor =
+                new ThreadPoolExecutor(
+                        threads,
+                        threads,
+                        0L,
+                        TimeUnit.MILLISECONDS,
+                        new ArrayBlockingQueue<>(queueCapacity),
+                        runnable -> {
+                            Thread thread =
+                                    new Thread(
+                                            runnable,
+                                            "image-derivatives-" + threadCount.incrementAndGet());
+                            thread.setDaemon(true);
+                            return thread;
+                        },
+                        new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * Queues the conversion of an uploaded image. The source file is deleted once the PNG and its
+     * thumbnail have been written.
+     *
+     * @param objectPath the path the upload returned to its caller
+     * @param source the uploaded file, in any format {@link ImageIO} reads
+     * @param target the PNG file to write
+     * @return the progress of the conversion
+     */
+    public ImageDerivativeStatusDTO submit(String objectPath, Path source, Path target) {
+        Job job = new Job(objectPath);
+        jobs.put(objectPath, job);
+        executor.execute(() -> process(job, source, target));
+        return job.toStatus();
+    }
+
+    /**
+     * Returns the progress of the derivatives of an image, if they were produced recently.
+     *
+     * @param objectPath the path the upload returned
+     * @return the progress, or empty when the image is unknown or its status expired
+     */
+    public Optional<ImageDerivativeStatusDTO> getStatus(String objectPath) {
+        return Optional.ofNullable(jobs.getIfPresent(objectPath)).map(Job::toStatus);
+    }
+
+    /**
+     * Runs an action once the conversion of an image failed, right away when it already has. Lets
+     * the caller drop the reference it stored to a PNG that will never be written.
+     *
+     * @param objectPath the path the upload returned
+     * @param action the action, run on the worker thread or on the calling thread
+     */
+    public void whenFailed(String objectPath, Runnable action) {
+        Job job = jobs.getIfPresent(objectPath);
+        if (job == null) {
+            return;
+        }
+        job.done.whenComplete(
+                (result, error) -> {
+                    if (error == null) {
+                        return;
+                    }
+                    try {
+                        action.run();
+                    } catch (RuntimeException e) {
+                        LOG.error("Can not handle the failed conversion of {}", objectPath, e);
+                    }
+                });
+    }
+
+    /** Returns the path of the thumbnail generated for an image path. */
+    public static String thumbnailPath(String objectPath) {
+        return objectPath.replaceFirst("[.][^./]+$", "") + THUMBNAIL_SUFFIX;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void process(Job job, Path source, Path target) {
+        job.status = Status.PROCESSING;
+        try {
+            BufferedImage image = ImageIO.read(source.toFile());
+            if (image == null) {
+                throw new IllegalArgumentException("Input does not contain a valid image");
+            }
+            // The thumbnail goes first, so it exists whenever the image does
+            writePng(
+                    scaleDown(image),
+                    target.resolveSibling(thumbnailPath(target.getFileName().toString())));
+            writePng(image, target);
+            job.status = Status.COMPLETED;
+            job.done.complete(null);
+        } catch (Exception e) {
+            LOG.error("Can not generate the derivatives of {}", job.objectPath, e);
+            job.status = Status.FAILED;
+            job.done.completeExceptionally(e);
+        } finally {
+            try {
+                Files.deleteIfExists(source);
+            } catch (IOException e) {
+                LOG.warn("Can not delete the uploaded source {}", source, e);
+            }
+        }
+    }
+
+    private static void writePng(BufferedImage image, Path target) throws IOException {
+        Path tempFile = Files.createTempFile(target.getParent(), ".derivative-", ".tmp");
+        try {
+            if (!ImageIO.write(image, "png", tempFile.toFile())) {
+                throw new IOException("No PNG writer is available for " + target);
+            }
+            try {
+                Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    private BufferedImage scaleDown(BufferedImage image) {
+        double scale =
+                Math.min(
+                        1.0,
+                        (double) thumbnailSize / Math.max(image.getWidth(), image.getHeight()));
+        int width = Math.max(1, (int) Math.round(image.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(image.getHeight() * scale));
+        BufferedImage thumbnail = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = thumbnail.createGraphics();
+        try {
+            graphics.setRenderingHint(
+                    RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return thumbnail;
+    }
+
+    private static final class Job {
+
+        private final String objectPath;
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+        private volatile Status status = Status.QUEUED;
+
+        private Job(String objectPath) {
+            this.objectPath = objectPath;
+        }
+
+        private ImageDerivativeStatusDTO toStatus() {
+            return new ImageDerivativeStatusDTO(objectPath, thumbnailPath(objectPath), status);
+        }
+    }
+}
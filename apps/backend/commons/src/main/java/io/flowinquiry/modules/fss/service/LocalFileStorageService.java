@@ -1,32 +1,60 @@
 package io.flowinquiry.modules.fss.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import io.flowinquiry.exceptions.ResourceNotFoundException;
-import java.awt.image.BufferedImage;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
 import javax.imageio.ImageIO;
+import javax.imageio.stream.ImageInputStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
+/**
+ * Stores files on the local disk under their URL-encoded name. Enabled with {@code
+ * application.file.layout=named}; by default {@link ContentAddressedStorageService} stores uploads
+ * by content instead.
+ */
 @Component
+@ConditionalOnProperty(name = "application.file.layout", havingValue = "named")
 public class LocalFileStorageService implements StorageService {
 
     private static final Logger LOG = LoggerFactory.getLogger(LocalFileStorageService.class);
 
     private final String rootDirectory;
 
+    private final ImageDerivativeWorker imageDerivativeWorker;
+
+    // Content hashes by file, valid while the size and modification time match
+    private final Cache<Path, StoredObjectMetadata> metadataCache =
+            Caffeine.newBuilder().maximumSize(10_000).build();
+
     public LocalFileStorageService(
-            @Value("${application.file.rootDirectory:storage}") String rootDirectory) {
+            @Value("${application.file.rootDirectory:storage}") String rootDirectory,
+            ImageDerivativeWorker imageDerivativeWorker) {
         this.rootDirectory = rootDirectory;
+        this.imageDerivativeWorker = imageDerivativeWorker;
         File storageDir = new File(rootDirectory);
         if (!storageDir.exists()) {
             storageDir.mkdirs();
@@ -34,6 +62,10 @@ public class LocalFileStorageService implements StorageService {
         }
     }
 
+    protected String getRootDirectory() {
+        return rootDirectory;
+    }
+
     @Override
     public String uploadFile(String containerName, String blobName, InputStream inputStream)
             throws Exception {
@@ -60,55 +92,129 @@ public class LocalFileStorageService implements StorageService {
         return containerName + "/" + fileName;
     }
 
+    /**
+     * Stores the uploaded image and returns the path of its PNG version right away. The conversion
+     * and the thumbnail are produced by the {@link ImageDerivativeWorker}; only the image header is
+     * checked on the calling thread.
+     */
     @Override
     public String uploadImage(String containerName, String blobName, InputStream inputStream)
             throws Exception {
-
-        File directory = new File(rootDirectory, containerName);
-        if (!directory.exists()) {
-            directory.mkdirs();
-        }
+        Path directory = Files.createDirectories(Paths.get(rootDirectory, containerName));
 
         // Ensure the file is saved as a .png
         String pngFileName =
                 URLEncoder.encode(blobName.replaceFirst("[.][^.]+$", ""), StandardCharsets.UTF_8)
                         + ".png";
-        File destinationFile = new File(directory, pngFileName);
+        Path destinationFile = directory.resolve(pngFileName);
 
-        // Read the input stream as an image and write it as PNG
-        try (OutputStream outputStream = new FileOutputStream(destinationFile)) {
-            BufferedImage image = ImageIO.read(inputStream);
-            if (image == null) {
+        Path sourceFile = Files.createTempFile(directory, ".image-", ".upload");
+        try {
+            Files.copy(inputStream, sourceFile, StandardCopyOption.REPLACE_EXISTING);
+            if (!isReadableImage(sourceFile)) {
                 throw new IllegalArgumentException("Input stream does not contain a valid image");
             }
-            ImageIO.write(image, "png", outputStream);
+        } catch (Exception e) {
+            Files.deleteIfExists(sourceFile);
+            throw e;
         }
 
+        String objectPath = containerName + "/" + pngFileName;
+        imageDerivativeWorker.submit(objectPath, sourceFile, destinationFile);
         LOG.debug(
-                "Converted and saved container {} blob {} as PNG to file {} successfully",
+                "Queued the conversion of container {} blob {} to PNG file {}",
                 containerName,
                 pngFileName,
-                destinationFile.getAbsolutePath());
+                destinationFile.toAbsolutePath());
+
+        return objectPath;
+    }
 
-        return containerName + "/" + pngFileName;
+    private static boolean isReadableImage(Path file) throws IOException {
+        try (ImageInputStream imageStream = ImageIO.createImageInputStream(file.toFile())) {
+            return imageStream != null && ImageIO.getImageReaders(imageStream).hasNext();
+        }
     }
 
     @Override
     public void downloadFile(String containerName, String blobName, OutputStream outputStream)
             throws Exception {
-        File sourceFile = new File(rootDirectory + File.separator + containerName, blobName);
-        if (sourceFile.exists()) {
-            try (InputStream inputStream = new FileInputStream(sourceFile)) {
-                byte[] buffer = new byte[1024];
-                int bytesRead;
-                while ((bytesRead = inputStream.read(buffer)) != -1) {
-                    outputStream.write(buffer, 0, bytesRead);
+        read(containerName, blobName, 0, Long.MAX_VALUE, Channels.newChannel(outputStream));
+    }
+
+    @Override
+    public StoredObjectMetadata getMetadata(String containerName, String blobName)
+            throws Exception {
+        Path source = resolveExisting(containerName, blobName);
+        BasicFileAttributes attributes = Files.readAttributes(source, BasicFileAttributes.class);
+        StoredObjectMetadata cached = metadataCache.getIfPresent(source);
+        if (cached != null
+                && cached.size() == attributes.size()
+                && cached.lastModified().equals(attributes.lastModifiedTime().toInstant())) {
+            return cached;
+        }
+
+        StoredObjectMetadata metadata =
+                new StoredObjectMetadata(
+                        attributes.size(),
+                        attributes.lastModifiedTime().toInstant(),
+                        hashContent(source));
+        metadataCache.put(source, metadata);
+        return metadata;
+    }
+
+    /**
+     * Transfers the range straight from the file channel, letting the JDK use {@code sendfile}
+     * when the target is a socket or file channel.
+     */
+    @Override
+    public long read(
+            String containerName,
+            String blobName,
+            long position,
+            long length,
+            WritableByteChannel target)
+            throws Exception {
+        Path source = resolveExisting(containerName, blobName);
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            long end = position + Math.min(length, Math.max(0, channel.size() - position));
+            long transferred = position;
+            while (transferred < end) {
+                long count = channel.transferTo(transferred, end - transferred, target);
+                if (count <= 0) {
+                    break;
                 }
+                transferred += count;
             }
-        } else {
+            return transferred - position;
+        }
+    }
+
+    private Path resolveExisting(String containerName, String blobName) {
+        Path source = Paths.get(rootDirectory, containerName, blobName);
+        if (!Files.isRegularFile(source)) {
             throw new ResourceNotFoundException(
                     "Can not find the resource " + blobName + " in the container " + containerName);
         }
+        return source;
+    }
+
+    private static String hashContent(Path source) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
     }
 
     @Override
@@ -119,5 +225,10 @@ public class LocalFileStorageService implements StorageService {
     @Override
     public void deleteFile(String objectPath) throws Exception {
         Files.deleteIfExists(Paths.get(rootDirectory, objectPath));
+        if (objectPath.endsWith(".png")) {
+            // Images converted by uploadImage come with a thumbnail
+            Files.deleteIfExists(
+                    Paths.get(rootDirectory, ImageDerivativeWorker.thumbnailPath(objectPath)));
+        }
     }
 }
@@ -0,0 +1,49 @@
+package io.flowinquiry.modules.fss.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/** Passes only the bytes between a start position and a length through to the delegate. */
+class RangeOutputStream extends OutputStream {
+
+    private final OutputStream delegate;
+    private final long start;
+    private final long end;
+    private long position;
+    private long written;
+
+    RangeOutputStream(OutputStream delegate, long start, long length) {
+        this.delegate = delegate;
+        this.start = start;
+        this.end = start + length;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (position >= start && position < end) {
+            delegate.write(b);
+            written++;
+        }
+        position++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        long from = Math.max(position, start);
+        long to = Math.min(position + len, end);
+        if (from < to) {
+            delegate.write(b, off + (int) (from - position), (int) (to - from));
+            written += to - from;
+        }
+        position += len;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        delegate.flush();
+    }
+
+    long getWritten() {
+        return written;
+    }
+}
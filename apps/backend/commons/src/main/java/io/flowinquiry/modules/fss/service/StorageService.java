@@ -2,7 +2,13 @@ package io.flowinquiry.modules.fss.service;
 
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.time.Instant;
 import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.Map;
 
 public interface StorageService {
@@ -31,7 +37,73 @@ public interface StorageService {
     void downloadFile(String containerName, String blobName, OutputStream outputStream)
             throws Exception;
 
+    /**
+     * Returns the size, modification time and content hash of an object without reading it into
+     * memory.
+     *
+     * <p>The default implementation streams the whole object through a digest on every call.
+     * Backends that store or cache the hash should override it.
+     *
+     * @param containerName the container of the object
+     * @param blobName the name of the object
+     * @return the metadata of the object
+     */
+    default StoredObjectMetadata getMetadata(String containerName, String blobName)
+            throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        RangeOutputStream counter =
+                new RangeOutputStream(OutputStream.nullOutputStream(), 0, Long.MAX_VALUE);
+        try (DigestOutputStream digestStream = new DigestOutputStream(counter, digest)) {
+            downloadFile(containerName, blobName, digestStream);
+        }
+        return new StoredObjectMetadata(
+                counter.getWritten(), null, HexFormat.of().formatHex(digest.digest()));
+    }
+
+    /**
+     * Writes a byte range of an object to a channel, without buffering the object in memory.
+     *
+     * <p>The default implementation streams the object from its start and discards the bytes
+     * outside the range. Backends that can seek should override it.
+     *
+     * @param containerName the container of the object
+     * @param blobName the name of the object
+     * @param position the offset of the first byte to write
+     * @param length the maximum number of bytes to write
+     * @param target the channel receiving the bytes
+     * @return the number of bytes written
+     */
+    default long read(
+            String containerName,
+            String blobName,
+            long position,
+            long length,
+            WritableByteChannel target)
+            throws Exception {
+        RangeOutputStream range =
+                new RangeOutputStream(Channels.newOutputStream(target), position, length);
+        downloadFile(containerName, blobName, range);
+        range.flush();
+        return range.getWritten();
+    }
+
     void deleteFile(String containerName, String blobName) throws Exception;
 
     void deleteFile(String objectPath) throws Exception;
+
+    /**
+     * Deletes an object that nothing references any more, unless an upload wrote or reused it
+     * after the given time.
+     *
+     * <p>Backends whose objects are never shared between uploads delete it unconditionally, which
+     * is what the default implementation does.
+     *
+     * @param objectPath the path of the object
+     * @param since the time after which a write or reuse keeps the object
+     * @return whether the object was deleted
+     */
+    default boolean deleteFileIfUnusedSince(String objectPath, Instant since) throws Exception {
+        deleteFile(objectPath);
+        return true;
+    }
 }
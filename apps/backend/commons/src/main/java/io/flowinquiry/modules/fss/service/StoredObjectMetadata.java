@@ -0,0 +1,12 @@
+package io.flowinquiry.modules.fss.service;
+
+import java.time.Instant;
+
+/**
+ * What a download needs to know about a stored object before reading it.
+ *
+ * @param size the size of the object in bytes
+ * @param lastModified when the object was last written, {@code null} if the backend does not know
+ * @param contentHash the hex SHA-256 of the content, used as strong ETag
+ */
+public record StoredObjectMetadata(long size, Instant lastModified, String contentHash) {}
@@ -0,0 +1,23 @@
+package io.flowinquiry.modules.fss.service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** Progress of the derivatives generated in the background for an uploaded image. */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImageDerivativeStatusDTO {
+
+    public enum Status {
+        QUEUED,
+        PROCESSING,
+        COMPLETED,
+        FAILED
+    }
+
+    private String path;
+    private String thumbnailPath;
+    private Status status;
+}
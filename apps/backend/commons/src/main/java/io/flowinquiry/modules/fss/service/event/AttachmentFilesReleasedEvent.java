@@ -0,0 +1,16 @@
+package io.flowinquiry.modules.fss.service.event;
+
+import java.util.Set;
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+/** Published when attachments are deleted, with the stored files they referenced. */
+@Getter
+public class AttachmentFilesReleasedEvent extends ApplicationEvent {
+    private final Set<String> fileUrls;
+
+    public AttachmentFilesReleasedEvent(Object source, Set<String> fileUrls) {
+        super(source);
+        this.fileUrls = fileUrls;
+    }
+}
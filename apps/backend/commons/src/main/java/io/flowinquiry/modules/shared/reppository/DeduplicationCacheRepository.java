@@ -2,6 +2,8 @@ package io.flowinquiry.modules.shared.reppository;
 
 import io.flowinquiry.modules.shared.domain.DeduplicationCacheEntry;
 import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -14,6 +16,12 @@ public interface DeduplicationCacheRepository
         extends JpaRepository<DeduplicationCacheEntry, String> {
     boolean existsByKey(String key);
 
+    @Query("SELECT e.expiredTime FROM DeduplicationCacheEntry e WHERE e.key = :key")
+    Optional<Instant> findExpiredTimeByKey(@Param("key") String key);
+
+    @Query("SELECT e.key FROM DeduplicationCacheEntry e WHERE e.expiredTime > :now")
+    List<String> findKeysByExpiredTimeAfter(@Param("now") Instant now);
+
     @Modifying
     @Transactional
     @Query("DELETE FROM DeduplicationCacheEntry e WHERE e.expiredTime < :now")
@@ -8,9 +8,7 @@ import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.concurrent.TimeUnit;
-import org.springframework.stereotype.Service;
 
-@Service
 public class CaffeineDeduplicationCache implements DeduplicationCacheService {
 
     private final DeduplicationCacheRepository deduplicationCacheRepository;
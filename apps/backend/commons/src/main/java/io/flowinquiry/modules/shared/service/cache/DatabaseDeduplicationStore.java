@@ -0,0 +1,129 @@
+package io.flowinquiry.modules.shared.service.cache;
+
+import io.flowinquiry.modules.shared.reppository.DeduplicationCacheRepository;
+import jakarta.annotation.PreDestroy;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Keeps deduplication keys in the {@code fw_deduplication_cache} table.
+ *
+ * <p>Puts are buffered and written behind in one batched upsert per flush, so a burst of
+ * notifications costs one round trip instead of one insert per key. The buffer is flushed every
+ * {@code flowinquiry.deduplication-cache.flush-interval} and on shutdown. Keys still waiting for a
+ * flush are answered from the buffer. The local bloom filter only knows the keys of this instance,
+ * so this store is meant for single instance deployments; clusters should use the Redis store.
+ */
+@Slf4j
+public class DatabaseDeduplicationStore implements DeduplicationStore {
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO fw_deduplication_cache (cache_key, expired_time) VALUES (?, ?) "
+                    + "ON CONFLICT (cache_key) DO UPDATE SET expired_time = EXCLUDED.expired_time";
+
+    private final DeduplicationCacheRepository deduplicationCacheRepository;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Map<String, Instant> pendingWrites = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService flusher;
+
+    public DatabaseDeduplicationStore(
+            DeduplicationCacheRepository deduplicationCacheRepository,
+            JdbcTemplate jdbcTemplate,
+            Duration flushInterval) {
+        this.deduplicationCacheRepository = deduplicationCacheRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        long flushMillis = flushInterval.toMillis();
+        if (flushMillis < 1) {
+            throw new IllegalArgumentException("Flush interval must be positive");
+        }
+        flusher =
+                Executors.newSingleThreadScheduledExecutor(
+                        runnable -> {
+                            Thread thread = new Thread(runnable, "deduplication-flush");
+                            thread.setDaemon(true);
+                            return thread;
+                        });
+        flusher.scheduleWithFixedDelay(
+                this::flush, flushMillis, flushMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Optional<Instant> findExpiredTime(String key) {
+        Instant now = Instant.now();
+        Instant pending = pendingWrites.get(key);
+        if (pending != null && pending.isAfter(now)) {
+            return Optional.of(pending);
+        }
+        return deduplicationCacheRepository
+                .findExpiredTimeByKey(key)
+                .filter(expiredTime -> expiredTime.isAfter(now));
+    }
+
+    @Override
+    public void put(String key, Instant expiredTime) {
+        pendingWrites.merge(
+                key, expiredTime, (current, added) -> added.isAfter(current) ? added : current);
+    }
+
+    @Override
+    public void forEachKey(Consumer<String> consumer) {
+        pendingWrites.keySet().forEach(consumer);
+        deduplicationCacheRepository.findKeysByExpiredTimeAfter(Instant.now()).forEach(consumer);
+    }
+
+    @Override
+    public boolean isShared() {
+        return false;
+    }
+
+    /** Stops the periodic flush and writes the keys still buffered. */
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    /** Writes the buffered keys in one batch. */
+    public void flush() {
+        if (pendingWrites.isEmpty()) {
+            return;
+        }
+
+        List<Map.Entry<String, Instant>> batch = new ArrayList<>(pendingWrites.entrySet());
+        try {
+            jdbcTemplate.batchUpdate(
+                    UPSERT_SQL,
+                    batch,
+                    batch.size(),
+                    (statement, entry) -> {
+                        statement.setString(1, entry.getKey());
+                        statement.setTimestamp(2, Timestamp.from(entry.getValue()));
+                    });
+            // Keep the keys that were put again while the batch was written
+            batch.forEach(entry -> pendingWrites.remove(entry.getKey(), entry.getValue()));
+            log.debug("Flushed {} deduplication keys", batch.size());
+        } catch (RuntimeException e) {
+            log.warn("Failed to flush {} deduplication keys, retrying later", batch.size(), e);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package io.flowinquiry.modules.shared.service.cache;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/** The authoritative tier behind {@link TieredDeduplicationCache}. */
+public interface DeduplicationStore {
+
+    /**
+     * Looks up a key.
+     *
+     * @param key the unique identifier to look up.
+     * @return the time the key expires, empty if the key is unknown or already expired.
+     */
+    Optional<Instant> findExpiredTime(String key);
+
+    /**
+     * Stores a key until the given time.
+     *
+     * @param key the unique identifier to store.
+     * @param expiredTime the time after which the key should be forgotten.
+     */
+    void put(String key, Instant expiredTime);
+
+    /**
+     * Passes every unexpired key to the given consumer, used to rebuild the local bloom filter.
+     * Stores that are {@link #isShared() shared} do not have to enumerate their keys.
+     */
+    void forEachKey(Consumer<String> consumer);
+
+    /**
+     * Whether other instances write to this store directly. The local bloom filter only sees the
+     * keys put through this instance, so it can not rule a key out when the store is shared.
+     */
+    boolean isShared();
+}
@@ -0,0 +1,55 @@
+package io.flowinquiry.modules.shared.service.cache;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.function.Consumer;
+import org.redisson.api.RBucket;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.LongCodec;
+
+/**
+ * Keeps deduplication keys in Redis, shared by every instance of the application. Each key is a
+ * bucket holding its expiry in epoch milliseconds and carrying the matching TTL, so Redis forgets
+ * expired keys on its own.
+ */
+public class RedisDeduplicationStore implements DeduplicationStore {
+
+    private static final String KEY_PREFIX = "flowinquiry:dedup:";
+
+    private final RedissonClient redissonClient;
+
+    public RedisDeduplicationStore(RedissonClient redissonClient) {
+        this.redissonClient = redissonClient;
+    }
+
+    @Override
+    public Optional<Instant> findExpiredTime(String key) {
+        Long expiredTime = bucket(key).get();
+        return Optional.ofNullable(expiredTime)
+                .map(Instant::ofEpochMilli)
+                .filter(instant -> instant.isAfter(Instant.now()));
+    }
+
+    @Override
+    public void put(String key, Instant expiredTime) {
+        Duration timeToLive = Duration.between(Instant.now(), expiredTime);
+        if (!timeToLive.isNegative() && !timeToLive.isZero()) {
+            bucket(key).set(expiredTime.toEpochMilli(), timeToLive);
+        }
+    }
+
+    @Override
+    public void forEachKey(Consumer<String> consumer) {
+        // Shared: the local bloom filter is not consulted, so there is nothing to warm it with
+    }
+
+    @Override
+    public boolean isShared() {
+        return true;
+    }
+
+    private RBucket<Long> bucket(String key) {
+        return redissonClient.getBucket(KEY_PREFIX + key, LongCodec.INSTANCE);
+    }
+}
@@ -0,0 +1,196 @@
+package io.flowinquiry.modules.shared.service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * A deduplication cache answering most lookups in process, in front of a {@link
+ * DeduplicationStore} that holds the keys of every instance.
+ *
+ * <p>A lookup is answered by the first tier that knows:
+ *
+ * <ol>
+ *   <li>a bounded Caffeine cache of keys recently seen or put, which answers hits;
+ *   <li>a bloom filter of every key in a store that is not shared, which answers most misses
+ *       without a round trip;
+ *   <li>the store itself.
+ * </ol>
+ *
+ * <p>Lookups are counted per tier and result in {@code flowinquiry.deduplication.lookups}, and
+ * the bloom filter answers that the store later contradicts in {@code
+ * flowinquiry.deduplication.bloom_false_positives}.
+ */
+@Slf4j
+public class TieredDeduplicationCache implements DeduplicationCacheService {
+
+    private static final String LOOKUPS_METRIC = "flowinquiry.deduplication.lookups";
+
+    private final DeduplicationStore store;
+
+    private final Cache<String, Instant> localKeys;
+
+    private final long expectedKeys;
+
+    private final double falsePositiveRate;
+
+    private volatile BloomFilter bloomFilter;
+
+    private volatile BloomFilter rebuildingBloomFilter;
+
+    private volatile boolean bloomFilterReady;
+
+    private final Counter localHits;
+
+    private final Counter storeHits;
+
+    private final Counter bloomMisses;
+
+    private final Counter storeMisses;
+
+    private final Counter bloomFalsePositives;
+
+    public TieredDeduplicationCache(
+            DeduplicationStore store,
+            MeterRegistry meterRegistry,
+            long localMaximumSize,
+            long expectedKeys,
+            double falsePositiveRate) {
+        this.store = store;
+        this.expectedKeys = expectedKeys;
+        this.falsePositiveRate = falsePositiveRate;
+        this.bloomFilter = new BloomFilter(expectedKeys, falsePositiveRate);
+        this.localKeys =
+                Caffeine.newBuilder()
+                        .maximumSize(localMaximumSize)
+                        .expireAfter(new UntilExpiredTime())
+                        .build();
+
+        localHits = lookups(meterRegistry, "local", "hit");
+        storeHits = lookups(meterRegistry, "store", "hit");
+        bloomMisses = lookups(meterRegistry, "bloom", "miss");
+        storeMisses = lookups(meterRegistry, "store", "miss");
+        bloomFalsePositives =
+                Counter.builder("flowinquiry.deduplication.bloom_false_positives")
+                        .description("Keys the bloom filter might contain but the store does not")
+                        .register(meterRegistry);
+        meterRegistry.gauge(
+                "flowinquiry.deduplication.local_size", localKeys, Cache::estimatedSize);
+    }
+
+    @Override
+    public boolean containsKey(String key) {
+        if (localKeys.getIfPresent(key) != null) {
+            localHits.increment();
+            return true;
+        }
+
+        boolean bloomConsulted = bloomFilterReady && !store.isShared();
+        if (bloomConsulted && !bloomFilter.mightContain(key)) {
+            bloomMisses.increment();
+            return false;
+        }
+
+        Optional<Instant> expiredTime = store.findExpiredTime(key);
+        if (expiredTime.isPresent()) {
+            storeHits.increment();
+            localKeys.put(key, expiredTime.get());
+            return true;
+        }
+
+        storeMisses.increment();
+        if (bloomConsulted) {
+            bloomFalsePositives.increment();
+        }
+        return false;
+    }
+
+    @Override
+    public void put(String key, Duration expirationDuration) {
+        Instant expiredTime = Instant.now().plus(expirationDuration);
+        // Add to the filters before the store, so the key is never ruled out once it is stored
+        bloomFilter.put(key);
+        BloomFilter rebuilding = rebuildingBloomFilter;
+        if (rebuilding != null) {
+            rebuilding.put(key);
+        }
+        localKeys.put(key, expiredTime);
+        store.put(key, expiredTime);
+    }
+
+    /**
+     * Rebuilds the bloom filter from the unexpired keys of the store, on startup and every night
+     * after the expired keys are deleted, so expired keys stop raising false positives. Lookups
+     * go to the store until the first rebuild finished.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "0 30 0 * * ?")
+    public void rebuildBloomFilter() {
+        if (store.isShared()) {
+            return;
+        }
+
+        BloomFilter rebuilding = new BloomFilter(expectedKeys, falsePositiveRate);
+        rebuildingBloomFilter = rebuilding;
+        try {
+            long[] keys = new long[1];
+            store.forEachKey(
+                    key -> {
+                        rebuilding.put(key);
+                        keys[0]++;
+                    });
+            bloomFilter = rebuilding;
+            bloomFilterReady = true;
+            if (keys[0] > expectedKeys) {
+                log.warn(
+                        "Deduplication store holds {} keys, more than the {} the bloom filter is"
+                                + " sized for",
+                        keys[0],
+                        expectedKeys);
+            }
+            log.debug("Rebuilt the deduplication bloom filter from {} keys", keys[0]);
+        } catch (RuntimeException e) {
+            log.warn("Failed to rebuild the deduplication bloom filter", e);
+        } finally {
+            rebuildingBloomFilter = null;
+        }
+    }
+
+    private static Counter lookups(MeterRegistry meterRegistry, String tier, String result) {
+        return Counter.builder(LOOKUPS_METRIC)
+                .description("Deduplication cache lookups by the tier that answered them")
+                .tag("tier", tier)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /** Forgets a local key when the key itself expires. */
+    private static class UntilExpiredTime implements Expiry<String, Instant> {
+
+        @Override
+        public long expireAfterCreate(String key, Instant expiredTime, long currentTime) {
+            return Math.max(0, Duration.between(Instant.now(), expiredTime).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(
+                String key, Instant expiredTime, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, expiredTime, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(
+                String key, Instant expiredTime, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package io.flowinquiry.modules.teams.controller;
 
+import io.flowinquiry.modules.fss.service.ImageDerivativeWorker;
 import io.flowinquiry.modules.fss.service.StorageService;
 import io.flowinquiry.modules.fss.service.event.ResourceRemoveEvent;
 import io.flowinquiry.modules.teams.service.TeamService;
@@ -40,14 +41,17 @@ public class TeamController {
 
     private final TeamService teamService;
     private final StorageService storageService;
+    private final ImageDerivativeWorker imageDerivativeWorker;
     private final ApplicationEventPublisher eventPublisher;
 
     public TeamController(
             TeamService teamService,
             StorageService storageService,
+            ImageDerivativeWorker imageDerivativeWorker,
             ApplicationEventPublisher eventPublisher) {
         this.teamService = teamService;
         this.storageService = storageService;
+        this.imageDerivativeWorker = imageDerivativeWorker;
         this.eventPublisher = eventPublisher;
     }
 
@@ -69,6 +73,7 @@ public class TeamController {
             team.setLogoUrl(avatarPath);
         }
         TeamDTO createdTeam = teamService.createTeam(team);
+        clearLogoIfConversionFails(createdTeam.getLogoUrl());
 
         return ResponseEntity.status(HttpStatus.CREATED).body(createdTeam);
     }
@@ -88,12 +93,20 @@ public class TeamController {
             team.setLogoUrl(teamLogoPath);
         }
         TeamDTO updatedTeam = teamService.updateTeam(team);
+        clearLogoIfConversionFails(updatedTeam.getLogoUrl());
         // Remove the old logo
         fileRemovedPath.ifPresent(
                 s -> eventPublisher.publishEvent(new ResourceRemoveEvent(this, s)));
         return ResponseEntity.ok(updatedTeam);
     }
 
+    // The logo is converted in the background, a failed conversion leaves no file to point at
+    private void clearLogoIfConversionFails(String logoUrl) {
+        if (logoUrl != null) {
+            imageDerivativeWorker.whenFailed(logoUrl, () -> teamService.clearLogoUrl(logoUrl));
+        }
+    }
+
     // Delete a team by ID
     @DeleteMapping("/{id}")
     public void deleteTeam(@PathVariable("id") Long id) {
@@ -1,6 +1,9 @@
 package io.flowinquiry.modules.teams.controller;
 
 import io.flowinquiry.modules.teams.domain.WorkflowTransitionHistoryStatus;
+import io.flowinquiry.modules.teams.service.TeamTicketStatsService;
+import io.flowinquiry.modules.teams.service.TicketBulkService;
+import io.flowinquiry.modules.teams.service.TicketSearchService;
 import io.flowinquiry.modules.teams.service.TicketService;
 import io.flowinquiry.modules.teams.service.WorkflowTransitionHistoryService;
 import io.flowinquiry.modules.teams.service.dto.PriorityDistributionDTO;
@@ -8,8 +11,11 @@ import io.flowinquiry.modules.teams.service.dto.TeamTicketPriorityDistributionDT
 import io.flowinquiry.modules.teams.service.dto.TicketActionCountByDateDTO;
 import io.flowinquiry.modules.teams.service.dto.TicketDTO;
 import io.flowinquiry.modules.teams.service.dto.TicketDistributionDTO;
+import io.flowinquiry.modules.teams.service.dto.TicketEventMode;
+import io.flowinquiry.modules.teams.service.dto.TicketSearchResultDTO;
 import io.flowinquiry.modules.teams.service.dto.TransitionItemCollectionDTO;
 import io.flowinquiry.modules.usermanagement.service.dto.TicketStatisticsDTO;
+import io.flowinquiry.query.KeysetSlice;
 import io.flowinquiry.query.QueryDTO;
 import io.flowinquiry.utils.DateUtils;
 import jakarta.validation.Valid;
@@ -19,6 +25,7 @@ import java.util.List;
 import java.util.Map;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -40,12 +47,21 @@ public class TicketController {
 
     private final TicketService ticketService;
     private final WorkflowTransitionHistoryService workflowTransitionHistoryService;
+    private final TeamTicketStatsService teamTicketStatsService;
+    private final TicketBulkService ticketBulkService;
+    private final TicketSearchService ticketSearchService;
 
     public TicketController(
             TicketService ticketService,
-            WorkflowTransitionHistoryService workflowTransitionHistoryService) {
+            WorkflowTransitionHistoryService workflowTransitionHistoryService,
+            TeamTicketStatsService teamTicketStatsService,
+            TicketBulkService ticketBulkService,
+            TicketSearchService ticketSearchService) {
         this.ticketService = ticketService;
         this.workflowTransitionHistoryService = workflowTransitionHistoryService;
+        this.teamTicketStatsService = teamTicketStatsService;
+        this.ticketBulkService = ticketBulkService;
+        this.ticketSearchService = ticketSearchService;
     }
 
     @PostMapping("/search")
@@ -53,6 +69,23 @@ public class TicketController {
         return ticketService.findTickets(queryDTO, pageable);
     }
 
+    @PostMapping("/search/keyset")
+    public KeysetSlice<TicketDTO> findTicketsAfter(
+            @Valid @RequestBody QueryDTO queryDTO,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = "20") int size,
+            Sort sort) {
+        return ticketService.findTicketsAfter(queryDTO, cursor, sort, size);
+    }
+
+    @GetMapping("/search/text")
+    public List<TicketSearchResultDTO> searchTickets(
+            @RequestParam("q") String terms,
+            @RequestParam(value = "teamId", required = false) Long teamId,
+            @RequestParam(value = "size", defaultValue = "20") int size) {
+        return ticketSearchService.search(terms, teamId, size);
+    }
+
     @GetMapping("/{id}")
     public TicketDTO getTicketById(@PathVariable("id") Long id) {
         return ticketService.getTicketById(id);
@@ -72,6 +105,23 @@ public class TicketController {
         return ticketService.updateTicket(ticketDTO);
     }
 
+    @PostMapping("/bulk")
+    @ResponseStatus(HttpStatus.CREATED)
+    public List<TicketDTO> createTickets(
+            @RequestBody List<TicketDTO> ticketDTOs,
+            @RequestParam(value = "events", defaultValue = "PER_TICKET")
+                    TicketEventMode eventMode) {
+        return ticketBulkService.createTickets(ticketDTOs, eventMode);
+    }
+
+    @PutMapping("/bulk")
+    public List<TicketDTO> updateTickets(
+            @RequestBody List<TicketDTO> ticketDTOs,
+            @RequestParam(value = "events", defaultValue = "PER_TICKET")
+                    TicketEventMode eventMode) {
+        return ticketBulkService.updateTickets(ticketDTOs, eventMode);
+    }
+
     @DeleteMapping("/{id}")
     public void deleteTicket(@PathVariable("id") Long id) {
         ticketService.deleteTicket(id);
@@ -109,7 +159,7 @@ public class TicketController {
             @RequestParam(value = "range", required = false) String range) {
 
         DateRange dateRange = processDateRange(fromDate, toDate, range);
-        return ticketService.getTicketDistribution(teamId, dateRange.from, dateRange.to);
+        return teamTicketStatsService.getTicketDistribution(teamId, dateRange.from, dateRange.to);
     }
 
     // Endpoint to get unassigned tickets for a specific team
@@ -132,7 +182,7 @@ public class TicketController {
             @RequestParam(value = "range", required = false) String range) {
 
         DateRange dateRange = processDateRange(fromDate, toDate, range);
-        return ticketService.getPriorityDistribution(teamId, dateRange.from, dateRange.to);
+        return teamTicketStatsService.getPriorityDistribution(teamId, dateRange.from, dateRange.to);
     }
 
     /**
@@ -161,7 +211,8 @@ public class TicketController {
             @RequestParam(value = "range", required = false) String range) {
 
         DateRange dateRange = processDateRange(fromDate, toDate, range);
-        return ticketService.getTicketStatisticsByTeamId(teamId, dateRange.from, dateRange.to);
+        return teamTicketStatsService.getTicketStatisticsByTeamId(
+                teamId, dateRange.from, dateRange.to);
     }
 
     @GetMapping("/teams/{teamId}/overdue-tickets")
@@ -190,7 +241,7 @@ public class TicketController {
     public List<TicketActionCountByDateDTO> getTicketCreationDaySeries(
             @PathVariable("teamId") Long teamId,
             @RequestParam(value = "days", required = false, defaultValue = "7") int days) {
-        return ticketService.getTicketCreationTimeSeries(teamId, days);
+        return teamTicketStatsService.getTicketCreationTimeSeries(teamId, days);
     }
 
     @GetMapping("/users/{userId}/overdue-tickets")
@@ -207,7 +258,8 @@ public class TicketController {
             @RequestParam(value = "range", required = false) String range) {
 
         DateRange dateRange = processDateRange(fromDate, toDate, range);
-        return ticketService.getPriorityDistributionForUser(userId, dateRange.from, dateRange.to);
+        return teamTicketStatsService.getPriorityDistributionForUser(
+                userId, dateRange.from, dateRange.to);
     }
 
     @PatchMapping("/{ticketId}/state")
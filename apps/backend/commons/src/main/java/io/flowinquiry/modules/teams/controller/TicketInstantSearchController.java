@@ -0,0 +1,29 @@
+package io.flowinquiry.modules.teams.controller;
+
+import io.flowinquiry.modules.teams.service.search.TicketSearchIndex;
+import io.flowinquiry.modules.teams.service.search.TicketSearchIndexService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/tickets/search/instant")
+@ConditionalOnProperty(name = "flowinquiry.search.in-memory.enabled", havingValue = "true")
+public class TicketInstantSearchController {
+
+    private final TicketSearchIndexService ticketSearchIndexService;
+
+    public TicketInstantSearchController(TicketSearchIndexService ticketSearchIndexService) {
+        this.ticketSearchIndexService = ticketSearchIndexService;
+    }
+
+    @GetMapping
+    public TicketSearchIndex.Result searchTickets(
+            @RequestParam(value = "q", defaultValue = "") String query,
+            @RequestParam(value = "teamId", required = false) Long teamId,
+            @RequestParam(value = "size", defaultValue = "10") int size) {
+        return ticketSearchIndexService.search(query, teamId, size);
+    }
+}
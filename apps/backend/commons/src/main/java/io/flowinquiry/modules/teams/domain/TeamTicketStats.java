@@ -0,0 +1,59 @@
+package io.flowinquiry.modules.teams.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.LocalDate;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * A bucket of the per-team ticket rollup read by the team dashboard.
+ *
+ * <p>Buckets are keyed by team, day, priority and assignee. {@code createdCount} and {@code
+ * openCount} count the tickets created on {@code statDate}, {@code closedCount} the tickets
+ * completed on it. The rows are maintained incrementally from ticket events and rebuilt nightly
+ * from {@code fw_ticket}, see {@code TeamTicketStatsService}.
+ */
+@Entity
+@Table(name = "fw_team_ticket_stats")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TeamTicketStats {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "team_id", nullable = false)
+    private Long teamId;
+
+    @Column(name = "stat_date", nullable = false)
+    private LocalDate statDate;
+
+    @Column(nullable = false)
+    @Convert(converter = TicketPriorityConverter.class)
+    private TicketPriority priority;
+
+    @Column(name = "assign_user_id")
+    private Long assignUserId;
+
+    @Column(name = "created_count", nullable = false)
+    private long createdCount;
+
+    @Column(name = "open_count", nullable = false)
+    private long openCount;
+
+    @Column(name = "closed_count", nullable = false)
+    private long closedCount;
+}
@@ -14,7 +14,6 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
-import org.hibernate.annotations.Formula;
 
 @EqualsAndHashCode(callSuper = false)
 @Entity
@@ -28,7 +27,11 @@ import org.hibernate.annotations.Formula;
 public class Ticket extends AbstractAuditingEntity<Long> {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ticket_id_seq")
+    @SequenceGenerator(
+            name = "ticket_id_seq",
+            sequenceName = "fw_ticket_id_seq",
+            allocationSize = 50)
     private Long id;
 
     @ManyToOne
@@ -88,12 +91,11 @@ public class Ticket extends AbstractAuditingEntity<Long> {
     @Column(name = "is_completed", nullable = false)
     private Boolean isCompleted = false;
 
-    @Formula(
-            "(SELECT COUNT(a.id) FROM fw_entity_attachment a WHERE a.entity_type = 'Ticket' AND a.entity_id = id)")
+    // Counters maintained by TicketCounterService, never written through the entity
+    @Column(name = "number_attachments", insertable = false, updatable = false)
     private int numberAttachments;
 
-    @Formula(
-            "(SELECT COUNT(a.id) FROM fw_entity_watchers a WHERE a.entity_type = 'Ticket' AND a.entity_id = id)")
+    @Column(name = "number_watchers", insertable = false, updatable = false)
     private int numberWatchers;
 
     @OneToOne(
@@ -9,6 +9,7 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import java.time.Instant;
 import lombok.AllArgsConstructor;
@@ -33,7 +34,13 @@ public class WorkflowTransitionHistory {
 
     @EqualsAndHashCode.Include
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(
+            strategy = GenerationType.SEQUENCE,
+            generator = "workflow_transition_history_id_seq")
+    @SequenceGenerator(
+            name = "workflow_transition_history_id_seq",
+            sequenceName = "fw_workflow_transition_history_id_seq",
+            allocationSize = 50)
     private Long id;
 
     @ManyToOne
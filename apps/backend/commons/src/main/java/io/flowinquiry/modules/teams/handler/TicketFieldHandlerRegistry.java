@@ -1,14 +1,28 @@
 package io.flowinquiry.modules.teams.handler;
 
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
 import io.flowinquiry.modules.audit.service.AbstractEntityFieldHandlerRegistry;
 import io.flowinquiry.modules.audit.service.EntityFieldHandler;
 import io.flowinquiry.modules.collab.domain.EntityType;
 import io.flowinquiry.modules.teams.domain.TicketChannel;
+import io.flowinquiry.modules.teams.domain.WorkflowState;
 import io.flowinquiry.modules.teams.repository.WorkflowStateRepository;
+import io.flowinquiry.modules.teams.service.cache.WorkflowGraph;
+import io.flowinquiry.modules.teams.service.cache.WorkflowGraphCache;
 import io.flowinquiry.modules.teams.service.dto.TicketDTO;
+import io.flowinquiry.modules.usermanagement.domain.User;
 import io.flowinquiry.modules.usermanagement.repository.UserRepository;
+import io.flowinquiry.modules.usermanagement.service.event.UserProfileChangedEvent;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 /**
  * Registry for ticket field handlers. This class is responsible for mapping ticket field names to
@@ -23,16 +37,54 @@ public class TicketFieldHandlerRegistry extends AbstractEntityFieldHandlerRegist
 
     private final WorkflowStateRepository workflowStateRepository;
 
+    private final WorkflowGraphCache workflowGraphCache;
+
+    /**
+     * Display names of the users referenced by audited assignments, loaded in batches. A name is
+     * evicted when its user is updated on this instance; other instances pick it up when the
+     * entry expires.
+     */
+    private final LoadingCache<Long, String> userDisplayNames;
+
     /**
      * Constructs a new TicketFieldHandlerRegistry with the required repositories.
      *
      * @param userRepository Repository for looking up user information
      * @param workflowStateRepository Repository for looking up workflow state information
+     * @param workflowGraphCache Cache of the workflow graphs, used to look up state names
      */
     public TicketFieldHandlerRegistry(
-            UserRepository userRepository, WorkflowStateRepository workflowStateRepository) {
+            UserRepository userRepository,
+            WorkflowStateRepository workflowStateRepository,
+            WorkflowGraphCache workflowGraphCache) {
         this.userRepository = userRepository;
         this.workflowStateRepository = workflowStateRepository;
+        this.workflowGraphCache = workflowGraphCache;
+        this.userDisplayNames =
+                Caffeine.newBuilder()
+                        .maximumSize(10_000)
+                        .expireAfterWrite(Duration.ofMinutes(5))
+                        .build(
+                                new CacheLoader<>() {
+                                    @Override
+                                    public String load(Long userId) {
+                                        return userRepository
+                                                .findById(userId)
+                                                .map(TicketFieldHandlerRegistry::displayName)
+                                                .orElse(null);
+                                    }
+
+                                    @Override
+                                    public Map<Long, String> loadAll(
+                                            Set<? extends Long> userIds) {
+                                        return userRepository.findAllById(userIds).stream()
+                                                .collect(
+                                                        Collectors.toMap(
+                                                                User::getId,
+                                                                TicketFieldHandlerRegistry
+                                                                        ::displayName));
+                                    }
+                                });
     }
 
     /**
@@ -63,13 +115,9 @@ public class TicketFieldHandlerRegistry extends AbstractEntityFieldHandlerRegist
                 "currentStateId",
                 new EntityFieldHandler<TicketDTO>(
                         "State",
-                        (objectVal, fieldVal) ->
+                        (ticket, fieldVal) ->
                                 Optional.ofNullable(fieldVal)
-                                        .flatMap(
-                                                id ->
-                                                        workflowStateRepository
-                                                                .findById((Long) id)
-                                                                .map(state -> state.getStateName()))
+                                        .flatMap(id -> findStateName(ticket, (Long) id))
                                         .orElse("")));
         addFieldHandler(
                 "assignUserId",
@@ -77,11 +125,53 @@ public class TicketFieldHandlerRegistry extends AbstractEntityFieldHandlerRegist
                         "Assigned User",
                         (objectVal, fieldVal) ->
                                 Optional.ofNullable(fieldVal)
-                                        .flatMap(id -> userRepository.findById((Long) id))
-                                        .map(user -> user.getFirstName() + " " + user.getLastName())
+                                        .map(id -> userDisplayNames.get((Long) id))
                                         .orElse("")));
     }
 
+    /**
+     * Loads the names of all users an audited change assigns from or to with one query, so the
+     * assigned user handler reads them from the cache.
+     */
+    @Override
+    public void prefetchDisplayValues(Map<String, Set<Object>> rawValuesByField) {
+        Set<Long> userIds =
+                rawValuesByField.getOrDefault("assignUserId", Set.of()).stream()
+                        .filter(Objects::nonNull)
+                        .map(Long.class::cast)
+                        .collect(Collectors.toSet());
+        if (!userIds.isEmpty()) {
+            userDisplayNames.getAll(userIds);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserProfileChanged(UserProfileChangedEvent event) {
+        userDisplayNames.invalidate(event.getUserId());
+    }
+
+    private static String displayName(User user) {
+        return user.getFirstName() + " " + user.getLastName();
+    }
+
+    /**
+     * Looks up the name of a state in the cached graph of the ticket workflow, falling back to the
+     * database when the ticket does not carry its workflow.
+     */
+    private Optional<String> findStateName(TicketDTO ticket, Long stateId) {
+        if (ticket != null && ticket.getWorkflowId() != null) {
+            Optional<String> stateName =
+                    workflowGraphCache
+                            .get(ticket.getWorkflowId())
+                            .findState(stateId)
+                            .map(WorkflowGraph.State::stateName);
+            if (stateName.isPresent()) {
+                return stateName;
+            }
+        }
+        return workflowStateRepository.findById(stateId).map(WorkflowState::getStateName);
+    }
+
     /**
      * Returns the class of the entity this registry handles.
      *
@@ -11,6 +11,7 @@ import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
@@ -101,4 +102,8 @@ public interface TeamRepository extends JpaRepository<Team, Long>, JpaSpecificat
         WHERE ut.team.id = :teamId AND ut.role.name = 'manager'
     """)
     List<User> findManagersByTeamId(@Param("teamId") Long teamId);
+
+    @Modifying
+    @Query("UPDATE Team t SET t.logoUrl = NULL WHERE t.logoUrl = :logoUrl")
+    void clearLogoUrl(@Param("logoUrl") String logoUrl);
 }
@@ -0,0 +1,184 @@
+package io.flowinquiry.modules.teams.repository;
+
+import io.flowinquiry.modules.teams.domain.TeamTicketStats;
+import io.flowinquiry.modules.teams.service.dto.PriorityDistributionDTO;
+import io.flowinquiry.modules.teams.service.dto.TeamTicketPriorityDistributionDTO;
+import io.flowinquiry.modules.teams.service.dto.TicketActionCountByDateDTO;
+import io.flowinquiry.modules.teams.service.dto.TicketDistributionDTO;
+import io.flowinquiry.modules.usermanagement.service.dto.TicketStatisticsDTO;
+import java.time.LocalDate;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface TeamTicketStatsRepository extends JpaRepository<TeamTicketStats, Long> {
+
+    /** The rollup as computed from scratch out of {@code fw_ticket}, one row per bucket. */
+    String EXPECTED_STATS_SQL =
+            """
+            SELECT team_id, stat_date, priority, assign_user_id,
+                SUM(created_count) AS created_count,
+                SUM(open_count) AS open_count,
+                SUM(closed_count) AS closed_count
+            FROM (
+                SELECT team_id, CAST(created_at AT TIME ZONE 'UTC' AS DATE) AS stat_date,
+                    priority, assign_user_id,
+                    1 AS created_count,
+                    CASE WHEN is_completed THEN 0 ELSE 1 END AS open_count,
+                    0 AS closed_count
+                FROM fw_ticket
+                WHERE is_deleted = false AND created_at IS NOT NULL
+                UNION ALL
+                SELECT team_id, actual_completion_date, priority, assign_user_id, 0, 0, 1
+                FROM fw_ticket
+                WHERE is_deleted = false
+                AND is_completed = true
+                AND actual_completion_date IS NOT NULL
+            ) t
+            GROUP BY team_id, stat_date, priority, assign_user_id
+            """;
+
+    /**
+     * Adds the given deltas to a bucket, creating it when it does not exist yet.
+     *
+     * @return the number of rows inserted or updated
+     */
+    @Modifying
+    @Query(
+            nativeQuery = true,
+            value =
+                    """
+    INSERT INTO fw_team_ticket_stats
+        (team_id, stat_date, priority, assign_user_id, created_count, open_count, closed_count)
+    VALUES (:teamId, :statDate, :priority, CAST(:assignUserId AS BIGINT),
+        :createdDelta, :openDelta, :closedDelta)
+    ON CONFLICT (team_id, stat_date, priority, (COALESCE(assign_user_id, 0)))
+    DO UPDATE SET
+        created_count = fw_team_ticket_stats.created_count + EXCLUDED.created_count,
+        open_count = fw_team_ticket_stats.open_count + EXCLUDED.open_count,
+        closed_count = fw_team_ticket_stats.closed_count + EXCLUDED.closed_count
+    """)
+    int applyDelta(
+            @Param("teamId") Long teamId,
+            @Param("statDate") LocalDate statDate,
+            @Param("priority") int priority,
+            @Param("assignUserId") Long assignUserId,
+            @Param("createdDelta") long createdDelta,
+            @Param("openDelta") long openDelta,
+            @Param("closedDelta") long closedDelta);
+
+    /** Counts the buckets whose counters differ from the ones computed out of the tickets. */
+    @Query(
+            nativeQuery = true,
+            value =
+                    "WITH expected AS ("
+                            + EXPECTED_STATS_SQL
+                            + "), actual AS ("
+                            + "    SELECT team_id, stat_date, priority, assign_user_id,"
+                            + "        created_count, open_count, closed_count"
+                            + "    FROM fw_team_ticket_stats"
+                            + "    WHERE created_count <> 0 OR open_count <> 0 OR closed_count <> 0"
+                            + ") "
+                            + "SELECT COUNT(*) FROM ("
+                            + "    (SELECT * FROM actual EXCEPT SELECT * FROM expected)"
+                            + "    UNION ALL"
+                            + "    (SELECT * FROM expected EXCEPT SELECT * FROM actual)"
+                            + ") drift")
+    long countDriftedBuckets();
+
+    @Modifying
+    @Query(nativeQuery = true, value = "DELETE FROM fw_team_ticket_stats")
+    int deleteAllBuckets();
+
+    @Modifying
+    @Query(
+            nativeQuery = true,
+            value =
+                    "INSERT INTO fw_team_ticket_stats"
+                            + " (team_id, stat_date, priority, assign_user_id,"
+                            + " created_count, open_count, closed_count) "
+                            + EXPECTED_STATS_SQL)
+    int insertExpectedBuckets();
+
+    @Query(
+            """
+            SELECT new io.flowinquiry.modules.teams.service.dto.TicketDistributionDTO(
+                u.id, CONCAT(u.firstName, ' ', u.lastName), SUM(s.openCount))
+            FROM TeamTicketStats s
+            LEFT JOIN User u ON s.assignUserId = u.id
+            WHERE s.teamId = :teamId
+            AND s.statDate >= COALESCE(:fromDate, s.statDate)
+            AND s.statDate <= COALESCE(:toDate, s.statDate)
+            GROUP BY u.id, u.firstName, u.lastName
+            HAVING SUM(s.openCount) > 0
+            """)
+    List<TicketDistributionDTO> findTicketDistributionByTeamId(
+            @Param("teamId") Long teamId,
+            @Param("fromDate") LocalDate fromDate,
+            @Param("toDate") LocalDate toDate);
+
+    @Query(
+            """
+            SELECT new io.flowinquiry.modules.teams.service.dto.PriorityDistributionDTO(
+                s.priority, SUM(s.openCount))
+            FROM TeamTicketStats s
+            WHERE s.teamId = :teamId
+            AND s.statDate >= COALESCE(:fromDate, s.statDate)
+            AND s.statDate <= COALESCE(:toDate, s.statDate)
+            GROUP BY s.priority
+            HAVING SUM(s.openCount) > 0
+            """)
+    List<PriorityDistributionDTO> findTicketPriorityDistributionByTeamId(
+            @Param("teamId") Long teamId,
+            @Param("fromDate") LocalDate fromDate,
+            @Param("toDate") LocalDate toDate);
+
+    @Query(
+            """
+            SELECT new io.flowinquiry.modules.usermanagement.service.dto.TicketStatisticsDTO(
+                COALESCE(SUM(s.createdCount), 0L),
+                COALESCE(SUM(s.openCount), 0L),
+                COALESCE(SUM(s.createdCount - s.openCount), 0L))
+            FROM TeamTicketStats s
+            WHERE s.teamId = :teamId
+            AND s.statDate >= COALESCE(:fromDate, s.statDate)
+            AND s.statDate <= COALESCE(:toDate, s.statDate)
+            """)
+    TicketStatisticsDTO getTicketStatisticsByTeamId(
+            @Param("teamId") Long teamId,
+            @Param("fromDate") LocalDate fromDate,
+            @Param("toDate") LocalDate toDate);
+
+    @Query(
+            """
+            SELECT new io.flowinquiry.modules.teams.service.dto.TicketActionCountByDateDTO(
+                s.statDate, SUM(s.createdCount), SUM(s.closedCount))
+            FROM TeamTicketStats s
+            WHERE s.teamId = :teamId
+            AND s.statDate >= :startDate
+            GROUP BY s.statDate
+            ORDER BY s.statDate ASC
+            """)
+    List<TicketActionCountByDateDTO> findTicketActionByDaySeries(
+            @Param("teamId") Long teamId, @Param("startDate") LocalDate startDate);
+
+    @Query(
+            """
+            SELECT new io.flowinquiry.modules.teams.service.dto.TeamTicketPriorityDistributionDTO(
+                t.id, t.name, s.priority, SUM(s.openCount))
+            FROM TeamTicketStats s
+            JOIN Team t ON t.id = s.teamId
+            JOIN UserTeam ut ON ut.team.id = s.teamId
+            WHERE ut.user.id = :userId
+            AND s.statDate >= COALESCE(:fromDate, s.statDate)
+            AND s.statDate <= COALESCE(:toDate, s.statDate)
+            GROUP BY t.id, t.name, s.priority
+            HAVING SUM(s.openCount) > 0
+            """)
+    List<TeamTicketPriorityDistributionDTO> findPriorityDistributionByUserId(
+            @Param("userId") Long userId,
+            @Param("fromDate") LocalDate fromDate,
+            @Param("toDate") LocalDate toDate);
+}
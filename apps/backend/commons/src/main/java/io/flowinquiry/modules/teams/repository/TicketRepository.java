@@ -2,15 +2,14 @@ package io.flowinquiry.modules.teams.repository;
 
 import io.flowinquiry.modules.teams.domain.Ticket;
 import io.flowinquiry.modules.teams.domain.WorkflowTransitionHistoryStatus;
-import io.flowinquiry.modules.teams.service.dto.PriorityDistributionDTO;
-import io.flowinquiry.modules.teams.service.dto.TeamTicketPriorityDistributionDTO;
-import io.flowinquiry.modules.teams.service.dto.TicketActionCountByDateDTO;
-import io.flowinquiry.modules.teams.service.dto.TicketDistributionDTO;
-import io.flowinquiry.modules.usermanagement.service.dto.TicketStatisticsDTO;
+import io.flowinquiry.modules.teams.service.dto.ChildTicketIdDTO;
+import io.flowinquiry.modules.teams.service.search.TicketSearchDocument;
 import jakarta.persistence.QueryHint;
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
@@ -26,7 +25,19 @@ import org.springframework.stereotype.Repository;
 public interface TicketRepository
         extends JpaRepository<Ticket, Long>, JpaSpecificationExecutor<Ticket> {
 
-    @EntityGraph(attributePaths = {"team", "requestUser", "assignUser", "workflow", "currentState"})
+    // Every association read by TicketMapper, so a page of tickets is loaded with one select
+    @EntityGraph(
+            attributePaths = {
+                "team",
+                "project",
+                "requestUser",
+                "assignUser",
+                "workflow",
+                "currentState",
+                "iteration",
+                "epic",
+                "conversationHealth"
+            })
     Page<Ticket> findAll(Specification<Ticket> spec, Pageable pageable);
 
     @EntityGraph(
@@ -106,23 +117,6 @@ public interface TicketRepository
     Optional<Ticket> findNextTicket(
             @Param("ticketId") Long ticketId, @Param("projectId") Long projectId);
 
-    // Query to count tickets assigned to each team member for a specific team
-    @Query(
-            "SELECT new io.flowinquiry.modules.teams.service.dto.TicketDistributionDTO("
-                    + "u.id, CONCAT(u.firstName, ' ', u.lastName), COUNT(r.id)) "
-                    + "FROM Ticket r "
-                    + "LEFT JOIN User u ON r.assignUser.id = u.id "
-                    + "WHERE r.team.id = :teamId "
-                    + "AND r.isCompleted = false "
-                    + "AND r.isDeleted = false "
-                    + "AND r.createdAt >= COALESCE(:fromDate, r.createdAt) "
-                    + "AND r.createdAt <= COALESCE(:toDate, r.createdAt) "
-                    + "GROUP BY u.id, u.firstName, u.lastName")
-    List<TicketDistributionDTO> findTicketDistributionByTeamId(
-            @Param("teamId") Long teamId,
-            @Param("fromDate") Instant fromDate,
-            @Param("toDate") Instant toDate);
-
     @QueryHints({
         @QueryHint(name = "org.hibernate.cacheable", value = "true"),
         @QueryHint(name = "org.hibernate.cacheRegion", value = "queryTickets")
@@ -133,37 +127,6 @@ public interface TicketRepository
                     + "AND r.assignUser IS NULL")
     Page<Ticket> findUnassignedTicketsByTeamId(@Param("teamId") Long teamId, Pageable pageable);
 
-    // Query to count tickets by priority for a specific team
-    @Query(
-            "SELECT new io.flowinquiry.modules.teams.service.dto.PriorityDistributionDTO("
-                    + "r.priority, COUNT(r.id)) "
-                    + "FROM Ticket r "
-                    + "WHERE r.team.id = :teamId "
-                    + "AND r.isCompleted = false "
-                    + "AND r.isDeleted = false "
-                    + "AND r.createdAt >= COALESCE(:fromDate, r.createdAt) "
-                    + "AND r.createdAt <= COALESCE(:toDate, r.createdAt) "
-                    + "GROUP BY r.priority")
-    List<PriorityDistributionDTO> findTicketPriorityDistributionByTeamId(
-            @Param("teamId") Long teamId,
-            @Param("fromDate") Instant fromDate,
-            @Param("toDate") Instant toDate);
-
-    @Query(
-            "SELECT new io.flowinquiry.modules.usermanagement.service.dto.TicketStatisticsDTO("
-                    + "COUNT(tr), "
-                    + "SUM(CASE WHEN tr.isCompleted = false THEN 1 ELSE 0 END), "
-                    + "SUM(CASE WHEN tr.isCompleted = true THEN 1 ELSE 0 END)) "
-                    + "FROM Ticket tr "
-                    + "WHERE tr.isDeleted = false "
-                    + "AND tr.team.id = :teamId "
-                    + "AND tr.createdAt >= COALESCE(:fromDate, tr.createdAt) "
-                    + "AND tr.createdAt <= COALESCE(:toDate, tr.createdAt)")
-    TicketStatisticsDTO getTicketStatisticsByTeamId(
-            @Param("teamId") Long teamId,
-            @Param("fromDate") Instant fromDate,
-            @Param("toDate") Instant toDate);
-
     @Query(
             "SELECT r "
                     + "FROM Ticket r "
@@ -232,50 +195,49 @@ public interface TicketRepository
             @Param("fromDate") Instant fromDate,
             @Param("toDate") Instant toDate);
 
+    boolean existsByWorkflowIdAndIsDeletedFalse(Long workflowId);
+
+    /**
+     * Returns the ids of the child tickets of the given tickets, so a page of tickets resolves its
+     * children with one query instead of initializing {@code childTickets} ticket by ticket.
+     */
     @Query(
-            "SELECT new io.flowinquiry.modules.teams.service.dto.TicketActionCountByDateDTO("
-                    + "CAST(r.createdAt AS date), "
-                    + "COUNT(r.id), "
-                    + "COALESCE(closedTicketCounts.closedCount, 0)) "
-                    + "FROM Ticket r "
-                    + "LEFT JOIN ("
-                    + "    SELECT CAST(c.actualCompletionDate AS date) AS completionDate, COUNT(c.id) AS closedCount "
-                    + "    FROM Ticket c "
-                    + "    WHERE c.isDeleted = false "
-                    + "    AND c.team.id = :teamId "
-                    + "    AND c.isCompleted = true "
-                    + "    AND c.actualCompletionDate IS NOT NULL "
-                    + "    GROUP BY CAST(c.actualCompletionDate AS date)"
-                    + ") closedTicketCounts ON CAST(r.createdAt AS date) = closedTicketCounts.completionDate "
-                    + "WHERE r.isDeleted = false "
-                    + "AND r.team.id = :teamId "
-                    + "AND r.createdAt >= :startDate "
-                    + "GROUP BY CAST(r.createdAt AS date), closedTicketCounts.closedCount "
-                    + "ORDER BY CAST(r.createdAt AS date) ASC")
-    List<TicketActionCountByDateDTO> findTicketActionByDaySeries(
-            @Param("teamId") Long teamId, @Param("startDate") Instant startDate);
+            """
+            SELECT new io.flowinquiry.modules.teams.service.dto.ChildTicketIdDTO(
+                t.parentTicket.id, t.id)
+            FROM Ticket t
+            WHERE t.parentTicket.id IN :parentTicketIds
+            ORDER BY t.id
+            """)
+    List<ChildTicketIdDTO> findChildTicketIds(
+            @Param("parentTicketIds") Collection<Long> parentTicketIds);
 
+    // Streamed to rebuild the in-memory search index, must be read in a transaction
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
     @Query(
             """
-            SELECT new io.flowinquiry.modules.teams.service.dto.TeamTicketPriorityDistributionDTO(
-                r.team.id,
-                r.team.name,
-                r.priority,
-                COUNT(r.id)
-            )
-            FROM Ticket r
-            JOIN UserTeam ut ON ut.team.id = r.team.id
-            WHERE ut.user.id = :userId
-            AND r.isDeleted = false
-            AND r.isCompleted = false
-            AND r.createdAt >= COALESCE(:fromDate, r.createdAt)
-            AND r.createdAt <= COALESCE(:toDate, r.createdAt)
-            GROUP BY r.team.id, r.team.name, r.priority
+            SELECT new io.flowinquiry.modules.teams.service.search.TicketSearchDocument(
+                t.id, t.team.id, t.requestTitle, t.requestDescription, s.stateName, t.priority,
+                a.firstName, a.lastName)
+            FROM Ticket t
+            LEFT JOIN t.currentState s
+            LEFT JOIN t.assignUser a
+            WHERE t.isDeleted = false
+            ORDER BY t.id
             """)
-    List<TeamTicketPriorityDistributionDTO> findPriorityDistributionByUserId(
-            @Param("userId") Long userId,
-            @Param("fromDate") Instant fromDate,
-            @Param("toDate") Instant toDate);
+    Stream<TicketSearchDocument> streamSearchDocuments();
 
-    boolean existsByWorkflowIdAndIsDeletedFalse(Long workflowId);
+    // The indexed fields of changed tickets, deleted tickets are left out
+    @Query(
+            """
+            SELECT new io.flowinquiry.modules.teams.service.search.TicketSearchDocument(
+                t.id, t.team.id, t.requestTitle, t.requestDescription, s.stateName, t.priority,
+                a.firstName, a.lastName)
+            FROM Ticket t
+            LEFT JOIN t.currentState s
+            LEFT JOIN t.assignUser a
+            WHERE t.id IN :ids
+            AND t.isDeleted = false
+            """)
+    List<TicketSearchDocument> findSearchDocumentsByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -1,8 +1,11 @@
 package io.flowinquiry.modules.teams.repository;
 
 import io.flowinquiry.modules.teams.domain.WorkflowTransitionHistory;
+import io.flowinquiry.modules.teams.service.dto.SlaDeadlineDTO;
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -31,4 +34,81 @@ public interface WorkflowTransitionHistoryRepository
     AND wth.slaDueDate <= :checkTime
     """)
     List<WorkflowTransitionHistory> findViolatingTransitions(@Param("checkTime") Instant checkTime);
+
+    /**
+     * Returns only the id and SLA due date of every in-progress transition due before the given
+     * time. Used to seed and reconcile the in-memory SLA timer wheel without loading entities.
+     *
+     * @param checkTime the upper bound of the SLA due date
+     * @return the pending SLA deadlines
+     */
+    @Query(
+            """
+    SELECT new io.flowinquiry.modules.teams.service.dto.SlaDeadlineDTO(wth.id, wth.slaDueDate)
+    FROM WorkflowTransitionHistory wth
+    WHERE wth.status = 'In_Progress'
+    AND wth.slaDueDate IS NOT NULL
+    AND wth.slaDueDate <= :checkTime
+    """)
+    List<SlaDeadlineDTO> findSlaDeadlinesDueBefore(@Param("checkTime") Instant checkTime);
+
+    /**
+     * Returns only the id and SLA due date of every in-progress transition due within the given
+     * window, lower bound exclusive.
+     *
+     * @param fromTime the exclusive lower bound of the SLA due date
+     * @param toTime the inclusive upper bound of the SLA due date
+     * @return the pending SLA deadlines
+     */
+    @Query(
+            """
+    SELECT new io.flowinquiry.modules.teams.service.dto.SlaDeadlineDTO(wth.id, wth.slaDueDate)
+    FROM WorkflowTransitionHistory wth
+    WHERE wth.status = 'In_Progress'
+    AND wth.slaDueDate > :fromTime
+    AND wth.slaDueDate <= :toTime
+    """)
+    List<SlaDeadlineDTO> findSlaDeadlinesDueBetween(
+            @Param("fromTime") Instant fromTime, @Param("toTime") Instant toTime);
+
+    /**
+     * Escalates, in a single statement, the given transitions that are still in progress and have
+     * violated their SLA. Transitions already escalated or completed, for instance by another node,
+     * are left untouched.
+     *
+     * @param ids the transition history ids
+     * @param checkTime the time the SLA due date is compared against
+     * @return the ids of the transitions escalated by this statement
+     */
+    @Query(
+            nativeQuery = true,
+            value =
+                    """
+    UPDATE fw_workflow_transition_history
+    SET status = 'Escalated'
+    WHERE id IN (:ids)
+    AND status = 'In_Progress'
+    AND sla_due_date <= :checkTime
+    RETURNING id
+    """)
+    List<Long> escalateViolatedTransitions(
+            @Param("ids") Collection<Long> ids, @Param("checkTime") Instant checkTime);
+
+    /**
+     * Loads the given transitions together with the ticket associations needed to notify the
+     * recipients of an SLA breach.
+     *
+     * @param ids the transition history ids
+     * @return the transitions
+     */
+    @EntityGraph(
+            attributePaths = {
+                "ticket",
+                "ticket.team",
+                "ticket.assignUser",
+                "ticket.workflow",
+                "toState"
+            })
+    @Query("SELECT wth FROM WorkflowTransitionHistory wth WHERE wth.id IN :ids")
+    List<WorkflowTransitionHistory> findWithTicketByIdIn(@Param("ids") Collection<Long> ids);
 }
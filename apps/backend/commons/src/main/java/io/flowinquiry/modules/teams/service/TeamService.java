@@ -107,6 +107,11 @@ public class TeamService {
         teamRepository.deleteAllByIdInBatch(ids);
     }
 
+    /** Removes a logo from the teams using it, when the logo could not be converted. */
+    public void clearLogoUrl(String logoUrl) {
+        teamRepository.clearLogoUrl(logoUrl);
+    }
+
     @Transactional(readOnly = true)
     public Optional<TeamDTO> findTeamById(Long id) {
         return teamRepository.findById(id).map(teamMapper::toDto);
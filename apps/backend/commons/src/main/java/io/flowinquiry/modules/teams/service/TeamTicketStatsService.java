@@ -0,0 +1,212 @@
+package io.flowinquiry.modules.teams.service;
+
+import io.flowinquiry.modules.teams.domain.TicketPriority;
+import io.flowinquiry.modules.teams.repository.TeamTicketStatsRepository;
+import io.flowinquiry.modules.teams.service.dto.PriorityDistributionDTO;
+import io.flowinquiry.modules.teams.service.dto.TeamTicketPriorityDistributionDTO;
+import io.flowinquiry.modules.teams.service.dto.TicketActionCountByDateDTO;
+import io.flowinquiry.modules.teams.service.dto.TicketDTO;
+import io.flowinquiry.modules.teams.service.dto.TicketDistributionDTO;
+import io.flowinquiry.modules.usermanagement.service.dto.TicketStatisticsDTO;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Maintains and reads the per-team ticket rollup behind the team dashboard.
+ *
+ * <p>Each ticket contributes to at most two buckets of its team, priority and assignee: the day it
+ * was created (created, and open while not completed) and the day it was completed (closed). A
+ * change is applied as the difference between the contributions of the ticket before and after it,
+ * so the dashboard reads a handful of bucket rows instead of grouping the ticket table. Days are
+ * UTC days, which bounds the date filters of the dashboard to whole days.
+ */
+@Slf4j
+@Service
+@Transactional
+public class TeamTicketStatsService {
+
+    private static final Comparator<StatsBucket> BUCKET_ORDER =
+            Comparator.comparing(StatsBucket::teamId)
+                    .thenComparing(StatsBucket::statDate)
+                    .thenComparing(StatsBucket::priority)
+                    .thenComparing(
+                            StatsBucket::assignUserId,
+                            Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private final TeamTicketStatsRepository teamTicketStatsRepository;
+
+    public TeamTicketStatsService(TeamTicketStatsRepository teamTicketStatsRepository) {
+        this.teamTicketStatsRepository = teamTicketStatsRepository;
+    }
+
+    public void recordTicketCreated(TicketDTO ticket) {
+        recordTicketChanged(null, ticket);
+    }
+
+    /**
+     * Moves the contributions of a ticket from its previous to its current buckets.
+     *
+     * @param previousTicket the ticket before the change, {@code null} if it was just created
+     * @param currentTicket the ticket after the change, {@code null} if it was deleted
+     */
+    public void recordTicketChanged(TicketDTO previousTicket, TicketDTO currentTicket) {
+        Map<StatsBucket, long[]> deltas = new TreeMap<>(BUCKET_ORDER);
+        addContributions(deltas, previousTicket, -1);
+        addContributions(deltas, currentTicket, 1);
+        applyDeltas(deltas);
+    }
+
+    /**
+     * Moves the contributions of a batch of tickets, updating each bucket touched by the batch
+     * once.
+     *
+     * @param previousTickets the tickets before the change, with {@code null} entries for the
+     *     created tickets
+     * @param currentTickets the tickets after the change, at the same index
+     */
+    public void recordTicketsChanged(
+            List<TicketDTO> previousTickets, List<TicketDTO> currentTickets) {
+        Map<StatsBucket, long[]> deltas = new TreeMap<>(BUCKET_ORDER);
+        for (int i = 0; i < currentTickets.size(); i++) {
+            addContributions(deltas, previousTickets.get(i), -1);
+            addContributions(deltas, currentTickets.get(i), 1);
+        }
+        applyDeltas(deltas);
+    }
+
+    /**
+     * Rebuilds the rollup from the ticket table.
+     *
+     * @return the number of buckets that had drifted from the tickets before the rebuild
+     */
+    public long rebuild() {
+        long driftedBuckets = teamTicketStatsRepository.countDriftedBuckets();
+        teamTicketStatsRepository.deleteAllBuckets();
+        int buckets = teamTicketStatsRepository.insertExpectedBuckets();
+        log.debug("Rebuilt team ticket statistics into {} buckets", buckets);
+        return driftedBuckets;
+    }
+
+    @Transactional(readOnly = true)
+    public List<TicketDistributionDTO> getTicketDistribution(
+            Long teamId, Instant fromDate, Instant toDate) {
+        return teamTicketStatsRepository.findTicketDistributionByTeamId(
+                teamId, toStatDate(fromDate), toStatDate(toDate));
+    }
+
+    @Transactional(readOnly = true)
+    public List<PriorityDistributionDTO> getPriorityDistribution(
+            Long teamId, Instant fromDate, Instant toDate) {
+        return teamTicketStatsRepository.findTicketPriorityDistributionByTeamId(
+                teamId, toStatDate(fromDate), toStatDate(toDate));
+    }
+
+    @Transactional(readOnly = true)
+    public TicketStatisticsDTO getTicketStatisticsByTeamId(
+            Long teamId, Instant fromDate, Instant toDate) {
+        return teamTicketStatsRepository.getTicketStatisticsByTeamId(
+                teamId, toStatDate(fromDate), toStatDate(toDate));
+    }
+
+    @Transactional(readOnly = true)
+    public List<TeamTicketPriorityDistributionDTO> getPriorityDistributionForUser(
+            Long userId, Instant fromDate, Instant toDate) {
+        return teamTicketStatsRepository.findPriorityDistributionByUserId(
+                userId, toStatDate(fromDate), toStatDate(toDate));
+    }
+
+    @Transactional(readOnly = true)
+    public List<TicketActionCountByDateDTO> getTicketCreationTimeSeries(Long teamId, int days) {
+        if (days <= 0) {
+            days = 7; // Default to 7 days
+        }
+
+        LocalDate startDate = LocalDate.now(ZoneOffset.UTC).minusDays(days - 1);
+        List<TicketActionCountByDateDTO> trends =
+                teamTicketStatsRepository.findTicketActionByDaySeries(teamId, startDate);
+
+        // Fill missing dates with zero counts
+        Map<LocalDate, TicketActionCountByDateDTO> trendMap = new HashMap<>();
+        for (TicketActionCountByDateDTO trend : trends) {
+            trendMap.put(trend.getDate(), trend);
+        }
+
+        List<TicketActionCountByDateDTO> ticketByDaySeries = new ArrayList<>();
+        for (int i = 0; i < days; i++) {
+            LocalDate date = startDate.plusDays(i);
+            TicketActionCountByDateDTO trend =
+                    trendMap.getOrDefault(date, new TicketActionCountByDateDTO(date, 0L, 0L));
+            ticketByDaySeries.add(trend);
+        }
+
+        return ticketByDaySeries;
+    }
+
+    private void applyDeltas(Map<StatsBucket, long[]> deltas) {
+        // Created, open and closed deltas per bucket, sorted so concurrent changes lock the
+        // bucket rows in the same order
+        deltas.forEach(
+                (bucket, delta) -> {
+                    if (delta[0] != 0 || delta[1] != 0 || delta[2] != 0) {
+                        teamTicketStatsRepository.applyDelta(
+                                bucket.teamId(),
+                                bucket.statDate(),
+                                bucket.priority().getCode(),
+                                bucket.assignUserId(),
+                                delta[0],
+                                delta[1],
+                                delta[2]);
+                    }
+                });
+    }
+
+    private void addContributions(Map<StatsBucket, long[]> deltas, TicketDTO ticket, int sign) {
+        if (ticket == null) {
+            return;
+        }
+
+        TicketPriority priority = TicketPriority.valueOf(ticket.getPriority());
+        boolean completed = Boolean.TRUE.equals(ticket.getIsCompleted());
+        Instant createdAt = ticket.getCreatedAt() != null ? ticket.getCreatedAt() : Instant.now();
+
+        long[] created =
+                deltas.computeIfAbsent(
+                        new StatsBucket(
+                                ticket.getTeamId(),
+                                toStatDate(createdAt),
+                                priority,
+                                ticket.getAssignUserId()),
+                        bucket -> new long[3]);
+        created[0] += sign;
+        created[1] += completed ? 0 : sign;
+
+        if (completed && ticket.getActualCompletionDate() != null) {
+            long[] closed =
+                    deltas.computeIfAbsent(
+                            new StatsBucket(
+                                    ticket.getTeamId(),
+                                    ticket.getActualCompletionDate(),
+                                    priority,
+                                    ticket.getAssignUserId()),
+                            bucket -> new long[3]);
+            closed[2] += sign;
+        }
+    }
+
+    private static LocalDate toStatDate(Instant instant) {
+        return instant != null ? LocalDate.ofInstant(instant, ZoneOffset.UTC) : null;
+    }
+
+    private record StatsBucket(
+            Long teamId, LocalDate statDate, TicketPriority priority, Long assignUserId) {}
+}
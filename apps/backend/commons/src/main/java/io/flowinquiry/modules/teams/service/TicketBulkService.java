@@ -0,0 +1,455 @@
+package io.flowinquiry.modules.teams.service;
+
+import static io.flowinquiry.modules.teams.domain.WorkflowTransitionHistoryStatus.Completed;
+import static io.flowinquiry.modules.teams.domain.WorkflowTransitionHistoryStatus.In_Progress;
+
+import io.flowinquiry.exceptions.ResourceNotFoundException;
+import io.flowinquiry.modules.audit.service.event.AuditLogUpdateEvent;
+import io.flowinquiry.modules.collab.domain.EntityType;
+import io.flowinquiry.modules.collab.domain.EntityWatcher;
+import io.flowinquiry.modules.collab.repository.EntityWatcherRepository;
+import io.flowinquiry.modules.teams.domain.Ticket;
+import io.flowinquiry.modules.teams.domain.TicketPriority;
+import io.flowinquiry.modules.teams.domain.WorkflowState;
+import io.flowinquiry.modules.teams.domain.WorkflowTransitionHistory;
+import io.flowinquiry.modules.teams.repository.TicketRepository;
+import io.flowinquiry.modules.teams.repository.WorkflowTransitionHistoryRepository;
+import io.flowinquiry.modules.teams.service.cache.WorkflowGraph;
+import io.flowinquiry.modules.teams.service.cache.WorkflowGraphCache;
+import io.flowinquiry.modules.teams.service.dto.TicketDTO;
+import io.flowinquiry.modules.teams.service.dto.TicketEventMode;
+import io.flowinquiry.modules.teams.service.event.NewTicketCreatedEvent;
+import io.flowinquiry.modules.teams.service.event.SlaDeadlineScheduledEvent;
+import io.flowinquiry.modules.teams.service.event.TicketBatchSavedEvent;
+import io.flowinquiry.modules.teams.service.event.TicketChangedEvent;
+import io.flowinquiry.modules.teams.service.event.TicketWorkStateTransitionEvent;
+import io.flowinquiry.modules.teams.service.mapper.TicketMapper;
+import io.flowinquiry.modules.usermanagement.domain.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Creates and updates tickets in bulk, for imports from other trackers and mass edits.
+ *
+ * <p>The work that {@link TicketService} repeats per ticket is done once per batch: workflow
+ * states and transitions are read from the {@link WorkflowGraphCache} up front, project ticket
+ * numbers are reserved as one range per project, and tickets, watchers and transition histories
+ * are written with JDBC batching in chunks of {@value #FLUSH_CHUNK_SIZE}, clearing the persistence
+ * context between chunks. The caller picks with a {@link TicketEventMode} which events the batch
+ * publishes. Audit logs, SLA deadlines and the team ticket rollup are kept up to date whatever the
+ * mode.
+ */
+@Slf4j
+@Service
+@Transactional
+public class TicketBulkService {
+
+    /** The largest number of tickets accepted in a single call. */
+    public static final int MAX_BATCH_SIZE = 5000;
+
+    private static final int FLUSH_CHUNK_SIZE = 500;
+
+    @PersistenceContext private EntityManager entityManager;
+
+    private final TicketService ticketService;
+    private final TicketRepository ticketRepository;
+    private final TicketMapper ticketMapper;
+    private final EntityWatcherRepository entityWatcherRepository;
+    private final WorkflowGraphCache workflowGraphCache;
+    private final WorkflowTransitionHistoryRepository workflowTransitionHistoryRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TicketCounterService ticketCounterService;
+
+    public TicketBulkService(
+            TicketService ticketService,
+            TicketRepository ticketRepository,
+            TicketMapper ticketMapper,
+            EntityWatcherRepository entityWatcherRepository,
+            WorkflowGraphCache workflowGraphCache,
+            WorkflowTransitionHistoryRepository workflowTransitionHistoryRepository,
+            ApplicationEventPublisher eventPublisher,
+            TicketCounterService ticketCounterService) {
+        this.ticketService = ticketService;
+        this.ticketRepository = ticketRepository;
+        this.ticketMapper = ticketMapper;
+        this.entityWatcherRepository = entityWatcherRepository;
+        this.workflowGraphCache = workflowGraphCache;
+        this.workflowTransitionHistoryRepository = workflowTransitionHistoryRepository;
+        this.eventPublisher = eventPublisher;
+        this.ticketCounterService = ticketCounterService;
+    }
+
+    /**
+     * Creates the given tickets in their initial state.
+     *
+     * @param ticketDTOs the tickets to create, in the order their project numbers are assigned
+     * @param eventMode the events to publish for the created tickets
+     * @return the created tickets, in the order they were given
+     */
+    public List<TicketDTO> createTickets(List<TicketDTO> ticketDTOs, TicketEventMode eventMode) {
+        validateBatch(ticketDTOs);
+        Map<Long, WorkflowGraph> workflowGraphs = loadWorkflowGraphs(ticketDTOs);
+        assignProjectTicketNumbers(ticketDTOs);
+
+        Instant now = Instant.now();
+        List<TicketDTO> savedTickets = new ArrayList<>(ticketDTOs.size());
+        List<SlaDeadlineScheduledEvent> slaDeadlines = new ArrayList<>();
+
+        for (List<TicketDTO> chunk : chunks(ticketDTOs)) {
+            List<Ticket> tickets = new ArrayList<>(chunk.size());
+            for (TicketDTO ticketDTO : chunk) {
+                ticketDTO.setIsNew(true);
+                ticketDTO.setIsCompleted(false);
+                tickets.add(ticketMapper.toEntity(ticketDTO));
+            }
+            ticketRepository.saveAll(tickets);
+
+            List<EntityWatcher> watchers = new ArrayList<>();
+            List<WorkflowTransitionHistory> histories = new ArrayList<>(tickets.size());
+            for (Ticket ticket : tickets) {
+                Set<Long> watcherIds = new LinkedHashSet<>();
+                watcherIds.add(ticket.getRequestUser().getId());
+                if (ticket.getAssignUser() != null) {
+                    watcherIds.add(ticket.getAssignUser().getId());
+                }
+                watcherIds.forEach(userId -> watchers.add(newWatcher(ticket.getId(), userId)));
+
+                Long initialStateId = ticket.getCurrentState().getId();
+                WorkflowTransitionHistory history = new WorkflowTransitionHistory();
+                history.setTicket(ticket);
+                history.setFromState(null);
+                history.setToState(entityManager.getReference(WorkflowState.class, initialStateId));
+                history.setEventName("Created");
+                history.setTransitionDate(now);
+                history.setSlaDueDate(
+                        workflowGraphs
+                                .get(ticket.getWorkflow().getId())
+                                .getMinSlaDuration(initialStateId)
+                                .map(slaDuration -> now.plus(slaDuration, ChronoUnit.HOURS))
+                                .orElse(null));
+                history.setStatus(In_Progress);
+                histories.add(history);
+            }
+            entityWatcherRepository.saveAll(watchers);
+            workflowTransitionHistoryRepository.saveAll(histories);
+            entityManager.flush();
+            ticketCounterService.adjustWatchers(countByTicket(watchers));
+
+            collectSlaDeadlines(histories, slaDeadlines);
+            tickets.forEach(ticket -> savedTickets.add(ticketMapper.toDto(ticket)));
+            entityManager.clear();
+        }
+
+        slaDeadlines.forEach(eventPublisher::publishEvent);
+        if (eventMode == TicketEventMode.PER_TICKET) {
+            savedTickets.forEach(
+                    ticket -> eventPublisher.publishEvent(new NewTicketCreatedEvent(this, ticket)));
+        } else {
+            eventPublisher.publishEvent(
+                    new TicketBatchSavedEvent(
+                            this,
+                            Collections.nCopies(savedTickets.size(), null),
+                            savedTickets,
+                            eventMode));
+        }
+
+        log.debug("Created {} tickets with event mode {}", savedTickets.size(), eventMode);
+        return savedTickets;
+    }
+
+    /**
+     * Updates the given tickets, each of which must carry the id of an existing ticket.
+     *
+     * @param ticketDTOs the new content of the tickets
+     * @param eventMode the events to publish for the updated tickets
+     * @return the updated tickets, in the order they were given
+     */
+    public List<TicketDTO> updateTickets(List<TicketDTO> ticketDTOs, TicketEventMode eventMode) {
+        validateBatch(ticketDTOs);
+        Set<Long> ticketIds = new HashSet<>();
+        for (TicketDTO ticketDTO : ticketDTOs) {
+            if (ticketDTO.getId() == null || !ticketIds.add(ticketDTO.getId())) {
+                throw new IllegalArgumentException(
+                        "Each ticket of a bulk update must have a distinct id");
+            }
+        }
+        Map<Long, WorkflowGraph> workflowGraphs = loadWorkflowGraphs(ticketDTOs);
+
+        Instant now = Instant.now();
+        List<TicketDTO> previousTickets = new ArrayList<>(ticketDTOs.size());
+        List<TicketDTO> savedTickets = new ArrayList<>(ticketDTOs.size());
+        List<SlaDeadlineScheduledEvent> slaDeadlines = new ArrayList<>();
+
+        for (List<TicketDTO> chunk : chunks(ticketDTOs)) {
+            Map<Long, Ticket> existingTickets = loadTickets(chunk);
+            Map<Long, Set<Long>> watcherIdsByTicket =
+                    entityWatcherRepository
+                            .findByEntityTypeAndEntityIdIn(
+                                    EntityType.Ticket, existingTickets.keySet())
+                            .stream()
+                            .collect(
+                                    Collectors.groupingBy(
+                                            EntityWatcher::getEntityId,
+                                            Collectors.mapping(
+                                                    watcher -> watcher.getWatchUser().getId(),
+                                                    Collectors.toSet())));
+
+            List<Ticket> tickets = new ArrayList<>(chunk.size());
+            List<EntityWatcher> watchers = new ArrayList<>();
+            List<WorkflowTransitionHistory> histories = new ArrayList<>();
+            for (TicketDTO ticketDTO : chunk) {
+                Ticket ticket = existingTickets.get(ticketDTO.getId());
+                TicketDTO previousTicket = ticketMapper.toDto(ticket);
+                Long previousState = previousTicket.getCurrentStateId();
+
+                ticketMapper.updateEntity(ticketDTO, ticket);
+
+                boolean isStateChanged =
+                        !Objects.equals(previousState, ticketDTO.getCurrentStateId());
+                ticket.setIsNew(!isStateChanged);
+                if (isStateChanged) {
+                    WorkflowGraph workflowGraph = workflowGraphs.get(ticketDTO.getWorkflowId());
+                    ticket.setIsCompleted(
+                            workflowGraph.isFinalState(ticketDTO.getCurrentStateId()));
+                    if (ticketDTO.getActualCompletionDate() == null) {
+                        ticket.setActualCompletionDate(LocalDate.now());
+                    }
+                    if (eventMode != TicketEventMode.PER_TICKET) {
+                        WorkflowTransitionHistory history =
+                                newTransitionHistory(
+                                        ticket,
+                                        workflowGraph,
+                                        previousState,
+                                        ticketDTO.getCurrentStateId(),
+                                        now);
+                        if (history != null) {
+                            histories.add(history);
+                        }
+                    }
+                }
+
+                Long assignedUserId = ticketDTO.getAssignUserId();
+                if (assignedUserId != null
+                        && watcherIdsByTicket
+                                .computeIfAbsent(ticket.getId(), id -> new HashSet<>())
+                                .add(assignedUserId)) {
+                    watchers.add(newWatcher(ticket.getId(), assignedUserId));
+                }
+
+                tickets.add(ticket);
+                previousTickets.add(previousTicket);
+            }
+            ticketRepository.saveAll(tickets);
+            entityWatcherRepository.saveAll(watchers);
+            workflowTransitionHistoryRepository.saveAll(histories);
+            entityManager.flush();
+            ticketCounterService.adjustWatchers(countByTicket(watchers));
+
+            collectSlaDeadlines(histories, slaDeadlines);
+            tickets.forEach(ticket -> savedTickets.add(ticketMapper.toDto(ticket)));
+            entityManager.clear();
+        }
+
+        // The audit trail is not optional, whatever the event mode
+        for (int i = 0; i < ticketDTOs.size(); i++) {
+            eventPublisher.publishEvent(
+                    new AuditLogUpdateEvent(this, previousTickets.get(i), ticketDTOs.get(i)));
+        }
+        slaDeadlines.forEach(eventPublisher::publishEvent);
+
+        if (eventMode == TicketEventMode.PER_TICKET) {
+            for (int i = 0; i < savedTickets.size(); i++) {
+                TicketDTO previousTicket = previousTickets.get(i);
+                TicketDTO savedTicket = savedTickets.get(i);
+                eventPublisher.publishEvent(
+                        new TicketChangedEvent(this, previousTicket, savedTicket));
+                if (!Objects.equals(
+                        previousTicket.getCurrentStateId(), savedTicket.getCurrentStateId())) {
+                    eventPublisher.publishEvent(
+                            new TicketWorkStateTransitionEvent(
+                                    this,
+                                    savedTicket.getId(),
+                                    previousTicket.getCurrentStateId(),
+                                    savedTicket.getCurrentStateId()));
+                }
+            }
+        } else {
+            eventPublisher.publishEvent(
+                    new TicketBatchSavedEvent(this, previousTickets, savedTickets, eventMode));
+        }
+
+        log.debug("Updated {} tickets with event mode {}", savedTickets.size(), eventMode);
+        return savedTickets;
+    }
+
+    private void validateBatch(List<TicketDTO> ticketDTOs) {
+        if (ticketDTOs == null || ticketDTOs.isEmpty()) {
+            throw new IllegalArgumentException("The batch of tickets must not be empty");
+        }
+        if (ticketDTOs.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException(
+                    "A batch can not contain more than " + MAX_BATCH_SIZE + " tickets");
+        }
+        // The DTO constraints also cover the fields the bulk service assigns itself, so the
+        // fields a batch must carry are checked here, before anything is written
+        for (TicketDTO ticketDTO : ticketDTOs) {
+            if (ticketDTO == null) {
+                throw new IllegalArgumentException("The batch must not contain null tickets");
+            }
+            if (ticketDTO.getTeamId() == null || ticketDTO.getRequestUserId() == null) {
+                throw new IllegalArgumentException("Each ticket must have a team and a requester");
+            }
+            if (!isValidPriority(ticketDTO.getPriority())) {
+                throw new IllegalArgumentException(
+                        "Invalid ticket priority: " + ticketDTO.getPriority());
+            }
+        }
+    }
+
+    private static boolean isValidPriority(String priority) {
+        return priority != null
+                && Arrays.stream(TicketPriority.values())
+                        .anyMatch(value -> value.name().equals(priority));
+    }
+
+    /** Loads the graph of each workflow of the batch and checks the states of the tickets. */
+    private Map<Long, WorkflowGraph> loadWorkflowGraphs(List<TicketDTO> ticketDTOs) {
+        Map<Long, WorkflowGraph> workflowGraphs = new HashMap<>();
+        for (TicketDTO ticketDTO : ticketDTOs) {
+            if (ticketDTO.getWorkflowId() == null || ticketDTO.getCurrentStateId() == null) {
+                throw new IllegalArgumentException(
+                        "Each ticket must have a workflow and a current state");
+            }
+            WorkflowGraph workflowGraph =
+                    workflowGraphs.computeIfAbsent(
+                            ticketDTO.getWorkflowId(), workflowGraphCache::get);
+            if (workflowGraph.findState(ticketDTO.getCurrentStateId()).isEmpty()) {
+                throw new ResourceNotFoundException(
+                        "Can not find workflow state " + ticketDTO.getCurrentStateId());
+            }
+        }
+        return workflowGraphs;
+    }
+
+    private Map<Long, Ticket> loadTickets(List<TicketDTO> chunk) {
+        List<Long> ids = chunk.stream().map(TicketDTO::getId).toList();
+        Map<Long, Ticket> tickets =
+                ticketRepository.findAllById(ids).stream()
+                        .collect(Collectors.toMap(Ticket::getId, Function.identity()));
+        for (Long id : ids) {
+            if (!tickets.containsKey(id)) {
+                throw new ResourceNotFoundException("Ticket not found with id: " + id);
+            }
+        }
+        return tickets;
+    }
+
+    /** Reserves one range of ticket numbers per project and hands them out in the batch order. */
+    private void assignProjectTicketNumbers(List<TicketDTO> ticketDTOs) {
+        Map<Long, Long> countsByProject = new LinkedHashMap<>();
+        for (TicketDTO ticketDTO : ticketDTOs) {
+            if (ticketDTO.getProjectId() != null) {
+                countsByProject.merge(ticketDTO.getProjectId(), 1L, Long::sum);
+            }
+        }
+
+        Map<Long, Long> nextNumbers = new HashMap<>();
+        countsByProject.forEach(
+                (projectId, count) ->
+                        nextNumbers.put(
+                                projectId,
+                                ticketService.reserveProjectTicketNumbers(
+                                        projectId, count.intValue())));
+
+        for (TicketDTO ticketDTO : ticketDTOs) {
+            if (ticketDTO.getProjectId() != null) {
+                ticketDTO.setProjectTicketNumber(
+                        nextNumbers.merge(ticketDTO.getProjectId(), 1L, Long::sum) - 1);
+            }
+        }
+    }
+
+    private WorkflowTransitionHistory newTransitionHistory(
+            Ticket ticket,
+            WorkflowGraph workflowGraph,
+            Long previousStateId,
+            Long newStateId,
+            Instant now) {
+        WorkflowGraph.Transition transition =
+                workflowGraph.findTransition(previousStateId, newStateId).orElse(null);
+        if (transition == null) {
+            log.warn(
+                    "No transition from state {} to state {} in the workflow of ticket {}",
+                    previousStateId,
+                    newStateId,
+                    ticket.getId());
+            return null;
+        }
+
+        WorkflowTransitionHistory history = new WorkflowTransitionHistory();
+        history.setTicket(ticket);
+        history.setFromState(entityManager.getReference(WorkflowState.class, previousStateId));
+        history.setToState(entityManager.getReference(WorkflowState.class, newStateId));
+        history.setEventName(transition.eventName());
+        history.setTransitionDate(now);
+        if (transition.slaDuration() != null && transition.slaDuration() > 0) {
+            history.setSlaDueDate(now.plus(transition.slaDuration(), ChronoUnit.HOURS));
+        }
+        history.setStatus(workflowGraph.isFinalState(newStateId) ? Completed : In_Progress);
+        return history;
+    }
+
+    private void collectSlaDeadlines(
+            List<WorkflowTransitionHistory> histories,
+            List<SlaDeadlineScheduledEvent> slaDeadlines) {
+        for (WorkflowTransitionHistory history : histories) {
+            if (history.getSlaDueDate() != null && history.getStatus() == In_Progress) {
+                slaDeadlines.add(
+                        new SlaDeadlineScheduledEvent(
+                                this, history.getId(), history.getSlaDueDate()));
+            }
+        }
+    }
+
+    private static EntityWatcher newWatcher(Long ticketId, Long userId) {
+        EntityWatcher watcher = new EntityWatcher();
+        watcher.setEntityType(EntityType.Ticket);
+        watcher.setEntityId(ticketId);
+        watcher.setWatchUser(User.builder().id(userId).build());
+        return watcher;
+    }
+
+    private static Map<Long, Integer> countByTicket(List<EntityWatcher> watchers) {
+        Map<Long, Integer> counts = new HashMap<>();
+        watchers.forEach(watcher -> counts.merge(watcher.getEntityId(), 1, Integer::sum));
+        return counts;
+    }
+
+    private static <T> List<List<T>> chunks(List<T> items) {
+        List<List<T>> chunks = new ArrayList<>();
+        for (int from = 0; from < items.size(); from += FLUSH_CHUNK_SIZE) {
+            chunks.add(items.subList(from, Math.min(from + FLUSH_CHUNK_SIZE, items.size())));
+        }
+        return chunks;
+    }
+}
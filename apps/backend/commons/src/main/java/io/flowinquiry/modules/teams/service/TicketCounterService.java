@@ -0,0 +1,190 @@
+package io.flowinquiry.modules.teams.service;
+
+import io.flowinquiry.modules.teams.domain.Ticket;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Maintains the attachment and watcher counters of tickets, {@code number_attachments} and {@code
+ * number_watchers} in {@code fw_ticket}.
+ *
+ * <p>The services adding or removing attachments and watchers adjust the counters in their own
+ * transaction, and {@link #reconcile} recounts them nightly. The counters are written with plain
+ * JDBC, a native update through Hibernate would invalidate every second level cache region, so the
+ * cached tickets are evicted once the transaction commits instead.
+ */
+@Slf4j
+@Service
+@Transactional
+public class TicketCounterService {
+
+    private static final String ADJUST_ATTACHMENTS_SQL =
+            "UPDATE fw_ticket SET number_attachments = GREATEST(number_attachments + ?, 0)"
+                    + " WHERE id = ?";
+
+    private static final String ADJUST_WATCHERS_SQL =
+            "UPDATE fw_ticket SET number_watchers = GREATEST(number_watchers + ?, 0) WHERE id = ?";
+
+    private static final int RECONCILE_BATCH_SIZE = 1000;
+
+    private static final String LOCK_BATCH_SQL =
+            "SELECT id FROM fw_ticket WHERE id > ? ORDER BY id LIMIT ? FOR UPDATE";
+
+    // Runs after LOCK_BATCH_SQL in the same transaction, so the counts see every change committed
+    // before the locks were granted
+    private static final String RECONCILE_SQL =
+            """
+            UPDATE fw_ticket t
+            SET number_attachments = c.number_attachments, number_watchers = c.number_watchers
+            FROM (
+                SELECT t.id,
+                    (SELECT COUNT(*) FROM fw_entity_attachment a
+                        WHERE a.entity_type = 'Ticket' AND a.entity_id = t.id)
+                        AS number_attachments,
+                    (SELECT COUNT(*) FROM fw_entity_watchers w
+                        WHERE w.entity_type = 'Ticket' AND w.entity_id = t.id)
+                        AS number_watchers
+                FROM fw_ticket t
+                WHERE t.id BETWEEN ? AND ?
+            ) c
+            WHERE t.id = c.id
+            AND (t.number_attachments <> c.number_attachments
+                OR t.number_watchers <> c.number_watchers)
+            RETURNING t.id
+            """;
+
+    @PersistenceContext private EntityManager entityManager;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    private final TransactionTemplate transactionTemplate;
+
+    public TicketCounterService(
+            JdbcTemplate jdbcTemplate,
+            EntityManagerFactory entityManagerFactory,
+            PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManagerFactory = entityManagerFactory;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public void adjustAttachments(Long ticketId, int delta) {
+        adjust(ADJUST_ATTACHMENTS_SQL, Map.of(ticketId, delta));
+    }
+
+    public void adjustWatchers(Long ticketId, int delta) {
+        adjust(ADJUST_WATCHERS_SQL, Map.of(ticketId, delta));
+    }
+
+    /**
+     * Adjusts the watcher counters of many tickets with one batch.
+     *
+     * @param deltas the number of watchers added, or removed when negative, per ticket id
+     */
+    public void adjustWatchers(Map<Long, Integer> deltas) {
+        adjust(ADJUST_WATCHERS_SQL, deltas);
+    }
+
+    /**
+     * Recounts the attachments and watchers of all tickets, in batches of tickets ordered by id.
+     * Each batch locks its ticket rows before counting, so a concurrent adjustment either commits
+     * before the count sees it or waits and applies its delta on top of the recount. Called outside
+     * a transaction, each batch commits on its own, so the locks are held briefly.
+     *
+     * @return the number of tickets whose counters had drifted
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public int reconcile() {
+        int drifted = 0;
+        long lastId = 0;
+        while (true) {
+            long afterId = lastId;
+            List<Long> driftedIds = new ArrayList<>();
+            Long batchLastId =
+                    transactionTemplate.execute(
+                            status -> {
+                                List<Long> ticketIds =
+                                        jdbcTemplate.queryForList(
+                                                LOCK_BATCH_SQL,
+                                                Long.class,
+                                                afterId,
+                                                RECONCILE_BATCH_SIZE);
+                                if (ticketIds.isEmpty()) {
+                                    return null;
+                                }
+                                Long last = ticketIds.get(ticketIds.size() - 1);
+                                driftedIds.addAll(
+                                        jdbcTemplate.queryForList(
+                                                RECONCILE_SQL,
+                                                Long.class,
+                                                ticketIds.get(0),
+                                                last));
+                                if (!driftedIds.isEmpty()) {
+                                    evictAfterCommit(driftedIds);
+                                }
+                                return last;
+                            });
+            if (batchLastId == null) {
+                break;
+            }
+            drifted += driftedIds.size();
+            lastId = batchLastId;
+        }
+        log.debug("Reconciled the counters of {} tickets", drifted);
+        return drifted;
+    }
+
+    private void adjust(String sql, Map<Long, Integer> deltas) {
+        // Ordered by id, so concurrent batches lock the ticket rows in the same order
+        List<Object[]> rows = new ArrayList<>(deltas.size());
+        new TreeMap<>(deltas)
+                .forEach(
+                        (ticketId, delta) -> {
+                            if (delta != 0) {
+                                rows.add(new Object[] {delta, ticketId});
+                            }
+                        });
+        if (rows.isEmpty()) {
+            return;
+        }
+        // Tickets created in this transaction must be inserted before their counters are updated
+        entityManager.flush();
+        jdbcTemplate.batchUpdate(sql, rows);
+        evictAfterCommit(rows.stream().map(row -> (Long) row[1]).toList());
+    }
+
+    /** Evicts the cached tickets once their counters commit. */
+    private void evictAfterCommit(List<Long> ticketIds) {
+        Runnable evict =
+                () -> {
+                    Cache cache = entityManagerFactory.getCache();
+                    ticketIds.forEach(ticketId -> cache.evict(Ticket.class, ticketId));
+                };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                    new TransactionSynchronization() {
+                        @Override
+                        public void afterCommit() {
+                            evict.run();
+                        }
+                    });
+        } else {
+            evict.run();
+        }
+    }
+}
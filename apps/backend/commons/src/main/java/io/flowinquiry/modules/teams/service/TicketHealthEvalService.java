@@ -2,32 +2,128 @@ package io.flowinquiry.modules.teams.service;
 
 import static io.flowinquiry.utils.StringUtils.polishedHtmlTagsMessage;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import io.flowinquiry.modules.ai.service.ChatModelService;
 import io.flowinquiry.modules.teams.domain.Ticket;
 import io.flowinquiry.modules.teams.domain.TicketConversationHealth;
 import io.flowinquiry.modules.teams.repository.TicketConversationHealthRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.chat.prompt.Prompt;
 import org.springframework.ai.openai.OpenAiChatOptions;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+/**
+ * Evaluates the health of ticket conversations with the chat model.
+ *
+ * <p>Messages are not evaluated on the publishing thread. They are collected per ticket for a short
+ * window, and each batch is evaluated on a small dedicated pool with a single structured prompt
+ * that returns sentiment, question and resolution for every message, plus the summary when the
+ * ticket has no health record yet. Evaluations are cached by message content, model calls are
+ * spaced to a maximum rate, and the health record is updated in a short transaction once the
+ * model has answered. A ticket has at most one batch in flight, so its record is updated in
+ * message order.
+ */
 @Service
 @ConditionalOnBean(ChatModelService.class)
 public class TicketHealthEvalService {
 
     private static final Logger LOG = LoggerFactory.getLogger(TicketHealthEvalService.class);
 
+    private static final String METRIC_PREFIX = "flowinquiry.ai.health_eval.";
+
     private final TicketConversationHealthRepository ticketConversationHealthRepository;
     private final ChatModelService chatModelService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    private final long batchWindowMillis;
+    private final int maxBatchSize;
+    private final int maxPendingPerTicket;
+    private final long callIntervalNanos;
+    private long nextCallNanos;
+
+    private final Map<Long, TicketBatch> batches = new ConcurrentHashMap<>();
+    private final Cache<String, MessageEvaluation> evaluations;
+    private final ScheduledExecutorService batcher;
+    private final ThreadPoolExecutor evaluator;
+
+    private final Counter modelCalls;
+    private final Counter cachedEvaluations;
+    private final Counter droppedMessages;
+    private final Counter failedBatches;
 
     public TicketHealthEvalService(
             ChatModelService chatModelService,
-            TicketConversationHealthRepository ticketConversationHealthRepository) {
+            TicketConversationHealthRepository ticketConversationHealthRepository,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${flowinquiry.ai.health-eval.concurrency:2}") int concurrency,
+            @Value("${flowinquiry.ai.health-eval.queue-capacity:200}") int queueCapacity,
+            @Value("${flowinquiry.ai.health-eval.batch-window-millis:2000}")
+                    long batchWindowMillis,
+            @Value("${flowinquiry.ai.health-eval.max-batch-size:20}") int maxBatchSize,
+            @Value("${flowinquiry.ai.health-eval.max-calls-per-minute:60}") int maxCallsPerMinute,
+            @Value("${flowinquiry.ai.health-eval.cache-size:10000}") long cacheSize) {
         this.chatModelService = chatModelService;
         this.ticketConversationHealthRepository = ticketConversationHealthRepository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchWindowMillis = batchWindowMillis;
+        this.maxBatchSize = maxBatchSize;
+        this.maxPendingPerTicket = maxBatchSize * 5;
+        this.callIntervalNanos = TimeUnit.MINUTES.toNanos(1) / Math.max(1, maxCallsPerMinute);
+        this.nextCallNanos = System.nanoTime();
+        this.evaluations = Caffeine.newBuilder().maximumSize(cacheSize).build();
+
+        modelCalls = meterRegistry.counter(METRIC_PREFIX + "model_calls");
+        cachedEvaluations = meterRegistry.counter(METRIC_PREFIX + "cache_hits");
+        droppedMessages = meterRegistry.counter(METRIC_PREFIX + "dropped_messages");
+        failedBatches = meterRegistry.counter(METRIC_PREFIX + "failed_batches");
+
+        batcher =
+                Executors.newSingleThreadScheduledExecutor(
+                        runnable -> daemon(runnable, "ai-health-eval-batcher"));
+        AtomicInteger threads = new AtomicInteger();
+        evaluator =
+                new ThreadPoolExecutor(
+                        concurrency,
+                        concurrency,
+                        0L,
+                        TimeUnit.MILLISECONDS,
+                        new ArrayBlockingQueue<>(queueCapacity),
+                        runnable ->
+                                daemon(runnable, "ai-health-eval-" + threads.incrementAndGet()));
+        meterRegistry.gauge(METRIC_PREFIX + "queue_size", evaluator.getQueue(), Collection::size);
+        meterRegistry.gauge(METRIC_PREFIX + "pending_tickets", batches, Map::size);
     }
 
     public String summarizeTicket(String description) {
@@ -35,57 +131,265 @@ public class TicketHealthEvalService {
     }
 
     /**
-     * Evaluates the conversation health incrementally by updating metrics.
+     * Queues a new message of the conversation for evaluation. The health metrics of the ticket are
+     * updated once the batch holding the message has been evaluated.
      *
      * @param ticketId The ID of the ticket.
      * @param newMessage The new message in the conversation.
+     * @param isCustomerResponse Whether the message comes from the requester of the ticket.
      */
-    @Transactional
     public void evaluateConversationHealth(
             Long ticketId, String newMessage, boolean isCustomerResponse) {
+        PendingMessage message =
+                new PendingMessage(polishedHtmlTagsMessage(newMessage), isCustomerResponse);
+        while (true) {
+            TicketBatch batch = batches.computeIfAbsent(ticketId, TicketBatch::new);
+            boolean schedule;
+            synchronized (batch) {
+                if (batch.retired) {
+                    // Removed after its last flush, pick up the new one
+                    continue;
+                }
+                if (batch.messages.size() >= maxPendingPerTicket) {
+                    droppedMessages.increment();
+                    LOG.warn("Dropped a message of ticket {}, too many are pending", ticketId);
+                    return;
+                }
+                batch.messages.add(message);
+                schedule = !batch.scheduled;
+                batch.scheduled = true;
+            }
+            if (schedule) {
+                batcher.schedule(() -> dispatch(batch), batchWindowMillis, TimeUnit.MILLISECONDS);
+            }
+            return;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        batcher.shutdownNow();
+        evaluator.shutdown();
+        try {
+            evaluator.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Evaluates the pending messages of a ticket on the calling thread. */
+    void processPending(Long ticketId) {
+        TicketBatch batch = batches.get(ticketId);
+        if (batch != null) {
+            process(batch);
+        }
+    }
+
+    private void dispatch(TicketBatch batch) {
+        try {
+            evaluator.execute(() -> process(batch));
+        } catch (RejectedExecutionException e) {
+            // The pool is saturated, let the batch grow and try again after another window
+            if (!batcher.isShutdown()) {
+                batcher.schedule(() -> dispatch(batch), batchWindowMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    private void process(TicketBatch batch) {
+        List<PendingMessage> messages;
+        synchronized (batch) {
+            int size = Math.min(maxBatchSize, batch.messages.size());
+            messages = new ArrayList<>(batch.messages.subList(0, size));
+            batch.messages.subList(0, size).clear();
+        }
+
+        if (!messages.isEmpty()) {
+            try {
+                evaluateAndSave(batch.ticketId, messages);
+            } catch (RuntimeException e) {
+                failedBatches.increment();
+                LOG.error(
+                        "Failed to evaluate {} messages of ticket {}",
+                        messages.size(),
+                        batch.ticketId,
+                        e);
+            }
+        }
+
+        boolean more;
+        synchronized (batch) {
+            more = !batch.messages.isEmpty();
+            if (!more) {
+                batch.scheduled = false;
+                batch.retired = true;
+                batches.remove(batch.ticketId, batch);
+            }
+        }
+        if (more && !batcher.isShutdown()) {
+            batcher.schedule(() -> dispatch(batch), batchWindowMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void evaluateAndSave(Long ticketId, List<PendingMessage> messages) {
+        boolean needsSummary =
+                ticketConversationHealthRepository.findByTicketId(ticketId).isEmpty();
+
+        List<String> keys = messages.stream().map(message -> hash(message.content())).toList();
+        MessageEvaluation[] results = new MessageEvaluation[messages.size()];
+        List<Integer> uncached = new ArrayList<>();
+        for (int i = 0; i < messages.size(); i++) {
+            results[i] = evaluations.getIfPresent(keys.get(i));
+            if (results[i] == null) {
+                uncached.add(i);
+            } else {
+                cachedEvaluations.increment();
+            }
+        }
+
+        String summary = null;
+        if (!uncached.isEmpty() || needsSummary) {
+            BatchEvaluation evaluation =
+                    callModel(
+                            needsSummary ? messages.get(0).content() : null,
+                            uncached.stream().map(i -> messages.get(i).content()).toList());
+            summary = evaluation.summary();
+            for (int i = 0; i < uncached.size(); i++) {
+                MessageEvaluation result = evaluation.messages().get(i);
+                results[uncached.get(i)] = result;
+                evaluations.put(keys.get(uncached.get(i)), result);
+            }
+        }
+
+        // The model has answered, only now hold a transaction for the read-modify-write
+        String firstSummary = summary;
+        transactionTemplate.executeWithoutResult(
+                status -> {
+                    TicketConversationHealth health =
+                            ticketConversationHealthRepository
+                                    .findByTicketId(ticketId)
+                                    .orElseGet(
+                                            () ->
+                                                    createNewConversationHealth(
+                                                            ticketId, firstSummary));
+                    for (int i = 0; i < messages.size(); i++) {
+                        applyEvaluation(health, results[i], messages.get(i).customerResponse());
+                    }
+                    ticketConversationHealthRepository.save(health);
+                });
+    }
+
+    /** Asks the model to evaluate all messages, and summarize the first one if needed, at once. */
+    private BatchEvaluation callModel(String textToSummarize, List<String> messages) {
+        StringBuilder prompt =
+                new StringBuilder(
+                        "You evaluate messages of a support ticket conversation. Respond with JSON"
+                                + " only, without markdown, in the shape {\"summary\": string or"
+                                + " null, \"messages\": [{\"sentiment\": number, \"question\":"
+                                + " boolean, \"resolved\": boolean}]} with one entry per message,"
+                                + " in the given order. \"sentiment\" is the sentiment score of"
+                                + " the message between 0 and 1, \"question\" tells whether the"
+                                + " message is a question, and \"resolved\" whether the message"
+                                + " indicates that the issue has been resolved.\n");
+        if (textToSummarize != null) {
+            prompt.append("Set \"summary\" to a summary of this text: ")
+                    .append(textToSummarize)
+                    .append('\n');
+        } else {
+            prompt.append("Set \"summary\" to null.\n");
+        }
+        for (int i = 0; i < messages.size(); i++) {
+            prompt.append("\nMessage ").append(i + 1).append(": ").append(messages.get(i));
+        }
+
+        awaitCallSlot();
+        modelCalls.increment();
+        String response =
+                chatModelService.call(
+                        new Prompt(
+                                prompt.toString(),
+                                OpenAiChatOptions.builder()
+                                        .temperature(0.1)
+                                        .maxCompletionTokens(
+                                                (textToSummarize != null ? 300 : 20)
+                                                        + 40 * messages.size())
+                                        .build()));
+
+        BatchEvaluation evaluation = parse(response);
+        if (evaluation.messages() == null || evaluation.messages().size() != messages.size()) {
+            throw new IllegalStateException(
+                    "Expected " + messages.size() + " evaluations from the model: " + response);
+        }
+        return evaluation;
+    }
 
-        String polishedMessage = polishedHtmlTagsMessage(newMessage);
+    private BatchEvaluation parse(String response) {
+        String json = response.trim();
+        int start = json.indexOf('{');
+        int end = json.lastIndexOf('}');
+        if (start < 0 || end < start) {
+            throw new IllegalStateException(
+                    "Unable to parse evaluation from response: " + response);
+        }
+        try {
+            return objectMapper.readValue(json.substring(start, end + 1), BatchEvaluation.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(
+                    "Unable to parse evaluation from response: " + response, e);
+        }
+    }
 
-        // Retrieve existing health record or create a new one
-        TicketConversationHealth health =
-                ticketConversationHealthRepository
-                        .findByTicketId(ticketId)
-                        .orElseGet(() -> createNewConversationHealth(ticketId, polishedMessage));
+    /** Spaces model calls so they stay below the configured rate. */
+    private void awaitCallSlot() {
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            long slot = Math.max(now, nextCallNanos);
+            nextCallNanos = slot + callIntervalNanos;
+            waitNanos = slot - now;
+        }
+        if (waitNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting to call the model", e);
+            }
+        }
+    }
 
-        // Step 1: Evaluate sentiment of the new message
-        float sentimentScore = evaluateSentiment(polishedMessage);
-        LOG.debug("Message '{}' has sentiment score: {}", polishedMessage, sentimentScore);
+    /** Updates the health metrics incrementally with the evaluation of one message. */
+    private void applyEvaluation(
+            TicketConversationHealth health,
+            MessageEvaluation evaluation,
+            boolean isCustomerResponse) {
+        float sentimentScore = evaluation.sentiment();
 
-        // Step 2: Check if the message resolves an issue (only for customer responses)
-        boolean resolvesIssue = isCustomerResponse && determineIfResolved(polishedMessage);
-        LOG.debug(
-                "Message '{}' resolved: {}, Customer response: {}",
-                polishedMessage,
-                resolvesIssue,
-                isCustomerResponse);
+        // Step 1: Resolution and questions only count for customer responses
+        boolean resolvesIssue = isCustomerResponse && evaluation.resolved();
+        boolean isQuestion = isCustomerResponse && evaluation.question();
 
-        // Step 3: Increment total messages
+        // Step 2: Increment total messages
         health.setTotalMessages(health.getTotalMessages() + 1);
 
-        // Step 4: Check if message is a question
-        boolean isQuestion = isCustomerResponse && isQuestion(polishedMessage);
+        // Step 3: Count the question
         if (isQuestion) {
             health.setTotalQuestions(health.getTotalQuestions() + 1);
         }
 
-        // Step 5: Increment resolved question count only if the issue is resolved
+        // Step 4: Increment resolved question count only if the issue is resolved
         if (resolvesIssue) {
             health.setResolvedQuestions(health.getResolvedQuestions() + 1);
         }
 
-        // Step 6: Update cumulative sentiment (weighted for customer responses)
+        // Step 5: Update cumulative sentiment (weighted for customer responses)
         float sentimentWeight = isCustomerResponse ? 1.5f : 1.0f;
         health.setCumulativeSentiment(
                 (health.getCumulativeSentiment() * (health.getTotalMessages() - 1)
                                 + sentimentScore * sentimentWeight)
                         / health.getTotalMessages());
 
-        // Step 7: Compute clarity score, but prevent sudden drops
+        // Step 6: Compute clarity score, but prevent sudden drops
         float clarityRatio =
                 (health.getTotalQuestions() > 0)
                         ? (float) health.getResolvedQuestions() / health.getTotalQuestions()
@@ -96,7 +400,7 @@ public class TicketHealthEvalService {
         float weightedClarityScore =
                 clarityRatio * clarityScalingFactor + (1 - clarityScalingFactor) * 0.5f;
 
-        // Step 8: Compute conversation health
+        // Step 7: Compute conversation health
         health.setConversationHealth(
                 (0.6f * health.getCumulativeSentiment())
                         + // Sentiment contribution
@@ -104,76 +408,16 @@ public class TicketHealthEvalService {
                         + // **Adjusted Clarity Contribution**
                         (0.2f * (resolvesIssue ? 1.0f : 0.0f)) // Resolution contribution
                 );
-
-        // Step 9: Save the updated conversation health record
-        ticketConversationHealthRepository.save(health);
-    }
-
-    /** Determines if the message contains a question using AI. */
-    private boolean isQuestion(String message) {
-        String aiPrompt =
-                "Determine if the following message is a question. Respond with 'true' or 'false':\n\nMessage: "
-                        + message;
-        String aiResponse = chatModelService.call(aiPrompt);
-        return Boolean.parseBoolean(aiResponse.trim());
-    }
-
-    /** Determines if the message resolves the issue. */
-    private boolean determineIfResolved(String message) {
-        String aiPrompt =
-                "Does the following message indicate that the issue has been resolved? Respond with 'true' or 'false':\n\nMessage: "
-                        + message;
-        String aiResponse = chatModelService.call(aiPrompt);
-        return Boolean.parseBoolean(aiResponse.trim());
-    }
-
-    /**
-     * Calls OpenAI to evaluate the sentiment of a message.
-     *
-     * @param newMessage The message to evaluate.
-     * @return A sentiment score (0.0 - 1.0).
-     */
-    private float evaluateSentiment(String newMessage) {
-        // Use OpenAI to analyze sentiment
-        String response =
-                chatModelService.call(
-                        new Prompt(
-                                "Evaluate the sentiment of this message and return a score between 0 and 1. Provide only the number: "
-                                        + newMessage,
-                                OpenAiChatOptions.builder()
-                                        .temperature(0.1)
-                                        .maxCompletionTokens(10)
-                                        .build()));
-
-        // Extract the sentiment score from the response (assuming response contains a parsable
-        // float)
-        try {
-            return Float.parseFloat(response.trim());
-        } catch (NumberFormatException e) {
-            throw new IllegalStateException(
-                    "Unable to parse sentiment score from OpenAI response: " + response);
-        }
-    }
-
-    /**
-     * Generates a summary for the ticket content using OpenAI.
-     *
-     * @param description The initial description of the ticket.
-     * @return The generated summary.
-     */
-    private String generateSummary(String description) {
-        String prompt = "Summarize this text: " + description;
-        return chatModelService.call(prompt);
     }
 
     /**
      * Creates a new conversation health record for a ticket.
      *
      * @param ticketId The ID of the ticket.
+     * @param summary The summary of the first message.
      * @return The newly created conversation health entity.
      */
-    private TicketConversationHealth createNewConversationHealth(
-            Long ticketId, String firstMessage) {
+    private TicketConversationHealth createNewConversationHealth(Long ticketId, String summary) {
         TicketConversationHealth health = new TicketConversationHealth();
         health.setTicket(Ticket.builder().id(ticketId).build());
         health.setCumulativeSentiment(0.0f);
@@ -181,7 +425,46 @@ public class TicketHealthEvalService {
         health.setTotalQuestions(0);
         health.setResolvedQuestions(0);
         health.setConversationHealth(0.0f);
-        health.setSummary(generateSummary(firstMessage));
+        health.setSummary(summary);
         return ticketConversationHealthRepository.save(health);
     }
+
+    private static String hash(String content) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of()
+                    .formatHex(digest.digest(content.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static Thread daemon(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private record PendingMessage(String content, boolean customerResponse) {}
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record MessageEvaluation(float sentiment, boolean question, boolean resolved) {}
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record BatchEvaluation(String summary, List<MessageEvaluation> messages) {}
+
+    /** The pending messages of one ticket, guarded by its own monitor. */
+    private static final class TicketBatch {
+
+        private final Long ticketId;
+        private final List<PendingMessage> messages = new ArrayList<>();
+        // A flush is scheduled or running
+        private boolean scheduled;
+        // Removed from the map, new messages go to a fresh batch
+        private boolean retired;
+
+        private TicketBatch(Long ticketId) {
+            this.ticketId = ticketId;
+        }
+    }
 }
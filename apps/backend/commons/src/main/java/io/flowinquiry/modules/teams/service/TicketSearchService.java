@@ -0,0 +1,100 @@
+package io.flowinquiry.modules.teams.service;
+
+import static io.flowinquiry.db.search.TextSearchFunctionContributor.TEXT_SEARCH_CONFIG;
+
+import io.flowinquiry.modules.teams.service.dto.TicketSearchResultDTO;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Ranked full text search over the tickets and their comments.
+ *
+ * <p>The search terms use the web search syntax of {@code websearch_to_tsquery}: quoted phrases,
+ * {@code or} and {@code -} to exclude a word. Matches are found through the full text indexes of
+ * the ticket titles and descriptions and of the comment contents, and ranked with the title
+ * weighing more than the description, and the description more than the comments.
+ */
+@Service
+@Transactional(readOnly = true)
+public class TicketSearchService {
+
+    public static final int MAX_RESULTS = 100;
+
+    // The to_tsvector expressions match the ones of the full text indexes
+    private static final String SEARCH_SQL =
+            """
+            SELECT hit.ticket_id, t.team_id, t.request_title, hit.comment_id, hit.rank
+            FROM (
+                SELECT t.id AS ticket_id, CAST(NULL AS BIGINT) AS comment_id,
+                    ts_rank(
+                        setweight(to_tsvector('%1$s', COALESCE(t.request_title, '')), 'A')
+                            || setweight(
+                                to_tsvector('%1$s', COALESCE(t.request_description, '')), 'B'),
+                        websearch_to_tsquery('%1$s', ?)) AS rank
+                FROM fw_ticket t
+                WHERE to_tsvector('%1$s', t.request_title) @@ websearch_to_tsquery('%1$s', ?)
+                OR to_tsvector('%1$s', t.request_description) @@ websearch_to_tsquery('%1$s', ?)
+                UNION ALL
+                SELECT c.entity_id, c.id,
+                    ts_rank(
+                        setweight(to_tsvector('%1$s', c.content), 'C'),
+                        websearch_to_tsquery('%1$s', ?))
+                FROM fw_comment c
+                WHERE c.entity_type = 'Ticket'
+                AND to_tsvector('%1$s', c.content) @@ websearch_to_tsquery('%1$s', ?)
+            ) hit
+            JOIN fw_ticket t ON t.id = hit.ticket_id
+            WHERE t.is_deleted = false
+            AND (CAST(? AS BIGINT) IS NULL OR t.team_id = ?)
+            ORDER BY hit.rank DESC, hit.ticket_id, hit.comment_id NULLS FIRST
+            LIMIT ?
+            """
+                    .formatted(TEXT_SEARCH_CONFIG);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TicketSearchService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Searches the tickets and comments matching the given terms, best matches first.
+     *
+     * @param terms the search terms
+     * @param teamId the team of the tickets, {@code null} to search all teams
+     * @param size the maximum number of results, at most {@link #MAX_RESULTS}
+     * @return the matching tickets and comments
+     */
+    public List<TicketSearchResultDTO> search(String terms, Long teamId, int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Result size must be positive");
+        }
+        if (terms == null || terms.isBlank()) {
+            return List.of();
+        }
+        return jdbcTemplate.query(
+                SEARCH_SQL,
+                TicketSearchService::toResult,
+                terms,
+                terms,
+                terms,
+                terms,
+                terms,
+                teamId,
+                teamId,
+                Math.min(size, MAX_RESULTS));
+    }
+
+    private static TicketSearchResultDTO toResult(ResultSet rs, int rowNum) throws SQLException {
+        return new TicketSearchResultDTO(
+                rs.getLong("ticket_id"),
+                rs.getLong("team_id"),
+                rs.getString("request_title"),
+                rs.getObject("comment_id", Long.class),
+                rs.getDouble("rank"));
+    }
+}
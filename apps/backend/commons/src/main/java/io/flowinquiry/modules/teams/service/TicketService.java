@@ -1,7 +1,10 @@
 package io.flowinquiry.modules.teams.service;
 
 import static io.flowinquiry.modules.teams.domain.WorkflowTransitionHistoryStatus.Completed;
+import static io.flowinquiry.query.QueryUtils.createKeysetCursor;
+import static io.flowinquiry.query.QueryUtils.createKeysetSpecification;
 import static io.flowinquiry.query.QueryUtils.createSpecification;
+import static io.flowinquiry.query.QueryUtils.validateKeysetCursor;
 
 import io.flowinquiry.exceptions.ResourceNotFoundException;
 import io.flowinquiry.modules.audit.service.event.AuditLogUpdateEvent;
@@ -11,35 +14,30 @@ import io.flowinquiry.modules.collab.repository.EntityWatcherRepository;
 import io.flowinquiry.modules.teams.domain.ProjectTicketSequence;
 import io.flowinquiry.modules.teams.domain.Ticket;
 import io.flowinquiry.modules.teams.domain.WorkflowState;
-import io.flowinquiry.modules.teams.domain.WorkflowTransition;
 import io.flowinquiry.modules.teams.domain.WorkflowTransitionHistory;
 import io.flowinquiry.modules.teams.domain.WorkflowTransitionHistoryStatus;
 import io.flowinquiry.modules.teams.repository.ProjectTicketSequenceRepository;
 import io.flowinquiry.modules.teams.repository.TicketRepository;
-import io.flowinquiry.modules.teams.repository.WorkflowStateRepository;
 import io.flowinquiry.modules.teams.repository.WorkflowTransitionHistoryRepository;
-import io.flowinquiry.modules.teams.repository.WorkflowTransitionRepository;
-import io.flowinquiry.modules.teams.service.dto.PriorityDistributionDTO;
-import io.flowinquiry.modules.teams.service.dto.TeamTicketPriorityDistributionDTO;
-import io.flowinquiry.modules.teams.service.dto.TicketActionCountByDateDTO;
+import io.flowinquiry.modules.teams.service.cache.WorkflowGraph;
+import io.flowinquiry.modules.teams.service.cache.WorkflowGraphCache;
+import io.flowinquiry.modules.teams.service.dto.ChildTicketIdDTO;
 import io.flowinquiry.modules.teams.service.dto.TicketDTO;
-import io.flowinquiry.modules.teams.service.dto.TicketDistributionDTO;
 import io.flowinquiry.modules.teams.service.event.NewTicketCreatedEvent;
+import io.flowinquiry.modules.teams.service.event.SlaDeadlineScheduledEvent;
+import io.flowinquiry.modules.teams.service.event.TicketChangedEvent;
 import io.flowinquiry.modules.teams.service.event.TicketWorkStateTransitionEvent;
 import io.flowinquiry.modules.teams.service.mapper.TicketMapper;
 import io.flowinquiry.modules.usermanagement.domain.User;
-import io.flowinquiry.modules.usermanagement.service.dto.TicketStatisticsDTO;
+import io.flowinquiry.query.KeysetCursor;
+import io.flowinquiry.query.KeysetSlice;
 import io.flowinquiry.query.QueryDTO;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import java.time.Instant;
 import java.time.LocalDate;
-import java.time.ZoneOffset;
 import java.time.temporal.ChronoUnit;
-import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.ConcurrentModificationException;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -51,6 +49,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
@@ -59,40 +58,93 @@ import org.springframework.transaction.annotation.Transactional;
 @Service
 @Transactional
 public class TicketService {
+
+    public static final int MAX_KEYSET_PAGE_SIZE = 100;
+
     @PersistenceContext private EntityManager entityManager;
 
     private final TicketRepository ticketRepository;
     private final EntityWatcherRepository entityWatcherRepository;
     private final TicketMapper ticketMapper;
-    private final WorkflowStateRepository workflowStateRepository;
-    private final WorkflowTransitionRepository workflowTransitionRepository;
+    private final WorkflowGraphCache workflowGraphCache;
     private final WorkflowTransitionHistoryRepository workflowTransitionHistoryRepository;
     private final ApplicationEventPublisher eventPublisher;
     private final ProjectTicketSequenceRepository projectTicketSequenceRepository;
+    private final TicketCounterService ticketCounterService;
 
     @Autowired
     public TicketService(
             TicketRepository ticketRepository,
             EntityWatcherRepository entityWatcherRepository,
             TicketMapper ticketMapper,
-            WorkflowTransitionRepository workflowTransitionRepository,
-            WorkflowStateRepository workflowStateRepository,
+            WorkflowGraphCache workflowGraphCache,
             WorkflowTransitionHistoryRepository workflowTransitionHistoryRepository,
             ProjectTicketSequenceRepository projectTicketSequenceRepository,
+            TicketCounterService ticketCounterService,
             ApplicationEventPublisher eventPublisher) {
         this.ticketRepository = ticketRepository;
         this.entityWatcherRepository = entityWatcherRepository;
         this.ticketMapper = ticketMapper;
-        this.workflowTransitionRepository = workflowTransitionRepository;
-        this.workflowStateRepository = workflowStateRepository;
+        this.workflowGraphCache = workflowGraphCache;
         this.workflowTransitionHistoryRepository = workflowTransitionHistoryRepository;
         this.projectTicketSequenceRepository = projectTicketSequenceRepository;
+        this.ticketCounterService = ticketCounterService;
         this.eventPublisher = eventPublisher;
     }
 
     public Page<TicketDTO> findTickets(QueryDTO queryDTO, Pageable pageable) {
         Specification<Ticket> spec = createSpecification(Optional.of(queryDTO));
-        return ticketRepository.findAll(spec, pageable).map(ticketMapper::toDto);
+        return toDtos(ticketRepository.findAll(spec, pageable));
+    }
+
+    /**
+     * Searches tickets with keyset pagination. Unlike {@link #findTickets(QueryDTO, Pageable)} it
+     * runs no count query and its cost does not grow with the page depth.
+     *
+     * @param queryDTO the search filters
+     * @param cursorToken the cursor returned with the previous page, {@code null} for the first
+     *     page
+     * @param sort the sort of the first page, ignored when a cursor is given
+     * @param size the page size, at most {@link #MAX_KEYSET_PAGE_SIZE}
+     * @return the page of tickets and the cursor of the next page
+     */
+    @Transactional(readOnly = true)
+    public KeysetSlice<TicketDTO> findTicketsAfter(
+            QueryDTO queryDTO, String cursorToken, Sort sort, int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        int pageSize = Math.min(size, MAX_KEYSET_PAGE_SIZE);
+        KeysetCursor cursor =
+                cursorToken == null ? KeysetCursor.start(sort) : KeysetCursor.decode(cursorToken);
+        validateKeysetCursor(Ticket.class, cursor);
+
+        Specification<Ticket> spec =
+                Specification.<Ticket>where(createSpecification(Optional.of(queryDTO)))
+                        .and(createKeysetSpecification(cursor));
+        List<Ticket> tickets =
+                ticketRepository.findBy(
+                        spec,
+                        query ->
+                                query.sortBy(cursor.toSort())
+                                        .limit(pageSize + 1)
+                                        .project(
+                                                "team",
+                                                "project",
+                                                "requestUser",
+                                                "assignUser",
+                                                "workflow",
+                                                "currentState",
+                                                "iteration",
+                                                "epic",
+                                                "conversationHealth")
+                                        .all());
+        Map<Long, List<Long>> childTicketIds = findChildTicketIds(tickets);
+        return KeysetSlice.of(
+                tickets,
+                pageSize,
+                ticket -> createKeysetCursor(ticket, cursor),
+                ticket -> toDto(ticket, childTicketIds));
     }
 
     @Transactional(readOnly = true)
@@ -109,9 +161,10 @@ public class TicketService {
 
     @Transactional
     public TicketDTO createTicket(TicketDTO ticketDTO) {
-        WorkflowState initialStateByWorkflowId =
-                workflowStateRepository
-                        .findById(ticketDTO.getCurrentStateId())
+        WorkflowGraph workflowGraph = workflowGraphCache.get(ticketDTO.getWorkflowId());
+        WorkflowGraph.State initialState =
+                workflowGraph
+                        .findState(ticketDTO.getCurrentStateId())
                         .orElseThrow(
                                 () ->
                                         new ResourceNotFoundException(
@@ -150,23 +203,26 @@ public class TicketService {
                                 })
                         .collect(Collectors.toList());
         entityWatcherRepository.saveAll(entityWatchers);
+        ticketCounterService.adjustWatchers(ticketId, entityWatchers.size());
 
         // Clear the persistence context to force a reload
         entityManager.clear();
 
-        Instant slaDueDate =
-                calculateEarliestSlaDueDate(
-                        ticket.getWorkflow().getId(), initialStateByWorkflowId.getId());
+        Instant slaDueDate = calculateEarliestSlaDueDate(workflowGraph, initialState.id());
 
         WorkflowTransitionHistory history = new WorkflowTransitionHistory();
         history.setTicket(ticket);
         history.setFromState(null);
-        history.setToState(initialStateByWorkflowId);
+        history.setToState(entityManager.getReference(WorkflowState.class, initialState.id()));
         history.setEventName("Created");
         history.setTransitionDate(Instant.now());
         history.setSlaDueDate(slaDueDate);
         history.setStatus(WorkflowTransitionHistoryStatus.In_Progress);
-        workflowTransitionHistoryRepository.save(history);
+        history = workflowTransitionHistoryRepository.save(history);
+        if (slaDueDate != null) {
+            eventPublisher.publishEvent(
+                    new SlaDeadlineScheduledEvent(this, history.getId(), slaDueDate));
+        }
 
         TicketDTO savedTicketDTO = ticketMapper.toDto(ticket);
         eventPublisher.publishEvent(new NewTicketCreatedEvent(this, savedTicketDTO));
@@ -193,8 +249,9 @@ public class TicketService {
 
         if (isStateChanged) {
             boolean finalState =
-                    workflowStateRepository.isFinalState(
-                            ticketDTO.getWorkflowId(), ticketDTO.getCurrentStateId());
+                    workflowGraphCache
+                            .get(ticketDTO.getWorkflowId())
+                            .isFinalState(ticketDTO.getCurrentStateId());
             existingTicket.setIsCompleted(finalState);
             if (ticketDTO.getActualCompletionDate() == null) {
                 existingTicket.setActualCompletionDate(LocalDate.now());
@@ -214,6 +271,7 @@ public class TicketService {
                 watcher.setEntityId(ticketDTO.getId());
                 watcher.setWatchUser(User.builder().id(assignedUserId).build());
                 entityWatcherRepository.save(watcher);
+                ticketCounterService.adjustWatchers(ticketDTO.getId(), 1);
                 // Flush & Clear the persistence context to ensure fresh retrieval
                 entityManager.flush();
                 entityManager.clear();
@@ -223,6 +281,7 @@ public class TicketService {
         TicketDTO savedTicket = ticketMapper.toDto(ticketRepository.save(existingTicket));
 
         eventPublisher.publishEvent(new AuditLogUpdateEvent(this, previousTicket, ticketDTO));
+        eventPublisher.publishEvent(new TicketChangedEvent(this, previousTicket, savedTicket));
 
         Long currentState = savedTicket.getCurrentStateId();
         if (!Objects.equals(previousState, currentState)) {
@@ -236,10 +295,16 @@ public class TicketService {
 
     @Transactional
     public void deleteTicket(Long id) {
-        if (!ticketRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Ticket not found with id: " + id);
-        }
-        ticketRepository.deleteById(id);
+        Ticket ticket =
+                ticketRepository
+                        .findById(id)
+                        .orElseThrow(
+                                () ->
+                                        new ResourceNotFoundException(
+                                                "Ticket not found with id: " + id));
+        TicketDTO deletedTicket = ticketMapper.toDto(ticket);
+        ticketRepository.delete(ticket);
+        eventPublisher.publishEvent(new TicketChangedEvent(this, deletedTicket, null));
     }
 
     public Optional<TicketDTO> getNextTicket(Long ticketId, Long projectId) {
@@ -250,71 +315,54 @@ public class TicketService {
         return ticketRepository.findPreviousTicket(ticketId, projectId).map(ticketMapper::toDto);
     }
 
-    // Fetch ticket distribution by team member
-    public List<TicketDistributionDTO> getTicketDistribution(
-            Long teamId, Instant fromDate, Instant toDate) {
-        return ticketRepository.findTicketDistributionByTeamId(teamId, fromDate, toDate);
-    }
-
     // Fetch unassigned tickets
     public Page<TicketDTO> getUnassignedTickets(Long teamId, Pageable pageable) {
-        return ticketRepository
-                .findUnassignedTicketsByTeamId(teamId, pageable)
-                .map(ticketMapper::toDto);
+        return toDtos(ticketRepository.findUnassignedTicketsByTeamId(teamId, pageable));
     }
 
-    // Fetch ticket priority distribution
-    public List<PriorityDistributionDTO> getPriorityDistribution(
-            Long teamId, Instant fromDate, Instant toDate) {
-        return ticketRepository.findTicketPriorityDistributionByTeamId(teamId, fromDate, toDate);
+    /**
+     * Maps a page of tickets, fetching the child ticket ids of the whole page with one query
+     * instead of loading the children of each ticket.
+     */
+    private Page<TicketDTO> toDtos(Page<Ticket> tickets) {
+        Map<Long, List<Long>> childTicketIds = findChildTicketIds(tickets.getContent());
+        return tickets.map(ticket -> toDto(ticket, childTicketIds));
     }
 
-    public TicketStatisticsDTO getTicketStatisticsByTeamId(
-            Long teamId, Instant fromDate, Instant toDate) {
-        return ticketRepository.getTicketStatisticsByTeamId(teamId, fromDate, toDate);
+    private TicketDTO toDto(Ticket ticket, Map<Long, List<Long>> childTicketIds) {
+        TicketDTO ticketDTO = ticketMapper.toDtoWithoutChildTickets(ticket);
+        ticketDTO.setChildTicketIds(childTicketIds.getOrDefault(ticket.getId(), List.of()));
+        return ticketDTO;
     }
 
-    private Instant calculateEarliestSlaDueDate(Long workflowId, Long sourceStateId) {
-        // Fetch all transitions from the current state
-        List<WorkflowTransition> transitions =
-                workflowTransitionRepository.findTransitionsBySourceState(
-                        workflowId, sourceStateId);
-
-        if (transitions.isEmpty()) {
-            return null;
-        }
-
-        // Find the transition with the lowest SLA duration
-        WorkflowTransition earliestTransition =
-                transitions.stream()
-                        .filter(
-                                t ->
-                                        t.getSlaDuration()
-                                                != null) // Exclude transitions without SLA duration
-                        .min(
-                                Comparator.comparing(
-                                        WorkflowTransition
-                                                ::getSlaDuration)) // Find the minimum SLA duration
-                        .orElse(null);
-
-        if (earliestTransition == null) {
-            return null; // No SLA defined for any transition
+    private Map<Long, List<Long>> findChildTicketIds(List<Ticket> tickets) {
+        if (tickets.isEmpty()) {
+            return Map.of();
         }
+        return ticketRepository
+                .findChildTicketIds(tickets.stream().map(Ticket::getId).toList())
+                .stream()
+                .collect(
+                        Collectors.groupingBy(
+                                ChildTicketIdDTO::getParentTicketId,
+                                Collectors.mapping(
+                                        ChildTicketIdDTO::getTicketId, Collectors.toList())));
+    }
 
-        // Calculate the SLA due date for the earliest transition
-        return Instant.now().plus(earliestTransition.getSlaDuration(), ChronoUnit.HOURS);
+    private Instant calculateEarliestSlaDueDate(WorkflowGraph workflowGraph, Long sourceStateId) {
+        // The lowest SLA duration of the transitions leaving the state, if any has one
+        return workflowGraph
+                .getMinSlaDuration(sourceStateId)
+                .map(slaDuration -> Instant.now().plus(slaDuration, ChronoUnit.HOURS))
+                .orElse(null);
     }
 
     public Page<TicketDTO> getOverdueTicketsByTeam(Long teamId, Pageable pageable) {
-        return ticketRepository
-                .findOverdueTicketsByTeamId(teamId, Completed, pageable)
-                .map(ticketMapper::toDto);
+        return toDtos(ticketRepository.findOverdueTicketsByTeamId(teamId, Completed, pageable));
     }
 
     public Page<TicketDTO> getOverdueTicketsByUser(Long userId, Pageable pageable) {
-        return ticketRepository
-                .findOverdueTicketsByUserId(userId, Completed, pageable)
-                .map(ticketMapper::toDto);
+        return toDtos(ticketRepository.findOverdueTicketsByUserId(userId, Completed, pageable));
     }
 
     public Long countOverdueTickets(
@@ -322,38 +370,6 @@ public class TicketService {
         return ticketRepository.countOverdueTicketsByTeamId(teamId, status, fromDate, toDate);
     }
 
-    public List<TicketActionCountByDateDTO> getTicketCreationTimeSeries(Long teamId, int days) {
-        if (days <= 0) {
-            days = 7; // Default to 7 days
-        }
-
-        LocalDate startDate = LocalDate.now().minusDays(days - 1);
-        List<TicketActionCountByDateDTO> trends =
-                ticketRepository.findTicketActionByDaySeries(
-                        teamId, startDate.atStartOfDay().toInstant(ZoneOffset.UTC));
-
-        // Fill missing dates with zero counts
-        Map<LocalDate, TicketActionCountByDateDTO> trendMap = new HashMap<>();
-        for (TicketActionCountByDateDTO trend : trends) {
-            trendMap.put(trend.getDate(), trend);
-        }
-
-        List<TicketActionCountByDateDTO> ticketByDaySeries = new ArrayList<>();
-        for (int i = 0; i < days; i++) {
-            LocalDate date = startDate.plusDays(i);
-            TicketActionCountByDateDTO trend =
-                    trendMap.getOrDefault(date, new TicketActionCountByDateDTO(date, 0L, 0L));
-            ticketByDaySeries.add(trend);
-        }
-
-        return ticketByDaySeries;
-    }
-
-    public List<TeamTicketPriorityDistributionDTO> getPriorityDistributionForUser(
-            Long userId, Instant fromDate, Instant toDate) {
-        return ticketRepository.findPriorityDistributionByUserId(userId, fromDate, toDate);
-    }
-
     @Transactional
     public TicketDTO updateTicketState(Long ticketId, Long newStateId) {
         Ticket ticket =
@@ -369,6 +385,19 @@ public class TicketService {
     }
 
     private Long getNextProjectTicketNumber(Long projectId) {
+        return reserveProjectTicketNumbers(projectId, 1);
+    }
+
+    /**
+     * Reserves a range of consecutive ticket numbers of a project with a single update of its
+     * sequence row.
+     *
+     * @param projectId the project id
+     * @param count the number of ticket numbers to reserve
+     * @return the first reserved number, the range ends at {@code first + count - 1}
+     */
+    @Transactional
+    public Long reserveProjectTicketNumbers(Long projectId, int count) {
         try {
             ProjectTicketSequence sequence =
                     projectTicketSequenceRepository
@@ -381,9 +410,10 @@ public class TicketService {
                                         return newSeq;
                                     });
 
-            sequence.setLastTicketNumber(sequence.getLastTicketNumber() + 1);
+            long first = sequence.getLastTicketNumber() + 1;
+            sequence.setLastTicketNumber(sequence.getLastTicketNumber() + count);
             projectTicketSequenceRepository.saveAndFlush(sequence);
-            return sequence.getLastTicketNumber();
+            return first;
 
         } catch (ObjectOptimisticLockingFailureException e) {
             throw new ConcurrentModificationException(
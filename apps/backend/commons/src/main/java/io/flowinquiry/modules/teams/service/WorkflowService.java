@@ -16,6 +16,7 @@ import io.flowinquiry.modules.teams.repository.TicketRepository;
 import io.flowinquiry.modules.teams.repository.WorkflowRepository;
 import io.flowinquiry.modules.teams.repository.WorkflowStateRepository;
 import io.flowinquiry.modules.teams.repository.WorkflowTransitionRepository;
+import io.flowinquiry.modules.teams.service.cache.WorkflowGraphCache;
 import io.flowinquiry.modules.teams.service.dto.WorkflowDTO;
 import io.flowinquiry.modules.teams.service.dto.WorkflowDetailedDTO;
 import io.flowinquiry.modules.teams.service.dto.WorkflowStateDTO;
@@ -63,6 +64,8 @@ public class WorkflowService {
 
     private final WorkflowTransitionMapper workflowTransitionMapper;
 
+    private final WorkflowGraphCache workflowGraphCache;
+
     public WorkflowService(
             WorkflowRepository workflowRepository,
             WorkflowStateRepository workflowStateRepository,
@@ -72,7 +75,8 @@ public class WorkflowService {
             TicketRepository ticketRepository,
             WorkflowMapper workflowMapper,
             WorkflowStateMapper workflowStateMapper,
-            WorkflowTransitionMapper workflowTransitionMapper) {
+            WorkflowTransitionMapper workflowTransitionMapper,
+            WorkflowGraphCache workflowGraphCache) {
         this.workflowRepository = workflowRepository;
         this.workflowStateRepository = workflowStateRepository;
         this.workflowTransitionRepository = workflowTransitionRepository;
@@ -82,6 +86,7 @@ public class WorkflowService {
         this.workflowMapper = workflowMapper;
         this.workflowStateMapper = workflowStateMapper;
         this.workflowTransitionMapper = workflowTransitionMapper;
+        this.workflowGraphCache = workflowGraphCache;
     }
 
     @Transactional(readOnly = true)
@@ -380,6 +385,7 @@ public class WorkflowService {
                                 })
                         .toList();
         newTransitions = workflowTransitionRepository.saveAll(newTransitions);
+        workflowGraphCache.invalidate(workflowId);
 
         // Step 4: Return the updated workflow
         WorkflowDetailedDTO updatedWorkflow = workflowMapper.toDetailedDto(workflowEntity);
@@ -576,6 +582,7 @@ public class WorkflowService {
         teamWorkflowSelectionRepository.deleteByWorkflowId(workflowId);
 
         workflowRepository.delete(workflow);
+        workflowGraphCache.invalidate(workflowId);
     }
 
     /**
@@ -618,6 +625,7 @@ public class WorkflowService {
             workflowStateRepository.deleteByWorkflowId(workflowId);
             workflowTransitionRepository.deleteByWorkflowId(workflowId);
             workflowRepository.deleteById(workflowId);
+            workflowGraphCache.invalidate(workflowId);
         }
 
         // Delete the workflow from fw_team_workflow_selection
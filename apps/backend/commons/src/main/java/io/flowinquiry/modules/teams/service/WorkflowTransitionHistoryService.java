@@ -1,43 +1,57 @@
 package io.flowinquiry.modules.teams.service;
 
 import static io.flowinquiry.modules.teams.domain.WorkflowTransitionHistoryStatus.Completed;
-import static io.flowinquiry.modules.teams.domain.WorkflowTransitionHistoryStatus.Escalated;
 import static io.flowinquiry.modules.teams.domain.WorkflowTransitionHistoryStatus.In_Progress;
 
 import io.flowinquiry.exceptions.ResourceNotFoundException;
 import io.flowinquiry.modules.teams.domain.Ticket;
-import io.flowinquiry.modules.teams.domain.WorkflowTransition;
+import io.flowinquiry.modules.teams.domain.WorkflowState;
 import io.flowinquiry.modules.teams.domain.WorkflowTransitionHistory;
 import io.flowinquiry.modules.teams.repository.TicketRepository;
 import io.flowinquiry.modules.teams.repository.WorkflowTransitionHistoryRepository;
-import io.flowinquiry.modules.teams.repository.WorkflowTransitionRepository;
+import io.flowinquiry.modules.teams.service.cache.WorkflowGraph;
+import io.flowinquiry.modules.teams.service.cache.WorkflowGraphCache;
+import io.flowinquiry.modules.teams.service.dto.SlaDeadlineDTO;
 import io.flowinquiry.modules.teams.service.dto.TransitionItemCollectionDTO;
+import io.flowinquiry.modules.teams.service.event.SlaDeadlineScheduledEvent;
 import io.flowinquiry.modules.teams.service.mapper.WorkflowTransitionHistoryMapper;
-import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class WorkflowTransitionHistoryService {
 
+    private static final int ESCALATION_CHUNK_SIZE = 500;
+
+    @PersistenceContext private EntityManager entityManager;
+
     private final WorkflowTransitionHistoryRepository workflowTransitionHistoryRepository;
     private final TicketRepository ticketRepository;
-    private final WorkflowTransitionRepository workflowTransitionRepository;
+    private final WorkflowGraphCache workflowGraphCache;
     private final WorkflowTransitionHistoryMapper workflowTransitionHistoryMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
     public WorkflowTransitionHistoryService(
             WorkflowTransitionHistoryRepository workflowTransitionHistoryRepository,
             TicketRepository ticketRepository,
-            WorkflowTransitionRepository workflowTransitionRepository,
-            WorkflowTransitionHistoryMapper workflowTransitionHistoryMapper) {
+            WorkflowGraphCache workflowGraphCache,
+            WorkflowTransitionHistoryMapper workflowTransitionHistoryMapper,
+            ApplicationEventPublisher eventPublisher) {
         this.workflowTransitionHistoryRepository = workflowTransitionHistoryRepository;
         this.ticketRepository = ticketRepository;
-        this.workflowTransitionRepository = workflowTransitionRepository;
+        this.workflowGraphCache = workflowGraphCache;
         this.workflowTransitionHistoryMapper = workflowTransitionHistoryMapper;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -58,10 +72,10 @@ public class WorkflowTransitionHistoryService {
                                         new ResourceNotFoundException(
                                                 "Ticket not found: " + ticketId));
 
-        WorkflowTransition transition =
-                workflowTransitionRepository
-                        .findByWorkflowIdAndSourceStateIdAndTargetStateId(
-                                ticket.getWorkflow().getId(), fromStateId, toStateId)
+        WorkflowGraph workflowGraph = workflowGraphCache.get(ticket.getWorkflow().getId());
+        WorkflowGraph.Transition transition =
+                workflowGraph
+                        .findTransition(fromStateId, toStateId)
                         .orElseThrow(
                                 () ->
                                         new ResourceNotFoundException(
@@ -69,25 +83,30 @@ public class WorkflowTransitionHistoryService {
 
         // Calculate SLA due date
         Instant slaDueDate = null;
-        if (transition.getSlaDuration() != null && transition.getSlaDuration() > 0) {
-            slaDueDate = Instant.now().plus(transition.getSlaDuration(), ChronoUnit.HOURS);
+        if (transition.slaDuration() != null && transition.slaDuration() > 0) {
+            slaDueDate = Instant.now().plus(transition.slaDuration(), ChronoUnit.HOURS);
         }
 
         // Create and save the WorkflowTransitionHistory entry
         WorkflowTransitionHistory history = new WorkflowTransitionHistory();
         history.setTicket(ticket);
-        history.setFromState(transition.getSourceState());
-        history.setToState(transition.getTargetState());
-        history.setEventName(transition.getEventName());
+        history.setFromState(entityManager.getReference(WorkflowState.class, fromStateId));
+        history.setToState(entityManager.getReference(WorkflowState.class, toStateId));
+        history.setEventName(transition.eventName());
         history.setTransitionDate(Instant.now());
         history.setSlaDueDate(slaDueDate);
-        if (transition.getTargetState().getIsFinal()) {
+        if (workflowGraph.isFinalState(toStateId)) {
             history.setStatus(Completed);
         } else {
             history.setStatus(In_Progress);
         }
 
-        workflowTransitionHistoryRepository.save(history);
+        history = workflowTransitionHistoryRepository.save(history);
+
+        if (slaDueDate != null && history.getStatus() == In_Progress) {
+            eventPublisher.publishEvent(
+                    new SlaDeadlineScheduledEvent(this, history.getId(), slaDueDate));
+        }
     }
 
     public TransitionItemCollectionDTO getTransitionHistoryByTicketId(Long ticketId) {
@@ -108,30 +127,63 @@ public class WorkflowTransitionHistoryService {
     }
 
     /**
-     * Retrieves workflow transitions that have already violated their SLA.
+     * Retrieves the SLA deadlines of all in-progress transitions due before the given time.
      *
-     * @return A list of violated workflow transitions.
+     * @param checkTime The upper bound of the SLA due date.
+     * @return A list of pending SLA deadlines.
      */
-    public List<WorkflowTransitionHistory> getViolatedTransitions() {
-        return workflowTransitionHistoryRepository.findViolatingTransitions(Instant.now());
+    @Transactional(readOnly = true)
+    public List<SlaDeadlineDTO> getSlaDeadlinesDueBefore(Instant checkTime) {
+        return workflowTransitionHistoryRepository.findSlaDeadlinesDueBefore(checkTime);
     }
 
     /**
-     * Updates the given workflow transition to 'Escalated' and persists it.
+     * Retrieves the SLA deadlines of all in-progress transitions due within the given window.
      *
-     * @param transitionId The workflow transition history entry to escalate.
+     * @param fromTime The exclusive lower bound of the SLA due date.
+     * @param toTime The inclusive upper bound of the SLA due date.
+     * @return A list of pending SLA deadlines.
      */
-    @Transactional
-    public void escalateTransition(Long transitionId) {
-        WorkflowTransitionHistory violatedTicket =
-                workflowTransitionHistoryRepository
-                        .findById(transitionId)
-                        .orElseThrow(
-                                () ->
-                                        new EntityNotFoundException(
-                                                "Transition not found: " + transitionId));
+    @Transactional(readOnly = true)
+    public List<SlaDeadlineDTO> getSlaDeadlinesDueBetween(Instant fromTime, Instant toTime) {
+        return workflowTransitionHistoryRepository.findSlaDeadlinesDueBetween(fromTime, toTime);
+    }
 
-        violatedTicket.setStatus(Escalated);
-        workflowTransitionHistoryRepository.save(violatedTicket);
+    /**
+     * Escalates the given workflow transitions that are still in progress and have violated their
+     * SLA, and returns them with the ticket, team, assignee and workflow already loaded.
+     *
+     * <p>Ids are processed in chunks, each costing one {@code UPDATE ... RETURNING} and one fetch,
+     * whatever the number of transitions. The status check and the update run as a single
+     * statement, so when several nodes race to escalate the same transition only one of them gets
+     * it back.
+     *
+     * @param transitionIds The workflow transition history ids whose SLA deadline has passed.
+     * @return The transitions escalated by this call.
+     */
+    @Transactional
+    public List<WorkflowTransitionHistory> escalateViolatedTransitions(
+            Collection<Long> transitionIds) {
+        List<Long> ids = List.copyOf(transitionIds);
+        Instant now = Instant.now();
+        Cache secondLevelCache = entityManager.getEntityManagerFactory().getCache();
+
+        List<WorkflowTransitionHistory> escalated = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += ESCALATION_CHUNK_SIZE) {
+            List<Long> chunk =
+                    ids.subList(from, Math.min(from + ESCALATION_CHUNK_SIZE, ids.size()));
+            List<Long> escalatedIds =
+                    workflowTransitionHistoryRepository.escalateViolatedTransitions(chunk, now);
+            if (escalatedIds.isEmpty()) {
+                continue;
+            }
+
+            // The native update bypasses Hibernate, drop the stale cached entries
+            escalatedIds.forEach(
+                    id -> secondLevelCache.evict(WorkflowTransitionHistory.class, id));
+            escalated.addAll(
+                    workflowTransitionHistoryRepository.findWithTicketByIdIn(escalatedIds));
+        }
+        return escalated;
     }
 }
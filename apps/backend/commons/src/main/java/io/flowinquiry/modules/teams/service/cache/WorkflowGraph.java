@@ -0,0 +1,127 @@
+package io.flowinquiry.modules.teams.service.cache;
+
+import io.flowinquiry.modules.teams.domain.WorkflowState;
+import io.flowinquiry.modules.teams.domain.WorkflowTransition;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * An immutable snapshot of the states and transitions of a workflow, detached from any persistence
+ * context so it can be shared between threads. It answers the questions asked on every ticket
+ * write: whether a state exists and is final, which transition links two states and what the
+ * shortest SLA out of a state is.
+ */
+public final class WorkflowGraph {
+
+    /** A state of the workflow. */
+    public record State(Long id, String stateName, boolean initial, boolean finalState) {}
+
+    /** A transition of the workflow, its SLA duration in hours or {@code null} if it has none. */
+    public record Transition(
+            Long id,
+            Long sourceStateId,
+            Long targetStateId,
+            String eventName,
+            Long slaDuration,
+            boolean escalateOnViolation) {}
+
+    private final Long workflowId;
+
+    private final Map<Long, State> states;
+
+    private final Map<Long, List<Transition>> transitionsBySourceState;
+
+    private final Map<Long, Long> minSlaDurationBySourceState;
+
+    private WorkflowGraph(
+            Long workflowId,
+            Map<Long, State> states,
+            Map<Long, List<Transition>> transitionsBySourceState,
+            Map<Long, Long> minSlaDurationBySourceState) {
+        this.workflowId = workflowId;
+        this.states = states;
+        this.transitionsBySourceState = transitionsBySourceState;
+        this.minSlaDurationBySourceState = minSlaDurationBySourceState;
+    }
+
+    /**
+     * Builds the graph of a workflow out of its states and transitions. Only the ids of the
+     * related entities are read, so lazy associations are not initialized.
+     */
+    public static WorkflowGraph of(
+            Long workflowId, List<WorkflowState> states, List<WorkflowTransition> transitions) {
+        Map<Long, State> stateMap = new HashMap<>();
+        for (WorkflowState state : states) {
+            stateMap.put(
+                    state.getId(),
+                    new State(
+                            state.getId(),
+                            state.getStateName(),
+                            Boolean.TRUE.equals(state.getIsInitial()),
+                            Boolean.TRUE.equals(state.getIsFinal())));
+        }
+
+        Map<Long, List<Transition>> transitionMap = new HashMap<>();
+        Map<Long, Long> minSlaDurations = new HashMap<>();
+        for (WorkflowTransition transition : transitions) {
+            Long sourceStateId = transition.getSourceState().getId();
+            transitionMap
+                    .computeIfAbsent(sourceStateId, id -> new ArrayList<>())
+                    .add(
+                            new Transition(
+                                    transition.getId(),
+                                    sourceStateId,
+                                    transition.getTargetState().getId(),
+                                    transition.getEventName(),
+                                    transition.getSlaDuration(),
+                                    transition.isEscalateOnViolation()));
+            if (transition.getSlaDuration() != null) {
+                minSlaDurations.merge(sourceStateId, transition.getSlaDuration(), Math::min);
+            }
+        }
+        transitionMap.replaceAll((sourceStateId, outgoing) -> List.copyOf(outgoing));
+
+        return new WorkflowGraph(
+                workflowId,
+                Map.copyOf(stateMap),
+                Map.copyOf(transitionMap),
+                Map.copyOf(minSlaDurations));
+    }
+
+    public Long getWorkflowId() {
+        return workflowId;
+    }
+
+    public Optional<State> findState(Long stateId) {
+        return Optional.ofNullable(stateId).map(states::get);
+    }
+
+    /** Returns whether the state belongs to this workflow and is final. */
+    public boolean isFinalState(Long stateId) {
+        return findState(stateId).map(State::finalState).orElse(false);
+    }
+
+    public List<Transition> getTransitionsFrom(Long sourceStateId) {
+        return sourceStateId == null
+                ? List.of()
+                : transitionsBySourceState.getOrDefault(sourceStateId, List.of());
+    }
+
+    public Optional<Transition> findTransition(Long sourceStateId, Long targetStateId) {
+        return getTransitionsFrom(sourceStateId).stream()
+                .filter(transition -> Objects.equals(transition.targetStateId(), targetStateId))
+                .findFirst();
+    }
+
+    /**
+     * Returns the shortest SLA duration, in hours, of the transitions leaving a state, empty when
+     * none of them has an SLA.
+     */
+    public Optional<Long> getMinSlaDuration(Long sourceStateId) {
+        return Optional.ofNullable(sourceStateId).map(minSlaDurationBySourceState::get);
+    }
+}
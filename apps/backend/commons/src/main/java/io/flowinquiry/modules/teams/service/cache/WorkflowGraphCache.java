@@ -0,0 +1,81 @@
+package io.flowinquiry.modules.teams.service.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.flowinquiry.modules.teams.repository.WorkflowStateRepository;
+import io.flowinquiry.modules.teams.repository.WorkflowTransitionRepository;
+import java.time.Duration;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Keeps the {@link WorkflowGraph} of the workflows in use in memory. Graphs are loaded on first
+ * use and invalidated by {@code WorkflowService} when a workflow is updated or deleted. Each node
+ * holds its own copy, so the entries also expire after a while to bound how long another node can
+ * serve a workflow changed elsewhere.
+ */
+@Slf4j
+@Service
+public class WorkflowGraphCache {
+
+    private static final Duration EXPIRE_AFTER_WRITE = Duration.ofMinutes(10);
+
+    private static final long MAXIMUM_SIZE = 1000;
+
+    private final WorkflowStateRepository workflowStateRepository;
+
+    private final WorkflowTransitionRepository workflowTransitionRepository;
+
+    private final LoadingCache<Long, WorkflowGraph> graphs;
+
+    public WorkflowGraphCache(
+            WorkflowStateRepository workflowStateRepository,
+            WorkflowTransitionRepository workflowTransitionRepository) {
+        this.workflowStateRepository = workflowStateRepository;
+        this.workflowTransitionRepository = workflowTransitionRepository;
+        this.graphs =
+                Caffeine.newBuilder()
+                        .maximumSize(MAXIMUM_SIZE)
+                        .expireAfterWrite(EXPIRE_AFTER_WRITE)
+                        .build(this::load);
+    }
+
+    /**
+     * Returns the graph of a workflow, loading it if needed. An unknown or {@code null} workflow
+     * has an empty graph.
+     */
+    public WorkflowGraph get(Long workflowId) {
+        if (workflowId == null) {
+            return WorkflowGraph.of(null, List.of(), List.of());
+        }
+        return graphs.get(workflowId);
+    }
+
+    /**
+     * Drops the graph of a workflow. Within a transaction the graph is dropped again once it
+     * commits, so a graph loaded from the uncommitted changes in the meantime is not kept.
+     */
+    public void invalidate(Long workflowId) {
+        graphs.invalidate(workflowId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                    new TransactionSynchronization() {
+                        @Override
+                        public void afterCompletion(int status) {
+                            graphs.invalidate(workflowId);
+                        }
+                    });
+        }
+    }
+
+    private WorkflowGraph load(Long workflowId) {
+        log.debug("Loading the graph of workflow {}", workflowId);
+        return WorkflowGraph.of(
+                workflowId,
+                workflowStateRepository.findByWorkflowId(workflowId),
+                workflowTransitionRepository.findByWorkflowId(workflowId));
+    }
+}
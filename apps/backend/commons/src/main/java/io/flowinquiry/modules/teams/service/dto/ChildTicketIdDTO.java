@@ -0,0 +1,13 @@
+package io.flowinquiry.modules.teams.service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChildTicketIdDTO {
+    private Long parentTicketId;
+    private Long ticketId;
+}
@@ -0,0 +1,14 @@
+package io.flowinquiry.modules.teams.service.dto;
+
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SlaDeadlineDTO {
+    private Long transitionHistoryId;
+    private Instant slaDueDate;
+}
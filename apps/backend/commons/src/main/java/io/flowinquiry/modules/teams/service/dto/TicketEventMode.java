@@ -0,0 +1,14 @@
+package io.flowinquiry.modules.teams.service.dto;
+
+/** How the tickets of a bulk create or update announce themselves to the rest of the system. */
+public enum TicketEventMode {
+
+    /** Publish the same events as the single ticket endpoints, one set per ticket. */
+    PER_TICKET,
+
+    /** Publish a single event for the whole batch, notifying each team once. */
+    COALESCED,
+
+    /** Publish no user facing events, for instance when migrating from another tracker. */
+    SUPPRESSED
+}
@@ -0,0 +1,16 @@
+package io.flowinquiry.modules.teams.service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TicketSearchResultDTO {
+    private Long ticketId;
+    private Long teamId;
+    private String requestTitle;
+    private Long commentId; // The matching comment, null when the ticket itself matched
+    private double rank;
+}
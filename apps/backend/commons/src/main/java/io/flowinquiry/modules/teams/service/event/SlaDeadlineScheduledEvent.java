@@ -0,0 +1,19 @@
+package io.flowinquiry.modules.teams.service.event;
+
+import java.time.Instant;
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+@Getter
+public class SlaDeadlineScheduledEvent extends ApplicationEvent {
+
+    private final Long transitionHistoryId;
+
+    private final Instant slaDueDate;
+
+    public SlaDeadlineScheduledEvent(Object source, Long transitionHistoryId, Instant slaDueDate) {
+        super(source);
+        this.transitionHistoryId = transitionHistoryId;
+        this.slaDueDate = slaDueDate;
+    }
+}
@@ -0,0 +1,33 @@
+package io.flowinquiry.modules.teams.service.event;
+
+import io.flowinquiry.modules.teams.service.dto.TicketDTO;
+import io.flowinquiry.modules.teams.service.dto.TicketEventMode;
+import java.util.List;
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Published once per bulk create or update whose tickets did not publish per ticket events.
+ * {@code previousTickets} holds, at the same index as {@code currentTickets}, the ticket before the
+ * update, or {@code null} for created tickets.
+ */
+@Getter
+public class TicketBatchSavedEvent extends ApplicationEvent {
+
+    private final List<TicketDTO> previousTickets;
+
+    private final List<TicketDTO> currentTickets;
+
+    private final TicketEventMode eventMode;
+
+    public TicketBatchSavedEvent(
+            Object source,
+            List<TicketDTO> previousTickets,
+            List<TicketDTO> currentTickets,
+            TicketEventMode eventMode) {
+        super(source);
+        this.previousTickets = previousTickets;
+        this.currentTickets = currentTickets;
+        this.eventMode = eventMode;
+    }
+}
@@ -0,0 +1,23 @@
+package io.flowinquiry.modules.teams.service.event;
+
+import io.flowinquiry.modules.teams.service.dto.TicketDTO;
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Published when a ticket is updated or deleted, with the ticket as it was before and after the
+ * change. {@code currentTicket} is {@code null} when the ticket was deleted.
+ */
+@Getter
+public class TicketChangedEvent extends ApplicationEvent {
+
+    private final TicketDTO previousTicket;
+
+    private final TicketDTO currentTicket;
+
+    public TicketChangedEvent(Object source, TicketDTO previousTicket, TicketDTO currentTicket) {
+        super(source);
+        this.previousTicket = previousTicket;
+        this.currentTicket = currentTicket;
+    }
+}
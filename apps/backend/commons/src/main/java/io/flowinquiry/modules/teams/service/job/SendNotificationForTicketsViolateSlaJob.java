@@ -16,24 +16,28 @@ import io.flowinquiry.modules.teams.domain.WorkflowTransitionHistory;
 import io.flowinquiry.modules.teams.service.TeamService;
 import io.flowinquiry.modules.teams.service.WorkflowTransitionHistoryService;
 import io.flowinquiry.modules.usermanagement.domain.User;
+import io.flowinquiry.modules.usermanagement.service.dto.UserDTO;
 import io.flowinquiry.modules.usermanagement.service.mapper.UserMapper;
 import io.flowinquiry.utils.Obfuscator;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
 import lombok.extern.slf4j.Slf4j;
-import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
 import org.springframework.context.MessageSource;
 import org.springframework.context.annotation.Profile;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Slf4j
 @Profile("!test")
@@ -56,6 +60,8 @@ public class SendNotificationForTicketsViolateSlaJob {
 
     private final MessageSource messageSource;
 
+    private final TransactionTemplate transactionTemplate;
+
     public SendNotificationForTicketsViolateSlaJob(
             SimpMessagingTemplate messageTemplate,
             TeamService teamService,
@@ -63,7 +69,8 @@ public class SendNotificationForTicketsViolateSlaJob {
             MailService mailService,
             DeduplicationCacheService deduplicationCacheService,
             UserMapper userMapper,
-            MessageSource messageSource) {
+            MessageSource messageSource,
+            PlatformTransactionManager transactionManager) {
         this.messageTemplate = messageTemplate;
         this.teamService = teamService;
         this.workflowTransitionHistoryService = workflowTransitionHistoryService;
@@ -71,28 +78,115 @@ public class SendNotificationForTicketsViolateSlaJob {
         this.deduplicationCacheService = deduplicationCacheService;
         this.userMapper = userMapper;
         this.messageSource = messageSource;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Escalates the given transitions and notifies the assignee and team managers of each ticket.
+     *
+     * <p>Invoked by {@link SlaBreachScheduler} when deadlines expire in its timer wheel. Ids that
+     * are no longer in progress or not yet due are ignored, so the same id may safely be passed
+     * more than once.
+     *
+     * <p>The escalation runs as one set-based update, and the recipients are read in the same
+     * transaction, so a failure to read them rolls the escalation back instead of losing the
+     * notifications. The transaction commits before any notification goes out. Team managers are
+     * looked up once per team, and the emails of the whole run are sent as a single batch.
+     *
+     * @param transitionIds the workflow transition history ids whose SLA deadline has passed
+     */
+    public void notifyViolations(Collection<Long> transitionIds) {
+        List<SlaBreachNotice> notices =
+                transactionTemplate.execute(status -> escalate(transitionIds));
+        if (notices.isEmpty()) {
+            return;
+        }
+
+        List<EmailContext> emails = new ArrayList<>();
+        for (SlaBreachNotice notice : notices) {
+            UserDTO recipient = notice.recipient();
+
+            // ✅ Create notification content
+            String html =
+                    p(
+                                    text("The ticket "),
+                                    a(notice.requestTitle())
+                                            .withHref(
+                                                    "/portal/teams/"
+                                                            + Obfuscator.obfuscate(notice.teamId())
+                                                            + "/tickets/"
+                                                            + Obfuscator.obfuscate(
+                                                                    notice.ticketId())),
+                                    text(
+                                            " assigned to you or your team has violated its SLA. The SLA was due on "),
+                                    strong(text(notice.slaDueDate())),
+                                    text(". Please take necessary action immediately."))
+                            .render();
+
+            // ✅ Create notification object
+            Notification notification =
+                    Notification.builder()
+                            .content(html)
+                            .type(NotificationType.SLA_BREACH)
+                            .user(User.builder().id(recipient.getId()).build())
+                            .isRead(false)
+                            .build();
+
+            // ✅ Send WebSocket notification
+            messageTemplate.convertAndSendToUser(
+                    String.valueOf(recipient.getId()), "/queue/notifications", notification);
+
+            EmailContext emailContext =
+                    new EmailContext(
+                                    Locale.forLanguageTag("en"),
+                                    mailService.getBaseUrl(),
+                                    messageSource)
+                            .setToUser(recipient)
+                            .setSubject(
+                                    "email.ticket.sla.violation.subject",
+                                    notice.requestTitle(),
+                                    notice.teamName())
+                            .addVariable("requestTitle", notice.requestTitle())
+                            .addVariable("obfuscatedTeamId", Obfuscator.obfuscate(notice.teamId()))
+                            .addVariable(
+                                    "obfuscatedTicketId", Obfuscator.obfuscate(notice.ticketId()))
+                            .addVariable("slaDueDate", notice.slaDueDate())
+                            .setTemplate("mail/violatedSlaTicketEmail");
+
+            emails.add(emailContext);
+
+            // ✅ Store Key in Deduplication Cache
+            deduplicationCacheService.put(notice.cacheKey(), Duration.ofHours(24));
+        }
+
+        if (!emails.isEmpty()) {
+            mailService.sendEmails(emails);
+        }
     }
 
-    @Scheduled(cron = "0 0/1 * * * ?")
-    @SchedulerLock(name = "SendNotificationForTicketsViolateSlaJob")
-    @Transactional
-    public void run() {
+    /**
+     * Escalates the transitions and collects the recipients not notified yet, while the
+     * persistence context the tickets and users were loaded in is still open.
+     */
+    private List<SlaBreachNotice> escalate(Collection<Long> transitionIds) {
         List<WorkflowTransitionHistory> violatingTickets =
-                workflowTransitionHistoryService.getViolatedTransitions();
+                workflowTransitionHistoryService.escalateViolatedTransitions(transitionIds);
+
+        Map<Long, List<User>> teamManagersByTeam = new HashMap<>();
+        List<SlaBreachNotice> notices = new ArrayList<>();
 
         for (WorkflowTransitionHistory violatingTicket : violatingTickets) {
             Ticket ticket = violatingTicket.getTicket();
             Instant slaDueDate = violatingTicket.getSlaDueDate();
             String formattedSlaDueDate = slaDueDate.atZone(ZoneId.of("UTC")).format(formatter);
 
-            // ✅ Escalate status
-            workflowTransitionHistoryService.escalateTransition(violatingTicket.getId());
-
             // ✅ Fetch assign user (if exists)
             User assignUser = ticket.getAssignUser();
 
-            // ✅ Fetch all team managers
-            List<User> teamManagers = teamService.getTeamManagers(ticket.getTeam().getId());
+            // ✅ Fetch all team managers, once per team
+            List<User> teamManagers =
+                    teamManagersByTeam.computeIfAbsent(
+                            ticket.getTeam().getId(), teamService::getTeamManagers);
 
             // ✅ Collect all recipients (Assign User + Team Managers)
             Set<User> recipients = new HashSet<>();
@@ -107,7 +201,7 @@ public class SendNotificationForTicketsViolateSlaJob {
                         buildSlaWarningKey(
                                 recipient.getId(),
                                 ticket.getId(),
-                                violatingTicket.getTicket().getWorkflow().getId(),
+                                ticket.getWorkflow().getId(),
                                 violatingTicket.getEventName(),
                                 violatingTicket.getToState().getId(),
                                 "SendNotificationForTicketsViolateSlaJob");
@@ -116,63 +210,29 @@ public class SendNotificationForTicketsViolateSlaJob {
                     continue;
                 }
 
-                // ✅ Create notification content
-                String html =
-                        p(
-                                        text("The ticket "),
-                                        a(ticket.getRequestTitle())
-                                                .withHref(
-                                                        "/portal/teams/"
-                                                                + Obfuscator.obfuscate(
-                                                                        ticket.getTeam().getId())
-                                                                + "/tickets/"
-                                                                + Obfuscator.obfuscate(
-                                                                        ticket.getId())),
-                                        text(
-                                                " assigned to you or your team has violated its SLA. The SLA was due on "),
-                                        strong(text(formattedSlaDueDate)),
-                                        text(". Please take necessary action immediately."))
-                                .render();
-
-                // ✅ Create notification object
-                Notification notification =
-                        Notification.builder()
-                                .content(html)
-                                .type(NotificationType.SLA_BREACH)
-                                .user(User.builder().id(recipient.getId()).build())
-                                .isRead(false)
-                                .build();
-
-                // ✅ Send WebSocket notification
-                messageTemplate.convertAndSendToUser(
-                        String.valueOf(recipient.getId()), "/queue/notifications", notification);
-
-                EmailContext emailContext =
-                        new EmailContext(
-                                        Locale.forLanguageTag("en"),
-                                        mailService.getBaseUrl(),
-                                        messageSource)
-                                .setToUser(userMapper.toDto(recipient))
-                                .setSubject(
-                                        "email.ticket.sla.violation.subject",
-                                        ticket.getRequestTitle(),
-                                        ticket.getTeam().getName())
-                                .addVariable("requestTitle", ticket.getRequestTitle())
-                                .addVariable(
-                                        "obfuscatedTeamId",
-                                        Obfuscator.obfuscate(ticket.getTeam().getId()))
-                                .addVariable(
-                                        "obfuscatedTicketId", Obfuscator.obfuscate(ticket.getId()))
-                                .addVariable("slaDueDate", formattedSlaDueDate)
-                                .setTemplate("mail/violatedSlaTicketEmail");
-
-                mailService.sendEmail(emailContext);
-
-                // ✅ Store Key in Deduplication Cache
-                deduplicationCacheService.put(cacheKey, Duration.ofHours(24));
+                notices.add(
+                        new SlaBreachNotice(
+                                cacheKey,
+                                userMapper.toDto(recipient),
+                                ticket.getId(),
+                                ticket.getTeam().getId(),
+                                ticket.getTeam().getName(),
+                                ticket.getRequestTitle(),
+                                formattedSlaDueDate));
             }
 
-            log.debug("SLA violation notification sent for ticket {}", violatingTicket);
+            log.debug("SLA violation notification prepared for ticket {}", violatingTicket);
         }
+        return notices;
     }
+
+    /** A notification to send to one recipient, read before the escalation committed. */
+    private record SlaBreachNotice(
+            String cacheKey,
+            UserDTO recipient,
+            Long ticketId,
+            Long teamId,
+            String teamName,
+            String requestTitle,
+            String slaDueDate) {}
 }
@@ -0,0 +1,118 @@
+package io.flowinquiry.modules.teams.service.job;
+
+import io.flowinquiry.modules.teams.service.WorkflowTransitionHistoryService;
+import io.flowinquiry.modules.teams.service.dto.SlaDeadlineDTO;
+import io.flowinquiry.modules.teams.service.event.SlaDeadlineScheduledEvent;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Fires SLA breaches at their deadline instead of polling the transition history table.
+ *
+ * <p>Upcoming deadlines are kept in an in-memory {@link SlaTimerWheel}. The wheel only holds
+ * deadlines inside a sliding {@link #LOOKAHEAD} window: it is seeded once at startup, new deadlines
+ * are added as tickets are created or change state, and a cheap reconciliation sweep running under
+ * ShedLock pulls deadlines into the window as it moves forward. The sweep also re-schedules every
+ * in-progress transition that is overdue by more than {@link #RECONCILIATION_GRACE}, which covers
+ * deadlines registered on a node that went down before they expired.
+ *
+ * <p>Expired deadlines are handed to {@link SendNotificationForTicketsViolateSlaJob}, which claims
+ * each transition with a conditional update so a breach is escalated only once across nodes.
+ */
+@Slf4j
+@Profile("!test")
+@Component
+public class SlaBreachScheduler {
+
+    private static final long TICK_MILLIS = 1000;
+
+    private static final Duration LOOKAHEAD = Duration.ofHours(1);
+
+    private static final Duration RECONCILIATION_GRACE = Duration.ofMinutes(2);
+
+    private final WorkflowTransitionHistoryService workflowTransitionHistoryService;
+
+    private final SendNotificationForTicketsViolateSlaJob sendNotificationForTicketsViolateSlaJob;
+
+    private final SlaTimerWheel timerWheel;
+
+    private volatile Instant scheduledUpTo;
+
+    public SlaBreachScheduler(
+            WorkflowTransitionHistoryService workflowTransitionHistoryService,
+            SendNotificationForTicketsViolateSlaJob sendNotificationForTicketsViolateSlaJob) {
+        this.workflowTransitionHistoryService = workflowTransitionHistoryService;
+        this.sendNotificationForTicketsViolateSlaJob = sendNotificationForTicketsViolateSlaJob;
+        this.timerWheel = new SlaTimerWheel(TICK_MILLIS, Instant.now());
+        this.scheduledUpTo = Instant.now();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        Instant upTo = Instant.now().plus(LOOKAHEAD);
+        List<SlaDeadlineDTO> deadlines =
+                workflowTransitionHistoryService.getSlaDeadlinesDueBefore(upTo);
+        deadlines.forEach(this::schedule);
+        scheduledUpTo = upTo;
+        log.info("Seeded SLA timer wheel with {} deadlines", deadlines.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSlaDeadlineScheduled(SlaDeadlineScheduledEvent event) {
+        // Deadlines beyond the window are picked up by the sweep once the window reaches them
+        if (!event.getSlaDueDate().isAfter(scheduledUpTo)) {
+            timerWheel.schedule(event.getTransitionHistoryId(), event.getSlaDueDate());
+        }
+    }
+
+    @Scheduled(fixedDelay = TICK_MILLIS)
+    public void tick() {
+        List<Long> expired = timerWheel.advanceTo(Instant.now());
+        if (expired.isEmpty()) {
+            return;
+        }
+
+        try {
+            sendNotificationForTicketsViolateSlaJob.notifyViolations(expired);
+        } catch (Exception e) {
+            // The reconciliation sweep re-schedules these once they are past the grace period
+            log.error("Failed to process {} SLA breaches", expired.size(), e);
+        }
+    }
+
+    @Scheduled(cron = "0 0/1 * * * ?")
+    @SchedulerLock(name = "SlaBreachReconciliationJob", lockAtLeastFor = "PT30S")
+    public void reconcile() {
+        Instant now = Instant.now();
+        Instant upTo = now.plus(LOOKAHEAD);
+
+        List<SlaDeadlineDTO> upcoming =
+                workflowTransitionHistoryService.getSlaDeadlinesDueBetween(scheduledUpTo, upTo);
+        upcoming.forEach(this::schedule);
+        scheduledUpTo = upTo;
+
+        List<SlaDeadlineDTO> missed =
+                workflowTransitionHistoryService.getSlaDeadlinesDueBefore(
+                        now.minus(RECONCILIATION_GRACE));
+        missed.forEach(this::schedule);
+
+        log.debug(
+                "SLA reconciliation scheduled {} upcoming and {} missed deadlines, {} pending",
+                upcoming.size(),
+                missed.size(),
+                timerWheel.size());
+    }
+
+    private void schedule(SlaDeadlineDTO deadline) {
+        timerWheel.schedule(deadline.getTransitionHistoryId(), deadline.getSlaDueDate());
+    }
+}
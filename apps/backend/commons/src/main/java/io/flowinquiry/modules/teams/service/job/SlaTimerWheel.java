@@ -0,0 +1,165 @@
+package io.flowinquiry.modules.teams.service.job;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A hierarchical timer wheel holding SLA deadlines keyed by workflow transition history id.
+ *
+ * <p>The wheel has {@link #LEVELS} levels of {@link #SLOTS} slots each. Level 0 resolves single
+ * ticks, every higher level covers {@code SLOTS} times the span of the level below it, and entries
+ * cascade down one level whenever the lower wheel completes a revolution. Scheduling and expiring
+ * are O(1) per entry regardless of how many deadlines are pending, so the wheel can hold every open
+ * SLA of the instance without a periodic table scan.
+ *
+ * <p>Deadlines further away than the span of the top level are parked in the top level and
+ * re-evaluated each time their slot cascades. All public methods are thread-safe.
+ */
+class SlaTimerWheel {
+
+    static final int SLOT_BITS = 6;
+
+    static final int SLOTS = 1 << SLOT_BITS;
+
+    static final int LEVELS = 4;
+
+    private static final int SLOT_MASK = SLOTS - 1;
+
+    private static final long MAX_SPAN = 1L << (SLOT_BITS * LEVELS);
+
+    private final long tickMillis;
+
+    private final List<ArrayDeque<Entry>[]> levels = new ArrayList<>(LEVELS);
+
+    private final Map<Long, Entry> entries = new HashMap<>();
+
+    private final List<Long> overdue = new ArrayList<>();
+
+    private long currentTick;
+
+    @SuppressWarnings("unchecked")
+    SlaTimerWheel(long tickMillis, Instant start) {
+        this.tickMillis = tickMillis;
+        this.currentTick = toTick(start);
+        for (int level = 0; level < LEVELS; level++) {
+            ArrayDeque<Entry>[] slots = new ArrayDeque[SLOTS];
+            for (int slot = 0; slot < SLOTS; slot++) {
+                slots[slot] = new ArrayDeque<>();
+            }
+            levels.add(slots);
+        }
+    }
+
+    /**
+     * Schedules the deadline of a transition. Re-scheduling an id that is already pending replaces
+     * its previous deadline; deadlines that have already passed expire on the next advance.
+     *
+     * @param id the workflow transition history id
+     * @param deadline the SLA due date
+     */
+    synchronized void schedule(Long id, Instant deadline) {
+        Entry previous = entries.remove(id);
+        if (previous != null) {
+            previous.cancelled = true;
+        }
+
+        Entry entry = new Entry(id, toTick(deadline));
+        entries.put(id, entry);
+        place(entry);
+    }
+
+    /**
+     * Advances the wheel up to the given time and returns the ids whose deadlines have passed.
+     *
+     * @param now the current time
+     * @return the ids of the expired transitions, possibly empty
+     */
+    synchronized List<Long> advanceTo(Instant now) {
+        List<Long> expired = new ArrayList<>(overdue);
+        overdue.clear();
+
+        long targetTick = toTick(now);
+        while (currentTick < targetTick) {
+            currentTick++;
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+                    cascade(level);
+                }
+            }
+
+            ArrayDeque<Entry> bucket = levels.get(0)[(int) (currentTick & SLOT_MASK)];
+            while (!bucket.isEmpty()) {
+                Entry entry = bucket.poll();
+                if (entry.cancelled) {
+                    continue;
+                }
+                if (entry.expiresTick <= currentTick) {
+                    entries.remove(entry.id);
+                    expired.add(entry.id);
+                } else {
+                    place(entry);
+                }
+            }
+        }
+
+        for (Long id : overdue) {
+            expired.add(id);
+        }
+        overdue.clear();
+        return expired;
+    }
+
+    /** Returns the number of pending deadlines. */
+    synchronized int size() {
+        return entries.size();
+    }
+
+    private void cascade(int level) {
+        int slot = (int) ((currentTick >>> (SLOT_BITS * level)) & SLOT_MASK);
+        ArrayDeque<Entry> bucket = levels.get(level)[slot];
+        List<Entry> moved = new ArrayList<>(bucket);
+        bucket.clear();
+        for (Entry entry : moved) {
+            if (!entry.cancelled) {
+                place(entry);
+            }
+        }
+    }
+
+    private void place(Entry entry) {
+        long delta = entry.expiresTick - currentTick;
+        if (delta <= 0) {
+            entries.remove(entry.id);
+            overdue.add(entry.id);
+            return;
+        }
+
+        long placementTick = delta < MAX_SPAN ? entry.expiresTick : currentTick + MAX_SPAN - 1;
+        long placementDelta = placementTick - currentTick;
+        int level = 0;
+        while (level < LEVELS - 1 && placementDelta >= (1L << (SLOT_BITS * (level + 1)))) {
+            level++;
+        }
+        int slot = (int) ((placementTick >>> (SLOT_BITS * level)) & SLOT_MASK);
+        levels.get(level)[slot].add(entry);
+    }
+
+    private long toTick(Instant instant) {
+        return Math.floorDiv(instant.toEpochMilli() + tickMillis - 1, tickMillis);
+    }
+
+    private static final class Entry {
+        private final Long id;
+        private final long expiresTick;
+        private boolean cancelled;
+
+        private Entry(Long id, long expiresTick) {
+            this.id = id;
+            this.expiresTick = expiresTick;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package io.flowinquiry.modules.teams.service.job;
+
+import io.flowinquiry.modules.teams.service.TicketCounterService;
+import lombok.extern.slf4j.Slf4j;
+import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Profile("!test")
+@Component
+public class TicketCounterReconcileJob {
+
+    private final TicketCounterService ticketCounterService;
+
+    public TicketCounterReconcileJob(TicketCounterService ticketCounterService) {
+        this.ticketCounterService = ticketCounterService;
+    }
+
+    /**
+     * Recounts the attachments and watchers of tickets every night.
+     *
+     * <p>The counters are adjusted by the services writing attachments and watchers, so rows
+     * written or deleted another way, by a cascade or by hand, leave them behind; the recount
+     * repairs them and reports how many tickets drifted.
+     */
+    @Scheduled(cron = "0 45 2 * * ?") // Runs daily at 2:45
+    @SchedulerLock(name = "TicketCounterReconcileJob")
+    public void run() {
+        int driftedTickets = ticketCounterService.reconcile();
+        if (driftedTickets > 0) {
+            log.warn("Attachment and watcher counters had drifted on {} tickets", driftedTickets);
+        } else {
+            log.info("Attachment and watcher counters are consistent");
+        }
+    }
+}
@@ -7,10 +7,8 @@ import static j2html.TagCreator.text;
 import io.flowinquiry.exceptions.ResourceNotFoundException;
 import io.flowinquiry.modules.collab.domain.ActivityLog;
 import io.flowinquiry.modules.collab.domain.EntityType;
-import io.flowinquiry.modules.collab.domain.Notification;
 import io.flowinquiry.modules.collab.domain.NotificationType;
-import io.flowinquiry.modules.collab.repository.ActivityLogRepository;
-import io.flowinquiry.modules.collab.repository.NotificationRepository;
+import io.flowinquiry.modules.collab.service.NotificationPipeline;
 import io.flowinquiry.modules.teams.repository.TeamRepository;
 import io.flowinquiry.modules.teams.service.dto.ProjectDTO;
 import io.flowinquiry.modules.teams.service.event.NewProjectCreatedEvent;
@@ -18,11 +16,9 @@ import io.flowinquiry.modules.usermanagement.domain.User;
 import io.flowinquiry.modules.usermanagement.repository.UserRepository;
 import io.flowinquiry.modules.usermanagement.service.dto.UserWithTeamRoleDTO;
 import io.flowinquiry.utils.Obfuscator;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import org.springframework.context.event.EventListener;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
@@ -31,22 +27,16 @@ import org.springframework.transaction.annotation.Transactional;
 public class NewProjectCreatedNotificationEventListener {
 
     private final TeamRepository teamRepository;
-    private final SimpMessagingTemplate messageTemplate;
-    private final NotificationRepository notificationRepository;
-    private final ActivityLogRepository activityLogRepository;
     private final UserRepository userRepository;
+    private final NotificationPipeline notificationPipeline;
 
     public NewProjectCreatedNotificationEventListener(
             TeamRepository teamRepository,
-            SimpMessagingTemplate messageTemplate,
-            NotificationRepository notificationRepository,
-            ActivityLogRepository activityLogRepository,
-            UserRepository userRepository) {
+            UserRepository userRepository,
+            NotificationPipeline notificationPipeline) {
         this.teamRepository = teamRepository;
-        this.messageTemplate = messageTemplate;
-        this.notificationRepository = notificationRepository;
-        this.activityLogRepository = activityLogRepository;
         this.userRepository = userRepository;
+        this.notificationPipeline = notificationPipeline;
     }
 
     @Async("asyncTaskExecutor")
@@ -83,30 +73,11 @@ public class NewProjectCreatedNotificationEventListener {
                                                         + Obfuscator.obfuscate(projectDTO.getId())))
                         .render();
 
-        List<Notification> notifications = new ArrayList<>();
-
-        for (UserWithTeamRoleDTO user : usersInTeam) {
-            if (!Objects.equals(user.getId(), projectDTO.getCreatedBy())) {
-                Notification notification =
-                        Notification.builder()
-                                .content(html)
-                                .type(NotificationType.INFO)
-                                .user(User.builder().id(user.getId()).build())
-                                .isRead(false)
-                                .build();
-
-                notifications.add(notification);
-            }
-        }
-
-        List<Notification> savedNotifications = notificationRepository.saveAll(notifications);
-
-        for (Notification notification : savedNotifications) {
-            messageTemplate.convertAndSendToUser(
-                    String.valueOf(notification.getUser().getId()),
-                    "/queue/notifications",
-                    notification);
-        }
+        List<Long> recipientIds =
+                usersInTeam.stream()
+                        .map(UserWithTeamRoleDTO::getId)
+                        .filter(userId -> !Objects.equals(userId, projectDTO.getCreatedBy()))
+                        .toList();
 
         ActivityLog activityLog =
                 ActivityLog.builder()
@@ -114,6 +85,6 @@ public class NewProjectCreatedNotificationEventListener {
                         .entityType(EntityType.Team)
                         .content(html)
                         .build();
-        activityLogRepository.save(activityLog);
+        notificationPipeline.submit(html, NotificationType.INFO, recipientIds, activityLog);
     }
 }
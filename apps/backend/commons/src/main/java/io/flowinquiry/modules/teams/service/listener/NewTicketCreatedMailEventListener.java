@@ -11,6 +11,7 @@ import io.flowinquiry.modules.teams.service.TicketService;
 import io.flowinquiry.modules.teams.service.dto.TicketDTO;
 import io.flowinquiry.modules.teams.service.event.NewTicketCreatedEvent;
 import io.flowinquiry.modules.usermanagement.service.mapper.UserMapper;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 import org.springframework.context.MessageSource;
@@ -63,23 +64,22 @@ public class NewTicketCreatedMailEventListener {
                         EntityType.Ticket, ticketDTO.getId());
 
         if (!watchers.isEmpty()) {
-            watchers.forEach(
-                    watcher -> {
-                        String ticketPath = buildTicketPath(ticketDTO);
-                        EmailContext emailContext =
-                                new EmailContext(
-                                                Locale.forLanguageTag("en"),
-                                                mailService.getBaseUrl(),
-                                                messageSource)
-                                        .setToUser(userMapper.toDto(watcher.getWatchUser()))
-                                        .setSubject(
-                                                "email.new.ticket.subject",
-                                                ticketDTO.getRequestTitle())
-                                        .addVariable("ticket", ticketDTO)
-                                        .addVariable("ticketPath", ticketPath)
-                                        .setTemplate("mail/newTicketEmail");
-                        mailService.sendEmail(emailContext);
-                    });
+            String ticketPath = buildTicketPath(ticketDTO);
+            // One batch, so the email is rendered once for all watchers
+            List<EmailContext> emails = new ArrayList<>(watchers.size());
+            for (EntityWatcher watcher : watchers) {
+                emails.add(
+                        new EmailContext(
+                                        Locale.forLanguageTag("en"),
+                                        mailService.getBaseUrl(),
+                                        messageSource)
+                                .setToUser(userMapper.toDto(watcher.getWatchUser()))
+                                .setSubject("email.new.ticket.subject", ticketDTO.getRequestTitle())
+                                .addVariable("ticket", ticketDTO)
+                                .addVariable("ticketPath", ticketPath)
+                                .setTemplate("mail/newTicketEmail"));
+            }
+            mailService.sendEmails(emails);
         }
     }
 }
@@ -8,10 +8,8 @@ import static j2html.TagCreator.text;
 import io.flowinquiry.exceptions.ResourceNotFoundException;
 import io.flowinquiry.modules.collab.domain.ActivityLog;
 import io.flowinquiry.modules.collab.domain.EntityType;
-import io.flowinquiry.modules.collab.domain.Notification;
 import io.flowinquiry.modules.collab.domain.NotificationType;
-import io.flowinquiry.modules.collab.repository.ActivityLogRepository;
-import io.flowinquiry.modules.collab.repository.NotificationRepository;
+import io.flowinquiry.modules.collab.service.NotificationPipeline;
 import io.flowinquiry.modules.teams.repository.TeamRepository;
 import io.flowinquiry.modules.teams.service.TicketService;
 import io.flowinquiry.modules.teams.service.dto.TicketDTO;
@@ -20,10 +18,8 @@ import io.flowinquiry.modules.usermanagement.domain.User;
 import io.flowinquiry.modules.usermanagement.repository.UserRepository;
 import io.flowinquiry.modules.usermanagement.service.dto.UserWithTeamRoleDTO;
 import io.flowinquiry.utils.Obfuscator;
-import java.util.ArrayList;
 import java.util.List;
 import org.springframework.context.event.EventListener;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
@@ -31,25 +27,19 @@ import org.springframework.transaction.annotation.Transactional;
 @Component
 public class NewTicketCreatedNotificationEventListener {
     private final TicketService ticketService;
-    private final SimpMessagingTemplate messageTemplate;
-    private final NotificationRepository notificationRepository;
     private final TeamRepository teamRepository;
-    private final ActivityLogRepository activityLogRepository;
     private final UserRepository userRepository;
+    private final NotificationPipeline notificationPipeline;
 
     public NewTicketCreatedNotificationEventListener(
             TicketService ticketService,
-            SimpMessagingTemplate messageTemplate,
-            NotificationRepository notificationRepository,
             TeamRepository teamRepository,
-            ActivityLogRepository activityLogRepository,
-            UserRepository userRepository) {
+            UserRepository userRepository,
+            NotificationPipeline notificationPipeline) {
         this.ticketService = ticketService;
-        this.messageTemplate = messageTemplate;
-        this.notificationRepository = notificationRepository;
         this.teamRepository = teamRepository;
-        this.activityLogRepository = activityLogRepository;
         this.userRepository = userRepository;
+        this.notificationPipeline = notificationPipeline;
     }
 
     @Async("asyncTaskExecutor")
@@ -75,33 +65,11 @@ public class NewTicketCreatedNotificationEventListener {
                                 a(ticketDTO.getRequestTitle()).withHref(buildTicketPath(ticketDTO)))
                         .render();
 
-        List<UserWithTeamRoleDTO> usersInTeam =
-                teamRepository.findUsersByTeamId(ticketDTO.getTeamId());
-
-        List<Notification> notifications = new ArrayList<>();
-
-        for (UserWithTeamRoleDTO user : usersInTeam) {
-            if (!user.getId().equals(ticketDTO.getRequestUserId())) {
-                Notification notification =
-                        Notification.builder()
-                                .content(html)
-                                .type(NotificationType.INFO)
-                                .user(User.builder().id(user.getId()).build())
-                                .isRead(false)
-                                .build();
-
-                notifications.add(notification);
-            }
-        }
-
-        List<Notification> savedNotifications = notificationRepository.saveAll(notifications);
-
-        for (Notification notification : savedNotifications) {
-            messageTemplate.convertAndSendToUser(
-                    String.valueOf(notification.getUser().getId()),
-                    "/queue/notifications",
-                    notification);
-        }
+        List<Long> recipientIds =
+                teamRepository.findUsersByTeamId(ticketDTO.getTeamId()).stream()
+                        .map(UserWithTeamRoleDTO::getId)
+                        .filter(userId -> !userId.equals(ticketDTO.getRequestUserId()))
+                        .toList();
 
         ActivityLog activityLog =
                 ActivityLog.builder()
@@ -109,6 +77,6 @@ public class NewTicketCreatedNotificationEventListener {
                         .entityType(EntityType.Team)
                         .content(html)
                         .build();
-        activityLogRepository.save(activityLog);
+        notificationPipeline.submit(html, NotificationType.INFO, recipientIds, activityLog);
     }
 }
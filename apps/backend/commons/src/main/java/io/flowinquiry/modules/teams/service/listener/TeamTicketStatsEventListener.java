@@ -0,0 +1,45 @@
+package io.flowinquiry.modules.teams.service.listener;
+
+import io.flowinquiry.modules.teams.service.TeamTicketStatsService;
+import io.flowinquiry.modules.teams.service.event.NewTicketCreatedEvent;
+import io.flowinquiry.modules.teams.service.event.TicketBatchSavedEvent;
+import io.flowinquiry.modules.teams.service.event.TicketChangedEvent;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Keeps the team ticket rollup in line with the tickets once their changes commit. Workflow state
+ * transitions are ticket updates, so they reach the rollup through {@link TicketChangedEvent}. Bulk
+ * changes that skip the per ticket events publish a {@link TicketBatchSavedEvent} instead, applied
+ * as one delta per bucket.
+ */
+@Component
+public class TeamTicketStatsEventListener {
+
+    private final TeamTicketStatsService teamTicketStatsService;
+
+    public TeamTicketStatsEventListener(TeamTicketStatsService teamTicketStatsService) {
+        this.teamTicketStatsService = teamTicketStatsService;
+    }
+
+    @Async("asyncTaskExecutor")
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onNewTicketCreated(NewTicketCreatedEvent event) {
+        teamTicketStatsService.recordTicketCreated(event.getTicket());
+    }
+
+    @Async("asyncTaskExecutor")
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTicketChanged(TicketChangedEvent event) {
+        teamTicketStatsService.recordTicketChanged(
+                event.getPreviousTicket(), event.getCurrentTicket());
+    }
+
+    @Async("asyncTaskExecutor")
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTicketBatchSaved(TicketBatchSavedEvent event) {
+        teamTicketStatsService.recordTicketsChanged(
+                event.getPreviousTickets(), event.getCurrentTickets());
+    }
+}
@@ -0,0 +1,93 @@
+package io.flowinquiry.modules.teams.service.listener;
+
+import static j2html.TagCreator.a;
+import static j2html.TagCreator.p;
+import static j2html.TagCreator.text;
+
+import io.flowinquiry.modules.collab.domain.ActivityLog;
+import io.flowinquiry.modules.collab.domain.EntityType;
+import io.flowinquiry.modules.collab.domain.NotificationType;
+import io.flowinquiry.modules.collab.service.NotificationPipeline;
+import io.flowinquiry.modules.teams.domain.Team;
+import io.flowinquiry.modules.teams.repository.TeamRepository;
+import io.flowinquiry.modules.teams.service.dto.TicketDTO;
+import io.flowinquiry.modules.teams.service.dto.TicketEventMode;
+import io.flowinquiry.modules.teams.service.event.TicketBatchSavedEvent;
+import io.flowinquiry.modules.usermanagement.service.dto.UserWithTeamRoleDTO;
+import io.flowinquiry.utils.Obfuscator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Tells each team touched by a coalesced bulk create or update about it with one activity log
+ * entry and one notification per member, instead of one per ticket.
+ */
+@Component
+public class TicketBatchSavedNotificationEventListener {
+
+    private final TeamRepository teamRepository;
+    private final NotificationPipeline notificationPipeline;
+
+    public TicketBatchSavedNotificationEventListener(
+            TeamRepository teamRepository, NotificationPipeline notificationPipeline) {
+        this.teamRepository = teamRepository;
+        this.notificationPipeline = notificationPipeline;
+    }
+
+    @Async("asyncTaskExecutor")
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTicketBatchSaved(TicketBatchSavedEvent event) {
+        if (event.getEventMode() != TicketEventMode.COALESCED) {
+            return;
+        }
+
+        boolean created = event.getPreviousTickets().stream().allMatch(ticket -> ticket == null);
+        Map<Long, Long> ticketCountsByTeam =
+                event.getCurrentTickets().stream()
+                        .collect(
+                                Collectors.groupingBy(
+                                        TicketDTO::getTeamId, Collectors.counting()));
+
+        ticketCountsByTeam.forEach(
+                (teamId, ticketCount) -> {
+                    Team team = teamRepository.findById(teamId).orElse(null);
+                    if (team == null) {
+                        return;
+                    }
+
+                    String summary =
+                            ticketCount
+                                    + (ticketCount == 1 ? " ticket was " : " tickets were ")
+                                    + (created ? "created in " : "updated in ");
+                    String html =
+                            p(
+                                            text(summary),
+                                            a(team.getName())
+                                                    .withHref(
+                                                            "/portal/teams/"
+                                                                    + Obfuscator.obfuscate(teamId)
+                                                                    + "/tickets"))
+                                    .render();
+
+                    List<Long> recipientIds =
+                            teamRepository.findUsersByTeamId(teamId).stream()
+                                    .map(UserWithTeamRoleDTO::getId)
+                                    .toList();
+                    ActivityLog activityLog =
+                            ActivityLog.builder()
+                                    .entityId(teamId)
+                                    .entityType(EntityType.Team)
+                                    .content(html)
+                                    .build();
+                    notificationPipeline.submit(
+                            html, NotificationType.INFO, recipientIds, activityLog);
+                });
+    }
+}
@@ -13,6 +13,7 @@ import io.flowinquiry.modules.teams.service.TicketService;
 import io.flowinquiry.modules.teams.service.dto.TicketDTO;
 import io.flowinquiry.modules.teams.service.event.TicketCommentCreatedEvent;
 import io.flowinquiry.modules.usermanagement.service.mapper.UserMapper;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 import org.springframework.context.MessageSource;
@@ -69,15 +70,16 @@ public class TicketCommentCreatedMailEventListener {
         TicketDTO ticketDTO = ticketService.getTicketById(commentDTO.getEntityId());
 
         if (!watchers.isEmpty()) {
+            String ticketPath = buildTicketPath(ticketDTO);
+            // One batch, so the email is rendered once for all watchers
+            List<EmailContext> emails = new ArrayList<>(watchers.size());
             for (EntityWatcher watcher : watchers) {
                 // Skip sending email if the watcher is the comment creator
                 if (watcher.getId().equals(commentDTO.getCreatedById())) {
                     continue;
                 }
 
-                String ticketPath = buildTicketPath(ticketDTO);
-
-                EmailContext emailContext =
+                emails.add(
                         new EmailContext(
                                         Locale.forLanguageTag("en"),
                                         mailService.getBaseUrl(),
@@ -89,9 +91,10 @@ public class TicketCommentCreatedMailEventListener {
                                 .addVariable("ticket", ticketDTO)
                                 .addVariable("comment", commentDTO)
                                 .addVariable("ticketPath", ticketPath)
-                                .setTemplate("mail/newTicketCommentEmail");
-
-                mailService.sendEmail(emailContext);
+                                .setTemplate("mail/newTicketCommentEmail"));
+            }
+            if (!emails.isEmpty()) {
+                mailService.sendEmails(emails);
             }
         }
     }
@@ -8,10 +8,8 @@ import static j2html.TagCreator.text;
 import io.flowinquiry.exceptions.ResourceNotFoundException;
 import io.flowinquiry.modules.collab.domain.ActivityLog;
 import io.flowinquiry.modules.collab.domain.EntityType;
-import io.flowinquiry.modules.collab.domain.Notification;
 import io.flowinquiry.modules.collab.domain.NotificationType;
-import io.flowinquiry.modules.collab.repository.ActivityLogRepository;
-import io.flowinquiry.modules.collab.repository.NotificationRepository;
+import io.flowinquiry.modules.collab.service.NotificationPipeline;
 import io.flowinquiry.modules.collab.service.dto.CommentDTO;
 import io.flowinquiry.modules.teams.repository.TeamRepository;
 import io.flowinquiry.modules.teams.service.TicketService;
@@ -22,10 +20,8 @@ import io.flowinquiry.modules.usermanagement.repository.UserRepository;
 import io.flowinquiry.modules.usermanagement.service.dto.UserWithTeamRoleDTO;
 import io.flowinquiry.utils.Obfuscator;
 import io.flowinquiry.utils.StringUtils;
-import java.util.ArrayList;
 import java.util.List;
 import org.springframework.context.event.EventListener;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
@@ -33,26 +29,20 @@ import org.springframework.transaction.annotation.Transactional;
 @Component
 public class TicketCommentCreatedNotificationEventListener {
 
-    private final SimpMessagingTemplate messageTemplate;
     private final UserRepository userRepository;
     private final TicketService ticketService;
     private final TeamRepository teamRepository;
-    private final NotificationRepository notificationRepository;
-    private final ActivityLogRepository activityLogRepository;
+    private final NotificationPipeline notificationPipeline;
 
     public TicketCommentCreatedNotificationEventListener(
-            SimpMessagingTemplate messageTemplate,
             UserRepository userRepository,
             TicketService ticketService,
             TeamRepository teamRepository,
-            NotificationRepository notificationRepository,
-            ActivityLogRepository activityLogRepository) {
-        this.messageTemplate = messageTemplate;
+            NotificationPipeline notificationPipeline) {
         this.userRepository = userRepository;
         this.ticketService = ticketService;
         this.teamRepository = teamRepository;
-        this.notificationRepository = notificationRepository;
-        this.activityLogRepository = activityLogRepository;
+        this.notificationPipeline = notificationPipeline;
     }
 
     @Async("asyncTaskExecutor")
@@ -88,33 +78,11 @@ public class TicketCommentCreatedNotificationEventListener {
                                 text(": " + truncatedContent))
                         .render();
 
-        List<UserWithTeamRoleDTO> usersInTeam =
-                teamRepository.findUsersByTeamId(ticket.getTeamId());
-
-        List<Notification> notifications = new ArrayList<>();
-
-        for (UserWithTeamRoleDTO user : usersInTeam) {
-            if (!user.getId().equals(commentDTO.getCreatedById())) {
-                Notification notification =
-                        Notification.builder()
-                                .content(html)
-                                .type(NotificationType.INFO)
-                                .user(User.builder().id(user.getId()).build())
-                                .isRead(false)
-                                .build();
-
-                notifications.add(notification);
-            }
-        }
-
-        List<Notification> savedNotifications = notificationRepository.saveAll(notifications);
-
-        for (Notification notification : savedNotifications) {
-            messageTemplate.convertAndSendToUser(
-                    String.valueOf(notification.getUser().getId()),
-                    "/queue/notifications",
-                    notification);
-        }
+        List<Long> recipientIds =
+                teamRepository.findUsersByTeamId(ticket.getTeamId()).stream()
+                        .map(UserWithTeamRoleDTO::getId)
+                        .filter(userId -> !userId.equals(commentDTO.getCreatedById()))
+                        .toList();
 
         ActivityLog activityLog =
                 ActivityLog.builder()
@@ -122,6 +90,6 @@ public class TicketCommentCreatedNotificationEventListener {
                         .entityType(EntityType.Team)
                         .content(html)
                         .build();
-        activityLogRepository.save(activityLog);
+        notificationPipeline.submit(html, NotificationType.INFO, recipientIds, activityLog);
     }
 }
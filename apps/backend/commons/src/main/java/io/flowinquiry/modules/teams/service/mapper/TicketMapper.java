@@ -5,6 +5,7 @@ import io.flowinquiry.modules.teams.domain.Ticket;
 import io.flowinquiry.modules.teams.service.dto.TicketDTO;
 import io.flowinquiry.modules.usermanagement.domain.User;
 import io.flowinquiry.utils.BaseMapper;
+import org.mapstruct.InheritConfiguration;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.MappingTarget;
@@ -46,6 +47,15 @@ public interface TicketMapper extends BaseMapper {
                     "java(ticket.getChildTickets() == null ? null : ticket.getChildTickets().stream().map(Ticket::getId).toList())")
     TicketDTO toDto(Ticket ticket);
 
+    /**
+     * Maps a ticket without its child ticket ids, for lists of tickets whose child ids are fetched
+     * with one query, see {@code TicketRepository#findChildTicketIds}.
+     */
+    @Named("toDtoWithoutChildTickets")
+    @InheritConfiguration(name = "toDto")
+    @Mapping(target = "childTicketIds", ignore = true)
+    TicketDTO toDtoWithoutChildTickets(Ticket ticket);
+
     @Mapping(target = "team", source = "teamId", qualifiedByName = "toTeam")
     @Mapping(
             target = "workflow",
@@ -0,0 +1,42 @@
+package io.flowinquiry.modules.teams.service.search;
+
+import io.flowinquiry.modules.teams.domain.TicketPriority;
+
+/** The fields of a ticket kept by the {@link TicketSearchIndex}. */
+public record TicketSearchDocument(
+        Long ticketId,
+        Long teamId,
+        String title,
+        String description,
+        String state,
+        String priority,
+        String assignee) {
+
+    /** Used by the streamed read of the tickets, with the assignee as in {@code TicketMapper}. */
+    public TicketSearchDocument(
+            Long ticketId,
+            Long teamId,
+            String title,
+            String description,
+            String state,
+            TicketPriority priority,
+            String assigneeFirstName,
+            String assigneeLastName) {
+        this(
+                ticketId,
+                teamId,
+                title,
+                description,
+                state,
+                priority != null ? priority.name() : null,
+                fullName(assigneeFirstName, assigneeLastName));
+    }
+
+    private static String fullName(String firstName, String lastName) {
+        if (firstName == null && lastName == null) {
+            return null;
+        }
+        return ((firstName != null ? firstName : "") + " " + (lastName != null ? lastName : ""))
+                .trim();
+    }
+}
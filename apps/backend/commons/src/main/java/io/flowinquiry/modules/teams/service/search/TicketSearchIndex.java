@@ -0,0 +1,568 @@
+package io.flowinquiry.modules.teams.service.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * An in-memory inverted index of the tickets, answering type-ahead searches and the facet counts
+ * of their results without a round trip to the database.
+ *
+ * <p>Each ticket is a document numbered in the order it was added. The words of its title,
+ * description and comments are the terms of the document, and the postings of a term are the
+ * numbers of the documents holding it, kept sorted in a plain {@code int} array. A changed ticket
+ * is removed and added again with a new number, so postings are only ever appended to. Removed
+ * documents are dropped from the postings once they outnumber the live ones.
+ *
+ * <p>The index is safe for concurrent use: searches run in parallel, changes one at a time.
+ */
+public final class TicketSearchIndex {
+
+    public static final String STATE_FACET = "state";
+
+    public static final String PRIORITY_FACET = "priority";
+
+    public static final String ASSIGNEE_FACET = "assignee";
+
+    static final int MIN_TERM_LENGTH = 2;
+
+    static final int MAX_TERM_LENGTH = 40;
+
+    // Facet values returned per search, the most frequent ones
+    static final int MAX_FACET_VALUES = 20;
+
+    private static final int MIN_REMOVED_TO_COMPACT = 1024;
+
+    private static final int[] NO_TERMS = new int[0];
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Sorted, so the terms starting with a prefix are a range of the dictionary
+    private final TreeMap<String, Integer> termOrdinals = new TreeMap<>();
+
+    private final List<Postings> postings = new ArrayList<>();
+
+    private final Facet states = new Facet();
+
+    private final Facet priorities = new Facet();
+
+    private final Facet assignees = new Facet();
+
+    // Indexed by document number, null once the document is removed
+    private final List<Entry> entries = new ArrayList<>();
+
+    private final Map<Long, Integer> documentsByTicket = new HashMap<>();
+
+    // Comment terms of tickets not indexed yet, the rebuild reads the comments first
+    private final Map<Long, int[]> pendingCommentTerms = new HashMap<>();
+
+    private int removed;
+
+    /** Adds a ticket, or replaces it when it is indexed already. Its comments are kept. */
+    public void put(TicketSearchDocument document) {
+        lock.writeLock().lock();
+        try {
+            Long ticketId = document.ticketId();
+            int[] commentTerms = pendingCommentTerms.remove(ticketId);
+            Entry previous = removeEntry(ticketId);
+            if (previous != null) {
+                commentTerms = previous.commentTerms();
+            }
+            int[] textTerms =
+                    union(termOrdinals(document.title()), termOrdinals(document.description()));
+            append(
+                    new Entry(
+                            ticketId,
+                            document.teamId(),
+                            document.title(),
+                            textTerms,
+                            commentTerms != null ? commentTerms : NO_TERMS,
+                            states.ordinal(document.state()),
+                            priorities.ordinal(document.priority()),
+                            assignees.ordinal(document.assignee())));
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Adds the words of a comment to the terms of its ticket. */
+    public void addComment(Long ticketId, String content) {
+        lock.writeLock().lock();
+        try {
+            int[] terms = termOrdinals(content);
+            Integer document = documentsByTicket.get(ticketId);
+            if (document == null) {
+                pendingCommentTerms.merge(ticketId, terms, TicketSearchIndex::union);
+                return;
+            }
+            Entry entry = entries.get(document);
+            int[] commentTerms = union(entry.commentTerms(), terms);
+            if (commentTerms.length == entry.commentTerms().length) {
+                return;
+            }
+            removeEntry(ticketId);
+            append(entry.withCommentTerms(commentTerms));
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Removes a ticket and its comments. */
+    public void remove(Long ticketId) {
+        lock.writeLock().lock();
+        try {
+            pendingCommentTerms.remove(ticketId);
+            removeEntry(ticketId);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Searches the tickets holding all the words of a query, the last word matching as a prefix
+     * while it is being typed. The most recently changed tickets come first.
+     *
+     * @param query the words to search, all tickets when it has none
+     * @param teamId the team of the tickets, {@code null} to search all teams
+     * @param limit the maximum number of hits returned, the total and facets count all matches
+     * @return the hits and the number of matching tickets per state, priority and assignee
+     */
+    public Result search(String query, Long teamId, int limit) {
+        List<String> words = tokenize(query);
+        // The last word is still being typed unless the query ends with a separator
+        String last = words.isEmpty() ? null : words.get(words.size() - 1);
+        boolean typing =
+                last != null
+                        && query.regionMatches(
+                                true, query.length() - last.length(), last, 0, last.length());
+        lock.readLock().lock();
+        try {
+            Postings driver = null;
+            List<Postings> required = new ArrayList<>();
+            for (String word : typing ? words.subList(0, words.size() - 1) : words) {
+                Integer ordinal = termOrdinals.get(word);
+                if (ordinal == null) {
+                    return Result.EMPTY;
+                }
+                Postings termPostings = postings.get(ordinal);
+                if (driver == null || termPostings.size < driver.size) {
+                    driver = termPostings;
+                }
+                required.add(termPostings);
+            }
+            BitSet prefixed = typing ? prefixMatches(last) : null;
+            if (prefixed != null && prefixed.isEmpty()) {
+                return Result.EMPTY;
+            }
+
+            Collector collector = new Collector(teamId, limit);
+            if (driver != null) {
+                for (int i = driver.size - 1; i >= 0; i--) {
+                    int document = driver.values[i];
+                    if ((prefixed == null || prefixed.get(document))
+                            && containsAll(required, driver, document)) {
+                        collector.collect(entries.get(document));
+                    }
+                }
+            } else if (prefixed != null) {
+                for (int document = prefixed.length() - 1;
+                        document >= 0;
+                        document = prefixed.previousSetBit(document - 1)) {
+                    collector.collect(entries.get(document));
+                }
+            } else {
+                for (int document = entries.size() - 1; document >= 0; document--) {
+                    collector.collect(entries.get(document));
+                }
+            }
+            return collector.result();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Returns the number of indexed tickets. */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documentsByTicket.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Returns the number of distinct terms of the indexed tickets and comments. */
+    public int termCount() {
+        lock.readLock().lock();
+        try {
+            return termOrdinals.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns an estimate of the heap used by the index, assuming compressed object pointers and
+     * compact strings. It is meant to size the heap, not as an exact measure.
+     */
+    public long estimatedSizeInBytes() {
+        lock.readLock().lock();
+        try {
+            long bytes = 0;
+            for (Map.Entry<String, Integer> term : termOrdinals.entrySet()) {
+                // Tree map entry, boxed ordinal and string with its array
+                bytes += 40 + 16 + stringSize(term.getKey());
+            }
+            for (Postings termPostings : postings) {
+                bytes += 24 + arraySize(termPostings.values.length);
+            }
+            for (Entry entry : entries) {
+                bytes += 4;
+                if (entry != null) {
+                    bytes += 40 + stringSize(entry.title());
+                    bytes += arraySize(entry.textTerms().length);
+                    bytes += arraySize(entry.commentTerms().length);
+                }
+            }
+            // Hash map entries with their boxed keys and values
+            bytes += (long) documentsByTicket.size() * (32 + 16 + 16);
+            for (int[] terms : pendingCommentTerms.values()) {
+                bytes += 32 + 16 + arraySize(terms.length);
+            }
+            return bytes + states.size() + priorities.size() + assignees.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Splits a text into lower case words of letters and digits. HTML tags and character
+     * references of rich text descriptions and comments are skipped, and words too short or too
+     * long to be searched for are dropped.
+     */
+    static List<String> tokenize(String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null) {
+            return words;
+        }
+        StringBuilder word = new StringBuilder();
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                word.append(Character.toLowerCase(c));
+                continue;
+            }
+            addWord(words, word);
+            if (c == '<') {
+                int end = text.indexOf('>', i);
+                if (end > 0) {
+                    i = end;
+                }
+            } else if (c == '&') {
+                i = skipCharacterReference(text, i);
+            }
+        }
+        addWord(words, word);
+        return words;
+    }
+
+    private static void addWord(List<String> words, StringBuilder word) {
+        if (word.length() >= MIN_TERM_LENGTH && word.length() <= MAX_TERM_LENGTH) {
+            words.add(word.toString());
+        }
+        word.setLength(0);
+    }
+
+    // Returns the index of the ';' ending a reference like &amp; or &#39;, or i when there is none
+    private static int skipCharacterReference(String text, int i) {
+        int end = Math.min(text.length(), i + 10);
+        for (int j = i + 1; j < end; j++) {
+            char c = text.charAt(j);
+            if (c == ';') {
+                return j > i + 1 ? j : i;
+            }
+            if (!Character.isLetterOrDigit(c) && c != '#') {
+                return i;
+            }
+        }
+        return i;
+    }
+
+    private int[] termOrdinals(String text) {
+        List<String> words = tokenize(text);
+        int[] ordinals = new int[words.size()];
+        for (int i = 0; i < ordinals.length; i++) {
+            ordinals[i] =
+                    termOrdinals.computeIfAbsent(
+                            words.get(i),
+                            word -> {
+                                postings.add(new Postings());
+                                return postings.size() - 1;
+                            });
+        }
+        Arrays.sort(ordinals);
+        return distinct(ordinals);
+    }
+
+    private BitSet prefixMatches(String prefix) {
+        BitSet documents = new BitSet(entries.size());
+        for (int ordinal :
+                termOrdinals.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+            Postings termPostings = postings.get(ordinal);
+            for (int i = 0; i < termPostings.size; i++) {
+                documents.set(termPostings.values[i]);
+            }
+        }
+        return documents;
+    }
+
+    private static boolean containsAll(List<Postings> required, Postings driver, int document) {
+        for (Postings termPostings : required) {
+            if (termPostings != driver
+                    && Arrays.binarySearch(termPostings.values, 0, termPostings.size, document)
+                            < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void append(Entry entry) {
+        int document = entries.size();
+        entries.add(entry);
+        documentsByTicket.put(entry.ticketId(), document);
+        addPostings(entry, document);
+    }
+
+    private void addPostings(Entry entry, int document) {
+        // The document number is the highest yet, appending keeps the postings sorted
+        for (int ordinal : union(entry.textTerms(), entry.commentTerms())) {
+            postings.get(ordinal).add(document);
+        }
+    }
+
+    private Entry removeEntry(Long ticketId) {
+        Integer document = documentsByTicket.remove(ticketId);
+        if (document == null) {
+            return null;
+        }
+        removed++;
+        return entries.set(document, null);
+    }
+
+    private void compactIfNeeded() {
+        if (removed < MIN_REMOVED_TO_COMPACT || removed <= documentsByTicket.size()) {
+            return;
+        }
+        List<Entry> live = new ArrayList<>(documentsByTicket.size());
+        for (Entry entry : entries) {
+            if (entry != null) {
+                live.add(entry);
+            }
+        }
+        postings.forEach(Postings::clear);
+        entries.clear();
+        documentsByTicket.clear();
+        removed = 0;
+        live.forEach(this::append);
+    }
+
+    private static int[] union(int[] left, int[] right) {
+        int[] merged = new int[left.length + right.length];
+        int i = 0;
+        int j = 0;
+        int size = 0;
+        while (i < left.length || j < right.length) {
+            int next;
+            if (j == right.length || (i < left.length && left[i] <= right[j])) {
+                next = left[i++];
+            } else {
+                next = right[j++];
+            }
+            if (size == 0 || merged[size - 1] != next) {
+                merged[size++] = next;
+            }
+        }
+        return size == merged.length ? merged : Arrays.copyOf(merged, size);
+    }
+
+    private static int[] distinct(int[] sorted) {
+        return union(sorted, NO_TERMS);
+    }
+
+    private static long stringSize(String value) {
+        // String header and fields, and a byte array of one byte per Latin-1 character
+        return value == null ? 0 : 24 + 16 + value.length();
+    }
+
+    private static long arraySize(int length) {
+        return 16 + 4L * length;
+    }
+
+    /** A ticket matching a search. */
+    public record Hit(Long ticketId, Long teamId, String title) {}
+
+    /**
+     * The first hits of a search, the number of matching tickets and their number per value of
+     * each facet, for the {@value #MAX_FACET_VALUES} most frequent values.
+     */
+    public record Result(int total, List<Hit> hits, Map<String, Map<String, Integer>> facets) {
+
+        static final Result EMPTY =
+                new Result(
+                        0,
+                        List.of(),
+                        Map.of(
+                                STATE_FACET,
+                                Map.of(),
+                                PRIORITY_FACET,
+                                Map.of(),
+                                ASSIGNEE_FACET,
+                                Map.of()));
+    }
+
+    private record Entry(
+            Long ticketId,
+            Long teamId,
+            String title,
+            int[] textTerms,
+            int[] commentTerms,
+            int state,
+            int priority,
+            int assignee) {
+
+        Entry withCommentTerms(int[] terms) {
+            return new Entry(
+                    ticketId, teamId, title, textTerms, terms, state, priority, assignee);
+        }
+    }
+
+    private static final class Postings {
+
+        private int[] values = new int[4];
+
+        private int size;
+
+        void add(int document) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = document;
+        }
+
+        void clear() {
+            size = 0;
+        }
+    }
+
+    /** The distinct values of a facet, numbered so the documents keep an {@code int}. */
+    private static final class Facet {
+
+        private final Map<String, Integer> ordinals = new HashMap<>();
+
+        private final List<String> values = new ArrayList<>();
+
+        int ordinal(String value) {
+            if (value == null) {
+                return -1;
+            }
+            return ordinals.computeIfAbsent(
+                    value,
+                    v -> {
+                        values.add(v);
+                        return values.size() - 1;
+                    });
+        }
+
+        long size() {
+            long bytes = 0;
+            for (String value : values) {
+                bytes += 32 + 16 + 4 + stringSize(value);
+            }
+            return bytes;
+        }
+
+        Map<String, Integer> counts(int[] counts) {
+            List<Integer> ordered = new ArrayList<>();
+            for (int ordinal = 0; ordinal < counts.length; ordinal++) {
+                if (counts[ordinal] > 0) {
+                    ordered.add(ordinal);
+                }
+            }
+            ordered.sort(
+                    (left, right) ->
+                            counts[left] != counts[right]
+                                    ? Integer.compare(counts[right], counts[left])
+                                    : values.get(left).compareTo(values.get(right)));
+            Map<String, Integer> result = new LinkedHashMap<>();
+            for (int ordinal : ordered.subList(0, Math.min(ordered.size(), MAX_FACET_VALUES))) {
+                result.put(values.get(ordinal), counts[ordinal]);
+            }
+            return result;
+        }
+    }
+
+    private final class Collector {
+
+        private final Long teamId;
+
+        private final int limit;
+
+        private final List<Hit> hits = new ArrayList<>();
+
+        private final int[] stateCounts = new int[states.values.size()];
+
+        private final int[] priorityCounts = new int[priorities.values.size()];
+
+        private final int[] assigneeCounts = new int[assignees.values.size()];
+
+        private int total;
+
+        Collector(Long teamId, int limit) {
+            this.teamId = teamId;
+            this.limit = limit;
+        }
+
+        void collect(Entry entry) {
+            if (entry == null || (teamId != null && !teamId.equals(entry.teamId()))) {
+                return;
+            }
+            total++;
+            if (hits.size() < limit) {
+                hits.add(new Hit(entry.ticketId(), entry.teamId(), entry.title()));
+            }
+            count(stateCounts, entry.state());
+            count(priorityCounts, entry.priority());
+            count(assigneeCounts, entry.assignee());
+        }
+
+        Result result() {
+            return new Result(
+                    total,
+                    hits,
+                    Map.of(
+                            STATE_FACET,
+                            states.counts(stateCounts),
+                            PRIORITY_FACET,
+                            priorities.counts(priorityCounts),
+                            ASSIGNEE_FACET,
+                            assignees.counts(assigneeCounts)));
+        }
+
+        private static void count(int[] counts, int ordinal) {
+            if (ordinal >= 0) {
+                counts[ordinal]++;
+            }
+        }
+    }
+}
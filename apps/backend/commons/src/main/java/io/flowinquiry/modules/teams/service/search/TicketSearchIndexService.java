@@ -0,0 +1,311 @@
+package io.flowinquiry.modules.teams.service.search;
+
+import io.flowinquiry.modules.collab.domain.EntityType;
+import io.flowinquiry.modules.collab.repository.CommentRepository;
+import io.flowinquiry.modules.collab.service.dto.CommentContentDTO;
+import io.flowinquiry.modules.collab.service.dto.CommentDTO;
+import io.flowinquiry.modules.teams.repository.TicketRepository;
+import io.flowinquiry.modules.teams.service.dto.TicketDTO;
+import io.flowinquiry.modules.teams.service.event.NewTicketCreatedEvent;
+import io.flowinquiry.modules.teams.service.event.TicketBatchSavedEvent;
+import io.flowinquiry.modules.teams.service.event.TicketChangedEvent;
+import io.flowinquiry.modules.teams.service.event.TicketCommentCreatedEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Keeps a {@link TicketSearchIndex} of the tickets in memory, for the instant search of the ticket
+ * board. Enabled with {@code flowinquiry.search.in-memory.enabled}, the index holds every ticket
+ * of the instance, so its size is published in {@code flowinquiry.search.index.bytes}.
+ *
+ * <p>The index is built on startup and every night with a streamed read of the tickets and their
+ * comments, and kept up to date in between from the ticket and comment events once their
+ * transaction commits. Comments edited or deleted are only reflected by the nightly rebuild.
+ *
+ * <p>Each instance keeps its own index. The ids of the tickets and comments changed on one
+ * instance are relayed over a Redis topic, and the other instances read them again from the
+ * database.
+ * The topic shares the Redisson client of the Redis second level cache; without it the
+ * application is assumed to run as a single instance and nothing is relayed.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "flowinquiry.search.in-memory.enabled", havingValue = "true")
+public class TicketSearchIndexService {
+
+    public static final int MAX_RESULTS = 100;
+
+    private static final String TOPIC = "flowinquiry:ticket-search-index";
+
+    private static final String SEPARATOR = "\n";
+
+    private static final String TICKETS = "tickets";
+
+    private static final String COMMENT = "comment";
+
+    private final TicketRepository ticketRepository;
+
+    private final CommentRepository commentRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ObjectProvider<RedissonClient> redissonClient;
+
+    private final String instanceId = UUID.randomUUID().toString();
+
+    private final Object changeLock = new Object();
+
+    private volatile TicketSearchIndex index = new TicketSearchIndex();
+
+    // Changes applied while a rebuild runs, replayed on the rebuilt index; guarded by changeLock
+    private List<Consumer<TicketSearchIndex>> pendingChanges;
+
+    private RTopic topic;
+
+    private int listenerId;
+
+    public TicketSearchIndexService(
+            TicketRepository ticketRepository,
+            CommentRepository commentRepository,
+            PlatformTransactionManager transactionManager,
+            ObjectProvider<RedissonClient> redissonClient,
+            MeterRegistry meterRegistry) {
+        this.ticketRepository = ticketRepository;
+        this.commentRepository = commentRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.redissonClient = redissonClient;
+        Gauge.builder("flowinquiry.search.index.documents", this, s -> s.index.size())
+                .description("Number of tickets in the in-memory search index")
+                .register(meterRegistry);
+        Gauge.builder(
+                        "flowinquiry.search.index.bytes",
+                        this,
+                        s -> s.index.estimatedSizeInBytes())
+                .description("Estimated heap used by the in-memory search index")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Searches the tickets as they are typed, see {@link TicketSearchIndex#search}.
+     *
+     * @param query the words to search
+     * @param teamId the team of the tickets, {@code null} to search all teams
+     * @param size the maximum number of hits, at most {@link #MAX_RESULTS}
+     * @return the first hits, the number of matching tickets and their facet counts
+     */
+    public TicketSearchIndex.Result search(String query, Long teamId, int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Result size must be positive");
+        }
+        return index.search(query, teamId, Math.min(size, MAX_RESULTS));
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        RedissonClient client = redissonClient.getIfAvailable();
+        if (client == null) {
+            return;
+        }
+        topic = client.getTopic(TOPIC, StringCodec.INSTANCE);
+        listenerId = topic.addListener(String.class, (channel, message) -> onMessage(message));
+        log.info("Relaying ticket search index changes over the Redis topic {}", TOPIC);
+    }
+
+    @PreDestroy
+    public void unsubscribe() {
+        if (topic != null) {
+            topic.removeListener(listenerId);
+        }
+    }
+
+    /**
+     * Rebuilds the index from the database, searches use the previous index meanwhile. The index
+     * is optional, so a failed rebuild is logged and the previous index, empty on startup, kept.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "0 45 0 * * ?")
+    public void rebuild() {
+        synchronized (changeLock) {
+            if (pendingChanges != null) {
+                log.debug("The ticket search index is already being rebuilt");
+                return;
+            }
+            pendingChanges = new ArrayList<>();
+        }
+        long start = System.nanoTime();
+        TicketSearchIndex rebuilt = new TicketSearchIndex();
+        try {
+            transactionTemplate.executeWithoutResult(
+                    status -> {
+                        // Comments first, the index keeps them until their ticket is added
+                        try (Stream<CommentContentDTO> comments =
+                                commentRepository.streamContentsByEntityType(EntityType.Ticket)) {
+                            comments.forEach(
+                                    comment ->
+                                            rebuilt.addComment(
+                                                    comment.getEntityId(), comment.getContent()));
+                        }
+                        try (Stream<TicketSearchDocument> tickets =
+                                ticketRepository.streamSearchDocuments()) {
+                            tickets.forEach(rebuilt::put);
+                        }
+                    });
+        } catch (RuntimeException e) {
+            synchronized (changeLock) {
+                pendingChanges = null;
+            }
+            log.error("Failed to rebuild the ticket search index, keeping the previous one", e);
+            return;
+        }
+        synchronized (changeLock) {
+            pendingChanges.forEach(change -> change.accept(rebuilt));
+            pendingChanges = null;
+            index = rebuilt;
+        }
+        log.info(
+                "Rebuilt the ticket search index of {} tickets and {} terms in {} ms, about {} KB",
+                rebuilt.size(),
+                rebuilt.termCount(),
+                (System.nanoTime() - start) / 1_000_000,
+                rebuilt.estimatedSizeInBytes() / 1024);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onNewTicketCreated(NewTicketCreatedEvent event) {
+        List<Long> ticketIds = List.of(event.getTicket().getId());
+        reindex(ticketIds);
+        relay(TICKETS, ticketIds);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTicketChanged(TicketChangedEvent event) {
+        TicketDTO ticket = event.getCurrentTicket();
+        if (ticket == null) {
+            Long ticketId = event.getPreviousTicket().getId();
+            apply(target -> target.remove(ticketId));
+            relay(TICKETS, List.of(ticketId));
+        } else {
+            List<Long> ticketIds = List.of(ticket.getId());
+            reindex(ticketIds);
+            relay(TICKETS, ticketIds);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTicketBatchSaved(TicketBatchSavedEvent event) {
+        List<Long> ticketIds = event.getCurrentTickets().stream().map(TicketDTO::getId).toList();
+        reindex(ticketIds);
+        relay(TICKETS, ticketIds);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTicketCommentCreated(TicketCommentCreatedEvent event) {
+        CommentDTO comment = event.getCommentDTO();
+        apply(target -> target.addComment(comment.getEntityId(), comment.getContent()));
+        relay(COMMENT, List.of(comment.getId()));
+    }
+
+    /** Tells the other instances which tickets or comments to read again. */
+    private void relay(String kind, List<Long> ids) {
+        if (topic == null || ids.isEmpty()) {
+            return;
+        }
+        String message =
+                ids.stream()
+                        .map(String::valueOf)
+                        .collect(
+                                Collectors.joining(
+                                        SEPARATOR, instanceId + SEPARATOR + kind + SEPARATOR, ""));
+        try {
+            topic.publish(message);
+        } catch (RuntimeException e) {
+            log.warn("Can not relay the change of {} {} to the search index", kind, ids, e);
+        }
+    }
+
+    private void onMessage(String message) {
+        String[] parts = message.split(SEPARATOR);
+        if (parts[0].equals(instanceId)) {
+            return;
+        }
+        List<Long> ids = Arrays.stream(parts, 2, parts.length).map(Long::valueOf).toList();
+        try {
+            if (TICKETS.equals(parts[1])) {
+                reindex(ids);
+            } else if (COMMENT.equals(parts[1])) {
+                commentRepository
+                        .findAllById(ids)
+                        .forEach(
+                                comment ->
+                                        apply(
+                                                target ->
+                                                        target.addComment(
+                                                                comment.getEntityId(),
+                                                                comment.getContent())));
+            }
+        } catch (RuntimeException e) {
+            log.warn(
+                    "Failed to index the {} {} changed on instance {}", parts[1], ids, parts[0], e);
+        }
+    }
+
+    private void apply(Consumer<TicketSearchIndex> change) {
+        synchronized (changeLock) {
+            change.accept(index);
+            if (pendingChanges != null) {
+                pendingChanges.add(change);
+            }
+        }
+    }
+
+    /**
+     * Indexes the tickets as they are stored. The tickets of the events are mapped from entities
+     * whose state and assignee are only references, without the names of the facets, so the
+     * indexed fields are read again. They are read under the change lock, so the last committed
+     * version of a ticket is the one indexed.
+     */
+    private void reindex(List<Long> ticketIds) {
+        synchronized (changeLock) {
+            Map<Long, TicketSearchDocument> documents = new HashMap<>();
+            ticketRepository
+                    .findSearchDocumentsByIdIn(ticketIds)
+                    .forEach(document -> documents.put(document.ticketId(), document));
+            apply(
+                    target ->
+                            ticketIds.forEach(
+                                    ticketId -> {
+                                        TicketSearchDocument document = documents.get(ticketId);
+                                        if (document != null) {
+                                            target.put(document);
+                                        } else {
+                                            target.remove(ticketId);
+                                        }
+                                    }));
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package io.flowinquiry.modules.usermanagement.controller;
 
 import io.flowinquiry.exceptions.ResourceNotFoundException;
+import io.flowinquiry.modules.fss.service.ImageDerivativeWorker;
 import io.flowinquiry.modules.fss.service.StorageService;
 import io.flowinquiry.modules.fss.service.event.ResourceRemoveEvent;
 import io.flowinquiry.modules.usermanagement.AuthoritiesConstants;
@@ -11,7 +12,6 @@ import io.flowinquiry.modules.usermanagement.service.UserService;
 import io.flowinquiry.modules.usermanagement.service.dto.ResourcePermissionDTO;
 import io.flowinquiry.modules.usermanagement.service.dto.UserDTO;
 import io.flowinquiry.modules.usermanagement.service.dto.UserHierarchyDTO;
-import io.flowinquiry.modules.usermanagement.service.mapper.UserMapper;
 import io.flowinquiry.query.Filter;
 import io.flowinquiry.query.QueryDTO;
 import jakarta.validation.Valid;
@@ -63,19 +63,19 @@ public class PublicUserController {
     private final UserService userService;
     private final ApplicationEventPublisher eventPublisher;
     private final StorageService storageService;
-    private final UserMapper userMapper;
+    private final ImageDerivativeWorker imageDerivativeWorker;
 
     public PublicUserController(
             UserService userService,
             UserRepository userRepository,
             ApplicationEventPublisher eventPublisher,
             StorageService storageService,
-            UserMapper userMapper) {
+            ImageDerivativeWorker imageDerivativeWorker) {
         this.userService = userService;
         this.userRepository = userRepository;
         this.eventPublisher = eventPublisher;
         this.storageService = storageService;
-        this.userMapper = userMapper;
+        this.imageDerivativeWorker = imageDerivativeWorker;
     }
 
     /**
@@ -152,6 +152,12 @@ public class PublicUserController {
         }
 
         UserDTO updatedUser = userService.updateUser(userDTO);
+        if (avatarFile != null && !avatarFile.isEmpty()) {
+            // The avatar is converted in the background, a failed conversion leaves no file
+            String avatarPath = userDTO.getImageUrl();
+            imageDerivativeWorker.whenFailed(
+                    avatarPath, () -> userRepository.clearImageUrl(avatarPath));
+        }
         fileRemovedPath.ifPresent(
                 s -> eventPublisher.publishEvent(new ResourceRemoveEvent(this, s)));
         return ResponseEntity.ok(updatedUser);
@@ -247,9 +253,7 @@ public class PublicUserController {
     @GetMapping("/search-by-term")
     public List<UserDTO> searchUsers(@RequestParam("term") String userTerm) {
         PageRequest pageRequest = PageRequest.of(0, 10, Sort.by("lastName").ascending());
-        return userService.searchUsers(userTerm, pageRequest).getContent().stream()
-                .map(userMapper::toDto)
-                .toList();
+        return userService.searchUsers(userTerm, pageRequest).getContent();
     }
 
     @PatchMapping("/locale")
@@ -22,4 +22,17 @@ public interface AuthorityResourcePermissionRepository
                     + "AND arp.authorityName = :authorityName")
     List<AuthorityResourcePermission> findAllByAuthorityName(
             @Param("authorityName") String authorityName);
+
+    /**
+     * Returns every permission an authority grants on a resource, without loading the related
+     * authorities and resources.
+     */
+    @Query(
+            "SELECT new io.flowinquiry.modules.usermanagement.domain.AuthorityResourcePermission( "
+                    + "    arp.authorityName, "
+                    + "    arp.resourceName, "
+                    + "    CAST(arp.permission AS integer) "
+                    + ") "
+                    + "FROM AuthorityResourcePermission arp")
+    List<AuthorityResourcePermission> findAllGrants();
 }
@@ -1,6 +1,12 @@
 package io.flowinquiry.modules.usermanagement.repository;
 
 import io.flowinquiry.modules.usermanagement.domain.Resource;
+import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
-public interface ResourceRepository extends JpaRepository<Resource, String> {}
+public interface ResourceRepository extends JpaRepository<Resource, String> {
+
+    @Query("SELECT r.name FROM Resource r ORDER BY r.name")
+    List<String> findAllNames();
+}
@@ -5,6 +5,7 @@ import io.flowinquiry.modules.usermanagement.service.dto.UserHierarchyDTO;
 import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
@@ -44,6 +45,7 @@ public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificat
      * @param pageable The pagination information
      * @return Page of users matching the search criteria
      */
+    @EntityGraph(attributePaths = {"manager"})
     @Query(
             "SELECT u FROM User u WHERE "
                     + "(LOWER(u.firstName) LIKE LOWER(CONCAT('%', :userTerm, '%')) OR "
@@ -60,6 +62,7 @@ public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificat
      */
     List<User> findByManagerId(Long managerId);
 
+    @EntityGraph(attributePaths = {"authorities", "manager"})
     Optional<User> findUserByEmailEqualsIgnoreCase(String email);
 
     @Modifying
@@ -68,40 +71,14 @@ public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificat
     void updateLastLoginTime(
             @Param("userEmail") String userEmail, @Param("lastLoginTime") Instant lastLoginTime);
 
-    @Query(
-            value =
-                    """
-            SELECT
-                r.name AS resourceName,
-                CASE
-                    -- Check if the user has the ROLE_ADMIN authority globally
-                    WHEN EXISTS (
-                        SELECT 1
-                        FROM fw_user_authority uaAdmin
-                        WHERE uaAdmin.user_id = :userId
-                        AND uaAdmin.authority_name = 'ROLE_ADMIN'
-                    ) THEN 3
-                    ELSE
-                        -- Calculate the highest permission level for the user and resource
-                        COALESCE(MAX(rp.permission), 0) -- Default to 0 (NONE) if no permissions are found
-                END AS permission
-            FROM fw_resource r
-            LEFT JOIN fw_authority_resource_permission rp
-                ON rp.resource_name = r.name
-            LEFT JOIN fw_user_authority ua
-                ON rp.authority_name = ua.authority_name
-                AND ua.user_id = :userId
-            -- Only include rows where permissions exist
-            WHERE ua.authority_name IS NOT NULL OR EXISTS (
-                SELECT 1
-                FROM fw_user_authority uaAdmin
-                WHERE uaAdmin.user_id = :userId
-                AND uaAdmin.authority_name = 'ROLE_ADMIN'
-            )
-            GROUP BY r.name
-    """,
-            nativeQuery = true)
-    List<Object[]> findResourcesWithHighestPermissionsByUserId(@Param("userId") Long userId);
+    /**
+     * Returns the names of the authorities a user belongs to.
+     *
+     * @param userId the user id
+     * @return the authority names of the user
+     */
+    @Query("SELECT a.name FROM User u JOIN u.authorities a WHERE u.id = :userId")
+    Set<String> findAuthorityNamesByUserId(@Param("userId") Long userId);
 
     @Query(
             """
@@ -149,4 +126,9 @@ public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificat
     WHERE m.id = :userId
     """)
     List<UserHierarchyDTO> findAllSubordinates(@Param("userId") Long userId);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.imageUrl = NULL WHERE u.imageUrl = :imageUrl")
+    void clearImageUrl(@Param("imageUrl") String imageUrl);
 }
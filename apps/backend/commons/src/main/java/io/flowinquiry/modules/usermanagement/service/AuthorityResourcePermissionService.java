@@ -2,20 +2,26 @@ package io.flowinquiry.modules.usermanagement.service;
 
 import io.flowinquiry.modules.usermanagement.repository.AuthorityResourcePermissionRepository;
 import io.flowinquiry.modules.usermanagement.service.dto.AuthorityResourcePermissionDTO;
+import io.flowinquiry.modules.usermanagement.service.event.ResourcePermissionsChangedEvent;
 import io.flowinquiry.modules.usermanagement.service.mapper.AuthorityResourcePermissionMapper;
 import java.util.List;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class AuthorityResourcePermissionService {
     private final AuthorityResourcePermissionMapper authorityResourcePermissionMapper;
     private final AuthorityResourcePermissionRepository authorityResourcePermissionRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     public AuthorityResourcePermissionService(
             AuthorityResourcePermissionRepository authorityResourcePermissionRepository,
-            AuthorityResourcePermissionMapper authorityResourcePermissionMapper) {
+            AuthorityResourcePermissionMapper authorityResourcePermissionMapper,
+            ApplicationEventPublisher eventPublisher) {
         this.authorityResourcePermissionRepository = authorityResourcePermissionRepository;
         this.authorityResourcePermissionMapper = authorityResourcePermissionMapper;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -31,11 +37,15 @@ public class AuthorityResourcePermissionService {
                 .toList();
     }
 
+    @Transactional
     public List<AuthorityResourcePermissionDTO> saveAllPermissions(
             List<AuthorityResourcePermissionDTO> authorityResourcePermissionDtos) {
-        return authorityResourcePermissionMapper.toDtoList(
-                authorityResourcePermissionRepository.saveAll(
-                        authorityResourcePermissionMapper.toEntityList(
-                                authorityResourcePermissionDtos)));
+        List<AuthorityResourcePermissionDTO> saved =
+                authorityResourcePermissionMapper.toDtoList(
+                        authorityResourcePermissionRepository.saveAll(
+                                authorityResourcePermissionMapper.toEntityList(
+                                        authorityResourcePermissionDtos)));
+        eventPublisher.publishEvent(new ResourcePermissionsChangedEvent(this));
+        return saved;
     }
 }
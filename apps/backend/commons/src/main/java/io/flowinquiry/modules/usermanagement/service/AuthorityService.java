@@ -6,10 +6,13 @@ import io.flowinquiry.modules.usermanagement.repository.AuthorityRepository;
 import io.flowinquiry.modules.usermanagement.repository.UserRepository;
 import io.flowinquiry.modules.usermanagement.service.dto.AuthorityDTO;
 import io.flowinquiry.modules.usermanagement.service.dto.UserDTO;
+import io.flowinquiry.modules.usermanagement.service.event.ResourcePermissionsChangedEvent;
+import io.flowinquiry.modules.usermanagement.service.event.UserAuthoritiesChangedEvent;
 import io.flowinquiry.modules.usermanagement.service.mapper.AuthorityMapper;
 import io.flowinquiry.modules.usermanagement.service.mapper.UserMapper;
 import java.util.List;
 import java.util.Optional;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -27,15 +30,19 @@ public class AuthorityService {
 
     private final UserMapper userMapper;
 
+    private final ApplicationEventPublisher eventPublisher;
+
     public AuthorityService(
             AuthorityRepository authorityRepository,
             UserRepository userRepository,
             UserMapper userMapper,
-            AuthorityMapper authorityMapper) {
+            AuthorityMapper authorityMapper,
+            ApplicationEventPublisher eventPublisher) {
         this.authorityRepository = authorityRepository;
         this.userRepository = userRepository;
         this.userMapper = userMapper;
         this.authorityMapper = authorityMapper;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -69,6 +76,8 @@ public class AuthorityService {
     public void deleteAuthority(String authorityName) {
         authorityRepository.removeAllUsersFromAuthority(authorityName);
         authorityRepository.deleteById(authorityName);
+        eventPublisher.publishEvent(new ResourcePermissionsChangedEvent(this));
+        eventPublisher.publishEvent(new UserAuthoritiesChangedEvent(this, null));
     }
 
     /**
@@ -125,6 +134,8 @@ public class AuthorityService {
 
         // Save all updated users
         userRepository.saveAll(users);
+        eventPublisher.publishEvent(
+                new UserAuthoritiesChangedEvent(this, users.stream().map(User::getId).toList()));
     }
 
     @Transactional
@@ -147,6 +158,7 @@ public class AuthorityService {
         if (user.getAuthorities().contains(authority)) {
             user.getAuthorities().remove(authority);
             userRepository.save(user); // Save the updated user
+            eventPublisher.publishEvent(new UserAuthoritiesChangedEvent(this, List.of(userId)));
         }
     }
 }
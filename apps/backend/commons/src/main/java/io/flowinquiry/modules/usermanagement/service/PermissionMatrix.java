@@ -0,0 +1,222 @@
+package io.flowinquiry.modules.usermanagement.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.flowinquiry.modules.usermanagement.AuthoritiesConstants;
+import io.flowinquiry.modules.usermanagement.domain.AuthorityResourcePermission;
+import io.flowinquiry.modules.usermanagement.domain.Permission;
+import io.flowinquiry.modules.usermanagement.repository.AuthorityResourcePermissionRepository;
+import io.flowinquiry.modules.usermanagement.repository.ResourceRepository;
+import io.flowinquiry.modules.usermanagement.repository.UserRepository;
+import io.flowinquiry.modules.usermanagement.service.dto.ResourcePermissionDTO;
+import io.flowinquiry.modules.usermanagement.service.event.ResourcePermissionsChangedEvent;
+import io.flowinquiry.modules.usermanagement.service.event.UserAuthoritiesChangedEvent;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Resolves the highest permission a user has on each resource from memory.
+ *
+ * <p>The permissions of all authorities are loaded once into one {@link BitSet} per authority. Each
+ * resource takes four bits: one telling the authority grants something on the resource, then one
+ * per level above {@link Permission#NONE}, set up to the granted level. OR-ing the rows of the
+ * authorities of a user therefore keeps the highest level per resource. The authorities of each
+ * user are cached as well, so a lookup needs no database round trip once both are loaded.
+ *
+ * <p>The matrix is rebuilt on the next lookup after a {@link ResourcePermissionsChangedEvent}, and
+ * the authorities of a user are reloaded after a {@link UserAuthoritiesChangedEvent}. Both also
+ * expire after a while, which bounds the drift from changes made on other nodes.
+ */
+@Service
+public class PermissionMatrix {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PermissionMatrix.class);
+
+    private static final int BITS_PER_RESOURCE = 4;
+
+    private static final Permission[] LEVELS = Permission.values();
+
+    private final ResourceRepository resourceRepository;
+    private final AuthorityResourcePermissionRepository authorityResourcePermissionRepository;
+    private final UserRepository userRepository;
+    private final long maxAgeNanos;
+    private final Cache<Long, Set<String>> userAuthorities;
+    // Bumped on every change, so a build racing with a change is not kept
+    private final AtomicLong generation = new AtomicLong();
+    private volatile Snapshot snapshot;
+
+    public PermissionMatrix(
+            ResourceRepository resourceRepository,
+            AuthorityResourcePermissionRepository authorityResourcePermissionRepository,
+            UserRepository userRepository,
+            @Value("${flowinquiry.permission-matrix.max-age:PT5M}") Duration maxAge,
+            @Value("${flowinquiry.permission-matrix.maximum-users:100000}") long maximumUsers) {
+        this.resourceRepository = resourceRepository;
+        this.authorityResourcePermissionRepository = authorityResourcePermissionRepository;
+        this.userRepository = userRepository;
+        this.maxAgeNanos = maxAge.toNanos();
+        this.userAuthorities =
+                Caffeine.newBuilder().maximumSize(maximumUsers).expireAfterWrite(maxAge).build();
+    }
+
+    /**
+     * Returns the highest permission of a user on every resource any of the user's authorities
+     * grants something on. Administrators get {@link Permission#ACCESS} on every resource.
+     *
+     * @param userId the user id
+     * @return the permissions of the user, ordered by resource name
+     */
+    public List<ResourcePermissionDTO> getResourcePermissions(Long userId) {
+        return currentSnapshot().resolve(getAuthorities(userId));
+    }
+
+    /**
+     * Returns the highest permission of a user on a resource.
+     *
+     * @param userId the user id
+     * @param resourceName the resource name
+     * @return the permission, {@link Permission#NONE} when nothing is granted
+     */
+    public Permission getPermission(Long userId, String resourceName) {
+        return currentSnapshot().resolve(getAuthorities(userId), resourceName);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onResourcePermissionsChanged(ResourcePermissionsChangedEvent event) {
+        generation.incrementAndGet();
+        snapshot = null;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserAuthoritiesChanged(UserAuthoritiesChangedEvent event) {
+        if (event.getUserIds() == null) {
+            userAuthorities.invalidateAll();
+        } else {
+            userAuthorities.invalidateAll(event.getUserIds());
+        }
+    }
+
+    private Set<String> getAuthorities(Long userId) {
+        return userAuthorities.get(
+                userId, id -> Set.copyOf(userRepository.findAuthorityNamesByUserId(id)));
+    }
+
+    private Snapshot currentSnapshot() {
+        Snapshot current = snapshot;
+        if (current != null && !current.isExpired(maxAgeNanos)) {
+            return current;
+        }
+        synchronized (this) {
+            current = snapshot;
+            if (current != null && !current.isExpired(maxAgeNanos)) {
+                return current;
+            }
+            long buildGeneration = generation.get();
+            Snapshot built = build();
+            if (generation.get() == buildGeneration) {
+                snapshot = built;
+            }
+            return built;
+        }
+    }
+
+    private Snapshot build() {
+        List<String> resources = resourceRepository.findAllNames();
+        Map<String, Integer> resourceIndexes = new HashMap<>();
+        for (int i = 0; i < resources.size(); i++) {
+            resourceIndexes.put(resources.get(i), i);
+        }
+
+        List<AuthorityResourcePermission> grants =
+                authorityResourcePermissionRepository.findAllGrants();
+        Map<String, BitSet> rows = new HashMap<>();
+        for (AuthorityResourcePermission grant : grants) {
+            Integer index = resourceIndexes.get(grant.getResourceName());
+            if (index == null) {
+                continue;
+            }
+            int offset = index * BITS_PER_RESOURCE;
+            BitSet row =
+                    rows.computeIfAbsent(
+                            grant.getAuthorityName(),
+                            name -> new BitSet(resources.size() * BITS_PER_RESOURCE));
+            row.set(offset);
+            row.set(offset + 1, offset + 1 + grant.getPermission().getCode());
+        }
+        LOG.debug(
+                "Built the permission matrix of {} authorities on {} resources",
+                rows.size(),
+                resources.size());
+        return new Snapshot(List.copyOf(resources), resourceIndexes, rows, System.nanoTime());
+    }
+
+    private record Snapshot(
+            List<String> resources,
+            Map<String, Integer> resourceIndexes,
+            Map<String, BitSet> rows,
+            long builtAtNanos) {
+
+        boolean isExpired(long maxAgeNanos) {
+            return System.nanoTime() - builtAtNanos > maxAgeNanos;
+        }
+
+        List<ResourcePermissionDTO> resolve(Set<String> authorities) {
+            List<ResourcePermissionDTO> permissions = new ArrayList<>(resources.size());
+            if (authorities.contains(AuthoritiesConstants.ADMIN)) {
+                for (String resource : resources) {
+                    permissions.add(
+                            new ResourcePermissionDTO(resource, Permission.ACCESS.toString()));
+                }
+                return permissions;
+            }
+
+            BitSet combined = combine(authorities);
+            for (int i = 0; i < resources.size(); i++) {
+                if (combined.get(i * BITS_PER_RESOURCE)) {
+                    permissions.add(
+                            new ResourcePermissionDTO(
+                                    resources.get(i), level(combined, i).toString()));
+                }
+            }
+            return permissions;
+        }
+
+        Permission resolve(Set<String> authorities, String resourceName) {
+            Integer index = resourceIndexes.get(resourceName);
+            if (index == null) {
+                return Permission.NONE;
+            }
+            if (authorities.contains(AuthoritiesConstants.ADMIN)) {
+                return Permission.ACCESS;
+            }
+            return level(combine(authorities), index);
+        }
+
+        private BitSet combine(Set<String> authorities) {
+            BitSet combined = new BitSet(resources.size() * BITS_PER_RESOURCE);
+            for (String authority : authorities) {
+                BitSet row = rows.get(authority);
+                if (row != null) {
+                    combined.or(row);
+                }
+            }
+            return combined;
+        }
+
+        private static Permission level(BitSet bits, int index) {
+            int offset = index * BITS_PER_RESOURCE;
+            return LEVELS[bits.get(offset + 1, offset + BITS_PER_RESOURCE).cardinality()];
+        }
+    }
+}
@@ -8,7 +8,6 @@ import io.flowinquiry.modules.usermanagement.AuthoritiesConstants;
 import io.flowinquiry.modules.usermanagement.EmailAlreadyUsedException;
 import io.flowinquiry.modules.usermanagement.InvalidPasswordException;
 import io.flowinquiry.modules.usermanagement.domain.Authority;
-import io.flowinquiry.modules.usermanagement.domain.Permission;
 import io.flowinquiry.modules.usermanagement.domain.User;
 import io.flowinquiry.modules.usermanagement.domain.UserAuth;
 import io.flowinquiry.modules.usermanagement.domain.UserStatus;
@@ -22,6 +21,8 @@ import io.flowinquiry.modules.usermanagement.service.dto.UserHierarchyDTO;
 import io.flowinquiry.modules.usermanagement.service.dto.UserKey;
 import io.flowinquiry.modules.usermanagement.service.event.CreatedUserEvent;
 import io.flowinquiry.modules.usermanagement.service.event.DeleteUserEvent;
+import io.flowinquiry.modules.usermanagement.service.event.UserAuthoritiesChangedEvent;
+import io.flowinquiry.modules.usermanagement.service.event.UserProfileChangedEvent;
 import io.flowinquiry.modules.usermanagement.service.mapper.UserMapper;
 import io.flowinquiry.query.QueryDTO;
 import io.flowinquiry.security.SecurityUtils;
@@ -67,19 +68,23 @@ public class UserService {
 
     private final ApplicationEventPublisher eventPublisher;
 
+    private final PermissionMatrix permissionMatrix;
+
     public UserService(
             UserRepository userRepository,
             UserAuthRepository userAuthRepository,
             PasswordEncoder passwordEncoder,
             AuthorityRepository authorityRepository,
             UserMapper userMapper,
-            ApplicationEventPublisher eventPublisher) {
+            ApplicationEventPublisher eventPublisher,
+            PermissionMatrix permissionMatrix) {
         this.userRepository = userRepository;
         this.userAuthRepository = userAuthRepository;
         this.passwordEncoder = passwordEncoder;
         this.authorityRepository = authorityRepository;
         this.userMapper = userMapper;
         this.eventPublisher = eventPublisher;
+        this.permissionMatrix = permissionMatrix;
     }
 
     public Optional<User> activateRegistration(String key) {
@@ -260,8 +265,11 @@ public class UserService {
                     .filter(Optional::isPresent)
                     .map(Optional::get)
                     .forEach(managedAuthorities::add);
+            eventPublisher.publishEvent(
+                    new UserAuthoritiesChangedEvent(this, List.of(existingUser.getId())));
         }
 
+        eventPublisher.publishEvent(new UserProfileChangedEvent(this, existingUser.getId()));
         return userMapper.toDto(userRepository.save(existingUser));
     }
 
@@ -311,6 +319,8 @@ public class UserService {
                             user.setLangKey(langKey);
                             user.setImageUrl(imageUrl);
                             userRepository.save(user);
+                            eventPublisher.publishEvent(
+                                    new UserProfileChangedEvent(this, user.getId()));
                             LOG.debug("Changed Information for User: {}", user);
                         });
     }
@@ -380,17 +390,7 @@ public class UserService {
     }
 
     public List<ResourcePermissionDTO> getResourcesWithPermissionsByUserId(Long userId) {
-        List<Object[]> results = userRepository.findResourcesWithHighestPermissionsByUserId(userId);
-
-        return results.stream()
-                .map(
-                        result ->
-                                new ResourcePermissionDTO(
-                                        (String) result[0], // resourceName
-                                        (result[1] == null)
-                                                ? Permission.NONE.toString()
-                                                : Permission.fromCode((int) result[1]).toString()))
-                .collect(Collectors.toList());
+        return permissionMatrix.getResourcePermissions(userId);
     }
 
     /**
@@ -454,8 +454,9 @@ public class UserService {
      * @param pageable The pagination information
      * @return Page of users matching the search criteria
      */
-    public Page<User> searchUsers(String userTerm, Pageable pageable) {
-        return userRepository.findByUserTerm(userTerm, pageable);
+    @Transactional(readOnly = true)
+    public Page<UserDTO> searchUsers(String userTerm, Pageable pageable) {
+        return userRepository.findByUserTerm(userTerm, pageable).map(userMapper::toDto);
     }
 
     public void updateCurrentUserLocale(String langKey) {
@@ -0,0 +1,11 @@
+package io.flowinquiry.modules.usermanagement.service.event;
+
+import org.springframework.context.ApplicationEvent;
+
+/** Published when the permissions authorities grant on resources, or the authorities, change. */
+public class ResourcePermissionsChangedEvent extends ApplicationEvent {
+
+    public ResourcePermissionsChangedEvent(Object source) {
+        super(source);
+    }
+}
@@ -0,0 +1,19 @@
+package io.flowinquiry.modules.usermanagement.service.event;
+
+import java.util.Collection;
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Published when users are added to or removed from authorities. A {@code null} user list means
+ * the memberships of any user may have changed.
+ */
+@Getter
+public class UserAuthoritiesChangedEvent extends ApplicationEvent {
+    private final Collection<Long> userIds;
+
+    public UserAuthoritiesChangedEvent(Object source, Collection<Long> userIds) {
+        super(source);
+        this.userIds = userIds;
+    }
+}
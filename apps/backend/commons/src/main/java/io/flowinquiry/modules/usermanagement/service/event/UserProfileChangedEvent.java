@@ -0,0 +1,15 @@
+package io.flowinquiry.modules.usermanagement.service.event;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+/** Published when the profile of a user, such as the name shown to others, is updated. */
+@Getter
+public class UserProfileChangedEvent extends ApplicationEvent {
+    private final Long userId;
+
+    public UserProfileChangedEvent(Object source, Long userId) {
+        super(source);
+        this.userId = userId;
+    }
+}
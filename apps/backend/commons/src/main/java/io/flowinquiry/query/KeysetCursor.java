@@ -0,0 +1,114 @@
+package io.flowinquiry.query;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Continuation token of a keyset (seek) paginated query.
+ *
+ * <p>The cursor captures the sort field and direction of the query together with the sort value and
+ * id of the last row returned, so the next page can be fetched with a {@code WHERE (sortKey, id) >
+ * (lastValue, lastId)} predicate instead of an {@code OFFSET}. Clients receive it as an opaque
+ * URL-safe string and pass it back unchanged.
+ *
+ * <p>See {@link QueryUtils#createKeysetSpecification(KeysetCursor)} for the matching predicate.
+ *
+ * @param sortField the entity attribute the rows are sorted by
+ * @param direction the sort direction, also applied to the id tie-breaker
+ * @param lastId the id of the last row of the previous page
+ * @param lastValue the sort value of the last row of the previous page, {@code null} if it was null
+ */
+public record KeysetCursor(
+        String sortField, Sort.Direction direction, Long lastId, String lastValue) {
+
+    private static final String SEPARATOR = "|";
+
+    private static final String CREATED_AT = "createdAt";
+
+    public String encode() {
+        StringBuilder raw =
+                new StringBuilder()
+                        .append(direction.name())
+                        .append(SEPARATOR)
+                        .append(lastId)
+                        .append(SEPARATOR)
+                        .append(sortField);
+        if (lastValue != null) {
+            raw.append(SEPARATOR).append(lastValue);
+        }
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(raw.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static KeysetCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\" + SEPARATOR, 4);
+            if (parts.length < 3) {
+                throw new IllegalArgumentException("Invalid cursor: " + token);
+            }
+            return new KeysetCursor(
+                    parts[2],
+                    Sort.Direction.valueOf(parts[0]),
+                    Long.valueOf(parts[1]),
+                    parts.length == 4 ? parts[3] : null);
+        } catch (IllegalArgumentException e) {
+            // Also covers malformed Base64, unknown directions and non-numeric ids
+            throw new IllegalArgumentException("Invalid cursor: " + token);
+        }
+    }
+
+    /**
+     * Returns a cursor positioned before the first row of the given sort. Only the first order of
+     * the sort is used; rows are sorted by id descending when the sort is unsorted.
+     */
+    public static KeysetCursor start(Sort sort) {
+        Sort.Order order = sort.stream().findFirst().orElse(Sort.Order.desc("id"));
+        return new KeysetCursor(order.getProperty(), order.getDirection(), null, null);
+    }
+
+    /**
+     * Creates the cursor of a feed ordered by creation time, newest first.
+     *
+     * @param createdAt the creation time of the last row of the page
+     * @param id the id of the last row of the page
+     */
+    public static KeysetCursor ofCreatedAt(Instant createdAt, Long id) {
+        return new KeysetCursor(CREATED_AT, Sort.Direction.DESC, id, createdAt.toString());
+    }
+
+    /**
+     * Returns the creation time of a cursor created by {@link #ofCreatedAt(Instant, Long)}.
+     *
+     * @throws IllegalArgumentException if the cursor belongs to another kind of query
+     */
+    public Instant lastCreatedAt() {
+        if (!CREATED_AT.equals(sortField)
+                || direction != Sort.Direction.DESC
+                || lastValue == null) {
+            throw new IllegalArgumentException("Cursor is not ordered by creation time");
+        }
+        try {
+            return Instant.parse(lastValue);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor value: " + lastValue);
+        }
+    }
+
+    /** Returns whether this cursor points before the first row. */
+    public boolean isStart() {
+        return lastId == null;
+    }
+
+    /** Returns the sort of the query, with the id as tie-breaker. */
+    public Sort toSort() {
+        if ("id".equals(sortField)) {
+            return Sort.by(direction, "id");
+        }
+        return Sort.by(direction, sortField).and(Sort.by(direction, "id"));
+    }
+}
@@ -0,0 +1,58 @@
+package io.flowinquiry.query;
+
+import java.util.List;
+import java.util.function.Function;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.data.domain.Slice;
+
+/**
+ * A page of a keyset paginated query. Unlike {@link org.springframework.data.domain.Page} it
+ * carries no total count, only whether more rows follow and the cursor to fetch them with.
+ */
+@Getter
+@AllArgsConstructor
+public class KeysetSlice<T> {
+
+    private final List<T> content;
+
+    private final int size;
+
+    private final boolean hasNext;
+
+    private final String nextCursor;
+
+    /**
+     * Builds a slice from rows fetched with a limit of {@code size + 1}; the extra row only tells
+     * whether a next page exists and is dropped.
+     *
+     * @param rows the fetched rows, at most {@code size + 1}
+     * @param size the requested page size
+     * @param cursorOf builds the cursor pointing after a row
+     * @param mapper maps the rows to the returned type
+     */
+    public static <E, T> KeysetSlice<T> of(
+            List<E> rows, int size, Function<E, KeysetCursor> cursorOf, Function<E, T> mapper) {
+        boolean hasNext = rows.size() > size;
+        List<E> pageRows = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor =
+                hasNext ? cursorOf.apply(pageRows.get(pageRows.size() - 1)).encode() : null;
+        return new KeysetSlice<>(pageRows.stream().map(mapper).toList(), size, hasNext, nextCursor);
+    }
+
+    /**
+     * Builds a slice from a Spring Data {@link Slice} fetched without count query.
+     *
+     * @param slice the fetched rows
+     * @param cursorOf builds the cursor pointing after a row
+     * @param mapper maps the rows to the returned type
+     */
+    public static <E, T> KeysetSlice<T> of(
+            Slice<E> slice, Function<E, KeysetCursor> cursorOf, Function<E, T> mapper) {
+        List<E> rows = slice.getContent();
+        String nextCursor =
+                slice.hasNext() ? cursorOf.apply(rows.get(rows.size() - 1)).encode() : null;
+        return new KeysetSlice<>(
+                rows.stream().map(mapper).toList(), slice.getSize(), slice.hasNext(), nextCursor);
+    }
+}
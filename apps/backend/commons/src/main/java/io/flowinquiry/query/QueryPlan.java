@@ -0,0 +1,335 @@
+package io.flowinquiry.query;
+
+import io.flowinquiry.db.search.TextSearchFunctionContributor;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.ManagedType;
+import jakarta.persistence.metamodel.PluralAttribute;
+import jakarta.persistence.metamodel.SingularAttribute;
+import jakarta.persistence.metamodel.Type;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+
+/**
+ * The predicate of the {@link QueryDTO}s of one entity and filter shape, the groups, logical
+ * operators, fields and operators of a query. Compiling a plan resolves the fields, joins and value
+ * conversions of the filters once, building the predicate of a query then only binds its values.
+ *
+ * <p>The groups of a query take precedence over its plain filters, which are kept for backward
+ * compatibility, and both are combined with AND.
+ */
+final class QueryPlan {
+
+    private final CompiledGroup root;
+
+    private QueryPlan(CompiledGroup root) {
+        this.root = root;
+    }
+
+    /**
+     * Returns the shape of a query, equal for the queries sharing a plan whatever their values.
+     */
+    static Object shapeOf(QueryDTO queryDTO) {
+        return groupShape("AND", filtersOf(queryDTO), groupsOf(queryDTO));
+    }
+
+    static QueryPlan compile(ManagedType<?> entityType, QueryDTO queryDTO) {
+        return new QueryPlan(
+                compileGroup(entityType, "AND", filtersOf(queryDTO), groupsOf(queryDTO)));
+    }
+
+    Predicate toPredicate(QueryDTO queryDTO, Root<?> entity, CriteriaBuilder cb) {
+        return root.toPredicate(entity, cb, filtersOf(queryDTO), groupsOf(queryDTO));
+    }
+
+    private static List<Filter> filtersOf(QueryDTO queryDTO) {
+        return queryDTO.getGroups() == null ? nonNull(queryDTO.getFilters()) : List.of();
+    }
+
+    private static List<GroupFilter> groupsOf(QueryDTO queryDTO) {
+        return nonNull(queryDTO.getGroups());
+    }
+
+    private static <T> List<T> nonNull(List<T> list) {
+        return list != null ? list : List.of();
+    }
+
+    private static GroupShape groupShape(
+            String logicalOperator, List<Filter> filters, List<GroupFilter> groups) {
+        return new GroupShape(
+                logicalOperator,
+                filters.stream()
+                        .map(filter -> new FilterShape(filter.getField(), filter.getOperator()))
+                        .toList(),
+                groups.stream()
+                        .map(
+                                group ->
+                                        groupShape(
+                                                group.getLogicalOperator(),
+                                                nonNull(group.getFilters()),
+                                                nonNull(group.getGroups())))
+                        .toList());
+    }
+
+    private static CompiledGroup compileGroup(
+            ManagedType<?> entityType,
+            String logicalOperator,
+            List<Filter> filters,
+            List<GroupFilter> groups) {
+        boolean disjunction;
+        if ("AND".equalsIgnoreCase(logicalOperator)) {
+            disjunction = false;
+        } else if ("OR".equalsIgnoreCase(logicalOperator)) {
+            disjunction = true;
+        } else {
+            throw new IllegalArgumentException("Invalid logical operator: " + logicalOperator);
+        }
+        return new CompiledGroup(
+                disjunction,
+                filters.stream().map(filter -> compileFilter(entityType, filter)).toList(),
+                groups.stream()
+                        .map(
+                                group ->
+                                        compileGroup(
+                                                entityType,
+                                                group.getLogicalOperator(),
+                                                nonNull(group.getFilters()),
+                                                nonNull(group.getGroups())))
+                        .toList());
+    }
+
+    private static CompiledFilter compileFilter(ManagedType<?> entityType, Filter filter) {
+        String field = filter.getField();
+
+        // Multiple fields to concatenate (e.g., "firstName,lastName" or "field1,field2")
+        if (field.contains(",")) {
+            String[] fields = field.split(",");
+            for (String name : fields) {
+                entityType.getAttribute(name);
+            }
+            if ("ts".equals(filter.getOperator())) {
+                // Any of the fields matching the search terms
+                return (root, cb, value) -> {
+                    Predicate[] matches = new Predicate[fields.length];
+                    for (int i = 0; i < fields.length; i++) {
+                        matches[i] = textMatch(root.get(fields[i]), cb, value);
+                    }
+                    return cb.or(matches);
+                };
+            }
+            return (root, cb, value) -> {
+                // Concatenate specified fields with spaces between them
+                Expression<String> concatenatedFields = cb.lower(root.get(fields[0]));
+                for (int i = 1; i < fields.length; i++) {
+                    concatenatedFields =
+                            cb.concat(
+                                    concatenatedFields,
+                                    cb.concat(" ", cb.lower(root.get(fields[i]))));
+                }
+                return cb.like(concatenatedFields, "%" + value.toString().toLowerCase() + "%");
+            };
+        }
+
+        // A field of an association, joined with a LEFT JOIN to include nulls
+        if (field.contains(".")) {
+            String[] pathParts = field.split("\\.");
+            String joinEntity = pathParts[0];
+            String targetField = pathParts[1];
+            Class<?> fieldType =
+                    joinedType(entityType, joinEntity).getAttribute(targetField).getJavaType();
+            return compileJoinedComparison(
+                    filter.getOperator(),
+                    fieldType,
+                    root -> root.join(joinEntity, JoinType.LEFT).get(targetField));
+        }
+
+        Class<?> fieldType = entityType.getAttribute(field).getJavaType();
+        return compileDirectComparison(filter.getOperator(), fieldType, root -> root.get(field));
+    }
+
+    private static CompiledFilter compileJoinedComparison(
+            String operator, Class<?> fieldType, Function<Root<?>, Path<Comparable<Object>>> path) {
+        UnaryOperator<Object> converter = converter(fieldType, false);
+        return switch (operator) {
+            case "gt" -> (root, cb, value) -> cb.greaterThan(path.apply(root), comparable(value));
+            case "lt" -> (root, cb, value) -> cb.lessThan(path.apply(root), comparable(value));
+            case "eq" -> equal(path, converter);
+            case "ne" -> notEqual(path, converter);
+            case "lk" -> (root, cb, value) -> cb.like(string(path.apply(root)), "%" + value + "%");
+            case "in" -> in(path);
+            case "ts" -> (root, cb, value) -> textMatch(path.apply(root), cb, value);
+            default -> throw new IllegalArgumentException("Invalid operator: " + operator);
+        };
+    }
+
+    private static CompiledFilter compileDirectComparison(
+            String operator, Class<?> fieldType, Function<Root<?>, Path<Comparable<Object>>> path) {
+        UnaryOperator<Object> converter = converter(fieldType, true);
+        return switch (operator) {
+            case "gt" -> (root, cb, value) -> cb.greaterThan(path.apply(root), comparable(value));
+            case "lt" -> (root, cb, value) -> cb.lessThan(path.apply(root), comparable(value));
+            case "eq" -> equal(path, converter);
+            case "ne" -> notEqual(path, converter);
+            case "lk" ->
+                    (root, cb, value) ->
+                            cb.like(
+                                    cb.lower(string(path.apply(root))),
+                                    "%" + value.toString().toLowerCase() + "%");
+            case "in" -> fieldType.isEnum() ? enumIn(path, converter) : in(path);
+            case "ts" -> (root, cb, value) -> textMatch(path.apply(root), cb, value);
+            default -> throw new IllegalArgumentException("Invalid operator: " + operator);
+        };
+    }
+
+    private static CompiledFilter equal(
+            Function<Root<?>, Path<Comparable<Object>>> path, UnaryOperator<Object> converter) {
+        return (root, cb, value) -> {
+            Path<Comparable<Object>> fieldPath = path.apply(root);
+            if (value == null) {
+                return cb.isNull(fieldPath);
+            }
+            Object converted = converter.apply(value);
+            // Invalid enum value provided, always false
+            return converted == null ? cb.disjunction() : cb.equal(fieldPath, converted);
+        };
+    }
+
+    private static CompiledFilter notEqual(
+            Function<Root<?>, Path<Comparable<Object>>> path, UnaryOperator<Object> converter) {
+        return (root, cb, value) -> {
+            Path<Comparable<Object>> fieldPath = path.apply(root);
+            if (value == null) {
+                return cb.isNotNull(fieldPath);
+            }
+            Object converted = converter.apply(value);
+            // Invalid enum value provided, always true
+            return converted == null ? cb.conjunction() : cb.notEqual(fieldPath, converted);
+        };
+    }
+
+    private static CompiledFilter in(Function<Root<?>, Path<Comparable<Object>>> path) {
+        return (root, cb, value) -> path.apply(root).in((List<?>) value);
+    }
+
+    private static CompiledFilter enumIn(
+            Function<Root<?>, Path<Comparable<Object>>> path, UnaryOperator<Object> converter) {
+        return (root, cb, value) -> {
+            if (!(value instanceof List<?> valueList)) {
+                return path.apply(root).in((List<?>) value);
+            }
+            List<Object> enumValues = new ArrayList<>();
+            for (Object item : valueList) {
+                Object enumValue = item instanceof String ? converter.apply(item) : null;
+                // Skip invalid enum values
+                if (enumValue != null) {
+                    enumValues.add(enumValue);
+                }
+            }
+            if (enumValues.isEmpty()) {
+                return cb.disjunction(); // Always false if no valid enum values
+            }
+            return path.apply(root).in(enumValues);
+        };
+    }
+
+    /**
+     * Matches a text field with search terms in the web search syntax, using the full text index of
+     * the field if it has one. The terms are bound as a parameter, so searches for different terms
+     * share their query plan.
+     */
+    private static Predicate textMatch(Expression<?> field, CriteriaBuilder cb, Object value) {
+        return cb.isTrue(
+                cb.function(
+                        TextSearchFunctionContributor.TEXT_MATCH,
+                        Boolean.class,
+                        field,
+                        ((HibernateCriteriaBuilder) cb).value(value.toString())));
+    }
+
+    /**
+     * Returns the conversion of string values to the enum type of a field, and for direct fields
+     * to {@code Boolean}. Invalid enum names convert to {@code null}.
+     */
+    private static UnaryOperator<Object> converter(Class<?> fieldType, boolean directField) {
+        if (directField && (Boolean.class.equals(fieldType) || boolean.class.equals(fieldType))) {
+            return value -> value instanceof String string ? Boolean.parseBoolean(string) : value;
+        }
+        if (fieldType.isEnum()) {
+            Map<String, Object> constants = new HashMap<>();
+            for (Object constant : fieldType.getEnumConstants()) {
+                constants.put(((Enum<?>) constant).name(), constant);
+            }
+            return value -> value instanceof String name ? constants.get(name) : value;
+        }
+        return UnaryOperator.identity();
+    }
+
+    private static ManagedType<?> joinedType(ManagedType<?> entityType, String attributeName) {
+        Attribute<?, ?> attribute = entityType.getAttribute(attributeName);
+        Type<?> type =
+                attribute instanceof PluralAttribute<?, ?, ?> pluralAttribute
+                        ? pluralAttribute.getElementType()
+                        : ((SingularAttribute<?, ?>) attribute).getType();
+        if (!(type instanceof ManagedType<?> managedType)) {
+            throw new IllegalArgumentException("Cannot join attribute: " + attributeName);
+        }
+        return managedType;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Comparable<Object> comparable(Object value) {
+        return (Comparable<Object>) value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Expression<String> string(Expression<?> expression) {
+        return (Expression<String>) expression;
+    }
+
+    private record FilterShape(String field, String operator) {}
+
+    private record GroupShape(
+            String logicalOperator, List<FilterShape> filters, List<GroupShape> groups) {}
+
+    @FunctionalInterface
+    private interface CompiledFilter {
+        Predicate toPredicate(Root<?> root, CriteriaBuilder cb, Object value);
+    }
+
+    private record CompiledGroup(
+            boolean disjunction, List<CompiledFilter> filters, List<CompiledGroup> groups) {
+
+        Predicate toPredicate(
+                Root<?> root,
+                CriteriaBuilder cb,
+                List<Filter> filterValues,
+                List<GroupFilter> groupValues) {
+            Predicate[] predicates = new Predicate[filters.size() + groups.size()];
+            for (int i = 0; i < filters.size(); i++) {
+                predicates[i] =
+                        filters.get(i).toPredicate(root, cb, filterValues.get(i).getValue());
+            }
+            for (int i = 0; i < groups.size(); i++) {
+                GroupFilter group = groupValues.get(i);
+                predicates[filters.size() + i] =
+                        groups.get(i)
+                                .toPredicate(
+                                        root,
+                                        cb,
+                                        nonNull(group.getFilters()),
+                                        nonNull(group.getGroups()));
+            }
+            return disjunction ? cb.or(predicates) : cb.and(predicates);
+        }
+    }
+}
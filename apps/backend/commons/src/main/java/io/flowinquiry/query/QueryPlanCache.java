@@ -0,0 +1,51 @@
+package io.flowinquiry.query;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+/**
+ * Keeps the {@link QueryPlan} of each entity and filter shape in use. The ticket board and the
+ * other list screens send a handful of filter shapes with changing values, so their plans are
+ * compiled once and the criteria of a query are built from the cached plan.
+ *
+ * <p>Plans only hold attribute names and Java types, they do not depend on the persistence unit
+ * they were compiled with.
+ */
+public final class QueryPlanCache {
+
+    private static final long MAXIMUM_SIZE = 1000;
+
+    private static final Cache<PlanKey, QueryPlan> PLANS =
+            Caffeine.newBuilder().maximumSize(MAXIMUM_SIZE).recordStats().build();
+
+    private QueryPlanCache() {}
+
+    static Predicate toPredicate(QueryDTO queryDTO, Root<?> root, CriteriaBuilder cb) {
+        PlanKey key = new PlanKey(root.getJavaType(), QueryPlan.shapeOf(queryDTO));
+        return PLANS.get(key, k -> QueryPlan.compile(root.getModel(), queryDTO))
+                .toPredicate(queryDTO, root, cb);
+    }
+
+    /** Returns the hit and miss counts of the plan lookups. */
+    public static CacheStats stats() {
+        return PLANS.stats();
+    }
+
+    /** Returns the approximate number of cached plans. */
+    public static long size() {
+        return PLANS.estimatedSize();
+    }
+
+    /** Publishes the cache metrics of the plans, under the {@code queryPlans} cache name. */
+    public static void monitor(MeterRegistry meterRegistry) {
+        CaffeineCacheMetrics.monitor(meterRegistry, PLANS, "queryPlans");
+    }
+
+    private record PlanKey(Class<?> entityType, Object shape) {}
+}
@@ -1,253 +1,161 @@
 package io.flowinquiry.query;
 
-import jakarta.persistence.criteria.CriteriaBuilder;
-import jakarta.persistence.criteria.Expression;
-import jakarta.persistence.criteria.Join;
-import jakarta.persistence.criteria.JoinType;
 import jakarta.persistence.criteria.Path;
 import jakarta.persistence.criteria.Predicate;
-import jakarta.persistence.criteria.Root;
-import java.util.ArrayList;
-import java.util.List;
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
 import java.util.Optional;
+import org.springframework.beans.DirectFieldAccessor;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.util.ReflectionUtils;
 
 public class QueryUtils {
 
+    /**
+     * Creates the specification of the filters of a query. The filters are compiled once per
+     * entity and filter shape and cached in the {@link QueryPlanCache}, so queries of a known shape
+     * only bind their values.
+     *
+     * @param queryDTO the filters
+     * @return the specification, {@code null} if there is no query
+     */
     public static <Entity> Specification<Entity> createSpecification(Optional<QueryDTO> queryDTO) {
         return queryDTO.map(
                         dto ->
                                 (Specification<Entity>)
-                                        (root, query, cb) -> {
-                                            if (dto.getGroups() != null) {
-                                                // Process group-based queries
-                                                List<Predicate> groupPredicates =
-                                                        dto.getGroups().stream()
-                                                                .map(
-                                                                        group ->
-                                                                                createGroupPredicate(
-                                                                                        group, root,
-                                                                                        cb))
-                                                                .toList();
-                                                return cb.and(
-                                                        groupPredicates.toArray(new Predicate[0]));
-                                            } else if (dto.getFilters() != null) {
-                                                // Backward compatibility: process simple filters
-                                                List<Predicate> predicates =
-                                                        dto.getFilters().stream()
-                                                                .map(
-                                                                        filter ->
-                                                                                createPredicate(
-                                                                                        filter,
-                                                                                        root, cb))
-                                                                .toList();
-                                                return cb.and(predicates.toArray(new Predicate[0]));
-                                            }
-                                            return cb.conjunction(); // Return a no-op predicate
-                                        })
+                                        (root, query, cb) ->
+                                                QueryPlanCache.toPredicate(dto, root, cb))
                 .orElse(null); // Return null if queryDTO is not present
     }
 
-    private static <Entity> Predicate createGroupPredicate(
-            GroupFilter groupFilter, Root<Entity> root, CriteriaBuilder cb) {
+    /**
+     * Creates the seek predicate of a keyset paginated query, selecting the rows that follow the
+     * cursor position in the cursor's sort order. Only direct attributes of the entity can be used
+     * as sort field. Null sort values follow PostgreSQL's default ordering: last when ascending,
+     * first when descending.
+     *
+     * @param cursor the cursor of the previous page
+     * @return the seek predicate, a no-op predicate if the cursor points before the first row
+     */
+    public static <Entity> Specification<Entity> createKeysetSpecification(KeysetCursor cursor) {
+        return (root, query, cb) -> {
+            if (cursor.isStart()) {
+                return cb.conjunction();
+            }
 
-        List<Predicate> predicates = new ArrayList<>();
+            Path<Long> id = root.get("id");
+            boolean ascending = cursor.direction().isAscending();
+            Predicate idAfter =
+                    ascending
+                            ? cb.greaterThan(id, cursor.lastId())
+                            : cb.lessThan(id, cursor.lastId());
+            if ("id".equals(cursor.sortField())) {
+                return idAfter;
+            }
 
-        // Process simple filters
-        if (groupFilter.getFilters() != null) {
-            predicates.addAll(
-                    groupFilter.getFilters().stream()
-                            .map(filter -> createPredicate(filter, root, cb))
-                            .toList());
-        }
+            Path<Comparable<Object>> field = root.get(cursor.sortField());
+            if (cursor.lastValue() == null) {
+                return ascending
+                        ? cb.and(cb.isNull(field), idAfter)
+                        : cb.or(cb.isNotNull(field), cb.and(cb.isNull(field), idAfter));
+            }
 
-        // Process nested groups
-        if (groupFilter.getGroups() != null) {
-            predicates.addAll(
-                    groupFilter.getGroups().stream()
-                            .map(nestedGroup -> createGroupPredicate(nestedGroup, root, cb))
-                            .toList());
-        }
+            Comparable<Object> lastValue =
+                    parseKeysetValue(field.getJavaType(), cursor.lastValue());
+            Predicate valueAfter =
+                    ascending
+                            ? cb.greaterThan(field, lastValue)
+                            : cb.lessThan(field, lastValue);
+            Predicate seek = cb.or(valueAfter, cb.and(cb.equal(field, lastValue), idAfter));
+            return ascending ? cb.or(seek, cb.isNull(field)) : seek;
+        };
+    }
 
-        // Combine predicates based on the logical operator
-        if ("AND".equalsIgnoreCase(groupFilter.getLogicalOperator())) {
-            return cb.and(predicates.toArray(new Predicate[0]));
-        } else if ("OR".equalsIgnoreCase(groupFilter.getLogicalOperator())) {
-            return cb.or(predicates.toArray(new Predicate[0]));
-        } else {
+    /**
+     * Creates the cursor pointing after the given entity.
+     *
+     * @param entity the last entity of the current page
+     * @param cursor the cursor the current page was fetched with
+     * @return the cursor of the next page
+     */
+    public static KeysetCursor createKeysetCursor(Object entity, KeysetCursor cursor) {
+        DirectFieldAccessor accessor = new DirectFieldAccessor(entity);
+        Object value = accessor.getPropertyValue(cursor.sortField());
+        return new KeysetCursor(
+                cursor.sortField(),
+                cursor.direction(),
+                (Long) accessor.getPropertyValue("id"),
+                formatKeysetValue(value));
+    }
+
+    /**
+     * Validates that the sort field of the cursor is a direct attribute of the entity with a type
+     * supported by keyset pagination, and that the sort value of the cursor is one of this type.
+     * Cursors come from clients, so this is checked before the query runs: the specification is
+     * only applied within the repository, which would report a bad value as a data access error.
+     *
+     * @param entityClass the entity class
+     * @param cursor the cursor to validate
+     */
+    public static void validateKeysetCursor(Class<?> entityClass, KeysetCursor cursor) {
+        Field field = ReflectionUtils.findField(entityClass, cursor.sortField());
+        if (field == null) {
+            throw new IllegalArgumentException("Invalid sort field: " + cursor.sortField());
+        }
+        if (!isSupportedKeysetType(field.getType())) {
             throw new IllegalArgumentException(
-                    "Invalid logical operator: " + groupFilter.getLogicalOperator());
+                    "Sort field " + cursor.sortField() + " is not supported by keyset pagination");
+        }
+        if (cursor.lastValue() != null) {
+            parseKeysetValue(field.getType(), cursor.lastValue());
         }
     }
 
-    private static <Entity> Predicate createPredicate(
-            Filter filter, Root<Entity> root, CriteriaBuilder cb) {
-
-        String field = filter.getField();
-        Object value = filter.getValue();
-
-        // Check for multiple fields to concatenate (e.g., "firstName,lastName" or "field1,field2")
-        if (field.contains(",")) {
-            String likePattern = "%" + value.toString().toLowerCase() + "%";
-            String[] fields = field.split(",");
-
-            // Concatenate specified fields with spaces between them
-            Expression<String> concatenatedFields = cb.lower(root.get(fields[0]));
-
-            for (int i = 1; i < fields.length; i++) {
-                concatenatedFields =
-                        cb.concat(
-                                concatenatedFields, cb.concat(" ", cb.lower(root.get(fields[i]))));
-            }
+    private static boolean isSupportedKeysetType(Class<?> type) {
+        return type.isEnum()
+                || type.isPrimitive()
+                || String.class.equals(type)
+                || Number.class.isAssignableFrom(type)
+                || Boolean.class.equals(type)
+                || Instant.class.equals(type)
+                || LocalDate.class.equals(type);
+    }
 
-            // Apply the like condition to the concatenated fields
-            return cb.like(concatenatedFields, likePattern);
+    private static String formatKeysetValue(Object value) {
+        if (value == null) {
+            return null;
         }
+        return value instanceof Enum<?> enumValue ? enumValue.name() : value.toString();
+    }
 
-        // Check if the field requires a join
-        if (field.contains(".")) {
-            // Split the field by dot notation to get the join entity and target field
-            String[] pathParts = field.split("\\.");
-            String joinEntity = pathParts[0];
-            String targetField = pathParts[1];
-
-            // Perform the join dynamically - use LEFT JOIN to include nulls
-            Join<Object, Object> join = root.join(joinEntity, JoinType.LEFT);
-
-            // Create the predicate based on the operator
-            switch (filter.getOperator()) {
-                case "gt":
-                    return cb.greaterThan(join.get(targetField), (Comparable) value);
-                case "lt":
-                    return cb.lessThan(join.get(targetField), (Comparable) value);
-                case "eq":
-                    if (value == null) {
-                        return cb.isNull(join.get(targetField));
-                    } else {
-                        // Handle enum types for join fields
-                        Class<?> fieldType = join.get(targetField).getJavaType();
-                        if (fieldType.isEnum() && value instanceof String) {
-                            try {
-                                @SuppressWarnings({"unchecked", "rawtypes"})
-                                Object enumValue =
-                                        Enum.valueOf((Class<Enum>) fieldType, (String) value);
-                                return cb.equal(join.get(targetField), enumValue);
-                            } catch (IllegalArgumentException e) {
-                                // Invalid enum value provided
-                                return cb.disjunction(); // Always false
-                            }
-                        }
-
-                        return cb.equal(join.get(targetField), value);
-                    }
-                case "ne":
-                    if (value == null) {
-                        return cb.isNotNull(join.get(targetField));
-                    } else {
-                        // Handle enum types for join fields
-                        Class<?> fieldType = join.get(targetField).getJavaType();
-                        if (fieldType.isEnum() && value instanceof String) {
-                            try {
-                                @SuppressWarnings({"unchecked", "rawtypes"})
-                                Object enumValue =
-                                        Enum.valueOf((Class<Enum>) fieldType, (String) value);
-                                return cb.notEqual(join.get(targetField), enumValue);
-                            } catch (IllegalArgumentException e) {
-                                // Invalid enum value provided
-                                return cb.conjunction(); // Always true
-                            }
-                        }
-
-                        return cb.notEqual(join.get(targetField), value);
-                    }
-                case "lk":
-                    return cb.like(join.get(targetField), "%" + value + "%");
-                case "in":
-                    return join.get(targetField).in((List<?>) value);
-                default:
-                    throw new IllegalArgumentException("Invalid operator: " + filter.getOperator());
-            }
-        } else {
-            // No join needed, access the field directly from the root
-            Path<?> path = root.get(field);
-            Class<?> fieldType = path.getJavaType();
-
-            switch (filter.getOperator()) {
-                case "gt":
-                    return cb.greaterThan(root.get(field), (Comparable) value);
-                case "lt":
-                    return cb.lessThan(root.get(field), (Comparable) value);
-                case "eq":
-                    // Handle null values and type conversions for direct fields
-                    if (value == null) {
-                        return cb.isNull(path);
-                    } else {
-                        // Handle special type conversions
-                        if (fieldType.equals(Boolean.class) && value instanceof String) {
-                            value = Boolean.parseBoolean((String) value);
-                        } else if (fieldType.isEnum() && value instanceof String) {
-                            try {
-                                @SuppressWarnings({"unchecked", "rawtypes"})
-                                Object enumValue =
-                                        Enum.valueOf((Class<Enum>) fieldType, (String) value);
-                                value = enumValue;
-                            } catch (IllegalArgumentException e) {
-                                // Invalid enum value provided
-                                return cb.disjunction(); // Always false
-                            }
-                        }
-                        return cb.equal(path, value);
-                    }
-                case "ne":
-                    // Handle null values and type conversions for direct fields
-                    if (value == null) {
-                        return cb.isNotNull(path);
-                    } else {
-                        // Handle special type conversions
-                        if (fieldType.equals(Boolean.class) && value instanceof String) {
-                            value = Boolean.parseBoolean((String) value);
-                        } else if (fieldType.isEnum() && value instanceof String) {
-                            try {
-                                @SuppressWarnings({"unchecked", "rawtypes"})
-                                Object enumValue =
-                                        Enum.valueOf((Class<Enum>) fieldType, (String) value);
-                                value = enumValue;
-                            } catch (IllegalArgumentException e) {
-                                // Invalid enum value provided
-                                return cb.conjunction(); // Always true
-                            }
-                        }
-                        return cb.notEqual(path, value);
-                    }
-                case "lk":
-                    return cb.like(
-                            cb.lower(root.get(field)), "%" + value.toString().toLowerCase() + "%");
-                case "in":
-                    // Handle enum type for IN operator
-                    if (fieldType.isEnum() && value instanceof List<?>) {
-                        List<?> valueList = (List<?>) value;
-                        List<Object> enumValues = new ArrayList<>();
-                        for (Object item : valueList) {
-                            if (item instanceof String) {
-                                try {
-                                    @SuppressWarnings({"unchecked", "rawtypes"})
-                                    Object enumValue =
-                                            Enum.valueOf((Class<Enum>) fieldType, (String) item);
-                                    enumValues.add(enumValue);
-                                } catch (IllegalArgumentException e) {
-                                    // Skip invalid enum values
-                                }
-                            }
-                        }
-                        if (enumValues.isEmpty()) {
-                            return cb.disjunction(); // Always false if no valid enum values
-                        }
-                        return path.in(enumValues);
-                    }
-                    return path.in((List<?>) value);
-                default:
-                    throw new IllegalArgumentException("Invalid operator: " + filter.getOperator());
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Comparable<Object> parseKeysetValue(Class<?> type, String value) {
+        try {
+            Object parsed;
+            if (String.class.equals(type)) {
+                parsed = value;
+            } else if (Long.class.equals(type) || long.class.equals(type)) {
+                parsed = Long.valueOf(value);
+            } else if (Integer.class.equals(type) || int.class.equals(type)) {
+                parsed = Integer.valueOf(value);
+            } else if (Boolean.class.equals(type) || boolean.class.equals(type)) {
+                parsed = Boolean.valueOf(value);
+            } else if (BigDecimal.class.equals(type)) {
+                parsed = new BigDecimal(value);
+            } else if (Instant.class.equals(type)) {
+                parsed = Instant.parse(value);
+            } else if (LocalDate.class.equals(type)) {
+                parsed = LocalDate.parse(value);
+            } else if (type.isEnum()) {
+                parsed = Enum.valueOf((Class<Enum>) type, value);
+            } else {
+                throw new IllegalArgumentException("Unsupported keyset sort type: " + type);
             }
+            return (Comparable<Object>) parsed;
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor value: " + value);
         }
     }
 }
@@ -0,0 +1,127 @@
+package io.flowinquiry.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+/**
+ * A {@link JwtDecoder} remembering the tokens it has verified, so the bursts of parallel requests a
+ * page sends with the same token are verified once.
+ *
+ * <p>Tokens are keyed by their SHA-256 digest, which keeps the keys small and cheap to compare.
+ * The cached {@link Jwt} still carries the token value, as the authentication built from it
+ * exposes the token as its credentials, so the cache holds live credentials and must stay in
+ * memory. Each entry expires at the {@code exp} of its token, or after {@code maxTtl} when that
+ * comes first. Rejected tokens are never cached.
+ */
+public class CachingJwtDecoder implements JwtDecoder {
+
+    private static final ThreadLocal<MessageDigest> DIGESTS =
+            ThreadLocal.withInitial(CachingJwtDecoder::newDigest);
+
+    private final JwtDecoder delegate;
+    private final Clock clock;
+    private final Cache<TokenDigest, Jwt> verifiedTokens;
+
+    public CachingJwtDecoder(JwtDecoder delegate, long maximumSize, Duration maxTtl) {
+        this(delegate, maximumSize, maxTtl, Clock.systemUTC());
+    }
+
+    CachingJwtDecoder(JwtDecoder delegate, long maximumSize, Duration maxTtl, Clock clock) {
+        this.delegate = delegate;
+        this.clock = clock;
+        long maxTtlNanos = maxTtl.toNanos();
+        this.verifiedTokens =
+                Caffeine.newBuilder()
+                        .maximumSize(maximumSize)
+                        .expireAfter(
+                                new Expiry<TokenDigest, Jwt>() {
+                                    @Override
+                                    public long expireAfterCreate(
+                                            TokenDigest key, Jwt jwt, long currentTime) {
+                                        return timeToLive(jwt, maxTtlNanos);
+                                    }
+
+                                    @Override
+                                    public long expireAfterUpdate(
+                                            TokenDigest key,
+                                            Jwt jwt,
+                                            long currentTime,
+                                            long currentDuration) {
+                                        return timeToLive(jwt, maxTtlNanos);
+                                    }
+
+                                    @Override
+                                    public long expireAfterRead(
+                                            TokenDigest key,
+                                            Jwt jwt,
+                                            long currentTime,
+                                            long currentDuration) {
+                                        return currentDuration;
+                                    }
+                                })
+                        .build();
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        if (token == null) {
+            return delegate.decode(null);
+        }
+        TokenDigest key = TokenDigest.of(token);
+        Jwt jwt = verifiedTokens.getIfPresent(key);
+        if (jwt != null && isUnexpired(jwt)) {
+            return jwt;
+        }
+        jwt = delegate.decode(token);
+        verifiedTokens.put(key, jwt);
+        return jwt;
+    }
+
+    private boolean isUnexpired(Jwt jwt) {
+        Instant expiresAt = jwt.getExpiresAt();
+        return expiresAt == null || clock.instant().isBefore(expiresAt);
+    }
+
+    private long timeToLive(Jwt jwt, long maxTtlNanos) {
+        Instant expiresAt = jwt.getExpiresAt();
+        if (expiresAt == null) {
+            return maxTtlNanos;
+        }
+        long untilExpiryMillis = Duration.between(clock.instant(), expiresAt).toMillis();
+        // Saturates instead of overflowing for far away expiries
+        long untilExpiry = TimeUnit.MILLISECONDS.toNanos(untilExpiryMillis);
+        return Math.max(0, Math.min(untilExpiry, maxTtlNanos));
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /** The SHA-256 digest of a token as four longs, cheaper to hash and compare than a string. */
+    private record TokenDigest(long first, long second, long third, long fourth) {
+
+        static TokenDigest of(String token) {
+            MessageDigest digest = DIGESTS.get();
+            ByteBuffer hash =
+                    ByteBuffer.wrap(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+            return new TokenDigest(
+                    hash.getLong(), hash.getLong(), hash.getLong(), hash.getLong());
+        }
+    }
+}
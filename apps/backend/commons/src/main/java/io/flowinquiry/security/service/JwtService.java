@@ -29,6 +29,10 @@ public class JwtService {
 
     private static final Logger LOG = LoggerFactory.getLogger(JwtService.class);
 
+    // Stateless once configured, so one instance serves every request
+    private static final JwtAuthenticationConverter AUTHENTICATION_CONVERTER =
+            new JwtAuthenticationConverter();
+
     private final JwtEncoder jwtEncoder;
 
     private final JwtDecoder jwtDecoder;
@@ -73,7 +77,7 @@ public class JwtService {
     public Authentication authenticateToken(String token) {
         try {
             Jwt jwt = jwtDecoder.decode(token);
-            return new JwtAuthenticationConverter().convert(jwt);
+            return AUTHENTICATION_CONVERTER.convert(jwt);
         } catch (JwtException e) {
             LOG.error("❌ Invalid JWT Token: " + e.getMessage(), e);
             return null;
@@ -0,0 +1,97 @@
+package io.flowinquiry.db.performance;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+public class StatementCountingFilterTest {
+
+    private static final String LOAD_TEAM = "select t.id, t.name from fw_team t where t.id=?";
+
+    private final StatementCounter statementCounter = new StatementCounter();
+
+    private final PerformanceFindings findings = new PerformanceFindings();
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private StatementCountingFilter filter;
+
+    @BeforeEach
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new StatementCountingFilter(statementCounter, findings, meterRegistry, 3);
+    }
+
+    @Test
+    public void testRepeatedStatementsAreFlagged() throws Exception {
+        MockHttpServletRequest request = request();
+
+        filter.doFilter(
+                request,
+                new MockHttpServletResponse(),
+                (req, res) -> {
+                    statementCounter.inspect("select t.id from fw_ticket t where t.team_id=?");
+                    for (int i = 0; i < 4; i++) {
+                        statementCounter.inspect(LOAD_TEAM);
+                    }
+                });
+
+        DistributionSummary statements =
+                meterRegistry
+                        .get("flowinquiry.db.statements.per.request")
+                        .tag("uri", "/api/teams/{teamId}/tickets")
+                        .summary();
+        assertThat(statements.count()).isEqualTo(1);
+        assertThat(statements.totalAmount()).isEqualTo(5);
+        assertThat(meterRegistry.get("flowinquiry.db.n_plus_one").counter().count()).isEqualTo(1);
+        assertThat(findings.getRepeatedStatements())
+                .singleElement()
+                .satisfies(
+                        finding -> {
+                            assertThat(finding.request())
+                                    .isEqualTo("GET /api/teams/{teamId}/tickets");
+                            assertThat(finding.repeated())
+                                    .containsExactly(
+                                            new StatementCounter.RepeatedStatement(LOAD_TEAM, 4));
+                        });
+    }
+
+    @Test
+    public void testStatementsOutsideRequestsAreNotCounted() throws Exception {
+        filter.doFilter(
+                request(),
+                new MockHttpServletResponse(),
+                (req, res) -> {
+                    for (int i = 0; i < 2; i++) {
+                        statementCounter.inspect(LOAD_TEAM);
+                    }
+                });
+        // After the request, e.g. a scheduled job on a pooled thread
+        for (int i = 0; i < 5; i++) {
+            statementCounter.inspect(LOAD_TEAM);
+        }
+
+        assertThat(
+                        meterRegistry
+                                .get("flowinquiry.db.statements.per.request")
+                                .summary()
+                                .totalAmount())
+                .isEqualTo(2);
+        assertThat(meterRegistry.find("flowinquiry.db.n_plus_one").counter()).isNull();
+        assertThat(findings.getRepeatedStatements()).isEmpty();
+    }
+
+    private static MockHttpServletRequest request() {
+        MockHttpServletRequest request =
+                new MockHttpServletRequest("GET", "/api/teams/1/tickets");
+        request.setAttribute(
+                HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/teams/{teamId}/tickets");
+        return request;
+    }
+}
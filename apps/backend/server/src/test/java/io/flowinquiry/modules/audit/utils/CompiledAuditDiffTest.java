@@ -0,0 +1,150 @@
+package io.flowinquiry.modules.audit.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.flowinquiry.modules.audit.service.AbstractEntityFieldHandlerRegistry;
+import io.flowinquiry.modules.audit.service.EntityFieldHandler;
+import io.flowinquiry.modules.collab.domain.EntityType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class CompiledAuditDiffTest {
+
+    private TestRegistry registry;
+
+    @BeforeEach
+    public void setup() {
+        registry = new TestRegistry();
+    }
+
+    @Test
+    public void testFindChangesOnlyReportsHandledFields() {
+        TestEntity previous = new TestEntity(1L, "Old", 10L, false, "internal");
+        TestEntity updated = new TestEntity(1L, "New", 11L, true, "changed");
+
+        List<AuditUtils.FieldChange> changes =
+                AuditUtils.findChanges(previous, updated, registry);
+
+        assertThat(changes)
+                .extracting(AuditUtils.FieldChange::getFieldName)
+                .containsExactly("Name", "Owner", "Archived");
+        assertThat(changes.get(1).getOldValue()).isEqualTo("user-10");
+        assertThat(changes.get(1).getNewValue()).isEqualTo("user-11");
+    }
+
+    @Test
+    public void testFindChangesTreatsNullTransitionsAsChanges() {
+        TestEntity previous = new TestEntity(1L, null, 10L, false, null);
+        TestEntity updated = new TestEntity(1L, "New", null, false, null);
+
+        List<AuditUtils.FieldChange> changes =
+                AuditUtils.findChanges(previous, updated, registry);
+
+        assertThat(changes)
+                .extracting(AuditUtils.FieldChange::getFieldName)
+                .containsExactly("Name", "Owner");
+        assertThat(changes.get(0).getOldValue()).isEqualTo("");
+        assertThat(changes.get(1).getNewValue()).isEqualTo("");
+    }
+
+    @Test
+    public void testFindChangesPrefetchesChangedValuesOnce() {
+        TestEntity previous = new TestEntity(1L, "Same", 10L, false, null);
+        TestEntity updated = new TestEntity(1L, "Same", 11L, false, null);
+
+        AuditUtils.findChanges(previous, updated, registry);
+
+        assertThat(registry.prefetched).hasSize(1);
+        assertThat(registry.prefetched.get(0)).containsOnlyKeys("ownerId");
+        assertThat(registry.prefetched.get(0).get("ownerId")).containsExactly(10L, 11L);
+    }
+
+    @Test
+    public void testFindChangesWithoutChangesSkipsPrefetch() {
+        TestEntity previous = new TestEntity(1L, "Same", 10L, false, "a");
+        TestEntity updated = new TestEntity(1L, "Same", 10L, false, "b");
+
+        assertThat(AuditUtils.findChanges(previous, updated, registry)).isEmpty();
+        assertThat(registry.prefetched).isEmpty();
+    }
+
+    @Test
+    public void testFindChangesRejectsMismatchedRegistry() {
+        assertThatThrownBy(() -> AuditUtils.findChanges("a", "b", registry))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void testExtractId() {
+        assertThat(CompiledAuditDiff.extractId(new TestEntity(7L, null, null, false, null)))
+                .isEqualTo(7L);
+    }
+
+    private static class TestRegistry extends AbstractEntityFieldHandlerRegistry {
+
+        private final List<Map<String, Set<Object>>> prefetched = new ArrayList<>();
+
+        @Override
+        protected void initializeFieldHandlers() {
+            addFieldHandler("name", new EntityFieldHandler<TestEntity>("Name"));
+            addFieldHandler(
+                    "ownerId",
+                    new EntityFieldHandler<TestEntity>(
+                            "Owner", (entity, value) -> value == null ? "" : "user-" + value));
+            addFieldHandler("archived", new EntityFieldHandler<TestEntity>("Archived"));
+        }
+
+        @Override
+        public void prefetchDisplayValues(Map<String, Set<Object>> rawValuesByField) {
+            prefetched.add(rawValuesByField);
+        }
+
+        @Override
+        public Class<?> getEntityClass() {
+            return TestEntity.class;
+        }
+
+        @Override
+        public EntityType getEntityType() {
+            return EntityType.Ticket;
+        }
+    }
+
+    private static class TestEntity {
+        private final Long id;
+        private final String name;
+        private final Long ownerId;
+        private final boolean archived;
+        // No getter, read through a field handle
+        private final String notes;
+
+        TestEntity(Long id, String name, Long ownerId, boolean archived, String notes) {
+            this.id = id;
+            this.name = name;
+            this.ownerId = ownerId;
+            this.archived = archived;
+            this.notes = notes;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Long getOwnerId() {
+            return ownerId;
+        }
+
+        public boolean isArchived() {
+            return archived;
+        }
+    }
+}
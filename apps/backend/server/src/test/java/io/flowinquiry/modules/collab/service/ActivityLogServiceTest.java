@@ -0,0 +1,58 @@
+package io.flowinquiry.modules.collab.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import io.flowinquiry.modules.collab.repository.ActivityLogRepository;
+import io.flowinquiry.modules.collab.service.mapper.ActivityLogMapper;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+
+@ExtendWith(MockitoExtension.class)
+public class ActivityLogServiceTest {
+
+    private static final Long USER_ID = 5L;
+
+    @Mock private ActivityLogRepository activityLogRepository;
+
+    @Mock private ActivityLogMapper activityLogMapper;
+
+    private ActivityLogService activityLogService;
+
+    @BeforeEach
+    public void setup() {
+        activityLogService = new ActivityLogService(activityLogRepository, activityLogMapper);
+    }
+
+    @Test
+    public void testLimitsTheKeysetPageSize() {
+        when(activityLogRepository.findLatestByUserTeams(eq(USER_ID), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of()));
+
+        activityLogService.getActivitiesForUserAfter(USER_ID, null, 1_000_000);
+
+        ArgumentCaptor<Pageable> pageableCaptor = ArgumentCaptor.forClass(Pageable.class);
+        verify(activityLogRepository).findLatestByUserTeams(eq(USER_ID), pageableCaptor.capture());
+        assertThat(pageableCaptor.getValue().getPageSize())
+                .isEqualTo(ActivityLogService.MAX_KEYSET_PAGE_SIZE);
+    }
+
+    @Test
+    public void testRejectsANonPositivePageSize() {
+        assertThatThrownBy(() -> activityLogService.getActivitiesForUserAfter(USER_ID, null, 0))
+                .isExactlyInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(activityLogRepository);
+    }
+}
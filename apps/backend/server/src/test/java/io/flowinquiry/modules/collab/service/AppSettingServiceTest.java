@@ -0,0 +1,94 @@
+package io.flowinquiry.modules.collab.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.flowinquiry.modules.collab.domain.AppSetting;
+import io.flowinquiry.modules.collab.repository.AppSettingRepository;
+import io.flowinquiry.modules.collab.service.dto.AppSettingDTO;
+import io.flowinquiry.modules.collab.service.event.AppSettingsChangedEvent;
+import io.flowinquiry.modules.collab.service.event.MailSettingsUpdatedEvent;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+@ExtendWith(MockitoExtension.class)
+public class AppSettingServiceTest {
+
+    @Mock private AppSettingRepository appSettingRepository;
+
+    @Mock private ApplicationEventPublisher eventPublisher;
+
+    private AppSettingService appSettingService;
+
+    @BeforeEach
+    public void setup() {
+        appSettingService = new AppSettingService(appSettingRepository, eventPublisher);
+    }
+
+    @Test
+    public void testReadsAreServedFromOneSnapshot() {
+        when(appSettingRepository.findAll())
+                .thenReturn(
+                        List.of(
+                                setting("mail.port", "587", "string", "mail"),
+                                setting("mail.host", "smtp.example.com", "string", "mail"),
+                                setting("mail.password", "secret", "secret:AES", "mail"),
+                                setting("ui.theme", "dark", "string", null)));
+
+        assertThat(appSettingService.getValue("mail.host")).contains("smtp.example.com");
+        assertThat(appSettingService.getDecryptedValue("mail.password")).contains("secret");
+        assertThat(appSettingService.getValue("missing")).isEmpty();
+        assertThat(appSettingService.getSettingsByGroup("mail"))
+                .extracting(AppSettingDTO::getKey)
+                .containsExactly("mail.host", "mail.password", "mail.port");
+        assertThat(appSettingService.getAllValues())
+                .containsKeys("mail.host", "mail.password", "mail.port", "ui.theme");
+
+        verify(appSettingRepository).findAll();
+    }
+
+    @Test
+    public void testCommittedChangeSwapsSnapshotAndReloadsMailSettings() {
+        when(appSettingRepository.findAll())
+                .thenReturn(List.of(setting("mail.host", "old.example.com", "string", "mail")))
+                .thenReturn(List.of(setting("mail.host", "new.example.com", "string", "mail")));
+        AppSettingsSnapshot before = appSettingService.getSnapshot();
+
+        appSettingService.onAppSettingsChanged(
+                new AppSettingsChangedEvent(this, Set.of("mail.host"), true));
+
+        assertThat(before.getValue("mail.host")).contains("old.example.com");
+        assertThat(appSettingService.getValue("mail.host")).contains("new.example.com");
+        verify(appSettingRepository, times(2)).findAll();
+        verify(eventPublisher).publishEvent(any(MailSettingsUpdatedEvent.class));
+    }
+
+    @Test
+    public void testOtherChangesDoNotReloadMailSettings() {
+        when(appSettingRepository.findAll()).thenReturn(List.of());
+
+        appSettingService.onAppSettingsChanged(
+                new AppSettingsChangedEvent(this, Set.of("ui.theme"), false));
+
+        verify(eventPublisher, never()).publishEvent(any(MailSettingsUpdatedEvent.class));
+    }
+
+    private static AppSetting setting(String key, String value, String type, String group) {
+        AppSetting setting = new AppSetting();
+        setting.setKey(key);
+        setting.setValue(value);
+        setting.setType(type);
+        setting.setGroup(group);
+        return setting;
+    }
+}
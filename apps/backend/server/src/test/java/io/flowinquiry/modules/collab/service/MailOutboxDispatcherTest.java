@@ -0,0 +1,82 @@
+package io.flowinquiry.modules.collab.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class MailOutboxDispatcherTest {
+
+    @Mock private MailOutbox mailOutbox;
+
+    @Mock private MailService mailService;
+
+    private MailOutboxDispatcher dispatcher;
+
+    @BeforeEach
+    public void setup() {
+        dispatcher =
+                new MailOutboxDispatcher(
+                        mailOutbox,
+                        mailService,
+                        new SimpleMeterRegistry(),
+                        2,
+                        100,
+                        50,
+                        Duration.ofSeconds(5),
+                        Duration.ofMinutes(5),
+                        8,
+                        Duration.ofSeconds(30),
+                        Duration.ofHours(1),
+                        10,
+                        20,
+                        Duration.ofMinutes(1));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        dispatcher.shutdown();
+    }
+
+    @Test
+    public void testNothingIsClaimedWhileMailIsNotConfigured() {
+        when(mailService.getMailSender()).thenReturn(null);
+
+        assertThat(dispatcher.dispatchOnce()).isZero();
+
+        verify(mailOutbox, never()).claim(anyInt(), any());
+    }
+
+    @Test
+    public void testBackoffDoublesUpToTheMaximum() {
+        assertThat(dispatcher.backoff(1)).isBetween(Duration.ofSeconds(15), Duration.ofSeconds(30));
+        assertThat(dispatcher.backoff(3)).isBetween(Duration.ofMinutes(1), Duration.ofMinutes(2));
+        assertThat(dispatcher.backoff(40)).isBetween(Duration.ofMinutes(30), Duration.ofHours(1));
+    }
+
+    @Test
+    public void testDomainRateLimiterDefersOverTheBurst() {
+        MailOutboxDispatcher.DomainRateLimiter limiter =
+                new MailOutboxDispatcher.DomainRateLimiter(1, 2);
+
+        assertThat(limiter.tryAcquire("example.com")).isZero();
+        assertThat(limiter.tryAcquire("example.com")).isZero();
+        assertThat(limiter.tryAcquire("example.com"))
+                .isBetween(1L, TimeUnit.MILLISECONDS.toNanos(1001));
+        assertThat(limiter.tryAcquire("flowinquiry.io")).isZero();
+        assertThat(limiter.intervalNanos()).isEqualTo(TimeUnit.SECONDS.toNanos(1));
+    }
+}
@@ -0,0 +1,112 @@
+package io.flowinquiry.modules.collab.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.flowinquiry.modules.collab.EmailContext;
+import io.flowinquiry.modules.collab.service.MailTemplateRenderer.RenderedEmail;
+import io.flowinquiry.modules.usermanagement.service.dto.UserDTO;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.MessageSource;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.StringTemplateResolver;
+
+@ExtendWith(MockitoExtension.class)
+public class MailTemplateRendererTest {
+
+    // The template name is the template itself with a string resolver
+    private static final String TEMPLATE =
+            "<p>Hi <span th:text=\"${user.firstName}\"></span>"
+                    + " <span th:text=\"${user.lastName}\"></span>,</p>"
+                    + "<p th:text=\"${ticket}\"></p>"
+                    + "<a th:href=\"@{|${baseUrl}/users/${user.email}|}\">profile</a>";
+
+    @Mock private MessageSource messageSource;
+
+    private MailTemplateRenderer renderer;
+
+    @BeforeEach
+    public void setup() {
+        StringTemplateResolver resolver = new StringTemplateResolver();
+        resolver.setTemplateMode(TemplateMode.HTML);
+        TemplateEngine templateEngine = new TemplateEngine();
+        templateEngine.setTemplateResolver(resolver);
+        renderer = new MailTemplateRenderer(templateEngine);
+    }
+
+    @Test
+    public void testFanOutRendersSameContentAsEachEmail() {
+        when(messageSource.getMessage(eq("email.subject"), any(), eq(Locale.ENGLISH)))
+                .thenReturn("New ticket");
+        List<EmailContext> emails =
+                emails(
+                        TEMPLATE,
+                        user("Ann", "Lee", "ann@example.com"),
+                        user("<Bob>", "O'Neil & Co", "bob@example.com"),
+                        user("Cid", null, "cid@example.com"),
+                        user("Dee", "Ng", "dee@example.com"));
+
+        List<RenderedEmail> rendered = renderer.renderAll(emails);
+
+        assertThat(rendered).hasSize(4);
+        for (int i = 0; i < emails.size(); i++) {
+            assertThat(rendered.get(i).recipient()).isSameAs(emails.get(i).getToUser());
+            assertThat(rendered.get(i).subject()).isEqualTo("New ticket");
+            assertThat(rendered.get(i).content()).isEqualTo(renderer.render(emails.get(i)));
+        }
+        assertThat(rendered.get(1).content()).contains("&lt;Bob&gt;");
+        // Resolved once for the whole fan-out
+        verify(messageSource).getMessage(eq("email.subject"), any(), eq(Locale.ENGLISH));
+    }
+
+    @Test
+    public void testTemplateTransformingRecipientFieldsIsRenderedForEachEmail() {
+        when(messageSource.getMessage(eq("email.subject"), any(), eq(Locale.ENGLISH)))
+                .thenReturn("New ticket");
+        String template = "<p th:text=\"${#strings.toUpperCase(user.firstName)}\"></p>";
+        List<EmailContext> emails =
+                emails(
+                        template,
+                        user("Ann", "Lee", "ann@example.com"),
+                        user("Bob", "Ray", "bob@example.com"),
+                        user("Cid", "Wu", "cid@example.com"));
+
+        List<RenderedEmail> rendered = renderer.renderAll(emails);
+
+        assertThat(rendered)
+                .extracting(RenderedEmail::content)
+                .containsExactly("<p>ANN</p>", "<p>BOB</p>", "<p>CID</p>");
+    }
+
+    private List<EmailContext> emails(String template, UserDTO... recipients) {
+        List<EmailContext> emails = new ArrayList<>();
+        for (UserDTO recipient : recipients) {
+            emails.add(
+                    new EmailContext(Locale.ENGLISH, "http://localhost", messageSource)
+                            .setToUser(recipient)
+                            .setSubject("email.subject", "Ticket")
+                            .addVariable("ticket", "Printer is broken")
+                            .setTemplate(template));
+        }
+        return emails;
+    }
+
+    private static UserDTO user(String firstName, String lastName, String email) {
+        UserDTO user = new UserDTO();
+        user.setFirstName(firstName);
+        user.setLastName(lastName);
+        user.setEmail(email);
+        return user;
+    }
+}
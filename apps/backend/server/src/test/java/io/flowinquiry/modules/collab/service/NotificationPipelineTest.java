@@ -0,0 +1,141 @@
+package io.flowinquiry.modules.collab.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.flowinquiry.modules.collab.domain.ActivityLog;
+import io.flowinquiry.modules.collab.domain.EntityType;
+import io.flowinquiry.modules.collab.domain.NotificationType;
+import io.flowinquiry.modules.collab.repository.ActivityLogRepository;
+import io.flowinquiry.modules.collab.service.dto.NotificationDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+@ExtendWith(MockitoExtension.class)
+public class NotificationPipelineTest {
+
+    @Mock private JdbcTemplate jdbcTemplate;
+
+    @Mock private ActivityLogRepository activityLogRepository;
+
+    @Mock private SimpMessagingTemplate messageTemplate;
+
+    @Mock private UnreadNotificationCache unreadNotificationCache;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private NotificationPipeline pipeline;
+
+    @BeforeEach
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        AtomicLong ids = new AtomicLong(1);
+        // Seven parameters per inserted row
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), any(Object[].class)))
+                .thenAnswer(
+                        invocation -> {
+                            int rows = ((Object[]) invocation.getRawArguments()[2]).length / 7;
+                            return LongStream.range(0, rows)
+                                    .mapToObj(row -> ids.getAndIncrement())
+                                    .toList();
+                        });
+    }
+
+    @AfterEach
+    public void tearDown() {
+        pipeline.shutdown();
+    }
+
+    @Test
+    public void testDrainCoalescesPerRecipient() {
+        pipeline = newPipeline(100);
+        pipeline.submit("<p>a</p>", NotificationType.INFO, List.of(1L, 2L), activityLog());
+        pipeline.submit("<p>a</p>", NotificationType.INFO, List.of(2L), null);
+        pipeline.submit("<p>b</p>", NotificationType.INFO, List.of(2L, 3L), activityLog());
+
+        pipeline.drain();
+
+        verify(jdbcTemplate).queryForList(anyString(), eq(Long.class), any(Object[].class));
+        ArgumentCaptor<List<ActivityLog>> activityLogCaptor = ArgumentCaptor.forClass(List.class);
+        verify(activityLogRepository).saveAll(activityLogCaptor.capture());
+        assertThat(activityLogCaptor.getValue()).hasSize(2);
+        ArgumentCaptor<List<NotificationDTO>> frameCaptor = ArgumentCaptor.forClass(List.class);
+        verify(messageTemplate)
+                .convertAndSendToUser(
+                        eq("2"), eq(NotificationPipeline.BATCH_DESTINATION), frameCaptor.capture());
+        assertThat(frameCaptor.getValue())
+                .extracting(NotificationDTO::getContent)
+                .containsExactly("<p>a</p>", "<p>b</p>");
+        verify(messageTemplate)
+                .convertAndSendToUser(eq("1"), eq(NotificationPipeline.BATCH_DESTINATION), any());
+        verify(messageTemplate)
+                .convertAndSendToUser(eq("3"), eq(NotificationPipeline.BATCH_DESTINATION), any());
+        assertThat(meterRegistry.counter("flowinquiry.notification.pipeline.coalesced").count())
+                .isEqualTo(1);
+        ArgumentCaptor<Map<Long, List<NotificationDTO>>> insertedCaptor =
+                ArgumentCaptor.forClass(Map.class);
+        verify(unreadNotificationCache).onInserted(insertedCaptor.capture());
+        assertThat(insertedCaptor.getValue()).containsOnlyKeys(1L, 2L, 3L);
+        assertThat(meterRegistry.counter("flowinquiry.notification.pipeline.frames").count())
+                .isEqualTo(3);
+    }
+
+    @Test
+    public void testFullQueueDeliversOnCallerThread() {
+        pipeline = newPipeline(1);
+        pipeline.submit("<p>a</p>", NotificationType.INFO, List.of(1L), null);
+        pipeline.submit("<p>b</p>", NotificationType.INFO, List.of(1L), null);
+
+        ArgumentCaptor<List<NotificationDTO>> frameCaptor = ArgumentCaptor.forClass(List.class);
+        verify(messageTemplate)
+                .convertAndSendToUser(
+                        eq("1"), eq(NotificationPipeline.BATCH_DESTINATION), frameCaptor.capture());
+        assertThat(frameCaptor.getValue())
+                .extracting(NotificationDTO::getContent)
+                .containsExactly("<p>b</p>");
+        assertThat(
+                        meterRegistry
+                                .counter(
+                                        "flowinquiry.notification.pipeline.requests",
+                                        "outcome",
+                                        "caller_runs")
+                                .count())
+                .isEqualTo(1);
+        verify(activityLogRepository, never()).saveAll(any());
+    }
+
+    private NotificationPipeline newPipeline(int queueCapacity) {
+        // A long window so only the test drains the queue
+        return new NotificationPipeline(
+                jdbcTemplate,
+                activityLogRepository,
+                messageTemplate,
+                unreadNotificationCache,
+                meterRegistry,
+                queueCapacity,
+                60_000,
+                0,
+                100);
+    }
+
+    private static ActivityLog activityLog() {
+        return ActivityLog.builder().entityId(1L).entityType(EntityType.Team).build();
+    }
+}
@@ -0,0 +1,70 @@
+package io.flowinquiry.modules.collab.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import io.flowinquiry.modules.collab.repository.NotificationRepository;
+import io.flowinquiry.modules.collab.service.mapper.NotificationMapper;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+
+@ExtendWith(MockitoExtension.class)
+public class NotificationServiceTest {
+
+    private static final Long USER_ID = 5L;
+
+    @Mock private NotificationRepository notificationRepository;
+
+    @Mock private NotificationMapper notificationMapper;
+
+    @Mock private UnreadNotificationCache unreadNotificationCache;
+
+    @Mock private ApplicationEventPublisher eventPublisher;
+
+    private NotificationService notificationService;
+
+    @BeforeEach
+    public void setup() {
+        notificationService =
+                new NotificationService(
+                        notificationRepository,
+                        notificationMapper,
+                        unreadNotificationCache,
+                        eventPublisher);
+    }
+
+    @Test
+    public void testLimitsTheKeysetPageSize() {
+        when(notificationRepository.findByUserIdOrderByCreatedAtDescIdDesc(
+                        eq(USER_ID), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of()));
+
+        notificationService.getNotificationsForUserAfter(USER_ID, null, 1_000_000);
+
+        ArgumentCaptor<Pageable> pageableCaptor = ArgumentCaptor.forClass(Pageable.class);
+        verify(notificationRepository)
+                .findByUserIdOrderByCreatedAtDescIdDesc(eq(USER_ID), pageableCaptor.capture());
+        assertThat(pageableCaptor.getValue().getPageSize())
+                .isEqualTo(NotificationService.MAX_KEYSET_PAGE_SIZE);
+    }
+
+    @Test
+    public void testRejectsANonPositivePageSize() {
+        assertThatThrownBy(() -> notificationService.getNotificationsForUserAfter(USER_ID, null, 0))
+                .isExactlyInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(notificationRepository);
+    }
+}
@@ -0,0 +1,158 @@
+package io.flowinquiry.modules.collab.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.flowinquiry.modules.collab.domain.Notification;
+import io.flowinquiry.modules.collab.domain.NotificationType;
+import io.flowinquiry.modules.collab.repository.NotificationRepository;
+import io.flowinquiry.modules.collab.service.dto.NotificationDTO;
+import io.flowinquiry.modules.collab.service.dto.UnreadNotificationCountDTO;
+import io.flowinquiry.modules.collab.service.dto.UnreadNotificationSummaryDTO;
+import io.flowinquiry.modules.collab.service.event.NotificationsReadEvent;
+import io.flowinquiry.modules.collab.service.mapper.NotificationMapper;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+@ExtendWith(MockitoExtension.class)
+public class UnreadNotificationCacheTest {
+
+    private static final Long USER_ID = 5L;
+
+    @Mock private NotificationRepository notificationRepository;
+
+    @Mock private NotificationMapper notificationMapper;
+
+    @Mock private SimpMessagingTemplate messageTemplate;
+
+    private UnreadNotificationCache cache;
+
+    @BeforeEach
+    public void setup() {
+        cache =
+                new UnreadNotificationCache(
+                        notificationRepository,
+                        notificationMapper,
+                        messageTemplate,
+                        2,
+                        100,
+                        Duration.ofMinutes(10));
+    }
+
+    @Test
+    public void testGetSummaryLoadsOnce() {
+        stubLoad(3L, 12L, notification(12L), notification(11L));
+
+        UnreadNotificationSummaryDTO summary = cache.getSummary(USER_ID);
+        cache.getSummary(USER_ID);
+
+        assertThat(summary.getUnreadCount()).isEqualTo(3);
+        assertThat(summary.getLatest())
+                .extracting(NotificationDTO::getId)
+                .containsExactly(12L, 11L);
+        verify(notificationRepository).countUnreadByUserId(USER_ID);
+    }
+
+    @Test
+    public void testOnInsertedUpdatesCachedUsersAndPushes() {
+        stubLoad(1L, 10L, notification(10L));
+        cache.getSummary(USER_ID);
+
+        cache.onInserted(
+                Map.of(
+                        USER_ID,
+                        List.of(notification(10L), notification(20L), notification(21L)),
+                        99L,
+                        List.of(notification(22L))));
+
+        ArgumentCaptor<UnreadNotificationSummaryDTO> summaryCaptor =
+                ArgumentCaptor.forClass(UnreadNotificationSummaryDTO.class);
+        verify(messageTemplate)
+                .convertAndSendToUser(
+                        eq("5"), eq(UnreadNotificationCache.DESTINATION), summaryCaptor.capture());
+        // Notification 10 was part of the loaded count already
+        assertThat(summaryCaptor.getValue().getUnreadCount()).isEqualTo(3);
+        assertThat(summaryCaptor.getValue().getLatest())
+                .extracting(NotificationDTO::getId)
+                .containsExactly(21L, 20L);
+        verify(messageTemplate, never()).convertAndSendToUser(eq("99"), any(), any());
+    }
+
+    @Test
+    public void testOnInsertedCountsNotificationsDeliveredOutOfOrder() {
+        stubLoad(1L, 10L, notification(10L));
+        cache.getSummary(USER_ID);
+
+        // The drainer and a caller running the pipeline under backpressure race each other
+        cache.onInserted(Map.of(USER_ID, List.of(notification(21L))));
+        cache.onInserted(Map.of(USER_ID, List.of(notification(20L))));
+        cache.onInserted(Map.of(USER_ID, List.of(notification(21L))));
+
+        UnreadNotificationSummaryDTO summary = cache.getSummary(USER_ID);
+        assertThat(summary.getUnreadCount()).isEqualTo(3);
+        assertThat(summary.getLatest())
+                .extracting(NotificationDTO::getId)
+                .containsExactly(21L, 20L);
+    }
+
+    @Test
+    public void testOnNotificationsReadReloadsShortList() {
+        stubLoad(3L, 12L, notification(12L), notification(11L));
+        cache.getSummary(USER_ID);
+
+        cache.onNotificationsRead(new NotificationsReadEvent(this, Map.of(USER_ID, List.of(12L))));
+
+        ArgumentCaptor<UnreadNotificationSummaryDTO> summaryCaptor =
+                ArgumentCaptor.forClass(UnreadNotificationSummaryDTO.class);
+        verify(messageTemplate)
+                .convertAndSendToUser(
+                        eq("5"), eq(UnreadNotificationCache.DESTINATION), summaryCaptor.capture());
+        assertThat(summaryCaptor.getValue().getUnreadCount()).isEqualTo(2);
+        assertThat(summaryCaptor.getValue().getLatest())
+                .extracting(NotificationDTO::getId)
+                .containsExactly(11L);
+
+        // One of the two older unread notifications is missing from the list, so it is reloaded
+        cache.getSummary(USER_ID);
+        verify(notificationRepository, times(2)).countUnreadByUserId(USER_ID);
+    }
+
+    private void stubLoad(Long unreadCount, Long lastUnreadId, NotificationDTO... latest) {
+        when(notificationRepository.countUnreadByUserId(USER_ID))
+                .thenReturn(new UnreadNotificationCountDTO(unreadCount, lastUnreadId));
+        List<Notification> entities =
+                List.of(latest).stream()
+                        .map(dto -> Notification.builder().id(dto.getId()).build())
+                        .toList();
+        when(notificationRepository.findByUserIdAndIsReadFalseOrderByCreatedAtDescIdDesc(
+                        eq(USER_ID), any(Pageable.class)))
+                .thenReturn(entities);
+        for (int i = 0; i < latest.length; i++) {
+            when(notificationMapper.toDTO(entities.get(i))).thenReturn(latest[i]);
+        }
+    }
+
+    private static NotificationDTO notification(Long id) {
+        return NotificationDTO.builder()
+                .id(id)
+                .type(NotificationType.INFO)
+                .content("<p>" + id + "</p>")
+                .userId(USER_ID)
+                .isRead(false)
+                .build();
+    }
+}
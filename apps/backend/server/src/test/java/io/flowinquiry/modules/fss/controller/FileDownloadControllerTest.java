@@ -0,0 +1,102 @@
+package io.flowinquiry.modules.fss.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+import io.flowinquiry.modules.fss.service.ImageDerivativeWorker;
+import io.flowinquiry.modules.fss.service.StorageService;
+import io.flowinquiry.modules.fss.service.StoredObjectMetadata;
+import io.flowinquiry.modules.fss.service.dto.ImageDerivativeStatusDTO;
+import java.time.Instant;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@ExtendWith(MockitoExtension.class)
+public class FileDownloadControllerTest {
+
+    private static final String PATH = "attachments/report.pdf";
+
+    @Mock private StorageService storageService;
+
+    @Mock private ImageDerivativeWorker imageDerivativeWorker;
+
+    private FileDownloadController controller;
+
+    @BeforeEach
+    public void setup() {
+        controller = new FileDownloadController(storageService, imageDerivativeWorker);
+    }
+
+    @Test
+    public void testServePartialContentForASatisfiableRange() throws Exception {
+        storedFileOf(100);
+
+        ResponseEntity<StreamingResponseBody> response = download("bytes=10-19");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.PARTIAL_CONTENT);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE))
+                .isEqualTo("bytes 10-19/100");
+        assertThat(response.getHeaders().getContentLength()).isEqualTo(10);
+    }
+
+    @Test
+    public void testServeTheWholeFileForAnInvalidRange() throws Exception {
+        storedFileOf(100);
+
+        ResponseEntity<StreamingResponseBody> response = download("bytes=abc");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getContentLength()).isEqualTo(100);
+        assertThat(response.getHeaders().containsKey(HttpHeaders.CONTENT_RANGE)).isFalse();
+    }
+
+    @Test
+    public void testRejectAnUnsatisfiableRange() throws Exception {
+        storedFileOf(100);
+
+        ResponseEntity<StreamingResponseBody> response = download("bytes=200-300");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE))
+                .isEqualTo("bytes */100");
+    }
+
+    @Test
+    public void testAskToRetryAnImageStillBeingConverted() throws Exception {
+        when(imageDerivativeWorker.getStatus(PATH))
+                .thenReturn(
+                        Optional.of(
+                                new ImageDerivativeStatusDTO(
+                                        PATH,
+                                        ImageDerivativeWorker.thumbnailPath(PATH),
+                                        ImageDerivativeStatusDTO.Status.PROCESSING)));
+
+        ResponseEntity<StreamingResponseBody> response = download(null);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+    }
+
+    private void storedFileOf(long size) throws Exception {
+        when(imageDerivativeWorker.getStatus(PATH)).thenReturn(Optional.empty());
+        when(storageService.getMetadata("attachments", "report.pdf"))
+                .thenReturn(new StoredObjectMetadata(size, Instant.now(), "abc123"));
+    }
+
+    private ResponseEntity<StreamingResponseBody> download(String range) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/files/" + PATH);
+        if (range != null) {
+            request.addHeader(HttpHeaders.RANGE, range);
+        }
+        return controller.downloadFile(request);
+    }
+}
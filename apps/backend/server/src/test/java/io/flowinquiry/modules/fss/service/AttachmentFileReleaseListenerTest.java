@@ -0,0 +1,143 @@
+package io.flowinquiry.modules.fss.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+import io.flowinquiry.modules.fss.repository.EntityAttachmentRepository;
+import io.flowinquiry.modules.fss.service.event.AttachmentFilesReleasedEvent;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class AttachmentFileReleaseListenerTest {
+
+    private static final byte[] CONTENT = "screenshot".getBytes(StandardCharsets.UTF_8);
+
+    private static final Duration GRACE_PERIOD = Duration.ofMinutes(10);
+
+    @TempDir Path rootDirectory;
+
+    @Mock private EntityAttachmentRepository entityAttachmentRepository;
+
+    private ImageDerivativeWorker imageDerivativeWorker;
+
+    private ContentAddressedStorageService storageService;
+
+    private AttachmentFileReleaseListener listener;
+
+    private String fileUrl;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        imageDerivativeWorker = new ImageDerivativeWorker(1, 10, 128, Duration.ofMinutes(1));
+        storageService =
+                new ContentAddressedStorageService(rootDirectory.toString(), imageDerivativeWorker);
+        listener =
+                new AttachmentFileReleaseListener(
+                        entityAttachmentRepository, storageService, GRACE_PERIOD);
+
+        // Uploaded long before it is released
+        fileUrl = upload();
+        Files.setLastModifiedTime(
+                blob(), FileTime.from(Instant.now().minus(Duration.ofHours(1))));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        imageDerivativeWorker.shutdown();
+    }
+
+    @Test
+    public void testDeleteReleasedFileAfterGracePeriod() {
+        when(entityAttachmentRepository.countByFileUrl(fileUrl)).thenReturn(0L);
+        Instant releasedAt = release();
+
+        listener.deleteReleasedFiles(releasedAt.plusSeconds(1));
+        assertThat(blob()).exists();
+
+        listener.deleteReleasedFiles(afterGracePeriod(releasedAt));
+        assertThat(blob()).doesNotExist();
+    }
+
+    @Test
+    public void testKeepFileStillReferenced() {
+        when(entityAttachmentRepository.countByFileUrl(fileUrl)).thenReturn(1L);
+        Instant releasedAt = release();
+
+        listener.deleteReleasedFiles(afterGracePeriod(releasedAt));
+
+        assertThat(blob()).exists();
+    }
+
+    @Test
+    public void testKeepFileReusedByUploadNotCommittedWhenReleased() throws Exception {
+        // The upload reuses the file, its attachment commits after the release counted none
+        assertThat(upload()).isEqualTo(fileUrl);
+        when(entityAttachmentRepository.countByFileUrl(fileUrl)).thenReturn(0L, 1L);
+        Instant releasedAt = release();
+
+        Instant firstSweep = afterGracePeriod(releasedAt);
+        listener.deleteReleasedFiles(firstSweep);
+        assertThat(blob()).exists();
+
+        listener.deleteReleasedFiles(afterGracePeriod(firstSweep));
+        assertThat(blob()).exists();
+    }
+
+    @Test
+    public void testDeleteFileOnceTheReusingUploadIsAbandoned() throws Exception {
+        assertThat(upload()).isEqualTo(fileUrl);
+        when(entityAttachmentRepository.countByFileUrl(fileUrl)).thenReturn(0L);
+        Instant releasedAt = release();
+
+        Instant firstSweep = afterGracePeriod(releasedAt);
+        listener.deleteReleasedFiles(firstSweep);
+        assertThat(blob()).exists();
+
+        listener.deleteReleasedFiles(afterGracePeriod(firstSweep));
+        assertThat(blob()).doesNotExist();
+    }
+
+    @Test
+    public void testUploadAfterDeletionStoresTheFileAgain() throws Exception {
+        when(entityAttachmentRepository.countByFileUrl(fileUrl)).thenReturn(0L);
+        listener.deleteReleasedFiles(afterGracePeriod(release()));
+        assertThat(blob()).doesNotExist();
+
+        assertThat(upload()).isEqualTo(fileUrl);
+
+        assertThat(Files.readAllBytes(blob())).isEqualTo(CONTENT);
+    }
+
+    private Instant release() {
+        Instant releasedAt = Instant.now();
+        listener.releaseFiles(new AttachmentFilesReleasedEvent(this, Set.of(fileUrl)));
+        return releasedAt;
+    }
+
+    private static Instant afterGracePeriod(Instant instant) {
+        return instant.plus(GRACE_PERIOD).plusSeconds(1);
+    }
+
+    private String upload() throws Exception {
+        return storageService.uploadFile(
+                StorageService.ATTACHMENTS, "screenshot.png", new ByteArrayInputStream(CONTENT));
+    }
+
+    private Path blob() {
+        return rootDirectory.resolve(fileUrl);
+    }
+}
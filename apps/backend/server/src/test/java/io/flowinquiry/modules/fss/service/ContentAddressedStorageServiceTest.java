@@ -0,0 +1,86 @@
+package io.flowinquiry.modules.fss.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ContentAddressedStorageServiceTest {
+
+    private static final byte[] CONTENT = "screenshot".getBytes(StandardCharsets.UTF_8);
+
+    @TempDir Path rootDirectory;
+
+    private ImageDerivativeWorker imageDerivativeWorker;
+
+    private ContentAddressedStorageService storageService;
+
+    @BeforeEach
+    public void setup() {
+        imageDerivativeWorker = new ImageDerivativeWorker(1, 10, 128, Duration.ofMinutes(1));
+        storageService =
+                new ContentAddressedStorageService(rootDirectory.toString(), imageDerivativeWorker);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        imageDerivativeWorker.shutdown();
+    }
+
+    @Test
+    public void testUploadStoresByContentHash() throws Exception {
+        String hash =
+                HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(CONTENT));
+
+        String path = upload("Screenshot.PNG", CONTENT);
+
+        assertThat(path)
+                .isEqualTo(
+                        "attachments/"
+                                + hash.substring(0, 2)
+                                + "/"
+                                + hash.substring(2, 4)
+                                + "/"
+                                + hash
+                                + ".png");
+        assertThat(Files.readAllBytes(rootDirectory.resolve(path))).isEqualTo(CONTENT);
+    }
+
+    @Test
+    public void testIdenticalUploadsShareOneBlob() throws Exception {
+        String first = upload("screenshot.png", CONTENT);
+        String second = upload("screenshot.png", CONTENT);
+        String other = upload("screenshot.png", "other".getBytes(StandardCharsets.UTF_8));
+
+        assertThat(second).isEqualTo(first);
+        assertThat(other).isNotEqualTo(first);
+        try (Stream<Path> files = Files.walk(rootDirectory.resolve("attachments"))) {
+            // Two blobs and no temporary files left behind
+            assertThat(files.filter(Files::isRegularFile)).hasSize(2);
+        }
+    }
+
+    @Test
+    public void testExtensionOf() {
+        assertThat(ContentAddressedStorageService.extensionOf("report.PDF")).isEqualTo(".pdf");
+        assertThat(ContentAddressedStorageService.extensionOf("archive")).isEmpty();
+        assertThat(ContentAddressedStorageService.extensionOf(".hidden")).isEmpty();
+        assertThat(ContentAddressedStorageService.extensionOf("x.a/../b")).isEmpty();
+        assertThat(ContentAddressedStorageService.extensionOf(null)).isEmpty();
+    }
+
+    private String upload(String fileName, byte[] content) throws Exception {
+        return storageService.uploadFile(
+                StorageService.ATTACHMENTS, fileName, new ByteArrayInputStream(content));
+    }
+}
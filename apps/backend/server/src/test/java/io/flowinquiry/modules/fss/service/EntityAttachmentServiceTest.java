@@ -0,0 +1,120 @@
+package io.flowinquiry.modules.fss.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.flowinquiry.modules.fss.domain.EntityAttachment;
+import io.flowinquiry.modules.fss.repository.EntityAttachmentRepository;
+import io.flowinquiry.modules.fss.service.event.AttachmentFilesReleasedEvent;
+import io.flowinquiry.modules.fss.service.mapper.EntityAttachmentMapper;
+import io.flowinquiry.modules.teams.service.TicketCounterService;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.multipart.MultipartFile;
+
+@ExtendWith(MockitoExtension.class)
+public class EntityAttachmentServiceTest {
+
+    @Mock private EntityAttachmentRepository entityAttachmentRepository;
+
+    @Mock private EntityAttachmentMapper entityAttachmentMapper;
+
+    @Mock private StorageService storageService;
+
+    @Mock private ApplicationEventPublisher eventPublisher;
+
+    @Mock private PlatformTransactionManager transactionManager;
+
+    @Mock private TicketCounterService ticketCounterService;
+
+    private EntityAttachmentService service;
+
+    @BeforeEach
+    public void setup() {
+        service =
+                new EntityAttachmentService(
+                        entityAttachmentRepository,
+                        entityAttachmentMapper,
+                        storageService,
+                        eventPublisher,
+                        transactionManager,
+                        ticketCounterService,
+                        2);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    public void testUploadAttachmentsSkipsFilesAlreadyAttached() throws Exception {
+        when(storageService.uploadFile(eq(StorageService.ATTACHMENTS), eq("a.txt"), any()))
+                .thenReturn("attachments/aa");
+        when(storageService.uploadFile(eq(StorageService.ATTACHMENTS), eq("b.txt"), any()))
+                .thenReturn("attachments/bb");
+        when(storageService.uploadFile(eq(StorageService.ATTACHMENTS), eq("c.txt"), any()))
+                .thenReturn("attachments/aa");
+        when(entityAttachmentRepository.findByEntityTypeAndEntityId("Ticket", 1L))
+                .thenReturn(List.of(EntityAttachment.builder().fileUrl("attachments/bb").build()));
+        when(entityAttachmentRepository.saveAll(anyList()))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<EntityAttachment> saved =
+                service.uploadAttachments(
+                        "Ticket",
+                        1L,
+                        new MultipartFile[] {file("a.txt"), file("b.txt"), file("c.txt")});
+
+        // b.txt is attached already and c.txt has the same content as a.txt
+        assertThat(saved).extracting(EntityAttachment::getFileName).containsExactly("a.txt");
+        verify(ticketCounterService).adjustAttachments(1L, 1);
+        verify(eventPublisher, never()).publishEvent(any(AttachmentFilesReleasedEvent.class));
+    }
+
+    @Test
+    public void testFailedUploadReleasesStoredFiles() throws Exception {
+        when(storageService.uploadFile(eq(StorageService.ATTACHMENTS), eq("a.txt"), any()))
+                .thenReturn("attachments/aa");
+        when(storageService.uploadFile(eq(StorageService.ATTACHMENTS), eq("b.txt"), any()))
+                .thenThrow(new IOException("Disk full"));
+
+        assertThatThrownBy(
+                        () ->
+                                service.uploadAttachments(
+                                        "ticket",
+                                        1L,
+                                        new MultipartFile[] {file("a.txt"), file("b.txt")}))
+                .isInstanceOf(IOException.class)
+                .hasMessage("Disk full");
+
+        ArgumentCaptor<AttachmentFilesReleasedEvent> eventCaptor =
+                ArgumentCaptor.forClass(AttachmentFilesReleasedEvent.class);
+        verify(eventPublisher).publishEvent(eventCaptor.capture());
+        assertThat(eventCaptor.getValue().getFileUrls()).isEqualTo(Set.of("attachments/aa"));
+        verify(entityAttachmentRepository, never()).saveAll(anyList());
+    }
+
+    private static MockMultipartFile file(String name) {
+        return new MockMultipartFile(
+                "files", name, "text/plain", name.getBytes(StandardCharsets.UTF_8));
+    }
+}
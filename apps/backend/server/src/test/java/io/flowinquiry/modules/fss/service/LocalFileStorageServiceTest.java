@@ -0,0 +1,201 @@
+package io.flowinquiry.modules.fss.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.flowinquiry.exceptions.ResourceNotFoundException;
+import io.flowinquiry.modules.fss.service.dto.ImageDerivativeStatusDTO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+import javax.imageio.ImageIO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class LocalFileStorageServiceTest {
+
+    private static final byte[] CONTENT = "0123456789abcdef".getBytes(StandardCharsets.UTF_8);
+
+    @TempDir Path rootDirectory;
+
+    private ImageDerivativeWorker imageDerivativeWorker;
+
+    private LocalFileStorageService storageService;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        imageDerivativeWorker = new ImageDerivativeWorker(1, 10, 128, Duration.ofMinutes(1));
+        storageService =
+                new LocalFileStorageService(rootDirectory.toString(), imageDerivativeWorker);
+        storageService.uploadFile("attachments", "file.txt", new ByteArrayInputStream(CONTENT));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        imageDerivativeWorker.shutdown();
+    }
+
+    @Test
+    public void testGetMetadataHashesContent() throws Exception {
+        StoredObjectMetadata metadata = storageService.getMetadata("attachments", "file.txt");
+
+        String expectedHash =
+                HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(CONTENT));
+        assertThat(metadata.size()).isEqualTo(CONTENT.length);
+        assertThat(metadata.contentHash()).isEqualTo(expectedHash);
+        assertThat(metadata.lastModified()).isNotNull();
+    }
+
+    @Test
+    public void testGetMetadataRehashesChangedFile() throws Exception {
+        String before = storageService.getMetadata("attachments", "file.txt").contentHash();
+
+        Path file = rootDirectory.resolve("attachments").resolve("file.txt");
+        Files.write(file, "fedcba9876543210".getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().plusSeconds(60)));
+
+        assertThat(storageService.getMetadata("attachments", "file.txt").contentHash())
+                .isNotEqualTo(before);
+    }
+
+    @Test
+    public void testReadRange() throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        long written =
+                storageService.read(
+                        "attachments", "file.txt", 4, 6, Channels.newChannel(outputStream));
+
+        assertThat(written).isEqualTo(6);
+        assertThat(outputStream.toString(StandardCharsets.UTF_8)).isEqualTo("456789");
+    }
+
+    @Test
+    public void testReadRangePastEndIsTruncated() throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        long written =
+                storageService.read(
+                        "attachments", "file.txt", 12, 100, Channels.newChannel(outputStream));
+
+        assertThat(written).isEqualTo(4);
+        assertThat(outputStream.toString(StandardCharsets.UTF_8)).isEqualTo("cdef");
+    }
+
+    @Test
+    public void testDownloadMissingFile() {
+        assertThatThrownBy(
+                        () ->
+                                storageService.downloadFile(
+                                        "attachments", "missing.txt", new ByteArrayOutputStream()))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    public void testUploadImageConvertsInBackground() throws Exception {
+        ByteArrayOutputStream jpeg = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(512, 256, BufferedImage.TYPE_INT_RGB), "jpg", jpeg);
+
+        String path =
+                storageService.uploadImage(
+                        "avatar", "photo.jpg", new ByteArrayInputStream(jpeg.toByteArray()));
+
+        assertThat(path).isEqualTo("avatar/photo.png");
+        assertThat(awaitConversion(path)).isEqualTo(ImageDerivativeStatusDTO.Status.COMPLETED);
+        BufferedImage image = ImageIO.read(rootDirectory.resolve(path).toFile());
+        assertThat(image.getWidth()).isEqualTo(512);
+        BufferedImage thumbnail =
+                ImageIO.read(rootDirectory.resolve("avatar/photo_thumb.png").toFile());
+        assertThat(thumbnail.getWidth()).isEqualTo(128);
+        assertThat(thumbnail.getHeight()).isEqualTo(64);
+        try (Stream<Path> files = Files.list(rootDirectory.resolve("avatar"))) {
+            // The uploaded source is gone once converted
+            assertThat(files).hasSize(2);
+        }
+    }
+
+    @Test
+    public void testUploadImageRejectsInvalidImage() throws Exception {
+        assertThatThrownBy(
+                        () ->
+                                storageService.uploadImage(
+                                        "avatar", "photo.jpg", new ByteArrayInputStream(CONTENT)))
+                .isInstanceOf(IllegalArgumentException.class);
+        try (Stream<Path> files = Files.list(rootDirectory.resolve("avatar"))) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    @Test
+    public void testWhenFailedRunsOnceTheConversionFails() throws Exception {
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(64, 64, BufferedImage.TYPE_INT_RGB), "png", png);
+        // A valid header, cut before the pixels
+        byte[] truncated = Arrays.copyOf(png.toByteArray(), 33);
+
+        String path =
+                storageService.uploadImage(
+                        "avatar", "photo.png", new ByteArrayInputStream(truncated));
+        CountDownLatch failed = new CountDownLatch(1);
+        imageDerivativeWorker.whenFailed(path, failed::countDown);
+
+        assertThat(failed.await(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(imageDerivativeWorker.getStatus(path))
+                .get()
+                .extracting(ImageDerivativeStatusDTO::getStatus)
+                .isEqualTo(ImageDerivativeStatusDTO.Status.FAILED);
+        assertThat(rootDirectory.resolve(path)).doesNotExist();
+
+        // Registered after the failure, the action runs right away
+        CountDownLatch failedBefore = new CountDownLatch(1);
+        imageDerivativeWorker.whenFailed(path, failedBefore::countDown);
+        assertThat(failedBefore.getCount()).isZero();
+    }
+
+    @Test
+    public void testWhenFailedIgnoresConvertedImage() throws Exception {
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(64, 64, BufferedImage.TYPE_INT_RGB), "png", png);
+        String path =
+                storageService.uploadImage(
+                        "avatar", "photo.png", new ByteArrayInputStream(png.toByteArray()));
+        assertThat(awaitConversion(path)).isEqualTo(ImageDerivativeStatusDTO.Status.COMPLETED);
+
+        AtomicBoolean failed = new AtomicBoolean();
+        imageDerivativeWorker.whenFailed(path, () -> failed.set(true));
+
+        assertThat(failed).isFalse();
+        assertThat(rootDirectory.resolve(path)).exists();
+    }
+
+    /** Polls the status of a conversion, as clients do while downloads answer 202. */
+    private ImageDerivativeStatusDTO.Status awaitConversion(String path) throws Exception {
+        Instant deadline = Instant.now().plusSeconds(10);
+        while (true) {
+            ImageDerivativeStatusDTO.Status status =
+                    imageDerivativeWorker.getStatus(path).orElseThrow().getStatus();
+            if (status == ImageDerivativeStatusDTO.Status.COMPLETED
+                    || status == ImageDerivativeStatusDTO.Status.FAILED
+                    || Instant.now().isAfter(deadline)) {
+                return status;
+            }
+            Thread.sleep(10);
+        }
+    }
+}
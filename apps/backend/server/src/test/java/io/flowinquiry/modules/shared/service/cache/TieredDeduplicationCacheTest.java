@@ -0,0 +1,104 @@
+package io.flowinquiry.modules.shared.service.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class TieredDeduplicationCacheTest {
+
+    @Mock private DeduplicationStore store;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private TieredDeduplicationCache cache;
+
+    @BeforeEach
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new TieredDeduplicationCache(store, meterRegistry, 100, 1000, 0.01);
+    }
+
+    @Test
+    public void testPutKeyIsAnsweredLocally() {
+        cache.put("ticket-1", Duration.ofHours(24));
+
+        assertThat(cache.containsKey("ticket-1")).isTrue();
+        verify(store).put(eq("ticket-1"), any(Instant.class));
+        verify(store, never()).findExpiredTime(anyString());
+        assertThat(lookups("local", "hit")).isEqualTo(1);
+    }
+
+    @Test
+    public void testBloomFilterRulesOutUnknownKeysOfLocalStore() {
+        doAnswer(
+                        invocation -> {
+                            Consumer<String> consumer = invocation.getArgument(0);
+                            consumer.accept("ticket-1");
+                            return null;
+                        })
+                .when(store)
+                .forEachKey(any());
+        cache.rebuildBloomFilter();
+
+        assertThat(cache.containsKey("ticket-2")).isFalse();
+        verify(store, never()).findExpiredTime("ticket-2");
+        assertThat(lookups("bloom", "miss")).isEqualTo(1);
+    }
+
+    @Test
+    public void testStoredKeyIsFoundAfterBloomFilterRebuild() {
+        Instant expiredTime = Instant.now().plus(Duration.ofHours(1));
+        doAnswer(
+                        invocation -> {
+                            Consumer<String> consumer = invocation.getArgument(0);
+                            consumer.accept("ticket-1");
+                            return null;
+                        })
+                .when(store)
+                .forEachKey(any());
+        when(store.findExpiredTime("ticket-1")).thenReturn(Optional.of(expiredTime));
+        cache.rebuildBloomFilter();
+
+        assertThat(cache.containsKey("ticket-1")).isTrue();
+        assertThat(cache.containsKey("ticket-1")).isTrue();
+        verify(store).findExpiredTime("ticket-1");
+        assertThat(lookups("store", "hit")).isEqualTo(1);
+        assertThat(lookups("local", "hit")).isEqualTo(1);
+    }
+
+    @Test
+    public void testSharedStoreIsAlwaysAsked() {
+        when(store.isShared()).thenReturn(true);
+        when(store.findExpiredTime("ticket-2")).thenReturn(Optional.empty());
+        cache.rebuildBloomFilter();
+
+        assertThat(cache.containsKey("ticket-2")).isFalse();
+        verify(store, never()).forEachKey(any());
+        assertThat(lookups("store", "miss")).isEqualTo(1);
+        assertThat(meterRegistry.counter("flowinquiry.deduplication.bloom_false_positives").count())
+                .isZero();
+    }
+
+    private double lookups(String tier, String result) {
+        return meterRegistry
+                .counter("flowinquiry.deduplication.lookups", "tier", tier, "result", result)
+                .count();
+    }
+}
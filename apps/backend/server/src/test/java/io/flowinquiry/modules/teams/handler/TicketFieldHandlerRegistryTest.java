@@ -0,0 +1,58 @@
+package io.flowinquiry.modules.teams.handler;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+import io.flowinquiry.modules.audit.service.EntityFieldHandler;
+import io.flowinquiry.modules.teams.repository.WorkflowStateRepository;
+import io.flowinquiry.modules.teams.service.cache.WorkflowGraphCache;
+import io.flowinquiry.modules.teams.service.dto.TicketDTO;
+import io.flowinquiry.modules.usermanagement.domain.User;
+import io.flowinquiry.modules.usermanagement.repository.UserRepository;
+import io.flowinquiry.modules.usermanagement.service.event.UserProfileChangedEvent;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class TicketFieldHandlerRegistryTest {
+
+    private static final Long USER_ID = 4L;
+
+    @Mock private UserRepository userRepository;
+
+    @Mock private WorkflowStateRepository workflowStateRepository;
+
+    @Mock private WorkflowGraphCache workflowGraphCache;
+
+    private TicketFieldHandlerRegistry registry;
+
+    @BeforeEach
+    public void setup() {
+        registry =
+                new TicketFieldHandlerRegistry(
+                        userRepository, workflowStateRepository, workflowGraphCache);
+    }
+
+    @Test
+    public void testShowsTheNewNameOfARenamedUser() {
+        User user = User.builder().id(USER_ID).firstName("Bob").lastName("Brown").build();
+        when(userRepository.findById(USER_ID)).thenReturn(Optional.of(user));
+        assertThat(assignedUser()).isEqualTo("Bob Brown");
+
+        user.setLastName("Green");
+        assertThat(assignedUser()).isEqualTo("Bob Brown");
+
+        registry.onUserProfileChanged(new UserProfileChangedEvent(this, USER_ID));
+        assertThat(assignedUser()).isEqualTo("Bob Green");
+    }
+
+    @SuppressWarnings("unchecked")
+    private String assignedUser() {
+        EntityFieldHandler<TicketDTO> handler = registry.getHandler("assignUserId");
+        return handler.getFieldGetter().apply(new TicketDTO(), USER_ID);
+    }
+}
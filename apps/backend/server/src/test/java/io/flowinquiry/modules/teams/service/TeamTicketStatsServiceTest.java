@@ -0,0 +1,113 @@
+package io.flowinquiry.modules.teams.service;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+import io.flowinquiry.modules.teams.domain.TicketPriority;
+import io.flowinquiry.modules.teams.repository.TeamTicketStatsRepository;
+import io.flowinquiry.modules.teams.service.dto.TicketDTO;
+import java.time.Instant;
+import java.time.LocalDate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class TeamTicketStatsServiceTest {
+
+    private static final LocalDate CREATED_DAY = LocalDate.of(2025, 3, 10);
+
+    private static final LocalDate COMPLETED_DAY = LocalDate.of(2025, 3, 12);
+
+    @Mock private TeamTicketStatsRepository teamTicketStatsRepository;
+
+    private TeamTicketStatsService teamTicketStatsService;
+
+    @BeforeEach
+    public void setup() {
+        teamTicketStatsService = new TeamTicketStatsService(teamTicketStatsRepository);
+    }
+
+    @Test
+    public void testRecordTicketCreated() {
+        teamTicketStatsService.recordTicketCreated(ticket("High", 5L, false));
+
+        verify(teamTicketStatsRepository)
+                .applyDelta(1L, CREATED_DAY, TicketPriority.High.getCode(), 5L, 1, 1, 0);
+        verifyNoMoreInteractions(teamTicketStatsRepository);
+    }
+
+    @Test
+    public void testRecordTicketCompleted() {
+        TicketDTO previous = ticket("High", 5L, false);
+        TicketDTO current = ticket("High", 5L, true);
+        current.setActualCompletionDate(COMPLETED_DAY);
+
+        teamTicketStatsService.recordTicketChanged(previous, current);
+
+        // The ticket is no longer open on its creation day and counts as closed on completion
+        verify(teamTicketStatsRepository)
+                .applyDelta(1L, CREATED_DAY, TicketPriority.High.getCode(), 5L, 0, -1, 0);
+        verify(teamTicketStatsRepository)
+                .applyDelta(1L, COMPLETED_DAY, TicketPriority.High.getCode(), 5L, 0, 0, 1);
+        verifyNoMoreInteractions(teamTicketStatsRepository);
+    }
+
+    @Test
+    public void testRecordTicketReassignedAndReprioritized() {
+        teamTicketStatsService.recordTicketChanged(
+                ticket("High", 5L, false), ticket("Low", null, false));
+
+        InOrder inOrder = inOrder(teamTicketStatsRepository);
+        inOrder.verify(teamTicketStatsRepository)
+                .applyDelta(1L, CREATED_DAY, TicketPriority.High.getCode(), 5L, -1, -1, 0);
+        inOrder.verify(teamTicketStatsRepository)
+                .applyDelta(1L, CREATED_DAY, TicketPriority.Low.getCode(), null, 1, 1, 0);
+        verifyNoMoreInteractions(teamTicketStatsRepository);
+    }
+
+    @Test
+    public void testRecordTicketChangeNotAffectingStats() {
+        TicketDTO previous = ticket("Medium", 5L, false);
+        TicketDTO current = ticket("Medium", 5L, false);
+        current.setRequestTitle("Updated title");
+
+        teamTicketStatsService.recordTicketChanged(previous, current);
+
+        verify(teamTicketStatsRepository, never())
+                .applyDelta(any(), any(), anyInt(), any(), anyLong(), anyLong(), anyLong());
+    }
+
+    @Test
+    public void testRecordCompletedTicketDeleted() {
+        TicketDTO deleted = ticket("Critical", 5L, true);
+        deleted.setActualCompletionDate(COMPLETED_DAY);
+
+        teamTicketStatsService.recordTicketChanged(deleted, null);
+
+        verify(teamTicketStatsRepository)
+                .applyDelta(1L, CREATED_DAY, TicketPriority.Critical.getCode(), 5L, -1, 0, 0);
+        verify(teamTicketStatsRepository)
+                .applyDelta(1L, COMPLETED_DAY, TicketPriority.Critical.getCode(), 5L, 0, 0, -1);
+        verifyNoMoreInteractions(teamTicketStatsRepository);
+    }
+
+    private static TicketDTO ticket(String priority, Long assignUserId, boolean completed) {
+        TicketDTO ticket = new TicketDTO();
+        ticket.setId(6L);
+        ticket.setTeamId(1L);
+        ticket.setPriority(priority);
+        ticket.setAssignUserId(assignUserId);
+        ticket.setIsCompleted(completed);
+        ticket.setCreatedAt(Instant.parse("2025-03-10T22:15:00Z"));
+        return ticket;
+    }
+}
@@ -0,0 +1,305 @@
+package io.flowinquiry.modules.teams.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.flowinquiry.modules.audit.service.event.AuditLogUpdateEvent;
+import io.flowinquiry.modules.collab.domain.EntityType;
+import io.flowinquiry.modules.collab.repository.EntityWatcherRepository;
+import io.flowinquiry.modules.teams.domain.Team;
+import io.flowinquiry.modules.teams.domain.Ticket;
+import io.flowinquiry.modules.teams.domain.Workflow;
+import io.flowinquiry.modules.teams.domain.WorkflowState;
+import io.flowinquiry.modules.teams.domain.WorkflowTransition;
+import io.flowinquiry.modules.teams.domain.WorkflowTransitionHistory;
+import io.flowinquiry.modules.teams.repository.TicketRepository;
+import io.flowinquiry.modules.teams.repository.WorkflowTransitionHistoryRepository;
+import io.flowinquiry.modules.teams.service.cache.WorkflowGraph;
+import io.flowinquiry.modules.teams.service.cache.WorkflowGraphCache;
+import io.flowinquiry.modules.teams.service.dto.TicketDTO;
+import io.flowinquiry.modules.teams.service.dto.TicketEventMode;
+import io.flowinquiry.modules.teams.service.event.NewTicketCreatedEvent;
+import io.flowinquiry.modules.teams.service.event.SlaDeadlineScheduledEvent;
+import io.flowinquiry.modules.teams.service.event.TicketBatchSavedEvent;
+import io.flowinquiry.modules.teams.service.event.TicketChangedEvent;
+import io.flowinquiry.modules.teams.service.mapper.TicketMapper;
+import io.flowinquiry.modules.usermanagement.domain.User;
+import jakarta.persistence.EntityManager;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@ExtendWith(MockitoExtension.class)
+public class TicketBulkServiceTest {
+
+    private static final Long WORKFLOW_ID = 3L;
+
+    private static final WorkflowState NEW_STATE =
+            WorkflowState.builder().id(100L).isFinal(false).build();
+
+    private static final WorkflowState DONE_STATE =
+            WorkflowState.builder().id(101L).isFinal(true).build();
+
+    @Mock private EntityManager entityManager;
+    @Mock private TicketService ticketService;
+    @Mock private TicketRepository ticketRepository;
+    @Mock private TicketMapper ticketMapper;
+    @Mock private EntityWatcherRepository entityWatcherRepository;
+    @Mock private WorkflowGraphCache workflowGraphCache;
+    @Mock private WorkflowTransitionHistoryRepository workflowTransitionHistoryRepository;
+    @Mock private ApplicationEventPublisher eventPublisher;
+    @Mock private TicketCounterService ticketCounterService;
+
+    private TicketBulkService ticketBulkService;
+
+    @BeforeEach
+    public void setup() {
+        ticketBulkService =
+                new TicketBulkService(
+                        ticketService,
+                        ticketRepository,
+                        ticketMapper,
+                        entityWatcherRepository,
+                        workflowGraphCache,
+                        workflowTransitionHistoryRepository,
+                        eventPublisher,
+                        ticketCounterService);
+        ReflectionTestUtils.setField(ticketBulkService, "entityManager", entityManager);
+    }
+
+    @Test
+    public void testCreateTicketsReservesProjectNumbersOncePerProject() {
+        stubCreation();
+        when(ticketService.reserveProjectTicketNumbers(1L, 3)).thenReturn(10L);
+        when(ticketService.reserveProjectTicketNumbers(2L, 1)).thenReturn(1L);
+        List<TicketDTO> tickets =
+                List.of(
+                        newTicket(1L),
+                        newTicket(2L),
+                        newTicket(1L),
+                        newTicket(null),
+                        newTicket(1L));
+
+        ticketBulkService.createTickets(tickets, TicketEventMode.COALESCED);
+
+        assertThat(tickets)
+                .extracting(TicketDTO::getProjectTicketNumber)
+                .containsExactly(10L, 1L, 11L, null, 12L);
+        verify(ticketService, times(2)).reserveProjectTicketNumbers(anyLong(), anyInt());
+    }
+
+    @Test
+    public void testCreateTicketsComputesSlaFromCachedTransitions() {
+        stubCreation(transition(NEW_STATE, DONE_STATE, 8L), transition(NEW_STATE, 2L));
+        ArgumentCaptor<List<WorkflowTransitionHistory>> historyCaptor =
+                ArgumentCaptor.forClass(List.class);
+
+        Instant before = Instant.now();
+        ticketBulkService.createTickets(
+                List.of(newTicket(null), newTicket(null)), TicketEventMode.PER_TICKET);
+
+        verify(workflowTransitionHistoryRepository).saveAll(historyCaptor.capture());
+        assertThat(historyCaptor.getValue())
+                .hasSize(2)
+                .allSatisfy(
+                        history ->
+                                assertThat(history.getSlaDueDate())
+                                        .isBetween(
+                                                before.plus(Duration.ofHours(2)),
+                                                Instant.now().plus(Duration.ofHours(2))));
+        verify(workflowGraphCache).get(WORKFLOW_ID);
+        verify(eventPublisher, times(2)).publishEvent(any(SlaDeadlineScheduledEvent.class));
+        verify(eventPublisher, times(2)).publishEvent(any(NewTicketCreatedEvent.class));
+        verify(eventPublisher, never()).publishEvent(any(TicketBatchSavedEvent.class));
+    }
+
+    @Test
+    public void testCreateTicketsCoalescesEvents() {
+        stubCreation();
+
+        ticketBulkService.createTickets(
+                List.of(newTicket(null), newTicket(null), newTicket(null)),
+                TicketEventMode.COALESCED);
+
+        ArgumentCaptor<TicketBatchSavedEvent> eventCaptor =
+                ArgumentCaptor.forClass(TicketBatchSavedEvent.class);
+        verify(eventPublisher).publishEvent(eventCaptor.capture());
+        assertThat(eventCaptor.getValue().getCurrentTickets()).hasSize(3);
+        assertThat(eventCaptor.getValue().getPreviousTickets()).hasSize(3).containsOnlyNulls();
+        assertThat(eventCaptor.getValue().getEventMode()).isEqualTo(TicketEventMode.COALESCED);
+        verify(eventPublisher, never()).publishEvent(any(NewTicketCreatedEvent.class));
+    }
+
+    @Test
+    public void testUpdateTicketsSuppressedStillAudits() {
+        Ticket ticket = ticket(7L, NEW_STATE);
+        when(workflowGraphCache.get(WORKFLOW_ID))
+                .thenReturn(graph(transition(NEW_STATE, DONE_STATE, null)));
+        when(ticketRepository.findAllById(any())).thenReturn(List.of(ticket));
+        when(entityWatcherRepository.findByEntityTypeAndEntityIdIn(any(), any()))
+                .thenReturn(List.of());
+        when(ticketMapper.toDto(ticket))
+                .thenAnswer(
+                        invocation -> {
+                            TicketDTO dto = new TicketDTO();
+                            dto.setId(ticket.getId());
+                            dto.setCurrentStateId(ticket.getCurrentState().getId());
+                            return dto;
+                        });
+        TicketDTO update = newTicket(null);
+        update.setId(7L);
+        update.setCurrentStateId(DONE_STATE.getId());
+        doAnswer(
+                        invocation -> {
+                            ticket.setCurrentState(DONE_STATE);
+                            return null;
+                        })
+                .when(ticketMapper)
+                .updateEntity(update, ticket);
+
+        ticketBulkService.updateTickets(List.of(update), TicketEventMode.SUPPRESSED);
+
+        assertThat(ticket.getIsCompleted()).isTrue();
+        assertThat(ticket.getActualCompletionDate()).isNotNull();
+        verify(eventPublisher).publishEvent(any(AuditLogUpdateEvent.class));
+        verify(eventPublisher).publishEvent(any(TicketBatchSavedEvent.class));
+        verify(eventPublisher, never()).publishEvent(any(TicketChangedEvent.class));
+        verify(workflowTransitionHistoryRepository).saveAll(anyList());
+        verify(entityWatcherRepository).findByEntityTypeAndEntityIdIn(eq(EntityType.Ticket), any());
+    }
+
+    @Test
+    public void testUpdateTicketsRequiresIds() {
+        TicketDTO update = new TicketDTO();
+        update.setCurrentStateId(NEW_STATE.getId());
+
+        assertThatThrownBy(
+                        () ->
+                                ticketBulkService.updateTickets(
+                                        List.of(update), TicketEventMode.PER_TICKET))
+                .isInstanceOf(IllegalArgumentException.class);
+        verify(ticketRepository, never()).findAllById(any());
+    }
+
+    @Test
+    public void testRejectsTicketsWithoutRequesterOrPriority() {
+        TicketDTO withoutRequester = newTicket(null);
+        withoutRequester.setRequestUserId(null);
+        TicketDTO withoutPriority = newTicket(null);
+        withoutPriority.setPriority(null);
+        TicketDTO unknownPriority = newTicket(null);
+        unknownPriority.setPriority("Urgent");
+
+        for (TicketDTO ticket : List.of(withoutRequester, withoutPriority, unknownPriority)) {
+            ticket.setId(7L);
+            assertThatThrownBy(
+                            () ->
+                                    ticketBulkService.createTickets(
+                                            List.of(newTicket(null), ticket),
+                                            TicketEventMode.PER_TICKET))
+                    .isExactlyInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(
+                            () ->
+                                    ticketBulkService.updateTickets(
+                                            List.of(ticket), TicketEventMode.PER_TICKET))
+                    .isExactlyInstanceOf(IllegalArgumentException.class);
+        }
+        verify(ticketRepository, never()).saveAll(anyList());
+        verify(ticketRepository, never()).findAllById(any());
+    }
+
+    @Test
+    public void testRejectsOversizedBatch() {
+        List<TicketDTO> tickets =
+                Collections.nCopies(TicketBulkService.MAX_BATCH_SIZE + 1, newTicket(null));
+
+        assertThatThrownBy(
+                        () -> ticketBulkService.createTickets(tickets, TicketEventMode.SUPPRESSED))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private void stubCreation(WorkflowTransition... transitions) {
+        AtomicLong ids = new AtomicLong(1);
+        when(workflowGraphCache.get(WORKFLOW_ID)).thenReturn(graph(transitions));
+        when(ticketMapper.toEntity(any(TicketDTO.class)))
+                .thenAnswer(invocation -> ticket(null, NEW_STATE));
+        when(ticketRepository.saveAll(anyList()))
+                .thenAnswer(
+                        invocation -> {
+                            List<Ticket> tickets = invocation.getArgument(0);
+                            tickets.forEach(ticket -> ticket.setId(ids.getAndIncrement()));
+                            return tickets;
+                        });
+        when(workflowTransitionHistoryRepository.saveAll(anyList()))
+                .thenAnswer(
+                        invocation -> {
+                            List<WorkflowTransitionHistory> histories = invocation.getArgument(0);
+                            histories.forEach(history -> history.setId(ids.getAndIncrement()));
+                            return histories;
+                        });
+        when(ticketMapper.toDto(any(Ticket.class))).thenAnswer(invocation -> new TicketDTO());
+    }
+
+    private static WorkflowGraph graph(WorkflowTransition... transitions) {
+        return WorkflowGraph.of(WORKFLOW_ID, List.of(NEW_STATE, DONE_STATE), List.of(transitions));
+    }
+
+    private static TicketDTO newTicket(Long projectId) {
+        TicketDTO ticket = new TicketDTO();
+        ticket.setTeamId(1L);
+        ticket.setWorkflowId(WORKFLOW_ID);
+        ticket.setProjectId(projectId);
+        ticket.setRequestUserId(5L);
+        ticket.setCurrentStateId(NEW_STATE.getId());
+        ticket.setPriority("Medium");
+        return ticket;
+    }
+
+    private static Ticket ticket(Long id, WorkflowState state) {
+        return Ticket.builder()
+                .id(id)
+                .team(Team.builder().id(1L).build())
+                .workflow(Workflow.builder().id(WORKFLOW_ID).build())
+                .requestUser(User.builder().id(5L).build())
+                .currentState(state)
+                .isNew(true)
+                .isCompleted(false)
+                .build();
+    }
+
+    private static WorkflowTransition transition(WorkflowState source, Long slaDuration) {
+        WorkflowState target = WorkflowState.builder().id(102L).isFinal(false).build();
+        return transition(source, target, slaDuration);
+    }
+
+    private static WorkflowTransition transition(
+            WorkflowState source, WorkflowState target, Long slaDuration) {
+        return WorkflowTransition.builder()
+                .workflow(Workflow.builder().id(WORKFLOW_ID).build())
+                .sourceState(source)
+                .targetState(target)
+                .eventName("Move")
+                .slaDuration(slaDuration)
+                .build();
+    }
+}
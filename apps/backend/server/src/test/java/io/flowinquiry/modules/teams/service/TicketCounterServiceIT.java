@@ -0,0 +1,127 @@
+package io.flowinquiry.modules.teams.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.flowinquiry.IntegrationTest;
+import io.flowinquiry.modules.collab.domain.EntityType;
+import io.flowinquiry.modules.collab.service.EntityWatcherService;
+import io.flowinquiry.modules.fss.domain.EntityAttachment;
+import io.flowinquiry.modules.fss.service.EntityAttachmentService;
+import io.flowinquiry.modules.fss.service.StorageService;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.multipart.MultipartFile;
+
+@IntegrationTest
+@Transactional
+public class TicketCounterServiceIT {
+
+    @Autowired private TicketCounterService ticketCounterService;
+
+    @Autowired private EntityWatcherService entityWatcherService;
+
+    @Autowired private EntityAttachmentService entityAttachmentService;
+
+    @Autowired private StorageService storageService;
+
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    private final List<String> uploadedFileUrls = new ArrayList<>();
+
+    @AfterEach
+    public void cleanup() throws Exception {
+        // The attachments are rolled back, their files are not
+        for (String fileUrl : uploadedFileUrls) {
+            storageService.deleteFile(fileUrl);
+        }
+    }
+
+    @Test
+    void shouldCountAddedAndRemovedWatchers() {
+        // Users 3 and 5 already watch ticket 1
+        int watchers = numberWatchers(1L);
+
+        entityWatcherService.addWatchers(EntityType.Ticket, 1L, List.of(3L, 6L, 7L));
+        assertThat(numberWatchers(1L)).isEqualTo(watchers + 2);
+
+        entityWatcherService.removeWatcher(EntityType.Ticket, 1L, 6L);
+        assertThat(numberWatchers(1L)).isEqualTo(watchers + 1);
+
+        entityWatcherService.removeWatchers(EntityType.Ticket, 1L, List.of(6L, 7L));
+        assertThat(numberWatchers(1L)).isEqualTo(watchers).isEqualTo(countWatchers(1L));
+    }
+
+    @Test
+    void shouldCountUploadedAndDeletedAttachments() throws Exception {
+        int attachments = numberAttachments(1L);
+
+        List<EntityAttachment> uploaded =
+                entityAttachmentService.uploadAttachments(
+                        EntityType.Ticket.name(), 1L, new MultipartFile[] {file(), file()});
+        uploaded.forEach(attachment -> uploadedFileUrls.add(attachment.getFileUrl()));
+        assertThat(numberAttachments(1L)).isEqualTo(attachments + 2);
+
+        entityAttachmentService.deleteAttachment(uploaded.get(0).getId());
+        assertThat(numberAttachments(1L)).isEqualTo(attachments + 1);
+
+        entityAttachmentService.deleteAttachments(EntityType.Ticket.name(), 1L);
+        assertThat(numberAttachments(1L)).isZero().isEqualTo(countAttachments(1L));
+    }
+
+    @Test
+    void shouldReportAndRepairDriftedCounters() {
+        ticketCounterService.reconcile();
+        jdbcTemplate.update(
+                "UPDATE fw_ticket SET number_watchers = number_watchers + 5,"
+                        + " number_attachments = 42 WHERE id = 2");
+
+        assertThat(ticketCounterService.reconcile()).isEqualTo(1);
+
+        assertThat(numberWatchers(2L)).isEqualTo(countWatchers(2L));
+        assertThat(numberAttachments(2L)).isEqualTo(countAttachments(2L));
+        assertThat(ticketCounterService.reconcile()).isZero();
+    }
+
+    private static MockMultipartFile file() {
+        String content = UUID.randomUUID().toString();
+        return new MockMultipartFile(
+                "files",
+                content + ".txt",
+                "text/plain",
+                content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private int numberWatchers(Long ticketId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT number_watchers FROM fw_ticket WHERE id = ?", Integer.class, ticketId);
+    }
+
+    private int numberAttachments(Long ticketId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT number_attachments FROM fw_ticket WHERE id = ?", Integer.class, ticketId);
+    }
+
+    private int countWatchers(Long ticketId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM fw_entity_watchers"
+                        + " WHERE entity_type = 'Ticket' AND entity_id = ?",
+                Integer.class,
+                ticketId);
+    }
+
+    private int countAttachments(Long ticketId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM fw_entity_attachment"
+                        + " WHERE entity_type = 'Ticket' AND entity_id = ?",
+                Integer.class,
+                ticketId);
+    }
+}
@@ -0,0 +1,145 @@
+package io.flowinquiry.modules.teams.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.flowinquiry.modules.ai.service.ChatModelService;
+import io.flowinquiry.modules.teams.domain.Ticket;
+import io.flowinquiry.modules.teams.domain.TicketConversationHealth;
+import io.flowinquiry.modules.teams.repository.TicketConversationHealthRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Optional;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@ExtendWith(MockitoExtension.class)
+public class TicketHealthEvalServiceTest {
+
+    private static final Long TICKET_ID = 1L;
+
+    @Mock private ChatModelService chatModelService;
+
+    @Mock private TicketConversationHealthRepository ticketConversationHealthRepository;
+
+    @Mock private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private TicketHealthEvalService service;
+
+    @BeforeEach
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        // A long window so only the test processes the pending messages
+        service =
+                new TicketHealthEvalService(
+                        chatModelService,
+                        ticketConversationHealthRepository,
+                        new ObjectMapper(),
+                        transactionManager,
+                        meterRegistry,
+                        1,
+                        10,
+                        60_000,
+                        20,
+                        60_000,
+                        100);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    public void testBatchIsEvaluatedWithOneCall() {
+        when(ticketConversationHealthRepository.findByTicketId(TICKET_ID))
+                .thenReturn(Optional.empty());
+        when(ticketConversationHealthRepository.save(any()))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        when(chatModelService.call(any(Prompt.class)))
+                .thenReturn(
+                        """
+                        ```json
+                        {"summary": "Printer broken", "messages": [
+                          {"sentiment": 0.2, "question": true, "resolved": false},
+                          {"sentiment": 0.8, "question": false, "resolved": true}
+                        ]}
+                        ```
+                        """);
+
+        service.evaluateConversationHealth(TICKET_ID, "<p>Why is my printer broken?</p>", true);
+        service.evaluateConversationHealth(TICKET_ID, "<p>It works now, thanks</p>", true);
+        service.processPending(TICKET_ID);
+
+        verify(chatModelService).call(any(Prompt.class));
+        ArgumentCaptor<TicketConversationHealth> healthCaptor =
+                ArgumentCaptor.forClass(TicketConversationHealth.class);
+        verify(ticketConversationHealthRepository, times(2)).save(healthCaptor.capture());
+        TicketConversationHealth health = healthCaptor.getValue();
+        assertThat(health.getSummary()).isEqualTo("Printer broken");
+        assertThat(health.getTotalMessages()).isEqualTo(2);
+        assertThat(health.getTotalQuestions()).isEqualTo(1);
+        assertThat(health.getResolvedQuestions()).isEqualTo(1);
+        assertThat(meterRegistry.counter("flowinquiry.ai.health_eval.model_calls").count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    public void testCachedEvaluationSkipsModel() {
+        TicketConversationHealth health = existingHealth();
+        when(ticketConversationHealthRepository.findByTicketId(TICKET_ID))
+                .thenReturn(Optional.of(health));
+        when(chatModelService.call(any(Prompt.class)))
+                .thenReturn(
+                        "{\"summary\": null, \"messages\": [{\"sentiment\": 0.5,"
+                                + " \"question\": false, \"resolved\": false}]}");
+
+        service.evaluateConversationHealth(TICKET_ID, "Any update?", false);
+        service.processPending(TICKET_ID);
+        service.evaluateConversationHealth(TICKET_ID, "Any update?", false);
+        service.processPending(TICKET_ID);
+
+        verify(chatModelService).call(any(Prompt.class));
+        assertThat(health.getTotalMessages()).isEqualTo(2);
+        assertThat(meterRegistry.counter("flowinquiry.ai.health_eval.cache_hits").count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    public void testMalformedResponseSavesNothing() {
+        when(ticketConversationHealthRepository.findByTicketId(TICKET_ID))
+                .thenReturn(Optional.of(existingHealth()));
+        when(chatModelService.call(any(Prompt.class))).thenReturn("I can not answer that");
+
+        service.evaluateConversationHealth(TICKET_ID, "Hello", true);
+        service.processPending(TICKET_ID);
+
+        verify(ticketConversationHealthRepository, never()).save(any());
+        assertThat(meterRegistry.counter("flowinquiry.ai.health_eval.failed_batches").count())
+                .isEqualTo(1);
+    }
+
+    private static TicketConversationHealth existingHealth() {
+        TicketConversationHealth health = new TicketConversationHealth();
+        health.setTicket(Ticket.builder().id(TICKET_ID).build());
+        health.setCumulativeSentiment(0.5f);
+        health.setTotalMessages(0);
+        health.setTotalQuestions(0);
+        health.setResolvedQuestions(0);
+        health.setConversationHealth(0.5f);
+        return health;
+    }
+}
@@ -0,0 +1,52 @@
+package io.flowinquiry.modules.teams.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import io.flowinquiry.IntegrationTest;
+import io.flowinquiry.modules.teams.service.dto.TicketSearchResultDTO;
+import java.util.Comparator;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+@IntegrationTest
+@Transactional
+public class TicketSearchServiceIT {
+
+    @Autowired private TicketSearchService ticketSearchService;
+
+    @Test
+    void shouldRankTicketMatchesBeforeCommentMatches() {
+        List<TicketSearchResultDTO> results = ticketSearchService.search("refund", 1L, 20);
+
+        assertThat(results)
+                .extracting(TicketSearchResultDTO::getTicketId, TicketSearchResultDTO::getCommentId)
+                .containsExactlyInAnyOrder(
+                        tuple(1L, null), tuple(11L, null), tuple(12L, null), tuple(1L, 1L));
+        assertThat(results).allMatch(result -> result.getTeamId() == 1L);
+        assertThat(results)
+                .isSortedAccordingTo(
+                        Comparator.comparingDouble(TicketSearchResultDTO::getRank).reversed());
+        assertThat(results.get(results.size() - 1).getCommentId()).isEqualTo(1L);
+    }
+
+    @Test
+    void shouldFindTicketsThroughTheirComments() {
+        List<TicketSearchResultDTO> results =
+                ticketSearchService.search("laptop procurement", null, 20);
+
+        assertThat(results)
+                .extracting(
+                        TicketSearchResultDTO::getTicketId,
+                        TicketSearchResultDTO::getCommentId,
+                        TicketSearchResultDTO::getRequestTitle)
+                .containsExactly(tuple(3L, 3L, "New Laptop Request"));
+    }
+
+    @Test
+    void shouldReturnNothingForBlankTerms() {
+        assertThat(ticketSearchService.search("  ", null, 20)).isEmpty();
+    }
+}
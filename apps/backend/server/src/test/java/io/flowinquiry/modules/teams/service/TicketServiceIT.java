@@ -1,23 +1,31 @@
 package io.flowinquiry.modules.teams.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 import io.flowinquiry.IntegrationTest;
+import io.flowinquiry.db.performance.StatementCounter;
 import io.flowinquiry.modules.audit.service.event.AuditLogUpdateEvent;
 import io.flowinquiry.modules.collab.domain.EntityType;
 import io.flowinquiry.modules.collab.domain.EntityWatcher;
 import io.flowinquiry.modules.collab.repository.EntityWatcherRepository;
 import io.flowinquiry.modules.teams.domain.TShirtSize;
+import io.flowinquiry.modules.teams.domain.Ticket;
 import io.flowinquiry.modules.teams.domain.TicketChannel;
 import io.flowinquiry.modules.teams.repository.TicketRepository;
 import io.flowinquiry.modules.teams.service.dto.TicketDTO;
 import io.flowinquiry.modules.teams.service.event.NewTicketCreatedEvent;
 import io.flowinquiry.modules.teams.service.event.TicketWorkStateTransitionEvent;
 import io.flowinquiry.modules.teams.service.mapper.TicketMapper;
+import io.flowinquiry.modules.usermanagement.controller.errors.ExceptionStatusMapper;
+import io.flowinquiry.query.KeysetCursor;
+import io.flowinquiry.query.KeysetSlice;
+import io.flowinquiry.query.QueryDTO;
+import jakarta.persistence.EntityManager;
 import java.time.LocalDate;
 import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
@@ -26,6 +34,10 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
 import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -38,6 +50,8 @@ public class TicketServiceIT {
     @Autowired private TicketMapper ticketMapper;
     @Autowired private EntityWatcherRepository entityWatcherRepository;
     @Autowired private ApplicationEventPublisher realEventPublisher;
+    @Autowired private StatementCounter statementCounter;
+    @Autowired private EntityManager entityManager;
     private ApplicationEventPublisher spyEventPublisher;
 
     @BeforeEach
@@ -171,4 +185,77 @@ public class TicketServiceIT {
         assertThat(previousEntity.getModifiedAt()).isNotNull();
         assertThat(previousEntity.getNumberAttachments()).isGreaterThanOrEqualTo(0);
     }
+
+    @Test
+    void shouldFindTicketsWithAConstantNumberOfStatementsPerPage() {
+        Ticket parent = ticketRepository.findById(1L).orElseThrow();
+        ticketRepository
+                .findAllById(List.of(2L, 3L))
+                .forEach(child -> child.setParentTicket(parent));
+        ticketRepository.flush();
+        // Both pages are read from an empty persistence context, so every association they load
+        // is counted
+        entityManager.clear();
+
+        StatementCounter.Scope smallPage = statementCounter.begin();
+        try {
+            ticketService.findTickets(new QueryDTO(), PageRequest.of(0, 4, Sort.by("id")));
+        } finally {
+            statementCounter.end();
+        }
+        entityManager.clear();
+
+        Page<TicketDTO> tickets;
+        StatementCounter.Scope largePage = statementCounter.begin();
+        try {
+            tickets =
+                    ticketService.findTickets(new QueryDTO(), PageRequest.of(0, 8, Sort.by("id")));
+        } finally {
+            statementCounter.end();
+        }
+
+        assertThat(tickets.getContent()).hasSize(8);
+        assertThat(largePage.getTotal()).isEqualTo(smallPage.getTotal());
+        assertThat(largePage.getRepeated(1))
+                .filteredOn(statement -> statement.sql().contains("parent_ticket_id in"))
+                .extracting(StatementCounter.RepeatedStatement::count)
+                .containsExactly(1);
+        assertThat(largePage.getRepeated(1))
+                .noneMatch(statement -> statement.sql().contains("parent_ticket_id=?"));
+        // The users, teams and workflows come with the page, their own associations are lazy
+        assertThat(largePage.getRepeated(1))
+                .extracting(StatementCounter.RepeatedStatement::sql)
+                .noneMatch(
+                        sql -> sql.matches("(?s).*from fw_(user|team|workflow|organization) .*"));
+        assertThat(tickets.getContent().get(0).getChildTicketIds()).containsExactly(2L, 3L);
+        assertThat(tickets.getContent().get(1).getChildTicketIds()).isEmpty();
+    }
+
+    @Test
+    void shouldRejectMalformedKeysetCursorsAsBadRequests() {
+        String notACursor = "not a cursor";
+        String badValue = new KeysetCursor("estimate", Sort.Direction.ASC, 5L, "ten").encode();
+
+        for (String cursor : List.of(notACursor, badValue)) {
+            Throwable thrown =
+                    catchThrowable(
+                            () ->
+                                    ticketService.findTicketsAfter(
+                                            new QueryDTO(), cursor, Sort.unsorted(), 20));
+
+            assertThat(thrown).isExactlyInstanceOf(IllegalArgumentException.class);
+            assertThat(ExceptionStatusMapper.getHttpStatus(thrown))
+                    .isEqualTo(HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    @Test
+    void shouldLimitTheKeysetPageSize() {
+        KeysetSlice<TicketDTO> tickets =
+                ticketService.findTicketsAfter(
+                        new QueryDTO(), null, Sort.by("id"), Integer.MAX_VALUE);
+
+        assertThat(tickets.getSize()).isEqualTo(TicketService.MAX_KEYSET_PAGE_SIZE);
+        assertThat(tickets.getContent()).isNotEmpty();
+    }
 }
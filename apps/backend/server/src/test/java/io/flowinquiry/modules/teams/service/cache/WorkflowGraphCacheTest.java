@@ -0,0 +1,114 @@
+package io.flowinquiry.modules.teams.service.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.flowinquiry.modules.teams.domain.WorkflowState;
+import io.flowinquiry.modules.teams.domain.WorkflowTransition;
+import io.flowinquiry.modules.teams.repository.WorkflowStateRepository;
+import io.flowinquiry.modules.teams.repository.WorkflowTransitionRepository;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class WorkflowGraphCacheTest {
+
+    private static final Long WORKFLOW_ID = 1L;
+
+    private static final WorkflowState BACKLOG = state(1L, "Backlog", false);
+
+    private static final WorkflowState READY = state(2L, "Ready", false);
+
+    private static final WorkflowState DONE = state(3L, "Done", true);
+
+    @Mock private WorkflowStateRepository workflowStateRepository;
+
+    @Mock private WorkflowTransitionRepository workflowTransitionRepository;
+
+    private WorkflowGraphCache workflowGraphCache;
+
+    @BeforeEach
+    public void setup() {
+        workflowGraphCache =
+                new WorkflowGraphCache(workflowStateRepository, workflowTransitionRepository);
+    }
+
+    @Test
+    public void testGraphIsLoadedOnceUntilInvalidated() {
+        stubWorkflow();
+
+        workflowGraphCache.get(WORKFLOW_ID);
+        workflowGraphCache.get(WORKFLOW_ID);
+        verify(workflowStateRepository, times(1)).findByWorkflowId(WORKFLOW_ID);
+        verify(workflowTransitionRepository, times(1)).findByWorkflowId(WORKFLOW_ID);
+
+        workflowGraphCache.invalidate(WORKFLOW_ID);
+        workflowGraphCache.get(WORKFLOW_ID);
+        verify(workflowStateRepository, times(2)).findByWorkflowId(WORKFLOW_ID);
+        verify(workflowTransitionRepository, times(2)).findByWorkflowId(WORKFLOW_ID);
+    }
+
+    @Test
+    public void testGraphAnswersTransitionAndSlaLookups() {
+        stubWorkflow();
+
+        WorkflowGraph graph = workflowGraphCache.get(WORKFLOW_ID);
+
+        assertThat(graph.findState(READY.getId()))
+                .map(WorkflowGraph.State::stateName)
+                .contains("Ready");
+        assertThat(graph.isFinalState(DONE.getId())).isTrue();
+        assertThat(graph.isFinalState(READY.getId())).isFalse();
+        assertThat(graph.isFinalState(99L)).isFalse();
+        assertThat(graph.findTransition(BACKLOG.getId(), DONE.getId()))
+                .map(WorkflowGraph.Transition::eventName)
+                .contains("Complete");
+        assertThat(graph.findTransition(READY.getId(), BACKLOG.getId())).isEmpty();
+        assertThat(graph.getMinSlaDuration(BACKLOG.getId())).contains(4L);
+        assertThat(graph.getMinSlaDuration(READY.getId())).isEmpty();
+    }
+
+    @Test
+    public void testNullWorkflowHasEmptyGraph() {
+        WorkflowGraph graph = workflowGraphCache.get(null);
+
+        assertThat(graph.findState(BACKLOG.getId())).isEmpty();
+        assertThat(graph.getTransitionsFrom(BACKLOG.getId())).isEmpty();
+    }
+
+    private void stubWorkflow() {
+        when(workflowStateRepository.findByWorkflowId(WORKFLOW_ID))
+                .thenReturn(List.of(BACKLOG, READY, DONE));
+        when(workflowTransitionRepository.findByWorkflowId(WORKFLOW_ID))
+                .thenReturn(
+                        List.of(
+                                transition(BACKLOG, READY, "Start", 24L),
+                                transition(BACKLOG, DONE, "Complete", 4L),
+                                transition(READY, DONE, "Finish", null)));
+    }
+
+    private static WorkflowState state(Long id, String name, boolean isFinal) {
+        return WorkflowState.builder()
+                .id(id)
+                .stateName(name)
+                .isInitial(!isFinal)
+                .isFinal(isFinal)
+                .build();
+    }
+
+    private static WorkflowTransition transition(
+            WorkflowState source, WorkflowState target, String eventName, Long slaDuration) {
+        return WorkflowTransition.builder()
+                .sourceState(source)
+                .targetState(target)
+                .eventName(eventName)
+                .slaDuration(slaDuration)
+                .build();
+    }
+}
@@ -0,0 +1,121 @@
+package io.flowinquiry.modules.teams.service.job;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import io.flowinquiry.IntegrationTest;
+import io.flowinquiry.modules.collab.EmailContext;
+import io.flowinquiry.modules.collab.service.MailService;
+import io.flowinquiry.modules.shared.service.cache.DeduplicationCacheService;
+import io.flowinquiry.modules.teams.domain.WorkflowTransitionHistory;
+import io.flowinquiry.modules.teams.domain.WorkflowTransitionHistoryStatus;
+import io.flowinquiry.modules.teams.repository.TicketRepository;
+import io.flowinquiry.modules.teams.repository.WorkflowStateRepository;
+import io.flowinquiry.modules.teams.repository.WorkflowTransitionHistoryRepository;
+import io.flowinquiry.modules.teams.service.TeamService;
+import io.flowinquiry.modules.teams.service.WorkflowTransitionHistoryService;
+import io.flowinquiry.modules.usermanagement.service.dto.UserDTO;
+import io.flowinquiry.modules.usermanagement.service.mapper.UserMapper;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.MessageSource;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Runs the job against the database without a surrounding transaction, the way the scheduler
+ * calls it, so the recipients are mapped from users loaded by a real persistence context.
+ */
+@IntegrationTest
+public class SendNotificationForTicketsViolateSlaJobIT {
+
+    @Autowired private TeamService teamService;
+
+    @Autowired private WorkflowTransitionHistoryService workflowTransitionHistoryService;
+
+    @Autowired private WorkflowTransitionHistoryRepository workflowTransitionHistoryRepository;
+
+    @Autowired private TicketRepository ticketRepository;
+
+    @Autowired private WorkflowStateRepository workflowStateRepository;
+
+    @Autowired private DeduplicationCacheService deduplicationCacheService;
+
+    @Autowired private UserMapper userMapper;
+
+    @Autowired private MessageSource messageSource;
+
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    private MailService mailService;
+
+    private SendNotificationForTicketsViolateSlaJob job;
+
+    private Long transitionId;
+
+    @BeforeEach
+    public void setup() {
+        mailService = mock(MailService.class);
+        job =
+                new SendNotificationForTicketsViolateSlaJob(
+                        mock(SimpMessagingTemplate.class),
+                        teamService,
+                        workflowTransitionHistoryService,
+                        mailService,
+                        deduplicationCacheService,
+                        userMapper,
+                        messageSource,
+                        transactionManager);
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transitionId = transactionTemplate.execute(status -> saveExpiredTransition());
+    }
+
+    @AfterEach
+    public void cleanup() {
+        new TransactionTemplate(transactionManager)
+                .executeWithoutResult(
+                        status -> workflowTransitionHistoryRepository.deleteById(transitionId));
+    }
+
+    // Ticket 1 of team 1 is assigned to user 4, user 7 manages team 1
+    private Long saveExpiredTransition() {
+        WorkflowTransitionHistory transition =
+                WorkflowTransitionHistory.builder()
+                        .ticket(ticketRepository.getReferenceById(1L))
+                        .toState(workflowStateRepository.getReferenceById(6L))
+                        .eventName("SLA_BREACH_" + UUID.randomUUID())
+                        .transitionDate(Instant.now().minusSeconds(7200))
+                        .slaDueDate(Instant.now().minusSeconds(3600))
+                        .status(WorkflowTransitionHistoryStatus.In_Progress)
+                        .build();
+        return workflowTransitionHistoryRepository.save(transition).getId();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldMapRecipientsBeforeTheEscalationCommits() {
+        job.notifyViolations(List.of(transitionId));
+
+        ArgumentCaptor<List<EmailContext>> emailsCaptor = ArgumentCaptor.forClass(List.class);
+        verify(mailService).sendEmails(emailsCaptor.capture());
+        List<UserDTO> recipients =
+                emailsCaptor.getValue().stream().map(EmailContext::getToUser).toList();
+        assertThat(recipients).extracting(UserDTO::getId).containsExactlyInAnyOrder(4L, 7L);
+        // The authorities are a lazy collection, read while the users were still managed
+        assertThat(recipients).allSatisfy(user -> assertThat(user.getAuthorities()).isNotNull());
+        assertThat(workflowTransitionHistoryRepository.findById(transitionId))
+                .hasValueSatisfying(
+                        transition ->
+                                assertThat(transition.getStatus())
+                                        .isEqualTo(WorkflowTransitionHistoryStatus.Escalated));
+    }
+}
@@ -1,5 +1,6 @@
 package io.flowinquiry.modules.teams.service.job;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
@@ -37,6 +38,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.context.MessageSource;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
 
 /**
  * Tests for {@link SendNotificationForTicketsViolateSlaJob}.
@@ -65,6 +67,8 @@ public class SendNotificationForTicketsViolateSlaJobTest {
 
     @Mock private MessageSource messageSource;
 
+    @Mock private PlatformTransactionManager transactionManager;
+
     private SendNotificationForTicketsViolateSlaJob job;
 
     @BeforeEach
@@ -77,7 +81,8 @@ public class SendNotificationForTicketsViolateSlaJobTest {
                         mailService,
                         deduplicationCacheService,
                         userMapper,
-                        messageSource);
+                        messageSource,
+                        transactionManager);
     }
 
     @Test
@@ -144,7 +149,7 @@ public class SendNotificationForTicketsViolateSlaJobTest {
         teamManagerDTO.setEmail(teamManager.getEmail());
 
         // Mock service calls
-        when(workflowTransitionHistoryService.getViolatedTransitions())
+        when(workflowTransitionHistoryService.escalateViolatedTransitions(List.of(7L)))
                 .thenReturn(violatingTickets);
         when(teamService.getTeamManagers(team.getId())).thenReturn(teamManagers);
         when(userMapper.toDto(assignUser)).thenReturn(assignUserDTO);
@@ -152,12 +157,9 @@ public class SendNotificationForTicketsViolateSlaJobTest {
         when(deduplicationCacheService.containsKey(anyString())).thenReturn(false);
 
         // When
-        job.run();
+        job.notifyViolations(List.of(7L));
 
         // Then
-        // Verify escalation
-        verify(workflowTransitionHistoryService).escalateTransition(violatingTicket.getId());
-
         // Verify notifications sent to both assign user and team manager
         ArgumentCaptor<String> userIdCaptor = ArgumentCaptor.forClass(String.class);
         ArgumentCaptor<Notification> notificationCaptor =
@@ -180,8 +182,10 @@ public class SendNotificationForTicketsViolateSlaJobTest {
             assert !notification.getIsRead();
         }
 
-        // Verify emails sent - just verify the method was called
-        verify(mailService, times(2)).sendEmail(any(EmailContext.class));
+        // Verify both emails are sent as a single batch
+        ArgumentCaptor<List<EmailContext>> emailsCaptor = ArgumentCaptor.forClass(List.class);
+        verify(mailService).sendEmails(emailsCaptor.capture());
+        assertThat(emailsCaptor.getValue()).hasSize(2);
 
         // Verify deduplication cache entries
         verify(deduplicationCacheService, times(2)).put(anyString(), any(Duration.class));
@@ -190,17 +194,16 @@ public class SendNotificationForTicketsViolateSlaJobTest {
     @Test
     public void testRunWithNoViolatingTickets() {
         // Given
-        when(workflowTransitionHistoryService.getViolatedTransitions())
+        when(workflowTransitionHistoryService.escalateViolatedTransitions(List.of(7L)))
                 .thenReturn(Collections.emptyList());
 
         // When
-        job.run();
+        job.notifyViolations(List.of(7L));
 
         // Then
-        verify(workflowTransitionHistoryService, never()).escalateTransition(anyLong());
         verify(teamService, never()).getTeamManagers(anyLong());
         verify(messageTemplate, never()).convertAndSendToUser(anyString(), anyString(), any());
-        verify(mailService, never()).sendEmail(any(EmailContext.class));
+        verify(mailService, never()).sendEmails(any());
         verify(deduplicationCacheService, never()).put(anyString(), any(Duration.class));
     }
 
@@ -257,19 +260,16 @@ public class SendNotificationForTicketsViolateSlaJobTest {
         teamManagerDTO.setEmail(teamManager.getEmail());
 
         // Mock service calls
-        when(workflowTransitionHistoryService.getViolatedTransitions())
+        when(workflowTransitionHistoryService.escalateViolatedTransitions(List.of(7L)))
                 .thenReturn(violatingTickets);
         when(teamService.getTeamManagers(team.getId())).thenReturn(teamManagers);
         when(userMapper.toDto(teamManager)).thenReturn(teamManagerDTO);
         when(deduplicationCacheService.containsKey(anyString())).thenReturn(false);
 
         // When
-        job.run();
+        job.notifyViolations(List.of(7L));
 
         // Then
-        // Verify escalation
-        verify(workflowTransitionHistoryService).escalateTransition(violatingTicket.getId());
-
         // Verify notifications sent only to team manager (not to assign user since it's null)
         verify(messageTemplate, times(1))
                 .convertAndSendToUser(
@@ -277,8 +277,10 @@ public class SendNotificationForTicketsViolateSlaJobTest {
                         eq("/queue/notifications"),
                         any(Notification.class));
 
-        // Verify email sent only to team manager - just verify the method was called
-        verify(mailService, times(1)).sendEmail(any(EmailContext.class));
+        // Verify email sent only to team manager
+        ArgumentCaptor<List<EmailContext>> emailsCaptor = ArgumentCaptor.forClass(List.class);
+        verify(mailService).sendEmails(emailsCaptor.capture());
+        assertThat(emailsCaptor.getValue()).hasSize(1);
 
         // Verify deduplication cache entry
         verify(deduplicationCacheService, times(1)).put(anyString(), any(Duration.class));
@@ -340,7 +342,7 @@ public class SendNotificationForTicketsViolateSlaJobTest {
         List<User> teamManagers = List.of(teamManager);
 
         // Mock service calls
-        when(workflowTransitionHistoryService.getViolatedTransitions())
+        when(workflowTransitionHistoryService.escalateViolatedTransitions(List.of(7L)))
                 .thenReturn(violatingTickets);
         when(teamService.getTeamManagers(team.getId())).thenReturn(teamManagers);
 
@@ -348,15 +350,96 @@ public class SendNotificationForTicketsViolateSlaJobTest {
         when(deduplicationCacheService.containsKey(anyString())).thenReturn(true);
 
         // When
-        job.run();
+        job.notifyViolations(List.of(7L));
 
         // Then
-        // Verify escalation still happens
-        verify(workflowTransitionHistoryService).escalateTransition(violatingTicket.getId());
-
         // Verify no notifications or emails are sent due to deduplication
         verify(messageTemplate, never()).convertAndSendToUser(anyString(), anyString(), any());
-        verify(mailService, never()).sendEmail(any(EmailContext.class));
+        verify(mailService, never()).sendEmails(any());
         verify(deduplicationCacheService, never()).put(anyString(), any(Duration.class));
     }
+
+    @Test
+    public void testRunWithTransitionAlreadyEscalated() {
+        // Given another node escalated the transition first
+        when(workflowTransitionHistoryService.escalateViolatedTransitions(List.of(7L)))
+                .thenReturn(Collections.emptyList());
+
+        // When
+        job.notifyViolations(List.of(7L));
+
+        // Then
+        verify(teamService, never()).getTeamManagers(anyLong());
+        verify(messageTemplate, never()).convertAndSendToUser(anyString(), anyString(), any());
+        verify(mailService, never()).sendEmails(any());
+    }
+
+    @Test
+    public void testRunLooksUpTeamManagersOncePerTeam() {
+        // Given two violating tickets of the same team
+        Team team = Team.builder().id(4L).name("Test Team").build();
+        Workflow workflow = Workflow.builder().id(3L).build();
+        WorkflowState toState = WorkflowState.builder().id(2L).stateName("To State").build();
+
+        Ticket firstTicket =
+                Ticket.builder()
+                        .id(6L)
+                        .requestTitle("First Ticket")
+                        .team(team)
+                        .workflow(workflow)
+                        .build();
+        Ticket secondTicket =
+                Ticket.builder()
+                        .id(9L)
+                        .requestTitle("Second Ticket")
+                        .team(team)
+                        .workflow(workflow)
+                        .build();
+
+        Instant slaDueDate = Instant.now().minusSeconds(3600);
+        WorkflowTransitionHistory firstTransition =
+                WorkflowTransitionHistory.builder()
+                        .id(7L)
+                        .ticket(firstTicket)
+                        .toState(toState)
+                        .eventName("Test Event")
+                        .slaDueDate(slaDueDate)
+                        .status(WorkflowTransitionHistoryStatus.Escalated)
+                        .build();
+        WorkflowTransitionHistory secondTransition =
+                WorkflowTransitionHistory.builder()
+                        .id(10L)
+                        .ticket(secondTicket)
+                        .toState(toState)
+                        .eventName("Test Event")
+                        .slaDueDate(slaDueDate)
+                        .status(WorkflowTransitionHistoryStatus.Escalated)
+                        .build();
+
+        User teamManager = User.builder().id(8L).email("manager@example.com").build();
+        UserDTO teamManagerDTO = new UserDTO();
+        teamManagerDTO.setId(teamManager.getId());
+        teamManagerDTO.setEmail(teamManager.getEmail());
+
+        when(workflowTransitionHistoryService.escalateViolatedTransitions(List.of(7L, 10L)))
+                .thenReturn(List.of(firstTransition, secondTransition));
+        when(teamService.getTeamManagers(team.getId())).thenReturn(List.of(teamManager));
+        when(userMapper.toDto(teamManager)).thenReturn(teamManagerDTO);
+        when(deduplicationCacheService.containsKey(anyString())).thenReturn(false);
+
+        // When
+        job.notifyViolations(List.of(7L, 10L));
+
+        // Then
+        verify(teamService, times(1)).getTeamManagers(team.getId());
+        verify(messageTemplate, times(2))
+                .convertAndSendToUser(
+                        eq(String.valueOf(teamManager.getId())),
+                        eq("/queue/notifications"),
+                        any(Notification.class));
+
+        ArgumentCaptor<List<EmailContext>> emailsCaptor = ArgumentCaptor.forClass(List.class);
+        verify(mailService).sendEmails(emailsCaptor.capture());
+        assertThat(emailsCaptor.getValue()).hasSize(2);
+    }
 }
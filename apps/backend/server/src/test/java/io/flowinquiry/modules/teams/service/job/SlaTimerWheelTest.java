@@ -0,0 +1,84 @@
+package io.flowinquiry.modules.teams.service.job;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class SlaTimerWheelTest {
+
+    private Instant start;
+
+    private SlaTimerWheel timerWheel;
+
+    @BeforeEach
+    public void setup() {
+        start = Instant.parse("2025-01-01T00:00:00Z");
+        timerWheel = new SlaTimerWheel(1000, start);
+    }
+
+    @Test
+    public void testDeadlineExpiresOnlyOnceDue() {
+        timerWheel.schedule(1L, start.plusSeconds(10));
+
+        assertThat(timerWheel.advanceTo(start.plusSeconds(9))).isEmpty();
+        assertThat(timerWheel.advanceTo(start.plusSeconds(10))).containsExactly(1L);
+        assertThat(timerWheel.advanceTo(start.plusSeconds(20))).isEmpty();
+        assertThat(timerWheel.size()).isZero();
+    }
+
+    @Test
+    public void testPastDeadlineExpiresOnNextAdvance() {
+        timerWheel.schedule(1L, start.minusSeconds(60));
+
+        assertThat(timerWheel.advanceTo(start)).containsExactly(1L);
+    }
+
+    @Test
+    public void testDeadlinesCascadeFromHigherLevels() {
+        // One deadline per level of the wheel, plus one beyond the span of the top level
+        timerWheel.schedule(1L, start.plusSeconds(30));
+        timerWheel.schedule(2L, start.plus(Duration.ofMinutes(30)));
+        timerWheel.schedule(3L, start.plus(Duration.ofHours(30)));
+        timerWheel.schedule(4L, start.plus(Duration.ofDays(100)));
+        timerWheel.schedule(5L, start.plus(Duration.ofDays(400)));
+
+        List<Long> expired = new ArrayList<>();
+        Instant now = start;
+        while (now.isBefore(start.plus(Duration.ofDays(401)))) {
+            now = now.plus(Duration.ofMinutes(1));
+            List<Long> expiredNow = timerWheel.advanceTo(now);
+            for (Long id : expiredNow) {
+                assertThat(deadlineOf(id)).isBeforeOrEqualTo(now);
+                assertThat(deadlineOf(id)).isAfter(now.minus(Duration.ofMinutes(1)));
+            }
+            expired.addAll(expiredNow);
+        }
+
+        assertThat(expired).containsExactly(1L, 2L, 3L, 4L, 5L);
+    }
+
+    @Test
+    public void testRescheduleReplacesPreviousDeadline() {
+        timerWheel.schedule(1L, start.plusSeconds(10));
+        timerWheel.schedule(1L, start.plusSeconds(100));
+
+        assertThat(timerWheel.advanceTo(start.plusSeconds(50))).isEmpty();
+        assertThat(timerWheel.advanceTo(start.plusSeconds(100))).containsExactly(1L);
+        assertThat(timerWheel.size()).isZero();
+    }
+
+    private Instant deadlineOf(Long id) {
+        return switch (id.intValue()) {
+            case 1 -> start.plusSeconds(30);
+            case 2 -> start.plus(Duration.ofMinutes(30));
+            case 3 -> start.plus(Duration.ofHours(30));
+            case 4 -> start.plus(Duration.ofDays(100));
+            default -> start.plus(Duration.ofDays(400));
+        };
+    }
+}
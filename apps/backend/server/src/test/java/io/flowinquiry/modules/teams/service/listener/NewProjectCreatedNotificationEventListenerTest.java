@@ -1,19 +1,15 @@
 package io.flowinquiry.modules.teams.service.listener;
 
-import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
-import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import io.flowinquiry.exceptions.ResourceNotFoundException;
 import io.flowinquiry.modules.collab.domain.ActivityLog;
 import io.flowinquiry.modules.collab.domain.EntityType;
-import io.flowinquiry.modules.collab.domain.Notification;
 import io.flowinquiry.modules.collab.domain.NotificationType;
-import io.flowinquiry.modules.collab.repository.ActivityLogRepository;
-import io.flowinquiry.modules.collab.repository.NotificationRepository;
+import io.flowinquiry.modules.collab.service.NotificationPipeline;
 import io.flowinquiry.modules.teams.repository.TeamRepository;
 import io.flowinquiry.modules.teams.service.dto.ProjectDTO;
 import io.flowinquiry.modules.teams.service.event.NewProjectCreatedEvent;
@@ -30,18 +26,13 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 
 @ExtendWith(MockitoExtension.class)
 public class NewProjectCreatedNotificationEventListenerTest {
 
     @Mock private TeamRepository teamRepository;
 
-    @Mock private SimpMessagingTemplate messageTemplate;
-
-    @Mock private NotificationRepository notificationRepository;
-
-    @Mock private ActivityLogRepository activityLogRepository;
+    @Mock private NotificationPipeline notificationPipeline;
 
     @Mock private UserRepository userRepository;
 
@@ -51,11 +42,7 @@ public class NewProjectCreatedNotificationEventListenerTest {
     public void setup() {
         listener =
                 new NewProjectCreatedNotificationEventListener(
-                        teamRepository,
-                        messageTemplate,
-                        notificationRepository,
-                        activityLogRepository,
-                        userRepository);
+                        teamRepository, userRepository, notificationPipeline);
     }
 
     @Test
@@ -100,10 +87,14 @@ public class NewProjectCreatedNotificationEventListenerTest {
         // Then
         verify(teamRepository).findUsersByTeamId(teamId);
         verify(userRepository).findOneById(createdById);
-        verify(notificationRepository).saveAll(Collections.emptyList());
 
         ArgumentCaptor<ActivityLog> activityLogCaptor = ArgumentCaptor.forClass(ActivityLog.class);
-        verify(activityLogRepository).save(activityLogCaptor.capture());
+        verify(notificationPipeline)
+                .submit(
+                        anyString(),
+                        eq(NotificationType.INFO),
+                        eq(List.of()),
+                        activityLogCaptor.capture());
 
         ActivityLog capturedActivityLog = activityLogCaptor.getValue();
         assert capturedActivityLog.getEntityId().equals(teamId);
@@ -174,15 +165,6 @@ public class NewProjectCreatedNotificationEventListenerTest {
         when(teamRepository.findUsersByTeamId(teamId)).thenReturn(usersInTeam);
         when(userRepository.findOneById(createdById)).thenReturn(Optional.of(creator));
 
-        Notification notification1 =
-                Notification.builder().id(1L).user(User.builder().id(otherUserId1).build()).build();
-
-        Notification notification2 =
-                Notification.builder().id(2L).user(User.builder().id(otherUserId2).build()).build();
-
-        List<Notification> savedNotifications = Arrays.asList(notification1, notification2);
-        when(notificationRepository.saveAll(any())).thenReturn(savedNotifications);
-
         // When
         listener.onNewProjectCreated(event);
 
@@ -190,24 +172,13 @@ public class NewProjectCreatedNotificationEventListenerTest {
         verify(teamRepository).findUsersByTeamId(teamId);
         verify(userRepository).findOneById(createdById);
 
-        ArgumentCaptor<List<Notification>> notificationsCaptor =
-                ArgumentCaptor.forClass(List.class);
-        verify(notificationRepository).saveAll(notificationsCaptor.capture());
-
-        List<Notification> capturedNotifications = notificationsCaptor.getValue();
-        assert capturedNotifications.size() == 2;
-
-        for (Notification notification : capturedNotifications) {
-            assert notification.getType().equals(NotificationType.INFO);
-            assert notification.getIsRead().equals(false);
-        }
-
-        verify(messageTemplate, times(2))
-                .convertAndSendToUser(
-                        anyString(), eq("/queue/notifications"), any(Notification.class));
-
         ArgumentCaptor<ActivityLog> activityLogCaptor = ArgumentCaptor.forClass(ActivityLog.class);
-        verify(activityLogRepository).save(activityLogCaptor.capture());
+        verify(notificationPipeline)
+                .submit(
+                        anyString(),
+                        eq(NotificationType.INFO),
+                        eq(List.of(otherUserId1, otherUserId2)),
+                        activityLogCaptor.capture());
 
         ActivityLog capturedActivityLog = activityLogCaptor.getValue();
         assert capturedActivityLog.getEntityId().equals(teamId);
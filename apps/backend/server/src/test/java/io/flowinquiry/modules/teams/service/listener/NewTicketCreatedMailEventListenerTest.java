@@ -2,7 +2,6 @@ package io.flowinquiry.modules.teams.service.listener;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.never;
-import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -75,7 +74,7 @@ public class NewTicketCreatedMailEventListenerTest {
         // Then
         verify(ticketService).getTicketById(ticketId);
         verify(entityWatcherRepository).findByEntityTypeAndEntityId(EntityType.Ticket, ticketId);
-        verify(mailService, never()).sendEmail(any(EmailContext.class));
+        verify(mailService, never()).sendEmails(any());
     }
 
     @Test
@@ -133,11 +132,12 @@ public class NewTicketCreatedMailEventListenerTest {
         verify(ticketService).getTicketById(ticketId);
         verify(entityWatcherRepository).findByEntityTypeAndEntityId(EntityType.Ticket, ticketId);
 
-        ArgumentCaptor<EmailContext> emailContextCaptor =
-                ArgumentCaptor.forClass(EmailContext.class);
-        verify(mailService, times(2)).sendEmail(emailContextCaptor.capture());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<EmailContext>> emailContextCaptor =
+                ArgumentCaptor.forClass(List.class);
+        verify(mailService).sendEmails(emailContextCaptor.capture());
 
-        List<EmailContext> capturedContexts = emailContextCaptor.getAllValues();
+        List<EmailContext> capturedContexts = emailContextCaptor.getValue();
         assert capturedContexts.size() == 2;
 
         // Verify first email
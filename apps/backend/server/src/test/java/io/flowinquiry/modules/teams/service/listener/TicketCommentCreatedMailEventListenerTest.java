@@ -1,12 +1,11 @@
 package io.flowinquiry.modules.teams.service.listener;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.never;
-import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
-import io.flowinquiry.modules.collab.EmailContext;
 import io.flowinquiry.modules.collab.domain.EntityType;
 import io.flowinquiry.modules.collab.domain.EntityWatcher;
 import io.flowinquiry.modules.collab.repository.EntityWatcherRepository;
@@ -87,7 +86,7 @@ public class TicketCommentCreatedMailEventListenerTest {
         verify(commentService).getCommentById(commentId);
         verify(entityWatcherRepository).findByEntityTypeAndEntityId(EntityType.Ticket, ticketId);
         verify(ticketService).getTicketById(ticketId);
-        verify(mailService, never()).sendEmail(any(EmailContext.class));
+        verify(mailService, never()).sendEmails(any());
     }
 
     @Test
@@ -153,6 +152,6 @@ public class TicketCommentCreatedMailEventListenerTest {
         verify(userMapper).toDto(watcher1User);
         verify(userMapper).toDto(watcher2User);
         verify(userMapper, never()).toDto(commenterUser); // Commenter should not receive email
-        verify(mailService, times(2)).sendEmail(any(EmailContext.class));
+        verify(mailService).sendEmails(argThat(emails -> emails.size() == 2));
     }
 }
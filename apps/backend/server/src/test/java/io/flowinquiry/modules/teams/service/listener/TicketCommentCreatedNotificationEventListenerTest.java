@@ -1,19 +1,15 @@
 package io.flowinquiry.modules.teams.service.listener;
 
-import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
-import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import io.flowinquiry.exceptions.ResourceNotFoundException;
 import io.flowinquiry.modules.collab.domain.ActivityLog;
 import io.flowinquiry.modules.collab.domain.EntityType;
-import io.flowinquiry.modules.collab.domain.Notification;
 import io.flowinquiry.modules.collab.domain.NotificationType;
-import io.flowinquiry.modules.collab.repository.ActivityLogRepository;
-import io.flowinquiry.modules.collab.repository.NotificationRepository;
+import io.flowinquiry.modules.collab.service.NotificationPipeline;
 import io.flowinquiry.modules.collab.service.dto.CommentDTO;
 import io.flowinquiry.modules.teams.repository.TeamRepository;
 import io.flowinquiry.modules.teams.service.TicketService;
@@ -31,22 +27,17 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 
 @ExtendWith(MockitoExtension.class)
 public class TicketCommentCreatedNotificationEventListenerTest {
 
-    @Mock private SimpMessagingTemplate messageTemplate;
-
     @Mock private UserRepository userRepository;
 
     @Mock private TicketService ticketService;
 
     @Mock private TeamRepository teamRepository;
 
-    @Mock private NotificationRepository notificationRepository;
-
-    @Mock private ActivityLogRepository activityLogRepository;
+    @Mock private NotificationPipeline notificationPipeline;
 
     private TicketCommentCreatedNotificationEventListener listener;
 
@@ -54,12 +45,7 @@ public class TicketCommentCreatedNotificationEventListenerTest {
     public void setup() {
         listener =
                 new TicketCommentCreatedNotificationEventListener(
-                        messageTemplate,
-                        userRepository,
-                        ticketService,
-                        teamRepository,
-                        notificationRepository,
-                        activityLogRepository);
+                        userRepository, ticketService, teamRepository, notificationPipeline);
     }
 
     @Test
@@ -125,20 +111,11 @@ public class TicketCommentCreatedNotificationEventListenerTest {
         List<UserWithTeamRoleDTO> usersInTeam =
                 Arrays.asList(commenterDTO, otherUser1DTO, otherUser2DTO);
 
-        Notification notification1 =
-                Notification.builder().id(1L).user(User.builder().id(otherUserId1).build()).build();
-
-        Notification notification2 =
-                Notification.builder().id(2L).user(User.builder().id(otherUserId2).build()).build();
-
-        List<Notification> savedNotifications = Arrays.asList(notification1, notification2);
-
         TicketCommentCreatedEvent event = new TicketCommentCreatedEvent(this, commentDTO);
 
         when(userRepository.findById(commenterId)).thenReturn(Optional.of(commenterUser));
         when(ticketService.getTicketById(ticketId)).thenReturn(ticketDTO);
         when(teamRepository.findUsersByTeamId(teamId)).thenReturn(usersInTeam);
-        when(notificationRepository.saveAll(any())).thenReturn(savedNotifications);
 
         // When
         listener.onTicketCommentCreated(event);
@@ -148,24 +125,13 @@ public class TicketCommentCreatedNotificationEventListenerTest {
         verify(ticketService).getTicketById(ticketId);
         verify(teamRepository).findUsersByTeamId(teamId);
 
-        ArgumentCaptor<List<Notification>> notificationsCaptor =
-                ArgumentCaptor.forClass(List.class);
-        verify(notificationRepository).saveAll(notificationsCaptor.capture());
-
-        List<Notification> capturedNotifications = notificationsCaptor.getValue();
-        assert capturedNotifications.size() == 2;
-
-        for (Notification notification : capturedNotifications) {
-            assert notification.getType().equals(NotificationType.INFO);
-            assert notification.getIsRead().equals(false);
-        }
-
-        verify(messageTemplate, times(2))
-                .convertAndSendToUser(
-                        anyString(), eq("/queue/notifications"), any(Notification.class));
-
         ArgumentCaptor<ActivityLog> activityLogCaptor = ArgumentCaptor.forClass(ActivityLog.class);
-        verify(activityLogRepository).save(activityLogCaptor.capture());
+        verify(notificationPipeline)
+                .submit(
+                        anyString(),
+                        eq(NotificationType.INFO),
+                        eq(List.of(otherUserId1, otherUserId2)),
+                        activityLogCaptor.capture());
 
         ActivityLog capturedActivityLog = activityLogCaptor.getValue();
         assert capturedActivityLog.getEntityId().equals(teamId);
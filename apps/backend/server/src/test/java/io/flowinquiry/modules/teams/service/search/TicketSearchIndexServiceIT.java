@@ -0,0 +1,101 @@
+package io.flowinquiry.modules.teams.service.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+import io.flowinquiry.IntegrationTest;
+import io.flowinquiry.modules.teams.repository.TicketRepository;
+import io.flowinquiry.modules.teams.service.TicketService;
+import io.flowinquiry.modules.teams.service.dto.TicketDTO;
+import io.flowinquiry.modules.teams.service.event.NewTicketCreatedEvent;
+import io.flowinquiry.modules.teams.service.event.TicketChangedEvent;
+import io.flowinquiry.modules.teams.service.mapper.TicketMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Indexes the tickets of the events published by {@link TicketService}, whose state and assignee
+ * are not loaded. The test transaction never commits, so the listeners are called directly.
+ */
+@IntegrationTest
+@Transactional
+@RecordApplicationEvents
+@TestPropertySource(properties = "flowinquiry.search.in-memory.enabled=true")
+public class TicketSearchIndexServiceIT {
+
+    @Autowired private TicketSearchIndexService indexService;
+
+    @Autowired private TicketService ticketService;
+
+    @Autowired private TicketRepository ticketRepository;
+
+    @Autowired private TicketMapper ticketMapper;
+
+    @Autowired private ApplicationEvents events;
+
+    @Test
+    void shouldIndexStateAndAssigneeOfUpdatedTicket() {
+        // Ticket 1 is in the state Backlog, assigned to Bob Brown
+        TicketDTO ticket = ticketService.getTicketById(1L);
+        ticket.setRequestTitle("Quarterly invoice mismatch");
+        ticketService.updateTicket(ticket);
+
+        TicketChangedEvent event =
+                events.stream(TicketChangedEvent.class).findFirst().orElseThrow();
+        indexService.onTicketChanged(event);
+
+        TicketSearchIndex.Result result = indexService.search("quarterly invoice", null, 10);
+        assertThat(result.hits())
+                .extracting(TicketSearchIndex.Hit::ticketId)
+                .containsExactly(1L);
+        assertThat(result.facets().get(TicketSearchIndex.STATE_FACET))
+                .containsExactly(entry("Backlog", 1));
+        assertThat(result.facets().get(TicketSearchIndex.ASSIGNEE_FACET))
+                .containsExactly(entry("Bob Brown", 1));
+    }
+
+    @Test
+    void shouldIndexStateAndAssigneeOfCreatedTicket() {
+        // Ticket 2 is in the state Request Evidence, assigned to Charlie Green
+        TicketDTO ticket = ticketMapper.toDto(ticketRepository.findById(2L).orElseThrow());
+        ticket.setId(null);
+        ticket.setConversationHealth(null);
+        ticket.setRequestTitle("Warehouse scanner offline");
+        TicketDTO savedTicket = ticketService.createTicket(ticket);
+
+        NewTicketCreatedEvent event =
+                events.stream(NewTicketCreatedEvent.class).findFirst().orElseThrow();
+        indexService.onNewTicketCreated(event);
+
+        TicketSearchIndex.Result result = indexService.search("warehouse scanner", null, 10);
+        assertThat(result.hits())
+                .extracting(TicketSearchIndex.Hit::ticketId)
+                .containsExactly(savedTicket.getId());
+        assertThat(result.facets().get(TicketSearchIndex.STATE_FACET))
+                .containsExactly(entry("Request Evidence", 1));
+        assertThat(result.facets().get(TicketSearchIndex.ASSIGNEE_FACET))
+                .containsExactly(entry("Charlie Green", 1));
+    }
+
+    @Test
+    void shouldRemoveDeletedTicket() {
+        TicketDTO ticket = ticketService.getTicketById(1L);
+        ticket.setRequestTitle("Quarterly invoice mismatch");
+        ticketService.updateTicket(ticket);
+        indexService.onTicketChanged(
+                events.stream(TicketChangedEvent.class).findFirst().orElseThrow());
+
+        ticketService.deleteTicket(1L);
+        indexService.onTicketChanged(
+                events.stream(TicketChangedEvent.class)
+                        .filter(event -> event.getCurrentTicket() == null)
+                        .findFirst()
+                        .orElseThrow());
+
+        assertThat(indexService.search("quarterly invoice", null, 10).total()).isZero();
+    }
+}
@@ -0,0 +1,119 @@
+package io.flowinquiry.modules.teams.service.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.flowinquiry.modules.collab.domain.EntityType;
+import io.flowinquiry.modules.collab.repository.CommentRepository;
+import io.flowinquiry.modules.teams.repository.TicketRepository;
+import io.flowinquiry.modules.teams.service.dto.TicketDTO;
+import io.flowinquiry.modules.teams.service.event.TicketChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.listener.MessageListener;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@ExtendWith(MockitoExtension.class)
+public class TicketSearchIndexServiceTest {
+
+    private static final TicketSearchDocument PRINTER_TICKET =
+            new TicketSearchDocument(
+                    7L, 1L, "Printer jammed", "Paper stuck", "Open", "High", "Bob Brown");
+
+    @Mock private TicketRepository ticketRepository;
+
+    @Mock private CommentRepository commentRepository;
+
+    @Mock private PlatformTransactionManager transactionManager;
+
+    @Mock private ObjectProvider<RedissonClient> redissonClient;
+
+    @Mock private RedissonClient client;
+
+    @Mock private RTopic topic;
+
+    private TicketSearchIndexService indexService;
+
+    @BeforeEach
+    public void setup() {
+        indexService =
+                new TicketSearchIndexService(
+                        ticketRepository,
+                        commentRepository,
+                        transactionManager,
+                        redissonClient,
+                        new SimpleMeterRegistry());
+    }
+
+    @Test
+    public void testKeepsTheEmptyIndexWhenTheRebuildFails() {
+        when(commentRepository.streamContentsByEntityType(EntityType.Ticket))
+                .thenThrow(new DataAccessResourceFailureException("Database unavailable"));
+
+        indexService.rebuild();
+
+        assertThat(indexService.search("printer", null, 10).total()).isZero();
+    }
+
+    @Test
+    public void testRelaysChangedTickets() {
+        MessageListener<String> listener = subscribe();
+        when(ticketRepository.findSearchDocumentsByIdIn(List.of(7L)))
+                .thenReturn(List.of(PRINTER_TICKET));
+
+        indexService.onTicketChanged(new TicketChangedEvent(this, ticket(7L), ticket(7L)));
+
+        assertThat(indexService.search("printer", null, 10).total()).isEqualTo(1);
+        ArgumentCaptor<String> messageCaptor = ArgumentCaptor.forClass(String.class);
+        verify(topic).publish(messageCaptor.capture());
+        assertThat(messageCaptor.getValue()).endsWith("\ntickets\n7");
+
+        // The instance ignores its own messages
+        listener.onMessage("flowinquiry:ticket-search-index", messageCaptor.getValue());
+        verify(ticketRepository).findSearchDocumentsByIdIn(List.of(7L));
+    }
+
+    @Test
+    public void testIndexesTicketsChangedOnAnotherInstance() {
+        MessageListener<String> listener = subscribe();
+        when(ticketRepository.findSearchDocumentsByIdIn(List.of(7L, 8L)))
+                .thenReturn(List.of(PRINTER_TICKET));
+
+        listener.onMessage("flowinquiry:ticket-search-index", "other-instance\ntickets\n7\n8");
+
+        assertThat(indexService.search("printer", null, 10).hits())
+                .extracting(TicketSearchIndex.Hit::ticketId)
+                .containsExactly(7L);
+    }
+
+    @SuppressWarnings("unchecked")
+    private MessageListener<String> subscribe() {
+        when(redissonClient.getIfAvailable()).thenReturn(client);
+        when(client.getTopic("flowinquiry:ticket-search-index", StringCodec.INSTANCE))
+                .thenReturn(topic);
+        indexService.subscribe();
+        ArgumentCaptor<MessageListener<String>> listenerCaptor =
+                ArgumentCaptor.forClass(MessageListener.class);
+        verify(topic).addListener(eq(String.class), listenerCaptor.capture());
+        return listenerCaptor.getValue();
+    }
+
+    private static TicketDTO ticket(Long id) {
+        TicketDTO ticket = new TicketDTO();
+        ticket.setId(id);
+        return ticket;
+    }
+}
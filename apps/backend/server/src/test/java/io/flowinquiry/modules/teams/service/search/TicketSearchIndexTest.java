@@ -0,0 +1,99 @@
+package io.flowinquiry.modules.teams.service.search;
+
+import static io.flowinquiry.modules.teams.service.search.TicketSearchIndex.ASSIGNEE_FACET;
+import static io.flowinquiry.modules.teams.service.search.TicketSearchIndex.PRIORITY_FACET;
+import static io.flowinquiry.modules.teams.service.search.TicketSearchIndex.STATE_FACET;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class TicketSearchIndexTest {
+
+    private TicketSearchIndex index;
+
+    @BeforeEach
+    public void setup() {
+        index = new TicketSearchIndex();
+        index.put(ticket(1L, 1L, "Printer is broken", "<p>It prints <strong>blank</strong> pages"));
+        index.put(ticket(2L, 1L, "Refund of the printer", "Charged twice for the printer"));
+        index.put(ticket(3L, 2L, "Laptop does not boot", "Black screen since the update"));
+    }
+
+    @Test
+    public void testMatchLastWordAsPrefixWhileTyping() {
+        assertThat(ticketIds(index.search("print", null, 10))).containsExactly(2L, 1L);
+        assertThat(ticketIds(index.search("print ", null, 10))).isEmpty();
+        assertThat(ticketIds(index.search("printer bl", null, 10))).containsExactly(1L);
+        assertThat(ticketIds(index.search("PRINTER Charged", null, 10))).containsExactly(2L);
+    }
+
+    @Test
+    public void testSkipHtmlMarkup() {
+        assertThat(ticketIds(index.search("blank", null, 10))).containsExactly(1L);
+        assertThat(ticketIds(index.search("strong ", null, 10))).isEmpty();
+    }
+
+    @Test
+    public void testFilterByTeamAndCountFacets() {
+        TicketSearchIndex.Result result = index.search("", 1L, 1);
+
+        assertThat(result.total()).isEqualTo(2);
+        assertThat(ticketIds(result)).containsExactly(2L);
+        assertThat(result.facets().get(STATE_FACET)).containsExactly(entry("New", 2));
+        assertThat(result.facets().get(PRIORITY_FACET)).containsExactly(entry("High", 2));
+        assertThat(result.facets().get(ASSIGNEE_FACET)).containsExactly(entry("Jane Doe", 2));
+    }
+
+    @Test
+    public void testKeepCommentsWhenTicketIsUpdated() {
+        index.addComment(1L, "Replaced the toner cartridge");
+        index.put(ticket(1L, 1L, "Printer prints blank pages", null));
+
+        assertThat(ticketIds(index.search("toner", null, 10))).containsExactly(1L);
+        assertThat(ticketIds(index.search("broken ", null, 10))).isEmpty();
+        assertThat(ticketIds(index.search("printer ", null, 10))).containsExactly(1L, 2L);
+    }
+
+    @Test
+    public void testAddCommentsReadBeforeTheirTicket() {
+        index.addComment(4L, "The projector fan is loud");
+        assertThat(ticketIds(index.search("projector", null, 10))).isEmpty();
+
+        index.put(ticket(4L, 2L, "Meeting room", null));
+
+        assertThat(ticketIds(index.search("projector", null, 10))).containsExactly(4L);
+    }
+
+    @Test
+    public void testRemoveTicket() {
+        index.remove(2L);
+
+        assertThat(ticketIds(index.search("printer", null, 10))).containsExactly(1L);
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    @Test
+    public void testCompactRemovedDocuments() {
+        for (int i = 0; i < 3000; i++) {
+            index.put(ticket(3L, 2L, "Laptop does not boot " + i, null));
+        }
+
+        assertThat(ticketIds(index.search("laptop", null, 10))).containsExactly(3L);
+        assertThat(ticketIds(index.search("2999 ", null, 10))).containsExactly(3L);
+        assertThat(ticketIds(index.search("printer ", null, 10))).containsExactly(2L, 1L);
+        assertThat(index.search("", null, 10).total()).isEqualTo(3);
+    }
+
+    private static TicketSearchDocument ticket(
+            Long ticketId, Long teamId, String title, String description) {
+        return new TicketSearchDocument(
+                ticketId, teamId, title, description, "New", "High", "Jane Doe");
+    }
+
+    private static List<Long> ticketIds(TicketSearchIndex.Result result) {
+        return result.hits().stream().map(TicketSearchIndex.Hit::ticketId).toList();
+    }
+}
@@ -0,0 +1,111 @@
+package io.flowinquiry.modules.usermanagement.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.flowinquiry.modules.usermanagement.AuthoritiesConstants;
+import io.flowinquiry.modules.usermanagement.domain.AuthorityResourcePermission;
+import io.flowinquiry.modules.usermanagement.domain.Permission;
+import io.flowinquiry.modules.usermanagement.repository.AuthorityResourcePermissionRepository;
+import io.flowinquiry.modules.usermanagement.repository.ResourceRepository;
+import io.flowinquiry.modules.usermanagement.repository.UserRepository;
+import io.flowinquiry.modules.usermanagement.service.dto.ResourcePermissionDTO;
+import io.flowinquiry.modules.usermanagement.service.event.ResourcePermissionsChangedEvent;
+import io.flowinquiry.modules.usermanagement.service.event.UserAuthoritiesChangedEvent;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import org.assertj.core.groups.Tuple;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class PermissionMatrixTest {
+
+    private static final Long USER_ID = 7L;
+
+    @Mock private ResourceRepository resourceRepository;
+
+    @Mock private AuthorityResourcePermissionRepository authorityResourcePermissionRepository;
+
+    @Mock private UserRepository userRepository;
+
+    private PermissionMatrix permissionMatrix;
+
+    @BeforeEach
+    public void setup() {
+        permissionMatrix =
+                new PermissionMatrix(
+                        resourceRepository,
+                        authorityResourcePermissionRepository,
+                        userRepository,
+                        Duration.ofMinutes(5),
+                        100);
+        when(resourceRepository.findAllNames()).thenReturn(List.of("mail", "teams", "users"));
+        when(authorityResourcePermissionRepository.findAllGrants())
+                .thenReturn(
+                        List.of(
+                                grant("ROLE_SUPPORT", "teams", Permission.READ),
+                                grant("ROLE_SUPPORT", "users", Permission.WRITE),
+                                grant("ROLE_LEAD", "teams", Permission.ACCESS),
+                                grant("ROLE_LEAD", "mail", Permission.NONE),
+                                grant("ROLE_OTHER", "mail", Permission.ACCESS)));
+    }
+
+    @Test
+    public void testResolvesHighestPermissionOfUserAuthorities() {
+        when(userRepository.findAuthorityNamesByUserId(USER_ID))
+                .thenReturn(Set.of("ROLE_SUPPORT", "ROLE_LEAD"));
+
+        List<ResourcePermissionDTO> permissions = permissionMatrix.getResourcePermissions(USER_ID);
+
+        assertThat(permissions)
+                .extracting("resourceName", "permission")
+                .containsExactly(
+                        Tuple.tuple("mail", "NONE"),
+                        Tuple.tuple("teams", "ACCESS"),
+                        Tuple.tuple("users", "WRITE"));
+        assertThat(permissionMatrix.getPermission(USER_ID, "users")).isEqualTo(Permission.WRITE);
+        // Loaded once, then answered from memory
+        verify(userRepository).findAuthorityNamesByUserId(USER_ID);
+        verify(authorityResourcePermissionRepository).findAllGrants();
+    }
+
+    @Test
+    public void testAdministratorHasAccessToEveryResource() {
+        when(userRepository.findAuthorityNamesByUserId(USER_ID))
+                .thenReturn(Set.of(AuthoritiesConstants.ADMIN));
+
+        assertThat(permissionMatrix.getResourcePermissions(USER_ID))
+                .extracting("resourceName", "permission")
+                .containsExactly(
+                        Tuple.tuple("mail", "ACCESS"),
+                        Tuple.tuple("teams", "ACCESS"),
+                        Tuple.tuple("users", "ACCESS"));
+    }
+
+    @Test
+    public void testChangesAreReloaded() {
+        when(userRepository.findAuthorityNamesByUserId(USER_ID))
+                .thenReturn(Set.of("ROLE_SUPPORT"), Set.of("ROLE_OTHER"));
+        assertThat(permissionMatrix.getPermission(USER_ID, "mail")).isEqualTo(Permission.NONE);
+
+        permissionMatrix.onUserAuthoritiesChanged(
+                new UserAuthoritiesChangedEvent(this, List.of(USER_ID)));
+        permissionMatrix.onResourcePermissionsChanged(new ResourcePermissionsChangedEvent(this));
+
+        assertThat(permissionMatrix.getPermission(USER_ID, "mail")).isEqualTo(Permission.ACCESS);
+        verify(userRepository, times(2)).findAuthorityNamesByUserId(USER_ID);
+        verify(authorityResourcePermissionRepository, times(2)).findAllGrants();
+    }
+
+    private static AuthorityResourcePermission grant(
+            String authorityName, String resourceName, Permission permission) {
+        return new AuthorityResourcePermission(authorityName, resourceName, permission.getCode());
+    }
+}
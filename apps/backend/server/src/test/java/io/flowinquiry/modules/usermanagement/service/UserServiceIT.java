@@ -27,7 +27,10 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.auditing.AuditingHandler;
 import org.springframework.data.auditing.DateTimeProvider;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 /** Integration tests for {@link UserService}. */
@@ -198,4 +201,19 @@ class UserServiceIT {
                         Tuple.tuple("workflows", "ACCESS"),
                         Tuple.tuple("mail", "ACCESS"));
     }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void shouldSearchUsersWithTheirManagerOutsideATransaction() {
+        // Alice Johnson reports to Jane Smith
+        Page<UserDTO> users = userService.searchUsers("alice.johnson", PageRequest.of(0, 10));
+
+        assertThat(users.getContent())
+                .singleElement()
+                .satisfies(
+                        found -> {
+                            assertThat(found.getManagerId()).isEqualTo(2L);
+                            assertThat(found.getManagerName()).isEqualTo("Jane Smith");
+                        });
+    }
 }
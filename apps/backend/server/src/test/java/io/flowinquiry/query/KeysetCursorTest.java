@@ -0,0 +1,60 @@
+package io.flowinquiry.query;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Instant;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+public class KeysetCursorTest {
+
+    @Test
+    public void testEncodeDecodeRoundTrip() {
+        KeysetCursor cursor =
+                new KeysetCursor(
+                        "requestTitle", Sort.Direction.ASC, 42L, "Printer | not working: again");
+
+        KeysetCursor decoded = KeysetCursor.decode(cursor.encode());
+
+        assertThat(decoded).isEqualTo(cursor);
+    }
+
+    @Test
+    public void testEncodeDecodeNullValue() {
+        KeysetCursor cursor = new KeysetCursor("estimate", Sort.Direction.DESC, 7L, null);
+
+        KeysetCursor decoded = KeysetCursor.decode(cursor.encode());
+
+        assertThat(decoded.lastValue()).isNull();
+        assertThat(decoded.lastId()).isEqualTo(7L);
+    }
+
+    @Test
+    public void testDecodeInvalidToken() {
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode("not a cursor"));
+    }
+
+    @Test
+    public void testStartUsesFirstSortOrder() {
+        KeysetCursor cursor =
+                KeysetCursor.start(Sort.by(Sort.Order.asc("priority"), Sort.Order.desc("id")));
+
+        assertThat(cursor.isStart()).isTrue();
+        assertThat(cursor.toSort())
+                .containsExactly(Sort.Order.asc("priority"), Sort.Order.asc("id"));
+        assertThat(KeysetCursor.start(Sort.unsorted()).toSort())
+                .containsExactly(Sort.Order.desc("id"));
+    }
+
+    @Test
+    public void testCreatedAtCursor() {
+        Instant createdAt = Instant.parse("2025-03-01T10:15:30.123Z");
+        KeysetCursor cursor = KeysetCursor.decode(KeysetCursor.ofCreatedAt(createdAt, 5L).encode());
+
+        assertThat(cursor.lastCreatedAt()).isEqualTo(createdAt);
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> new KeysetCursor("id", Sort.Direction.DESC, 5L, null).lastCreatedAt());
+    }
+}
@@ -0,0 +1,114 @@
+package io.flowinquiry.query;
+
+import static io.flowinquiry.query.QueryUtils.createSpecification;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.flowinquiry.IntegrationTest;
+import io.flowinquiry.modules.teams.domain.Ticket;
+import io.flowinquiry.modules.teams.repository.TicketRepository;
+import java.util.List;
+import java.util.Optional;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+
+@IntegrationTest
+@Transactional
+public class QueryPlanCacheIT {
+
+    @Autowired private TicketRepository ticketRepository;
+
+    @Autowired private SessionFactory sessionFactory;
+
+    @Test
+    void shouldReuseThePlanOfQueriesWithTheSameShape() {
+        List<Long> chatTickets = findTicketIds(query(new Filter("channel", "eq", "CHAT")));
+        CacheStats before = QueryPlanCache.stats();
+
+        List<Long> emailTickets = findTicketIds(query(new Filter("channel", "eq", "EMAIL")));
+
+        CacheStats after = QueryPlanCache.stats();
+        assertThat(chatTickets).containsExactly(8L, 12L);
+        assertThat(emailTickets).containsExactly(3L);
+        assertThat(after.missCount()).isEqualTo(before.missCount());
+        assertThat(after.hitCount()).isGreaterThan(before.hitCount());
+    }
+
+    @Test
+    void shouldCompileGroupsAndJoinedFields() {
+        GroupFilter channels = new GroupFilter();
+        channels.setLogicalOperator("OR");
+        channels.setFilters(
+                List.of(new Filter("channel", "eq", "CHAT"), new Filter("channel", "eq", "API")));
+        GroupFilter team = new GroupFilter();
+        team.setLogicalOperator("AND");
+        team.setFilters(List.of(new Filter("team.id", "eq", 1L)));
+        team.setGroups(List.of(channels));
+        QueryDTO queryDTO = new QueryDTO();
+        queryDTO.setGroups(List.of(team));
+
+        assertThat(findTicketIds(queryDTO)).containsExactly(12L);
+    }
+
+    @Test
+    void shouldMatchTextFieldsWithTheFullTextOperator() {
+        assertThat(findTicketIds(query(new Filter("requestTitle", "ts", "refunds"))))
+                .containsExactly(1L, 5L, 9L, 11L, 12L);
+        QueryDTO laptops = query(new Filter("requestTitle,requestDescription", "ts", "laptop"));
+        assertThat(findTicketIds(laptops)).containsExactly(3L, 7L);
+    }
+
+    @Test
+    void shouldShareTheHibernatePlanOfDifferentSearchTerms() {
+        Statistics statistics = sessionFactory.getStatistics();
+        boolean statisticsEnabled = statistics.isStatisticsEnabled();
+        statistics.setStatisticsEnabled(true);
+        try {
+            findTicketIds(query(new Filter("requestTitle", "ts", "refunds")));
+            long misses = statistics.getQueryPlanCacheMissCount();
+            long hits = statistics.getQueryPlanCacheHitCount();
+
+            QueryDTO laptops = query(new Filter("requestTitle", "ts", "laptop"));
+            List<Long> laptopTickets = findTicketIds(laptops);
+
+            // The terms are bound, not rendered into the query
+            assertThat(laptopTickets).containsExactly(3L);
+            assertThat(statistics.getQueryPlanCacheMissCount()).isEqualTo(misses);
+            assertThat(statistics.getQueryPlanCacheHitCount()).isGreaterThan(hits);
+        } finally {
+            statistics.setStatisticsEnabled(statisticsEnabled);
+        }
+    }
+
+    @Test
+    void shouldMatchNoTicketForAnInvalidEnumValue() {
+        assertThat(findTicketIds(query(new Filter("channel", "eq", "FAX")))).isEmpty();
+    }
+
+    @Test
+    void shouldRejectAnInvalidOperator() {
+        QueryDTO queryDTO = query(new Filter("channel", "xx", "CHAT"));
+
+        assertThatThrownBy(() -> findTicketIds(queryDTO))
+                .hasStackTraceContaining("Invalid operator: xx");
+    }
+
+    private static QueryDTO query(Filter filter) {
+        QueryDTO queryDTO = new QueryDTO();
+        queryDTO.setFilters(List.of(filter));
+        return queryDTO;
+    }
+
+    private List<Long> findTicketIds(QueryDTO queryDTO) {
+        return ticketRepository
+                .findAll(createSpecification(Optional.of(queryDTO)), Sort.by("id"))
+                .stream()
+                .map(Ticket::getId)
+                .toList();
+    }
+}
@@ -0,0 +1,110 @@
+package io.flowinquiry.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+@ExtendWith(MockitoExtension.class)
+public class CachingJwtDecoderTest {
+
+    private static final Instant NOW = Instant.parse("2025-01-01T00:00:00Z");
+
+    @Mock private JwtDecoder delegate;
+
+    private MutableClock clock;
+
+    private CachingJwtDecoder decoder;
+
+    @BeforeEach
+    public void setup() {
+        clock = new MutableClock(NOW);
+        decoder = new CachingJwtDecoder(delegate, 100, Duration.ofMinutes(15), clock);
+    }
+
+    @Test
+    public void testVerifiesEachTokenOnce() {
+        Jwt first = jwt("first", NOW.plusSeconds(3600));
+        Jwt second = jwt("second", NOW.plusSeconds(3600));
+        when(delegate.decode("first")).thenReturn(first);
+        when(delegate.decode("second")).thenReturn(second);
+
+        assertThat(decoder.decode("first")).isSameAs(first);
+        assertThat(decoder.decode("first")).isSameAs(first);
+        assertThat(decoder.decode("second")).isSameAs(second);
+
+        verify(delegate).decode("first");
+        verify(delegate).decode("second");
+    }
+
+    @Test
+    public void testRejectedTokensAreNotCached() {
+        when(delegate.decode("forged")).thenThrow(new BadJwtException("Invalid signature"));
+
+        assertThatThrownBy(() -> decoder.decode("forged")).isInstanceOf(BadJwtException.class);
+        assertThatThrownBy(() -> decoder.decode("forged")).isInstanceOf(BadJwtException.class);
+
+        verify(delegate, times(2)).decode("forged");
+    }
+
+    @Test
+    public void testExpiredTokenIsVerifiedAgain() {
+        when(delegate.decode("token"))
+                .thenReturn(jwt("token", NOW.plusSeconds(60)))
+                .thenThrow(new BadJwtException("Jwt expired"));
+        decoder.decode("token");
+
+        clock.instant = NOW.plusSeconds(61);
+
+        assertThatThrownBy(() -> decoder.decode("token")).isInstanceOf(BadJwtException.class);
+        verify(delegate, times(2)).decode("token");
+    }
+
+    private static Jwt jwt(String token, Instant expiresAt) {
+        return Jwt.withTokenValue(token)
+                .header("alg", "HS512")
+                .subject("admin@flowinquiry.io")
+                .issuedAt(NOW)
+                .expiresAt(expiresAt)
+                .build();
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant instant;
+
+        private MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
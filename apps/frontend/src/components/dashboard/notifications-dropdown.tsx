@@ -11,7 +11,7 @@ import {
   XCircle,
 } from "lucide-react";
 import { useSession } from "next-auth/react";
-import React, { useEffect, useState } from "react";
+import React, { useCallback, useEffect, useState } from "react";
 import { toast } from "sonner";
 
 import TruncatedHtmlLabel from "@/components/shared/truncate-html-label";
@@ -31,7 +31,7 @@ import {
 import { useAppClientTranslations } from "@/hooks/use-translations";
 import useWebSocket from "@/hooks/use-websocket";
 import {
-  getUnReadNotificationsByUserId,
+  getUnreadNotificationSummary,
   markNotificationsAsRead,
 } from "@/lib/actions/notifications.action";
 import { formatDateTime, formatDateTimeDistanceToNow } from "@/lib/datetime";
@@ -52,32 +52,46 @@ const NotificationsDropdown = () => {
     return [];
   });
 
-  const { notifications: notificationsSocket } = useWebSocket();
+  const [unreadCount, setUnreadCount] = useState<number | null>(null);
 
-  useEffect(() => {
-    async function fetchNotifications() {
-      if (!session?.user?.id) return;
+  const { notifications: notificationsSocket, unreadSummary } = useWebSocket();
 
-      const notificationsData = await getUnReadNotificationsByUserId(
-        Number(session.user.id),
-        setError,
-      );
+  const fetchNotifications = useCallback(async () => {
+    if (!session?.user?.id) return;
 
-      setNotifications((prev) => {
-        const merged = [
-          ...notificationsData,
-          ...prev.filter(
-            (n) => !notificationsData.some((dbN) => dbN.id === n.id),
-          ),
-        ];
-        localStorage.setItem(LOCAL_STORAGE_KEY, JSON.stringify(merged));
-        return merged;
-      });
-    }
+    const summary = await getUnreadNotificationSummary(
+      Number(session.user.id),
+      setError,
+    );
+    const notificationsData = summary.latest;
+    setUnreadCount(summary.unreadCount);
 
-    fetchNotifications();
+    setNotifications((prev) => {
+      const merged = [
+        ...notificationsData,
+        ...prev.filter(
+          (n) => !notificationsData.some((dbN) => dbN.id === n.id),
+        ),
+      ];
+      localStorage.setItem(LOCAL_STORAGE_KEY, JSON.stringify(merged));
+      return merged;
+    });
   }, [session, setError]);
 
+  useEffect(() => {
+    fetchNotifications();
+  }, [fetchNotifications]);
+
+  useEffect(() => {
+    if (!unreadSummary) return;
+
+    setUnreadCount(unreadSummary.unreadCount);
+    if (unreadSummary.latest.length === 0 && unreadSummary.unreadCount > 0) {
+      // Older unread notifications remain beyond the pushed list
+      fetchNotifications();
+    }
+  }, [unreadSummary, fetchNotifications]);
+
   useEffect(() => {
     if (notificationsSocket.length > 0) {
       notificationsSocket.forEach((notification) => {
@@ -120,6 +134,7 @@ const NotificationsDropdown = () => {
     }
 
     setNotifications([]);
+    setUnreadCount(0);
     localStorage.setItem(LOCAL_STORAGE_KEY, JSON.stringify([]));
   };
 
@@ -148,6 +163,8 @@ const NotificationsDropdown = () => {
     }, 500);
   };
 
+  const badgeCount = unreadCount ?? notifications.length;
+
   const getNotificationIcon = (type: NotificationType) => {
     switch (type) {
       case NotificationType.INFO:
@@ -220,14 +237,14 @@ const NotificationsDropdown = () => {
           variant="outline"
           className="relative h-10 w-10 rounded-full p-0"
         >
-          {notifications.length > 0 ? (
+          {badgeCount > 0 ? (
             <BellDot className="animate-tada h-5 w-5" />
           ) : (
             <Bell className="h-5 w-5" />
           )}
-          {notifications.length > 0 && (
+          {badgeCount > 0 && (
             <div className="absolute top-0 right-0 -mt-1 -mr-1 flex h-5 w-5 items-center justify-center rounded-full bg-red-500 text-xs font-medium text-white">
-              {notifications.length}
+              {badgeCount}
             </div>
           )}
         </Button>
@@ -240,9 +257,9 @@ const NotificationsDropdown = () => {
         <div className="flex items-center justify-between px-4 py-3 border-b dark:border-gray-700">
           <h3 className="font-semibold text-sm text-gray-800 dark:text-gray-200">
             Notifications
-            {notifications.length > 0 && (
+            {badgeCount > 0 && (
               <span className="ml-2 text-xs bg-gray-100 dark:bg-gray-800 px-2 py-0.5 rounded-full">
-                {notifications.length}
+                {badgeCount}
               </span>
             )}
           </h3>
@@ -35,6 +35,7 @@ import { Input } from "@/components/ui/input";
 import { Separator } from "@/components/ui/separator";
 import { useImageCropper } from "@/hooks/use-image-cropper";
 import { useAppClientTranslations } from "@/hooks/use-translations";
+import { waitForImageDerivatives } from "@/lib/actions/entity-attachments.action";
 import {
   changePassword,
   findUserById,
@@ -106,8 +107,17 @@ export const ProfileForm = () => {
     // Update user and get the updated user data
     const updatedUser = await updateUser(formData, setError);
 
+    // The avatar is converted in the background, it is dropped when that fails
+    const avatarFailed =
+      !!selectedFile &&
+      !!updatedUser?.imageUrl &&
+      (await waitForImageDerivatives(updatedUser.imageUrl)) === "FAILED";
+    if (avatarFailed) {
+      toast.error(t.common.upload("image_conversion_failed"));
+    }
+
     // Handle avatar URL update with cache busting
-    if (selectedFile && updatedUser?.imageUrl) {
+    if (selectedFile && updatedUser?.imageUrl && !avatarFailed) {
       try {
         // Get the base URL without any query parameters
         const baseImageUrl = updatedUser.imageUrl.split("?")[0];
@@ -5,6 +5,7 @@ import { Loader2 } from "lucide-react";
 import { useRouter } from "next/navigation";
 import React, { useEffect, useState } from "react";
 import { useForm } from "react-hook-form";
+import { toast } from "sonner";
 
 import { Breadcrumbs } from "@/components/breadcrumbs";
 import { Heading } from "@/components/heading";
@@ -26,6 +27,7 @@ import {
 } from "@/components/ui/tooltip";
 import { useImageCropper } from "@/hooks/use-image-cropper";
 import { useAppClientTranslations } from "@/hooks/use-translations";
+import { waitForImageDerivatives } from "@/lib/actions/entity-attachments.action";
 import {
   createTeam,
   findTeamById,
@@ -104,15 +106,24 @@ export const TeamForm = ({ teamId }: { teamId: number | undefined }) => {
       }
 
       let redirectTeamId;
+      let savedTeam: TeamDTO;
       if (formValues.id) {
         // Edit mode
         redirectTeamId = formValues.id;
-        await updateTeam(formData, setError);
+        savedTeam = await updateTeam(formData, setError);
       } else {
         // Create mode
-        await createTeam(formData, setError).then(
-          (data) => (redirectTeamId = data.id),
-        );
+        savedTeam = await createTeam(formData, setError);
+        redirectTeamId = savedTeam.id;
+      }
+
+      // The logo is converted in the background, it is dropped when that fails
+      if (
+        selectedFile &&
+        savedTeam?.logoUrl &&
+        (await waitForImageDerivatives(savedTeam.logoUrl)) === "FAILED"
+      ) {
+        toast.error(t.common.upload("image_conversion_failed"));
       }
 
       router.push(`/portal/teams/${obfuscate(redirectTeamId)}/dashboard`);
@@ -3,7 +3,7 @@ import { useSession } from "next-auth/react";
 import { useEffect, useState } from "react";
 
 import { BASE_URL } from "@/lib/constants";
-import { NotificationDTO } from "@/types/commons";
+import { NotificationDTO, UnreadNotificationSummary } from "@/types/commons";
 
 const useWebSocket = () => {
   const { data: session } = useSession();
@@ -11,6 +11,8 @@ const useWebSocket = () => {
   const userId = session?.user?.id || null;
 
   const [notifications, setNotifications] = useState<NotificationDTO[]>([]);
+  const [unreadSummary, setUnreadSummary] =
+    useState<UnreadNotificationSummary | null>(null);
   const [client, setClient] = useState<Client | null>(null);
 
   useEffect(() => {
@@ -35,8 +37,26 @@ const useWebSocket = () => {
           `/user/${userId}/queue/notifications`,
           (message) => {
             try {
-              const notification: NotificationDTO = JSON.parse(message.body);
-              setNotifications((prev) => [...prev, notification]);
+              const payload = JSON.parse(message.body);
+              // Unread summaries share this channel with single notifications
+              if ("unreadCount" in payload) {
+                setUnreadSummary(payload as UnreadNotificationSummary);
+              } else {
+                const notification: NotificationDTO = payload;
+                setNotifications((prev) => [...prev, notification]);
+              }
+            } catch (error) {
+              console.error("❌ Error parsing WebSocket message:", error);
+            }
+          },
+        );
+
+        stompClient.subscribe(
+          `/user/${userId}/queue/notifications-batch`,
+          (message) => {
+            try {
+              const batch: NotificationDTO[] = JSON.parse(message.body);
+              setNotifications((prev) => [...prev, ...batch]);
             } catch (error) {
               console.error("❌ Error parsing WebSocket message:", error);
             }
@@ -57,7 +77,7 @@ const useWebSocket = () => {
     };
   }, [userId, token]);
 
-  return { notifications, setNotifications };
+  return { notifications, setNotifications, unreadSummary };
 };
 
 export default useWebSocket;
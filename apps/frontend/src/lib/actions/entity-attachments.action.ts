@@ -1,6 +1,10 @@
 import { deleteExec, get, post } from "@/lib/actions/commons.action";
 import { HttpError } from "@/lib/errors";
-import { EntityAttachmentDTO, EntityType } from "@/types/commons";
+import {
+  EntityAttachmentDTO,
+  EntityType,
+  ImageDerivativeStatusDTO,
+} from "@/types/commons";
 
 export const uploadAttachmentsForEntity = async (
   entityType: EntityType,
@@ -35,3 +39,40 @@ export const deleteEntityAttachment = async (
 ) => {
   return deleteExec(`/api/entity-attachments/${attachmentId}`, setError);
 };
+
+export const getImageDerivativeStatus = async (
+  path: string,
+  setError?: (error: HttpError | string | null) => void,
+) => {
+  return get<ImageDerivativeStatusDTO>(
+    `/api/files/derivatives?path=${encodeURIComponent(path)}`,
+    setError,
+  );
+};
+
+/**
+ * Polls the conversion of an uploaded image until it is done. Resolves to
+ * "COMPLETED" when the image is unknown or its status expired.
+ */
+export const waitForImageDerivatives = async (
+  path: string,
+  timeoutMs = 30000,
+  intervalMs = 500,
+): Promise<ImageDerivativeStatusDTO["status"]> => {
+  const deadline = Date.now() + timeoutMs;
+  while (true) {
+    let status: ImageDerivativeStatusDTO["status"];
+    try {
+      status = (await getImageDerivativeStatus(path)).status;
+    } catch {
+      return "COMPLETED";
+    }
+    if (status === "COMPLETED" || status === "FAILED") {
+      return status;
+    }
+    if (Date.now() >= deadline) {
+      return status;
+    }
+    await new Promise((resolve) => setTimeout(resolve, intervalMs));
+  }
+};
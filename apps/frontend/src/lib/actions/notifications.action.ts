@@ -1,6 +1,10 @@
 import { get, post } from "@/lib/actions/commons.action";
 import { HttpError } from "@/lib/errors";
-import { NotificationDTO, PageableResult } from "@/types/commons";
+import {
+  NotificationDTO,
+  PageableResult,
+  UnreadNotificationSummary,
+} from "@/types/commons";
 
 export async function getUnReadNotificationsByUserId(
   userId: number,
@@ -12,6 +16,16 @@ export async function getUnReadNotificationsByUserId(
   );
 }
 
+export async function getUnreadNotificationSummary(
+  userId: number,
+  setError?: (error: HttpError | string | null) => void,
+) {
+  return get<UnreadNotificationSummary>(
+    `/api/notifications/unread/count?userId=${userId}`,
+    setError,
+  );
+}
+
 export async function markNotificationsAsRead(
   notificationIds: number[],
   setError?: (error: HttpError | string | null) => void,
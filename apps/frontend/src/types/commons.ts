@@ -40,6 +40,12 @@ export type EntityAttachmentDTO = {
   uploadedAt: string;
 };
 
+export type ImageDerivativeStatusDTO = {
+  path: string;
+  thumbnailPath: string;
+  status: "QUEUED" | "PROCESSING" | "COMPLETED" | "FAILED";
+};
+
 export interface EntityValueDefinition {
   value: string;
   description?: string;
@@ -67,6 +73,15 @@ export const NotificationDTOSchema = z.object({
 
 export type NotificationDTO = z.infer<typeof NotificationDTOSchema>;
 
+export const UnreadNotificationSummarySchema = z.object({
+  unreadCount: z.number(),
+  latest: z.array(NotificationDTOSchema),
+});
+
+export type UnreadNotificationSummary = z.infer<
+  typeof UnreadNotificationSummarySchema
+>;
+
 export const CommentDTOSchema = z.object({
   id: z.number().optional(),
   content: z.string().optional(),
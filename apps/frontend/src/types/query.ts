@@ -1,6 +1,6 @@
 import { z } from "zod";
 
-export type Operator = "gt" | "lt" | "eq" | "ne" | "in" | "lk";
+export type Operator = "gt" | "lt" | "eq" | "ne" | "in" | "lk" | "ts";
 
 export type Filter = {
   field: string;
@@ -29,7 +29,7 @@ export type Pagination = {
 // Zod schema for filters
 const filterSchema = z.object({
   field: z.string(),
-  operator: z.enum(["eq", "ne", "gt", "lt", "lk", "in"]),
+  operator: z.enum(["eq", "ne", "gt", "lt", "lk", "in", "ts"]),
   value: z.union([
     z.string(),
     z.number(),